@@ -22,6 +22,7 @@ package org.codehaus.cargo.container.deployer;
 import java.net.URL;
 
 import org.codehaus.cargo.container.internal.util.HttpUtils;
+import org.codehaus.cargo.util.log.LogLevel;
 
 /**
  * Monitor that verifies if a {@link org.codehaus.cargo.container.deployable.Deployable} is deployed
@@ -93,8 +94,13 @@ public class URLDeployableMonitor extends AbstractDeployableMonitor
     @Override
     public void monitor()
     {
-        getLogger().debug("Checking URL [" + this.pingURL + "] for status using a timeout of ["
-            + getTimeout() + "] ms...", this.getClass().getName());
+        // This is polled until the deployable is deployed, so only build messages which get logged
+        boolean debug = isLogged(LogLevel.DEBUG);
+        if (debug)
+        {
+            getLogger().debug("Checking URL [" + this.pingURL + "] for status using a timeout of ["
+                + getTimeout() + "] ms...", this.getClass().getName());
+        }
 
         // We check if the deployable is servicing requests by pinging a URL specified by the user
         HttpUtils.HttpResult results = new HttpUtils.HttpResult();
@@ -104,16 +110,19 @@ public class URLDeployableMonitor extends AbstractDeployableMonitor
             isDeployed = results.responseBody.contains(this.contains);
         }
 
-        String msg = "URL [" + this.pingURL + "] is ";
-        if (isDeployed)
-        {
-            msg += "responding...";
-        }
-        else
+        if (debug)
         {
-            msg += "not responding: " + results.responseCode + " " + results.responseMessage;
+            String msg = "URL [" + this.pingURL + "] is ";
+            if (isDeployed)
+            {
+                msg += "responding...";
+            }
+            else
+            {
+                msg += "not responding: " + results.responseCode + " " + results.responseMessage;
+            }
+            getLogger().debug(msg, this.getClass().getName());
         }
-        getLogger().debug(msg, this.getClass().getName());
 
         notifyListeners(isDeployed);
     }
@@ -0,0 +1,160 @@
+/*
+ * ========================================================================
+ *
+ * Codehaus CARGO, copyright 2004-2011 Vincent Massol, 2012-2018 Ali Tokmen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * ========================================================================
+ */
+package org.codehaus.cargo.container.internal.http;
+
+import java.lang.reflect.InvocationTargetException;
+import java.net.Authenticator;
+import java.net.HttpURLConnection;
+import java.net.PasswordAuthentication;
+import java.net.URL;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.codehaus.cargo.container.internal.util.MethodBinding;
+
+/**
+ * Supplies the credentials of HTTP connections, so that clients of different servers running in
+ * the same JVM do not overwrite each other's credentials the way
+ * {@link Authenticator#setDefault(Authenticator)} does. On Java 9 and above, the credentials are
+ * set on each connection. Before, one default authenticator is registered once, which looks up
+ * the credentials registered for the protocol, host and port requesting authentication.
+ */
+public final class ConnectionAuthenticator extends Authenticator
+{
+    /**
+     * Credentials registered for the default authenticator, keyed by protocol, host and port.
+     */
+    private static final ConcurrentMap<String, PasswordAuthentication> CREDENTIALS =
+        new ConcurrentHashMap<String, PasswordAuthentication>();
+
+    /**
+     * Whether the default authenticator has been registered.
+     */
+    private static boolean registered;
+
+    /**
+     * Credentials of a single connection, <code>null</code> for the default authenticator.
+     */
+    private final PasswordAuthentication credentials;
+
+    /**
+     * @param credentials Credentials of a single connection, <code>null</code> for the default
+     * authenticator.
+     */
+    private ConnectionAuthenticator(PasswordAuthentication credentials)
+    {
+        this.credentials = credentials;
+    }
+
+    /**
+     * Sets the credentials of a connection. Must be called before the connection is connected.
+     * 
+     * @param connection Connection to authenticate.
+     * @param username User name.
+     * @param password Password, <code>null</code> for none.
+     */
+    public static void authenticate(HttpURLConnection connection, String username,
+        String password)
+    {
+        char[] passwordChars;
+        if (password == null)
+        {
+            passwordChars = new char[0];
+        }
+        else
+        {
+            passwordChars = password.toCharArray();
+        }
+        PasswordAuthentication credentials = new PasswordAuthentication(username, passwordChars);
+
+        try
+        {
+            MethodBinding.bind(HttpURLConnection.class, "setAuthenticator", Authenticator.class)
+                .invoke(connection, new ConnectionAuthenticator(credentials));
+            return;
+        }
+        catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e)
+        {
+            // Before Java 9, go through the default authenticator
+        }
+
+        CREDENTIALS.put(getKey(connection.getURL().getProtocol(), connection.getURL().getHost(),
+            getPort(connection.getURL())), credentials);
+        registerDefault();
+    }
+
+    /**
+     * Registers the default authenticator looking up the registered credentials, if not done yet.
+     */
+    private static synchronized void registerDefault()
+    {
+        if (!registered)
+        {
+            Authenticator.setDefault(new ConnectionAuthenticator(null));
+            registered = true;
+        }
+    }
+
+    /**
+     * @param url URL.
+     * @return Port of the URL, the default port of its protocol if none.
+     */
+    private static int getPort(URL url)
+    {
+        if (url.getPort() == -1)
+        {
+            return url.getDefaultPort();
+        }
+        return url.getPort();
+    }
+
+    /**
+     * @param protocol Protocol.
+     * @param host Host name.
+     * @param port Port.
+     * @return Key of the credentials of servers at that address.
+     */
+    private static String getKey(String protocol, String host, int port)
+    {
+        return protocol.toLowerCase() + "://" + host.toLowerCase() + ":" + port;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected PasswordAuthentication getPasswordAuthentication()
+    {
+        if (this.credentials != null)
+        {
+            return this.credentials;
+        }
+        if (getRequestorType() != RequestorType.SERVER || getRequestingHost() == null)
+        {
+            return null;
+        }
+        int port = getRequestingPort();
+        if (port == -1 && getRequestingURL() != null)
+        {
+            port = getPort(getRequestingURL());
+        }
+        return CREDENTIALS.get(getKey(getRequestingProtocol(), getRequestingHost(), port));
+    }
+}
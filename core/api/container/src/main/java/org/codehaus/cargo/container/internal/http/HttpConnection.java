@@ -41,6 +41,7 @@ import javax.net.ssl.TrustManager;
 import javax.net.ssl.X509TrustManager;
 
 import org.codehaus.cargo.util.Base64;
+import org.codehaus.cargo.util.log.LogLevel;
 import org.codehaus.cargo.util.log.LoggedObject;
 
 /**
@@ -226,8 +227,11 @@ public class HttpConnection extends LoggedObject
 
                     connection.setRequestProperty(key, value);
 
-                    getLogger().debug("Added property [" + key + "] = [" + value + "]",
-                        this.getClass().getName());
+                    if (isLogged(LogLevel.DEBUG))
+                    {
+                        getLogger().debug("Added property [" + key + "] = [" + value + "]",
+                            this.getClass().getName());
+                    }
                 }
             }
 
@@ -267,8 +271,11 @@ public class HttpConnection extends LoggedObject
             result.setResponseMessage(e.toString());
         }
 
-        getLogger().debug("Called [" + url + "], result = [" + result.getResponseCode() + "]",
-            this.getClass().getName());
+        if (isLogged(LogLevel.DEBUG))
+        {
+            getLogger().debug("Called [" + url + "], result = [" + result.getResponseCode()
+                + "]", this.getClass().getName());
+        }
 
         return result;
     }
@@ -0,0 +1,280 @@
+/*
+ * ========================================================================
+ *
+ * Codehaus CARGO, copyright 2004-2011 Vincent Massol, 2012-2018 Ali Tokmen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * ========================================================================
+ */
+package org.codehaus.cargo.container.internal.util;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Cache of the major versions of the JVMs used to run containers, shared by all containers of
+ * the current JVM. Entries are keyed by the canonical path of the <code>java</code> executable
+ * and its modification time, so that an upgraded JVM gets detected again. The version is read
+ * from the <code>release</code> file of the Java home when there is one; else the JVM is probed.
+ * Probed versions are also persisted to the properties file named by the
+ * {@link #CACHE_FILE_PROPERTY} system property, if set, to be reused by later builds.
+ */
+public final class JvmVersionCache
+{
+    /**
+     * Probes the version of a JVM, typically by running <code>java -version</code>.
+     */
+    public interface VersionProbe
+    {
+        /**
+         * @return JVM version string, for example <code>1.8.0_292</code> or <code>11.0.2</code>.
+         * @throws IOException If the version cannot be read.
+         */
+        String probeVersion() throws IOException;
+    }
+
+    /**
+     * System property naming the file the probed versions are persisted to. If not set, versions
+     * are only cached for the lifetime of the current JVM.
+     */
+    public static final String CACHE_FILE_PROPERTY = "cargo.jvm.versions.file";
+
+    /**
+     * Shared instance, persisted to the file named by {@link #CACHE_FILE_PROPERTY}.
+     */
+    private static final JvmVersionCache INSTANCE = new JvmVersionCache(getCacheFile());
+
+    /**
+     * File the probed versions are persisted to, <code>null</code> to not persist them.
+     */
+    private final File cacheFile;
+
+    /**
+     * Major versions, indexed by executable path and modification time.
+     */
+    private final Map<String, Integer> versions = new HashMap<String, Integer>();
+
+    /**
+     * Whether {@link #cacheFile} has been loaded.
+     */
+    private boolean loaded;
+
+    /**
+     * @param cacheFile File the probed versions are persisted to, <code>null</code> to not
+     * persist them.
+     */
+    JvmVersionCache(File cacheFile)
+    {
+        this.cacheFile = cacheFile;
+    }
+
+    /**
+     * @return File named by {@link #CACHE_FILE_PROPERTY}, <code>null</code> if not set.
+     */
+    private static File getCacheFile()
+    {
+        String cacheFile = System.getProperty(CACHE_FILE_PROPERTY);
+        if (cacheFile == null || cacheFile.trim().isEmpty())
+        {
+            return null;
+        }
+        return new File(cacheFile.trim());
+    }
+
+    /**
+     * @return Cache shared by all containers of the current JVM.
+     */
+    public static JvmVersionCache getInstance()
+    {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the major version of a JVM, probing it only if it is neither cached nor given by the
+     * <code>release</code> file of its Java home.
+     * 
+     * @param javaHome Java home directory.
+     * @param javaExecutable Path of the <code>java</code> executable.
+     * @param probe Probe to use if the version is not known.
+     * @return Major JVM version.
+     * @throws IOException If the probe fails.
+     */
+    public synchronized int getMajorVersion(String javaHome, String javaExecutable,
+        VersionProbe probe) throws IOException
+    {
+        File executable = new File(javaExecutable);
+        String key;
+        try
+        {
+            key = executable.getCanonicalPath();
+        }
+        catch (IOException e)
+        {
+            key = executable.getAbsolutePath();
+        }
+        key = key + "|" + executable.lastModified();
+
+        Integer version = versions.get(key);
+        if (version == null && !loaded)
+        {
+            load();
+            version = versions.get(key);
+        }
+        if (version == null)
+        {
+            version = readReleaseFile(javaHome);
+            if (version == null)
+            {
+                version = JdkUtils.parseMajorJavaVersion(probe.probeVersion());
+                versions.put(key, version);
+                save();
+            }
+            else
+            {
+                versions.put(key, version);
+            }
+        }
+        return version;
+    }
+
+    /**
+     * Reads the major Java version from the <code>release</code> file of a Java home, also
+     * looking in the parent directory if the Java home is the <code>jre</code> directory of a
+     * JDK.
+     * 
+     * @param javaHome Java home directory.
+     * @return Major Java version, <code>null</code> if there is no readable release file.
+     */
+    static Integer readReleaseFile(String javaHome)
+    {
+        File home = new File(javaHome);
+        File release = new File(home, "release");
+        if (!release.isFile() && "jre".equals(home.getName()) && home.getParentFile() != null)
+        {
+            release = new File(home.getParentFile(), "release");
+        }
+        if (!release.isFile())
+        {
+            return null;
+        }
+
+        try (BufferedReader reader = new BufferedReader(new FileReader(release)))
+        {
+            String line;
+            while ((line = reader.readLine()) != null)
+            {
+                if (line.startsWith("JAVA_VERSION="))
+                {
+                    return JdkUtils.parseMajorJavaVersion(
+                        line.substring("JAVA_VERSION=".length()).trim());
+                }
+            }
+        }
+        catch (IOException|NumberFormatException e)
+        {
+            // Unreadable release file, the JVM will be probed
+        }
+        return null;
+    }
+
+    /**
+     * Loads the persisted versions, ignoring any error.
+     */
+    private void load()
+    {
+        loaded = true;
+        if (cacheFile == null || !cacheFile.isFile())
+        {
+            return;
+        }
+
+        Properties properties = new Properties();
+        try (InputStream is = new FileInputStream(cacheFile))
+        {
+            properties.load(is);
+        }
+        catch (IOException e)
+        {
+            return;
+        }
+        for (String key : properties.stringPropertyNames())
+        {
+            try
+            {
+                versions.put(key, Integer.valueOf(properties.getProperty(key)));
+            }
+            catch (NumberFormatException e)
+            {
+                // Ignore corrupted entry
+            }
+        }
+    }
+
+    /**
+     * Persists the versions, ignoring any error as the cache is only an optimization. The file is
+     * written aside and then moved, so that concurrent builds never read a partial file.
+     */
+    private void save()
+    {
+        if (cacheFile == null)
+        {
+            return;
+        }
+
+        Properties properties = new Properties();
+        for (Map.Entry<String, Integer> version : versions.entrySet())
+        {
+            properties.setProperty(version.getKey(), version.getValue().toString());
+        }
+        File directory = cacheFile.getAbsoluteFile().getParentFile();
+        File tempFile;
+        try
+        {
+            directory.mkdirs();
+            tempFile = File.createTempFile("jvm-versions-", ".tmp", directory);
+        }
+        catch (IOException e)
+        {
+            // Ignored, the version will be probed again next time
+            return;
+        }
+        try
+        {
+            try (OutputStream os = new FileOutputStream(tempFile))
+            {
+                properties.store(os, "Cargo JVM versions cache");
+            }
+            Files.move(tempFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        catch (IOException e)
+        {
+            // Ignored, the version will be probed again next time
+        }
+        finally
+        {
+            tempFile.delete();
+        }
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * ========================================================================
+ *
+ * Codehaus CARGO, copyright 2004-2011 Vincent Massol, 2012-2018 Ali Tokmen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * ========================================================================
+ */
+package org.codehaus.cargo.container.internal.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Method or constructor of a class only known at runtime, typically loaded from the class loader
+ * of an embedded container, bound into a {@link MethodHandle}. Bindings are resolved once per
+ * class, hence once per class loader, so that repeated start, stop and deploy cycles neither look
+ * methods up again nor go through {@link Method#invoke(Object, Object[])}.<br>
+ * <br>
+ * Invocations behave like reflection calls: any exception thrown by the target is wrapped in an
+ * {@link InvocationTargetException}.
+ */
+public final class MethodBinding
+{
+    /**
+     * Bindings already resolved, indexed by class and then by method signature.
+     */
+    private static final ClassValue<ConcurrentMap<String, MethodBinding>> BINDINGS =
+        new ClassValue<ConcurrentMap<String, MethodBinding>>()
+        {
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            protected ConcurrentMap<String, MethodBinding> computeValue(Class<?> type)
+            {
+                return new ConcurrentHashMap<String, MethodBinding>();
+            }
+        };
+
+    /**
+     * Bound method, adapted to take the target object and an array of arguments and to return an
+     * {@link Object}.
+     */
+    private final MethodHandle handle;
+
+    /**
+     * @param handle Bound method, adapted to the <code>(Object, Object[])Object</code> type.
+     */
+    private MethodBinding(MethodHandle handle)
+    {
+        this.handle = handle;
+    }
+
+    /**
+     * Binds a public method, or returns the binding already resolved for it.
+     * 
+     * @param type Class to look the method up in.
+     * @param name Method name.
+     * @param parameterTypes Method parameter types.
+     * @return Method binding.
+     * @throws NoSuchMethodException If there is no such public method.
+     * @throws IllegalAccessException If the method cannot be accessed.
+     */
+    public static MethodBinding bind(Class<?> type, String name, Class<?>... parameterTypes)
+        throws NoSuchMethodException, IllegalAccessException
+    {
+        ConcurrentMap<String, MethodBinding> bindings = BINDINGS.get(type);
+        String signature = getSignature(name, parameterTypes);
+        MethodBinding binding = bindings.get(signature);
+        if (binding == null)
+        {
+            Method method = type.getMethod(name, parameterTypes);
+            MethodHandle handle =
+                spread(MethodHandles.publicLookup().unreflect(method), parameterTypes.length);
+            if (Modifier.isStatic(method.getModifiers()))
+            {
+                handle = MethodHandles.dropArguments(handle, 0, Object.class);
+            }
+            binding = new MethodBinding(handle);
+            bindings.putIfAbsent(signature, binding);
+        }
+        return binding;
+    }
+
+    /**
+     * Binds a public constructor, or returns the binding already resolved for it.
+     * 
+     * @param type Class to instantiate.
+     * @param parameterTypes Constructor parameter types.
+     * @return Constructor binding, to be called using {@link #newInstance(Object[])}.
+     * @throws NoSuchMethodException If there is no such public constructor.
+     * @throws IllegalAccessException If the constructor cannot be accessed.
+     */
+    public static MethodBinding bindConstructor(Class<?> type, Class<?>... parameterTypes)
+        throws NoSuchMethodException, IllegalAccessException
+    {
+        ConcurrentMap<String, MethodBinding> bindings = BINDINGS.get(type);
+        String signature = getSignature("<init>", parameterTypes);
+        MethodBinding binding = bindings.get(signature);
+        if (binding == null)
+        {
+            Constructor<?> constructor = type.getConstructor(parameterTypes);
+            MethodHandle handle = MethodHandles.publicLookup().unreflectConstructor(constructor);
+            binding = new MethodBinding(MethodHandles.dropArguments(
+                spread(handle, parameterTypes.length), 0, Object.class));
+            bindings.putIfAbsent(signature, binding);
+        }
+        return binding;
+    }
+
+    /**
+     * Invokes the bound method.
+     * 
+     * @param target Object to invoke the method on, ignored for static methods.
+     * @param args Method arguments, primitive ones being boxed.
+     * @return Value returned by the method, <code>null</code> for <code>void</code> methods.
+     * @throws InvocationTargetException If the method throws an exception.
+     */
+    public Object invoke(Object target, Object... args) throws InvocationTargetException
+    {
+        try
+        {
+            return (Object) handle.invokeExact(target, args);
+        }
+        catch (Throwable t)
+        {
+            throw new InvocationTargetException(t);
+        }
+    }
+
+    /**
+     * Invokes the bound constructor.
+     * 
+     * @param args Constructor arguments, primitive ones being boxed.
+     * @return Created object.
+     * @throws InvocationTargetException If the constructor throws an exception.
+     */
+    public Object newInstance(Object... args) throws InvocationTargetException
+    {
+        return invoke(null, args);
+    }
+
+    /**
+     * Adapts a method handle to take and return {@link Object}s, its <code>parameterCount</code>
+     * trailing parameters being taken as an array.
+     * 
+     * @param handle Method handle.
+     * @param parameterCount Number of trailing parameters to take as an array.
+     * @return Adapted method handle.
+     */
+    private static MethodHandle spread(MethodHandle handle, int parameterCount)
+    {
+        return handle.asType(MethodType.genericMethodType(handle.type().parameterCount()))
+            .asSpreader(Object[].class, parameterCount);
+    }
+
+    /**
+     * @param name Method name.
+     * @param parameterTypes Method parameter types.
+     * @return Signature identifying the method within its class.
+     */
+    private static String getSignature(String name, Class<?>[] parameterTypes)
+    {
+        StringBuilder signature = new StringBuilder(name);
+        signature.append('(');
+        for (Class<?> parameterType : parameterTypes)
+        {
+            signature.append(parameterType.getName());
+            signature.append(',');
+        }
+        signature.append(')');
+        return signature.toString();
+    }
+}
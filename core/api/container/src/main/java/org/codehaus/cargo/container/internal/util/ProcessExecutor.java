@@ -0,0 +1,416 @@
+/*
+ * ========================================================================
+ *
+ * Codehaus CARGO, copyright 2004-2011 Vincent Massol, 2012-2018 Ali Tokmen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * ========================================================================
+ */
+package org.codehaus.cargo.container.internal.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.StringTokenizer;
+import java.util.concurrent.TimeUnit;
+
+import org.codehaus.cargo.util.CargoException;
+import org.codehaus.cargo.util.log.LoggedObject;
+import org.codehaus.cargo.util.log.Logger;
+
+/**
+ * Executes administration tools and other shell commands as processes. The standard error of the
+ * process is merged into its standard output, which a daemon thread pumps line by line to the
+ * logger while the calling thread waits for the process to exit. Lines are bounded in length and
+ * only the last lines of output are retained for error reporting.<br>
+ * <br>
+ * Waiting ends when the process exits, not when its output is closed: a child of the process,
+ * such as the JVM started by a shell script, may keep the output open long after the process has
+ * exited. The remaining output is then left to the pump thread, which ends once the output gets
+ * closed.
+ */
+public class ProcessExecutor extends LoggedObject
+{
+    /**
+     * Callback notified when a process has exited.
+     */
+    public interface ExitHandler
+    {
+        /**
+         * @param exitCode Exit code of the process.
+         * @param lastLines Last lines the process has output, at most
+         * {@link ProcessExecutor#setMaxBufferedLines(int)} of them.
+         */
+        void processExited(int exitCode, List<String> lastLines);
+    }
+
+    /**
+     * Default number of output lines retained.
+     */
+    private static final int DEFAULT_MAX_BUFFERED_LINES = 100;
+
+    /**
+     * Maximum length of an output line, longer lines are split.
+     */
+    private static final int MAX_LINE_LENGTH = 65536;
+
+    /**
+     * Time given to the pump thread to read the output written just before the process has exited,
+     * in milliseconds.
+     */
+    private static final long OUTPUT_GRACE_PERIOD = 1000;
+
+    /**
+     * Interval at which the exit of a process is checked when waiting with a timeout on Java 7,
+     * which cannot wait for a process with a timeout, in milliseconds.
+     */
+    private static final long EXIT_CHECK_INTERVAL = 100;
+
+    /**
+     * <code>Process.waitFor(long, TimeUnit)</code>, <code>null</code> before Java 8.
+     */
+    private static final MethodBinding WAIT_FOR_WITH_TIMEOUT = bindWaitForWithTimeout();
+
+    /**
+     * Maximum time to wait for a process, in milliseconds, 0 for no limit.
+     */
+    private long timeout;
+
+    /**
+     * Number of output lines retained.
+     */
+    private int maxBufferedLines = DEFAULT_MAX_BUFFERED_LINES;
+
+    /**
+     * @param logger Logger.
+     */
+    public ProcessExecutor(Logger logger)
+    {
+        setLogger(logger);
+    }
+
+    /**
+     * @param timeout Maximum time to wait for a process, in milliseconds, 0 for no limit. A process
+     * still running after that time is destroyed.
+     */
+    public void setTimeout(long timeout)
+    {
+        this.timeout = timeout;
+    }
+
+    /**
+     * @param maxBufferedLines Number of output lines retained for the {@link ExitHandler} and for
+     * error messages.
+     */
+    public void setMaxBufferedLines(int maxBufferedLines)
+    {
+        this.maxBufferedLines = maxBufferedLines;
+    }
+
+    /**
+     * Execute command and wait for process to end. The command is split on whitespace, as done by
+     * {@link Runtime#exec(String)}.
+     *
+     * @param cmd Command to be executed.
+     * @return Exit code of the process.
+     */
+    public int executeAndWait(String cmd)
+    {
+        StringTokenizer tokenizer = new StringTokenizer(cmd);
+        List<String> command = new ArrayList<String>();
+        while (tokenizer.hasMoreTokens())
+        {
+            command.add(tokenizer.nextToken());
+        }
+        return executeAndWait(command, null);
+    }
+
+    /**
+     * Execute command and wait for process to end.
+     *
+     * @param command Command to be executed, followed by its arguments.
+     * @param exitHandler Handler notified once the process has exited, may be <code>null</code>.
+     * @return Exit code of the process.
+     */
+    public int executeAndWait(List<String> command, ExitHandler exitHandler)
+    {
+        ProcessBuilder processBuilder = new ProcessBuilder(command);
+        processBuilder.redirectErrorStream(true);
+
+        Process process;
+        try
+        {
+            process = processBuilder.start();
+        }
+        catch (IOException e)
+        {
+            throw new CargoException("Error invoking command " + command, e);
+        }
+
+        long deadline = Long.MAX_VALUE;
+        if (this.timeout > 0)
+        {
+            deadline = System.currentTimeMillis() + this.timeout;
+        }
+
+        OutputPump pump = new OutputPump(process.getInputStream());
+        Thread pumpThread = new Thread(pump, "cargo-process-output");
+        pumpThread.setDaemon(true);
+        int exitCode;
+        try
+        {
+            process.getOutputStream().close();
+            pumpThread.start();
+
+            if (!waitFor(process, pumpThread, deadline))
+            {
+                process.destroy();
+                pumpThread.join(OUTPUT_GRACE_PERIOD);
+                throw new CargoException("Command " + command + " did not complete within "
+                    + this.timeout + " ms, last output: " + pump.getLastLines());
+            }
+            exitCode = process.exitValue();
+
+            pumpThread.join(OUTPUT_GRACE_PERIOD);
+            if (pumpThread.isAlive())
+            {
+                getLogger().debug("Command " + command + " has exited but its output is still "
+                    + "open, probably held by a child process", this.getClass().getName());
+            }
+        }
+        catch (IOException e)
+        {
+            process.destroy();
+            throw new CargoException("Error invoking command " + command, e);
+        }
+        catch (InterruptedException e)
+        {
+            process.destroy();
+            Thread.currentThread().interrupt();
+            throw new CargoException("Interrupted while waiting for command " + command, e);
+        }
+
+        getLogger().debug("Command " + command + " exited with code " + exitCode,
+            this.getClass().getName());
+        if (exitHandler != null)
+        {
+            exitHandler.processExited(exitCode, pump.getLastLines());
+        }
+        return exitCode;
+    }
+
+    /**
+     * Waits for a process to exit.
+     *
+     * @param process Process.
+     * @param pumpThread Thread pumping the output of the process.
+     * @param deadline Time after which to give up, in milliseconds since the epoch.
+     * @return <code>true</code> if the process has exited, <code>false</code> if the deadline has
+     * passed.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    private static boolean waitFor(Process process, Thread pumpThread, long deadline)
+        throws InterruptedException
+    {
+        if (deadline == Long.MAX_VALUE)
+        {
+            process.waitFor();
+            return true;
+        }
+
+        while (!hasExited(process))
+        {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0)
+            {
+                return false;
+            }
+            if (WAIT_FOR_WITH_TIMEOUT != null)
+            {
+                try
+                {
+                    WAIT_FOR_WITH_TIMEOUT.invoke(process, remaining, TimeUnit.MILLISECONDS);
+                }
+                catch (InvocationTargetException e)
+                {
+                    if (e.getCause() instanceof InterruptedException)
+                    {
+                        throw (InterruptedException) e.getCause();
+                    }
+                    throw new CargoException("Cannot wait for process", e.getCause());
+                }
+            }
+            else
+            {
+                // The output normally gets closed when the process exits
+                pumpThread.join(Math.min(remaining, EXIT_CHECK_INTERVAL));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param process Process.
+     * @return <code>true</code> if <code>process</code> has exited.
+     */
+    private static boolean hasExited(Process process)
+    {
+        try
+        {
+            process.exitValue();
+            return true;
+        }
+        catch (IllegalThreadStateException e)
+        {
+            return false;
+        }
+    }
+
+    /**
+     * @return Binding of <code>Process.waitFor(long, TimeUnit)</code>, <code>null</code> if the
+     * JVM does not have it.
+     */
+    private static MethodBinding bindWaitForWithTimeout()
+    {
+        try
+        {
+            return MethodBinding.bind(Process.class, "waitFor", long.class, TimeUnit.class);
+        }
+        catch (NoSuchMethodException e)
+        {
+            return null;
+        }
+        catch (IllegalAccessException e)
+        {
+            return null;
+        }
+    }
+
+    /**
+     * Pumps the output of a process, line by line, to the logger and retains its last lines.
+     */
+    private class OutputPump implements Runnable
+    {
+        /**
+         * Output of the process.
+         */
+        private final InputStream output;
+
+        /**
+         * Last lines retained, guarded by itself.
+         */
+        private final Deque<String> lastLines = new ArrayDeque<String>();
+
+        /**
+         * @param output Output of the process.
+         */
+        public OutputPump(InputStream output)
+        {
+            this.output = output;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void run()
+        {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            try
+            {
+                int read;
+                while ((read = this.output.read(buffer)) != -1)
+                {
+                    for (int i = 0; i < read; i++)
+                    {
+                        if (buffer[i] == '\n' || line.size() >= MAX_LINE_LENGTH)
+                        {
+                            addLine(line);
+                        }
+                        if (buffer[i] != '\n')
+                        {
+                            line.write(buffer[i]);
+                        }
+                    }
+                }
+            }
+            catch (IOException e)
+            {
+                getLogger().debug("Error reading process output: " + e,
+                    ProcessExecutor.class.getName());
+            }
+            finally
+            {
+                addLine(line);
+                try
+                {
+                    this.output.close();
+                }
+                catch (IOException e)
+                {
+                    // Ignored
+                }
+            }
+        }
+
+        /**
+         * @return Copy of the last lines retained.
+         */
+        public List<String> getLastLines()
+        {
+            synchronized (this.lastLines)
+            {
+                return new ArrayList<String>(this.lastLines);
+            }
+        }
+
+        /**
+         * Logs and retains a line of output, then resets the line buffer.
+         *
+         * @param line Line buffer, ignored if empty.
+         */
+        private void addLine(ByteArrayOutputStream line)
+        {
+            if (line.size() == 0)
+            {
+                return;
+            }
+            String text = line.toString();
+            if (text.endsWith("\r"))
+            {
+                text = text.substring(0, text.length() - 1);
+            }
+            line.reset();
+
+            getLogger().debug(text, ProcessExecutor.class.getName());
+            if (maxBufferedLines > 0)
+            {
+                synchronized (this.lastLines)
+                {
+                    if (this.lastLines.size() == maxBufferedLines)
+                    {
+                        this.lastLines.removeFirst();
+                    }
+                    this.lastLines.addLast(text);
+                }
+            }
+        }
+    }
+}
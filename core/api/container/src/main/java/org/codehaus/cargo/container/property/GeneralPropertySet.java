@@ -81,6 +81,14 @@ public interface GeneralPropertySet
      */
     String IGNORE_NON_EXISTING_PROPERTIES = "cargo.standalone.ignoreNonExistingProperties";
 
+    /**
+     * Specify if CARGO should reuse the directory of a standalone configuration as is when it has
+     * already been generated with exactly the same configuration, instead of recreating it. When
+     * reused, the configuration directory is not touched at all: files modified or removed in it
+     * since it was generated are not restored.
+     */
+    String REUSE_CONFIGURATION = "cargo.standalone.reuseConfiguration";
+
     /**
      * The port offset to apply to the container ports.
      */
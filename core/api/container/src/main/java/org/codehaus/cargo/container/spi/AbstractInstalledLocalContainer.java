@@ -42,10 +42,12 @@ import org.codehaus.cargo.container.configuration.LocalConfiguration;
 import org.codehaus.cargo.container.deployable.Deployable;
 import org.codehaus.cargo.container.internal.util.HttpUtils;
 import org.codehaus.cargo.container.internal.util.JdkUtils;
+import org.codehaus.cargo.container.internal.util.JvmVersionCache;
 import org.codehaus.cargo.container.internal.util.ResourceUtils;
 import org.codehaus.cargo.container.property.GeneralPropertySet;
 import org.codehaus.cargo.container.property.SSHPropertySet;
 import org.codehaus.cargo.container.spi.jvm.DefaultJvmLauncherFactory;
+import org.codehaus.cargo.container.spi.jvm.ExitAwareJvmLauncher;
 import org.codehaus.cargo.container.spi.jvm.JvmLauncher;
 import org.codehaus.cargo.container.spi.jvm.JvmLauncherFactory;
 import org.codehaus.cargo.container.spi.jvm.JvmLauncherRequest;
@@ -317,6 +319,23 @@ public abstract class AbstractInstalledLocalContainer extends AbstractLocalConta
         }
     }
 
+    /**
+     * Returns as soon as the container JVM has exited, if its launcher is notified of it.
+     * {@inheritDoc}
+     */
+    @Override
+    protected void waitForProcessExit(long millis) throws InterruptedException
+    {
+        if (jvmStartLauncher instanceof ExitAwareJvmLauncher)
+        {
+            ((ExitAwareJvmLauncher) jvmStartLauncher).waitForExit(millis);
+        }
+        else
+        {
+            super.waitForProcessExit(millis);
+        }
+    }
+
     /**
      * Creates a preinitialized instance of a JVM launcher to be used for starting, stopping and
      * controlling the container.
@@ -333,70 +352,7 @@ public abstract class AbstractInstalledLocalContainer extends AbstractLocalConta
 
         if (jvmMajorVersion == -1)
         {
-            JvmLauncherRequest request = new JvmLauncherRequest(false, this, ssh);
-            JvmLauncher java = jvmLauncherFactory.createJvmLauncher(request);
-            if (ssh)
-            {
-                addSshProperties(java);
-            }
-            setJvmToLaunchContainerIn(java);
-
-            // Read the real JVM version
-            BufferedReader br = null;
-            String jvmVersion;
-            try
-            {
-                File jvmVersionFile = File.createTempFile("cargo-jvm-version-", ".txt");
-                java.setOutputFile(jvmVersionFile);
-                java.setAppendOutput(true);
-                java.setMainClass("-version");
-
-                // We need to use java.start and not java.execute since the latter, which calls
-                // org.apache.tools.ant.taskdefs.Java.executeJava() method, doesn't set up
-                // stderr / stdout properly
-                java.start();
-
-                // Give 15 seconds to read the version
-                for (int i = 0; i < 150; i++)
-                {
-                    if (jvmVersionFile.length() > 0)
-                    {
-                        break;
-                    }
-                    Thread.sleep(100);
-                }
-                br = new BufferedReader(new FileReader(jvmVersionFile));
-                jvmVersion = br.readLine();
-                if (jvmVersion != null && jvmVersion.startsWith("java version \""))
-                {
-                    jvmVersion = jvmVersion.substring(jvmVersion.indexOf('"') + 1);
-                }
-                else
-                {
-                    throw new IOException("Can't read JVM version from line: " + jvmVersion);
-                }
-            }
-            catch (Throwable t)
-            {
-                jvmVersion = System.getProperty("java.version");
-            }
-            finally
-            {
-                if (br != null)
-                {
-                    try
-                    {
-                        br.close();
-                    }
-                    catch (IOException ignored)
-                    {
-                        // Ignored
-                    }
-                    br = null;
-                    System.gc();
-                }
-            }
-            jvmMajorVersion = JdkUtils.parseMajorJavaVersion(jvmVersion);
+            jvmMajorVersion = getJvmMajorVersion(ssh);
         }
 
         JvmLauncherRequest request = new JvmLauncherRequest(server, this, ssh, spawned);
@@ -490,6 +446,123 @@ public abstract class AbstractInstalledLocalContainer extends AbstractLocalConta
         }
     }
 
+    /**
+     * Determines the major version of the JVM which will run the container. Local JVMs are looked
+     * up in the {@link JvmVersionCache} shared by all containers, so that they only get probed
+     * once; remote JVMs are probed every time.
+     * 
+     * @param ssh Whether the container is launched over SSH.
+     * @return Major JVM version, the one of the current JVM if it cannot be determined.
+     */
+    private int getJvmMajorVersion(final boolean ssh)
+    {
+        JvmVersionCache.VersionProbe probe = new JvmVersionCache.VersionProbe()
+        {
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public String probeVersion() throws IOException
+            {
+                return probeJvmVersion(ssh);
+            }
+        };
+
+        try
+        {
+            if (ssh)
+            {
+                return JdkUtils.parseMajorJavaVersion(probe.probeVersion());
+            }
+            return JvmVersionCache.getInstance().getMajorVersion(getJavaHome(),
+                getJavaExecutable(), probe);
+        }
+        catch (IOException|RuntimeException e)
+        {
+            getLogger().debug("Cannot determine the JVM version, assuming the current one: "
+                + e.toString(), this.getClass().getName());
+            return JdkUtils.getMajorJavaVersion();
+        }
+    }
+
+    /**
+     * Runs <code>java -version</code> with the JVM which will run the container.
+     * 
+     * @param ssh Whether the container is launched over SSH.
+     * @return JVM version string.
+     * @throws IOException If the version cannot be read.
+     */
+    private String probeJvmVersion(boolean ssh) throws IOException
+    {
+        JvmLauncherRequest request = new JvmLauncherRequest(false, this, ssh);
+        JvmLauncher java = jvmLauncherFactory.createJvmLauncher(request);
+        if (ssh)
+        {
+            addSshProperties(java);
+        }
+        setJvmToLaunchContainerIn(java);
+
+        File jvmVersionFile = File.createTempFile("cargo-jvm-version-", ".txt");
+        try
+        {
+            java.setOutputFile(jvmVersionFile);
+            java.setAppendOutput(true);
+            java.setMainClass("-version");
+
+            // We need to use java.start and not java.execute since the latter, which calls
+            // org.apache.tools.ant.taskdefs.Java.executeJava() method, doesn't set up
+            // stderr / stdout properly
+            java.start();
+
+            // Give 15 seconds to read the version
+            for (int i = 0; i < 150; i++)
+            {
+                if (jvmVersionFile.length() > 0)
+                {
+                    break;
+                }
+                Thread.sleep(100);
+            }
+
+            // The version line may be preceded by other lines, such as "Picked up ..."
+            try (BufferedReader br = new BufferedReader(new FileReader(jvmVersionFile)))
+            {
+                String line;
+                while ((line = br.readLine()) != null)
+                {
+                    int versionStart = line.indexOf(" version \"");
+                    if (versionStart != -1)
+                    {
+                        return line.substring(versionStart + " version \"".length());
+                    }
+                }
+            }
+            throw new IOException("Can't read JVM version from " + jvmVersionFile);
+        }
+        catch (InterruptedException e)
+        {
+            throw new IOException("Interrupted while reading JVM version", e);
+        }
+        finally
+        {
+            jvmVersionFile.delete();
+        }
+    }
+
+    /**
+     * @return Path of the <code>java</code> executable which will run the container.
+     */
+    private String getJavaExecutable()
+    {
+        String binDir = getFileHandler().append(getJavaHome(), "bin");
+        String javaPath = getFileHandler().append(binDir, "java");
+        if (Os.isFamily("windows"))
+        {
+            javaPath += ".exe";
+        }
+        return javaPath;
+    }
+
     /**
      * Gets the Java home directory to use for this container.
      * 
@@ -515,13 +588,7 @@ public abstract class AbstractInstalledLocalContainer extends AbstractLocalConta
         String javaHome = getJavaHome();
         if (javaHome != null)
         {
-            String binDir = getFileHandler().append(javaHome, "bin");
-            String javaPath = getFileHandler().append(binDir, "java");
-            if (Os.isFamily("windows"))
-            {
-                javaPath += ".exe";
-            }
-            java.setJvm(javaPath);
+            java.setJvm(getJavaExecutable());
         }
     }
 
@@ -37,6 +37,7 @@ import org.codehaus.cargo.container.startup.ContainerMonitor;
 import org.codehaus.cargo.util.CargoException;
 import org.codehaus.cargo.util.DefaultFileHandler;
 import org.codehaus.cargo.util.FileHandler;
+import org.codehaus.cargo.util.log.LogLevel;
 
 /**
  * Default container implementation that all local container implementations must extend.
@@ -419,11 +420,23 @@ public abstract class AbstractLocalContainer extends AbstractContainer implement
             }
 
             // Many container do not fully stop even after having destroyed all their sockets;
-            // as a result wait 5 more seconds
-            Thread.sleep(5000);
+            // as a result wait up to 5 more seconds
+            waitForProcessExit(5000);
         }
     }
 
+    /**
+     * Waits for the container process to exit once all its ports are shut down. As the process
+     * cannot be observed here, this implementation waits for the whole delay.
+     * 
+     * @param millis The maximum time to wait, in milliseconds.
+     * @throws InterruptedException If the thread was interrupted while waiting.
+     */
+    protected void waitForProcessExit(long millis) throws InterruptedException
+    {
+        Thread.sleep(millis);
+    }
+
     /**
      * Waits for the shutdown of the specified server port.
      * 
@@ -539,17 +552,25 @@ public abstract class AbstractLocalContainer extends AbstractContainer implement
      */
     private boolean isPortShutdown(int port, int connectTimeout)
     {
+        // This is polled until the port is shut down, so only build messages which get logged
+        boolean debug = isLogged(LogLevel.DEBUG);
         try (Socket s = new Socket())
         {
-            getLogger().debug("\tConnection attempt with socket " + s + ", current time is "
-                + System.currentTimeMillis(), this.getClass().getName());
+            if (debug)
+            {
+                getLogger().debug("\tConnection attempt with socket " + s + ", current time is "
+                    + System.currentTimeMillis(), this.getClass().getName());
+            }
 
             s.bind(null);
 
             // If the remote port is closed, s.connect will throw an exception
             s.connect(new InetSocketAddress("localhost", port), connectTimeout);
-            getLogger().debug("\tSocket " + s + " for port " + port + " managed to connect",
-                this.getClass().getName());
+            if (debug)
+            {
+                getLogger().debug("\tSocket " + s + " for port " + port + " managed to connect",
+                    this.getClass().getName());
+            }
 
             try
             {
@@ -572,8 +593,11 @@ public abstract class AbstractLocalContainer extends AbstractContainer implement
                     this.getClass().getName());
             }
 
-            getLogger().debug("\tSocket " + s + " for port " + port + " shutdown",
-                this.getClass().getName());
+            if (debug)
+            {
+                getLogger().debug("\tSocket " + s + " for port " + port + " shutdown",
+                    this.getClass().getName());
+            }
         }
         catch (IOException ignored)
         {
@@ -582,8 +606,11 @@ public abstract class AbstractLocalContainer extends AbstractContainer implement
         }
         finally
         {
-            getLogger().debug("\tSocket for port " + port + " closed",
-                this.getClass().getName());
+            if (debug)
+            {
+                getLogger().debug("\tSocket for port " + port + " closed",
+                    this.getClass().getName());
+            }
         }
 
         return false;
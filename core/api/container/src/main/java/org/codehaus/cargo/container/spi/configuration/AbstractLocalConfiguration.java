@@ -279,6 +279,13 @@ public abstract class AbstractLocalConfiguration extends AbstractConfiguration i
         parsePropertiesForPendingConfiguration();
         verify();
 
+        if (isUpToDate(container))
+        {
+            getLogger().info("Configuration in [" + getHome() + "] is up to date, reusing it",
+                this.getClass().getName());
+            return;
+        }
+
         try
         {
             doConfigure(container);
@@ -290,6 +297,34 @@ public abstract class AbstractLocalConfiguration extends AbstractConfiguration i
         }
 
         configureFiles(getFilterChain(), container);
+        markUpToDate(container);
+    }
+
+    /**
+     * Checks whether the configuration has already been created with the same settings, in which
+     * case {@link #configure(LocalContainer)} leaves it as is: neither
+     * {@link #doConfigure(LocalContainer)} nor
+     * {@link #configureFiles(FilterChain, LocalContainer)} get called, so any state they would
+     * set up besides the files of the configuration directory is not set up either. This
+     * implementation always returns <code>false</code>.
+     * 
+     * @param container the container to configure
+     * @return <code>true</code> if the configuration does not need to be created again.
+     */
+    protected boolean isUpToDate(LocalContainer container)
+    {
+        return false;
+    }
+
+    /**
+     * Records that the configuration has been created with the current settings, called once
+     * {@link #configure(LocalContainer)} has succeeded. This implementation does nothing.
+     * 
+     * @param container the configured container
+     */
+    protected void markUpToDate(LocalContainer container)
+    {
+        // Nothing to record by default
     }
 
     /**
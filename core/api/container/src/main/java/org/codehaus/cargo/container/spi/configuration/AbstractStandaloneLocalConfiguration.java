@@ -19,21 +19,38 @@
  */
 package org.codehaus.cargo.container.spi.configuration;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
 import java.util.Set;
+import java.util.TreeMap;
 
 import org.apache.tools.ant.types.FilterChain;
 import org.codehaus.cargo.container.ContainerException;
+import org.codehaus.cargo.container.InstalledLocalContainer;
 import org.codehaus.cargo.container.LocalContainer;
 import org.codehaus.cargo.container.configuration.ConfigurationType;
+import org.codehaus.cargo.container.configuration.FileConfig;
 import org.codehaus.cargo.container.configuration.StandaloneLocalConfiguration;
+import org.codehaus.cargo.container.configuration.entry.DataSource;
+import org.codehaus.cargo.container.configuration.entry.Resource;
+import org.codehaus.cargo.container.deployable.Deployable;
 import org.codehaus.cargo.container.property.GeneralPropertySet;
 import org.codehaus.cargo.container.property.LoggingLevel;
+import org.codehaus.cargo.container.property.User;
 import org.codehaus.cargo.util.CargoException;
 import org.codehaus.cargo.util.FileHandler.XmlReplacementDetails;
 import org.codehaus.cargo.util.XmlReplacement;
@@ -44,6 +61,11 @@ import org.codehaus.cargo.util.XmlReplacement;
 public abstract class AbstractStandaloneLocalConfiguration extends AbstractLocalConfiguration
     implements StandaloneLocalConfiguration
 {
+    /**
+     * Maven metadata of the Cargo container API, holding the Cargo version.
+     */
+    private static final String POM_PROPERTIES =
+        "/META-INF/maven/org.codehaus.cargo/cargo-core-api-container/pom.properties";
 
     /**
      * The XML replacements for the configuration files. The first map's key is the file name,
@@ -52,6 +74,12 @@ public abstract class AbstractStandaloneLocalConfiguration extends AbstractLocal
      */
     private Map<String, Map<XmlReplacementDetails, String>> xmlReplacements;
 
+    /**
+     * Fingerprint of the settings being configured, <code>null</code> if the configuration is not
+     * to be reused.
+     */
+    private String fingerprint;
+
     /**
      * {@inheritDoc}
      * @see AbstractLocalConfiguration#AbstractLocalConfiguration(String)
@@ -155,6 +183,251 @@ public abstract class AbstractStandaloneLocalConfiguration extends AbstractLocal
         }
     }
 
+    /**
+     * {@inheritDoc}. If the {@link GeneralPropertySet#REUSE_CONFIGURATION} property is set, the
+     * configuration is up to date when the Cargo timestamp file contains the fingerprint of the
+     * current settings, as computed by {@link #computeFingerprint(LocalContainer)}. In that case,
+     * {@link #doConfigure(LocalContainer)} is not called at all, so configurations supporting
+     * reuse must only use it to create the configuration directory.
+     */
+    @Override
+    protected boolean isUpToDate(LocalContainer container)
+    {
+        this.fingerprint = null;
+        if (!Boolean.parseBoolean(getPropertyValue(GeneralPropertySet.REUSE_CONFIGURATION)))
+        {
+            return false;
+        }
+
+        this.fingerprint = computeFingerprint(container);
+        String timestampFile = getFileHandler().append(getHome(), ".cargo");
+        return getFileHandler().exists(timestampFile) && this.fingerprint.equals(
+            getFileHandler().readTextFile(timestampFile, StandardCharsets.UTF_8.name()).trim());
+    }
+
+    /**
+     * {@inheritDoc}. Saves the fingerprint of the settings in the Cargo timestamp file.
+     */
+    @Override
+    protected void markUpToDate(LocalContainer container)
+    {
+        if (this.fingerprint != null)
+        {
+            getFileHandler().writeTextFile(getFileHandler().append(getHome(), ".cargo"),
+                this.fingerprint, StandardCharsets.UTF_8.name());
+        }
+    }
+
+    /**
+     * Computes the fingerprint of all settings that go into the configuration directory: the
+     * Cargo version and the archives holding the configuration and container classes, the
+     * container, properties, XML replacements, resources, datasources, users, deployables and
+     * configuration files, the latter two including the size and modification time of their
+     * files. Configurations that depend on other settings should override this method.
+     * 
+     * @param container the container to configure
+     * @return SHA-256 digest of the settings, as an hexadecimal string.
+     */
+    protected String computeFingerprint(LocalContainer container)
+    {
+        StringBuilder settings = new StringBuilder();
+        settings.append("cargo:").append(getCargoVersion()).append('\n');
+        // Snapshot builds keep the same version, so the archives themselves are checked too
+        appendClassLocationState(settings, AbstractStandaloneLocalConfiguration.class);
+        appendClassLocationState(settings, getClass());
+        appendClassLocationState(settings, container.getClass());
+        settings.append(getClass().getName()).append('\n');
+        settings.append(container.getClass().getName()).append('|').append(container.getId())
+            .append('\n');
+        if (container instanceof InstalledLocalContainer)
+        {
+            appendFileState(settings, ((InstalledLocalContainer) container).getHome(), false);
+        }
+
+        for (Map.Entry<String, String> property
+            : new TreeMap<String, String>(getProperties()).entrySet())
+        {
+            settings.append(property.getKey()).append('=').append(property.getValue())
+                .append('\n');
+        }
+
+        List<String> xmlReplacements = new ArrayList<String>();
+        for (XmlReplacement xmlReplacement : getXmlReplacements())
+        {
+            xmlReplacements.add(xmlReplacement.toString());
+        }
+        Collections.sort(xmlReplacements);
+        for (String xmlReplacement : xmlReplacements)
+        {
+            settings.append(xmlReplacement).append('\n');
+        }
+
+        for (Resource resource : getResources())
+        {
+            settings.append("resource:").append(resource.getId()).append('|')
+                .append(resource.getName()).append('|').append(resource.getType()).append('|')
+                .append(resource.getClassName()).append('|')
+                .append(new TreeMap<String, String>(resource.getParameters())).append('\n');
+        }
+
+        for (DataSource dataSource : getDataSources())
+        {
+            settings.append("datasource:").append(dataSource.getId()).append('|')
+                .append(dataSource.getJndiLocation()).append('|')
+                .append(dataSource.getConnectionType()).append('|')
+                .append(dataSource.getTransactionSupport()).append('|')
+                .append(dataSource.getDriverClass()).append('|').append(dataSource.getUrl())
+                .append('|').append(dataSource.getUsername()).append('|')
+                .append(dataSource.getPassword()).append('|')
+                .append(new TreeMap<Object, Object>(dataSource.getConnectionProperties()))
+                .append('\n');
+        }
+
+        for (User user : getUsers())
+        {
+            settings.append("user:").append(user.getName()).append('|')
+                .append(user.getPassword()).append('|').append(user.getRoles()).append('\n');
+        }
+
+        for (Deployable deployable : getDeployables())
+        {
+            settings.append("deployable:").append(deployable.getClass().getName()).append('|');
+            appendFileState(settings, deployable.getFile(), true);
+        }
+
+        for (FileConfig fileConfig : getFileProperties())
+        {
+            settings.append("file:").append(fileConfig.getToDir()).append('|')
+                .append(fileConfig.getToFile()).append('|').append(fileConfig.getOverwrite())
+                .append('|').append(fileConfig.getConfigfile()).append('|')
+                .append(fileConfig.getEncoding()).append('|');
+            appendFileState(settings, fileConfig.getFile(), true);
+        }
+
+        try
+        {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(
+                settings.toString().getBytes(StandardCharsets.UTF_8));
+            StringBuilder fingerprint = new StringBuilder(digest.length * 2);
+            for (byte b : digest)
+            {
+                fingerprint.append(Character.forDigit((b >> 4) & 0xF, 16));
+                fingerprint.append(Character.forDigit(b & 0xF, 16));
+            }
+            return fingerprint.toString();
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            throw new CargoException("Cannot compute the configuration fingerprint", e);
+        }
+    }
+
+    /**
+     * @return Version of Cargo, <code>unknown</code> if it cannot be determined.
+     */
+    protected String getCargoVersion()
+    {
+        Class<?> apiClass = AbstractStandaloneLocalConfiguration.class;
+        try (InputStream pomProperties = apiClass.getResourceAsStream(POM_PROPERTIES))
+        {
+            if (pomProperties != null)
+            {
+                Properties properties = new Properties();
+                properties.load(pomProperties);
+                String version = properties.getProperty("version");
+                if (version != null)
+                {
+                    return version;
+                }
+            }
+        }
+        catch (IOException e)
+        {
+            getLogger().debug("Cannot read " + POM_PROPERTIES + ": " + e,
+                this.getClass().getName());
+        }
+
+        Package containerApi = AbstractStandaloneLocalConfiguration.class.getPackage();
+        if (containerApi != null && containerApi.getImplementationVersion() != null)
+        {
+            return containerApi.getImplementationVersion();
+        }
+        return "unknown";
+    }
+
+    /**
+     * Appends the path, size and modification time of the archive or directory a class has been
+     * loaded from to the settings, if it is a local file.
+     * 
+     * @param settings Settings to append to.
+     * @param type Class.
+     */
+    private void appendClassLocationState(StringBuilder settings, Class<?> type)
+    {
+        URL location = null;
+        try
+        {
+            if (type.getProtectionDomain().getCodeSource() != null)
+            {
+                location = type.getProtectionDomain().getCodeSource().getLocation();
+            }
+        }
+        catch (SecurityException e)
+        {
+            // The location is not needed to run, so skip it
+        }
+
+        if (location != null && "file".equals(location.getProtocol()))
+        {
+            try
+            {
+                appendFileState(settings, new File(location.toURI()), false);
+            }
+            catch (URISyntaxException | IllegalArgumentException e)
+            {
+                settings.append(location).append('\n');
+            }
+        }
+    }
+
+    /**
+     * Appends the path, size and modification time of a file to the settings.
+     * 
+     * @param settings Settings to append to.
+     * @param path File or directory path, may be <code>null</code>.
+     * @param recursive Whether to also append the state of the files in a directory.
+     */
+    private void appendFileState(StringBuilder settings, String path, boolean recursive)
+    {
+        settings.append(path).append('\n');
+        if (path != null)
+        {
+            appendFileState(settings, new File(path), recursive);
+        }
+    }
+
+    /**
+     * Appends the size and modification time of a file to the settings.
+     * 
+     * @param settings Settings to append to.
+     * @param file File or directory.
+     * @param recursive Whether to also append the state of the files in a directory.
+     */
+    private void appendFileState(StringBuilder settings, File file, boolean recursive)
+    {
+        settings.append(file.getName()).append('|').append(file.length()).append('|')
+            .append(file.lastModified()).append('\n');
+        File[] children = file.listFiles();
+        if (recursive && children != null)
+        {
+            Arrays.sort(children);
+            for (File child : children)
+            {
+                appendFileState(settings, child, true);
+            }
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
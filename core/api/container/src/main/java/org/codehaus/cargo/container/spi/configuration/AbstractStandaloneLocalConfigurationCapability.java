@@ -39,6 +39,7 @@ public abstract class AbstractStandaloneLocalConfigurationCapability
 
         this.propertySupportMap.put(GeneralPropertySet.IGNORE_NON_EXISTING_PROPERTIES,
             Boolean.TRUE);
+        this.propertySupportMap.put(GeneralPropertySet.REUSE_CONFIGURATION, Boolean.TRUE);
 
         this.propertySupportMap.put(ServletPropertySet.USERS, Boolean.TRUE);
     }
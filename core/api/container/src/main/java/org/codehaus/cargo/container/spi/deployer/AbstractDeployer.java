@@ -120,6 +120,19 @@ public abstract class AbstractDeployer extends LoggedObject implements Deployer
         watchdog.watchForUnavailability();
     }
 
+    /**
+     * Helper method to undeploy multiple deployables at a time.
+     * @see Deployer#undeploy(Deployable)
+     * @param deployables Deployables to undeploy.
+     */
+    public void undeploy(List<Deployable> deployables)
+    {
+        for (Deployable deployable : deployables)
+        {
+            undeploy(deployable);
+        }
+    }
+
     /**
      * Helper method to redeploy multiple deployables at a time.
      * @see Deployer#redeploy(Deployable)
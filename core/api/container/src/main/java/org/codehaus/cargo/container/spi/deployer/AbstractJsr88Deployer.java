@@ -21,6 +21,14 @@ package org.codehaus.cargo.container.spi.deployer;
 
 import java.io.File;
 import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
 import javax.enterprise.deploy.shared.ModuleType;
 import javax.enterprise.deploy.shared.factories.DeploymentFactoryManager;
@@ -31,6 +39,8 @@ import javax.enterprise.deploy.spi.exceptions.DeploymentManagerCreationException
 import javax.enterprise.deploy.spi.exceptions.TargetException;
 import javax.enterprise.deploy.spi.factories.DeploymentFactory;
 import javax.enterprise.deploy.spi.status.DeploymentStatus;
+import javax.enterprise.deploy.spi.status.ProgressEvent;
+import javax.enterprise.deploy.spi.status.ProgressListener;
 import javax.enterprise.deploy.spi.status.ProgressObject;
 
 import org.codehaus.cargo.container.RemoteContainer;
@@ -87,11 +97,69 @@ public abstract class AbstractJsr88Deployer extends AbstractRemoteDeployer
     @Override
     public void deploy(Deployable deployable)
     {
-        File deployableFile;
-        File tempDirectory;
+        this.deploy(Collections.singletonList(deployable));
+    }
+
+    /**
+     * {@inheritDoc}. All deployables are distributed to the same targets, and all distributions
+     * are done before waiting for them to complete; all resulting modules are then started using
+     * one single <code>start</code> call.
+     */
+    @Override
+    public void deploy(List<Deployable> deployables)
+    {
+        Map<Deployable, File> deployableFiles = new LinkedHashMap<Deployable, File>();
+        try
+        {
+            for (Deployable deployable : deployables)
+            {
+                deployableFiles.put(deployable, this.createDeployableFile(deployable));
+            }
+
+            DeploymentManager deploymentManager = this.getDeploymentManager();
+            Target[] targets = this.filterTargets(deploymentManager.getTargets());
+
+            List<ProgressObject> distributions = new ArrayList<ProgressObject>();
+            for (File deployableFile : deployableFiles.values())
+            {
+                distributions.add(deploymentManager.distribute(targets, deployableFile, null));
+            }
+
+            List<TargetModuleID> modules = new ArrayList<TargetModuleID>();
+            for (ProgressObject progressObject : distributions)
+            {
+                this.waitForProgressObject(progressObject);
+                modules.addAll(Arrays.asList(progressObject.getResultTargetModuleIDs()));
+            }
+
+            if (!modules.isEmpty())
+            {
+                ProgressObject progressObject = deploymentManager.start(
+                    modules.toArray(new TargetModuleID[modules.size()]));
+                this.waitForProgressObject(progressObject);
+            }
+        }
+        finally
+        {
+            for (Map.Entry<Deployable, File> deployableFile : deployableFiles.entrySet())
+            {
+                this.deleteDeployableFile(deployableFile.getKey(), deployableFile.getValue());
+            }
+        }
+    }
+
+    /**
+     * Returns the file to distribute for a deployable. WAR and EAR files are copied to a
+     * temporary directory, in order for the file name to match the module name.
+     * 
+     * @param deployable Deployable.
+     * @return File to distribute.
+     */
+    private File createDeployableFile(Deployable deployable)
+    {
+        String localFileName;
         if (deployable.getType() == DeployableType.WAR)
         {
-            String localFileName;
             WAR war = (WAR) deployable;
             if (war.getContext().isEmpty())
             {
@@ -101,52 +169,47 @@ public abstract class AbstractJsr88Deployer extends AbstractRemoteDeployer
             {
                 localFileName = war.getContext() + ".war";
             }
-            tempDirectory = new File(fileHandler.createUniqueTmpDirectory());
-            deployableFile = new File(tempDirectory, localFileName);
-            fileHandler.copyFile(deployable.getFile(), deployableFile.getAbsolutePath());
-            deployableFile.deleteOnExit();
         }
         else if (deployable.getType() == DeployableType.EAR)
         {
             EAR ear = (EAR) deployable;
-            String localFileName = ear.getName() + ".ear";
-            tempDirectory = new File(fileHandler.createUniqueTmpDirectory());
-            deployableFile = new File(tempDirectory, localFileName);
-            fileHandler.copyFile(deployable.getFile(), deployableFile.getAbsolutePath());
-            deployableFile.deleteOnExit();
+            localFileName = ear.getName() + ".ear";
         }
         else
         {
-            deployableFile = new File(deployable.getFile());
-            tempDirectory = null;
+            return new File(deployable.getFile());
         }
 
-        try
-        {
-            DeploymentManager deploymentManager = this.getDeploymentManager();
-
-            ProgressObject progressObject = deploymentManager.distribute(
-                this.filterTargets(deploymentManager.getTargets()), deployableFile, null);
-            this.waitForProgressObject(progressObject);
+        File tempDirectory = new File(fileHandler.createUniqueTmpDirectory());
+        File deployableFile = new File(tempDirectory, localFileName);
+        fileHandler.copyFile(deployable.getFile(), deployableFile.getAbsolutePath());
+        deployableFile.deleteOnExit();
+        return deployableFile;
+    }
 
-            progressObject = deploymentManager.start(progressObject.getResultTargetModuleIDs());
-            this.waitForProgressObject(progressObject);
-        }
-        finally
+    /**
+     * Deletes the file created by {@link #createDeployableFile(Deployable)}, if it is a temporary
+     * copy.
+     * 
+     * @param deployable Deployable.
+     * @param deployableFile File which was distributed.
+     */
+    private void deleteDeployableFile(Deployable deployable, File deployableFile)
+    {
+        if (deployable.getType() == DeployableType.WAR
+            || deployable.getType() == DeployableType.EAR)
         {
-            if (tempDirectory != null)
+            File tempDirectory = deployableFile.getParentFile();
+            if (!deployableFile.delete())
             {
-                if (!deployableFile.delete())
-                {
-                    getLogger().warn("Cannot delete the temporary file: " + deployableFile,
-                        this.getClass().getName());
-                }
+                getLogger().warn("Cannot delete the temporary file: " + deployableFile,
+                    this.getClass().getName());
+            }
 
-                if (!tempDirectory.delete())
-                {
-                    getLogger().warn("Cannot delete the temporary directory: " + tempDirectory,
-                        this.getClass().getName());
-                }
+            if (!tempDirectory.delete())
+            {
+                getLogger().warn("Cannot delete the temporary directory: " + tempDirectory,
+                    this.getClass().getName());
             }
         }
     }
@@ -255,35 +318,62 @@ public abstract class AbstractJsr88Deployer extends AbstractRemoteDeployer
     }
 
     /**
-     * Waits for a progress object.
+     * Waits for a progress object. A {@link ProgressListener} wakes the waiting thread up as soon
+     * as the progress object reports an event; the deployment status is also polled every second
+     * in case the deployment manager does not send events.
      * 
      * @param progressObject Progress object.
      * @throws CargoException If timeout or deployment fails.
      */
     private void waitForProgressObject(ProgressObject progressObject) throws CargoException
     {
-        long timeout = System.currentTimeMillis() + this.timeout;
-        while (System.currentTimeMillis() < timeout)
+        final Semaphore events = new Semaphore(0);
+        ProgressListener listener = new ProgressListener()
         {
-            try
+            @Override
+            public void handleProgressEvent(ProgressEvent event)
             {
-                Thread.sleep(1000);
-            }
-            catch (InterruptedException e)
-            {
-                throw new CargoException("Thread.sleep has failed", e);
+                events.release();
             }
+        };
+        progressObject.addProgressListener(listener);
 
-            DeploymentStatus status = progressObject.getDeploymentStatus();
-            if (status.isCompleted())
-            {
-                return;
-            }
-            else if (status.isFailed())
+        try
+        {
+            long timeout = System.currentTimeMillis() + this.timeout;
+            while (true)
             {
-                throw new CargoException("Deployment has failed: " + status.getMessage());
+                DeploymentStatus status = progressObject.getDeploymentStatus();
+                if (status.isCompleted())
+                {
+                    return;
+                }
+                else if (status.isFailed())
+                {
+                    throw new CargoException("Deployment has failed: " + status.getMessage());
+                }
+
+                long remaining = timeout - System.currentTimeMillis();
+                if (remaining <= 0)
+                {
+                    break;
+                }
+
+                try
+                {
+                    events.tryAcquire(Math.min(remaining, 1000), TimeUnit.MILLISECONDS);
+                    events.drainPermits();
+                }
+                catch (InterruptedException e)
+                {
+                    throw new CargoException("Waiting for the deployment has been interrupted", e);
+                }
             }
         }
+        finally
+        {
+            progressObject.removeProgressListener(listener);
+        }
 
         throw new CargoException("Deployment has timed out after " + this.timeout
             + " milliseconds");
@@ -31,7 +31,7 @@ import org.apache.tools.ant.types.RedirectorElement;
 import org.codehaus.cargo.container.internal.AntContainerExecutorThread;
 
 /**
- * The default JVM launcher.
+ * The JVM launcher based on the Ant Java task, used to launch JVMs over SSH.
  */
 class DefaultJvmLauncher implements JvmLauncher
 {
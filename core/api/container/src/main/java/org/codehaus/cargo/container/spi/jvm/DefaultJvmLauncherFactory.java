@@ -51,7 +51,13 @@ public class DefaultJvmLauncherFactory implements JvmLauncherFactory
     {
         Loggable loggable = request.getLoggable();
 
-        Java java = (Java) antUtils.createAntTask(request.isSsh() ? "sshjava" : "java");
+        // Local JVMs are forked directly, which allows to track and terminate them
+        if (!request.isSsh())
+        {
+            return new ProcessJvmLauncher(loggable.getLogger(), loggable.getClass().getName());
+        }
+
+        Java java = (Java) antUtils.createAntTask("sshjava");
 
         java.setFork(true);
 
@@ -0,0 +1,37 @@
+/*
+ * ========================================================================
+ *
+ * Codehaus CARGO, copyright 2004-2011 Vincent Massol, 2012-2018 Ali Tokmen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * ========================================================================
+ */
+package org.codehaus.cargo.container.spi.jvm;
+
+/**
+ * A JVM launcher which is notified of the termination of the JVM it launched, allowing callers to
+ * wait for the JVM to be actually gone instead of sleeping for a fixed delay.
+ */
+public interface ExitAwareJvmLauncher extends JvmLauncher
+{
+    /**
+     * Waits for the launched JVM to exit.
+     * 
+     * @param millis The maximum time to wait, in milliseconds.
+     * @return {@code true} if the JVM has exited or was never launched, {@code false} if it was
+     * still running when the timeout elapsed.
+     * @throws InterruptedException If the thread was interrupted while waiting.
+     */
+    boolean waitForExit(long millis) throws InterruptedException;
+}
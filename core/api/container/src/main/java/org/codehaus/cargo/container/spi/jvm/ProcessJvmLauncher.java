@@ -0,0 +1,794 @@
+/*
+ * ========================================================================
+ *
+ * Codehaus CARGO, copyright 2004-2011 Vincent Massol, 2012-2018 Ali Tokmen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * ========================================================================
+ */
+package org.codehaus.cargo.container.spi.jvm;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.ProcessBuilder.Redirect;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.tools.ant.taskdefs.condition.Os;
+import org.apache.tools.ant.types.Commandline;
+import org.apache.tools.ant.util.JavaEnvUtils;
+import org.codehaus.cargo.container.internal.util.MethodBinding;
+import org.codehaus.cargo.util.log.Logger;
+
+/**
+ * A JVM launcher which forks the JVM using a {@link ProcessBuilder}, keeping hold of the process in
+ * order to track its PID, terminate it and be notified of its exit.
+ */
+class ProcessJvmLauncher implements ExitAwareJvmLauncher
+{
+    /**
+     * Time in milliseconds given to the JVM to exit once asked to terminate, before it is killed.
+     */
+    private static final long KILL_GRACE_PERIOD = 5000;
+
+    /**
+     * Logger the output of the JVM is sent to, when not redirected to a file.
+     */
+    private final Logger logger;
+
+    /**
+     * Log category.
+     */
+    private final String category;
+
+    /**
+     * The working directory.
+     */
+    private File workingDirectory;
+
+    /**
+     * The command to launch the JVM.
+     */
+    private String jvm;
+
+    /**
+     * The JVM arguments.
+     */
+    private final List<String> jvmArguments = new ArrayList<String>();
+
+    /**
+     * The classpath entries.
+     */
+    private final List<String> classpath = new ArrayList<String>();
+
+    /**
+     * The system properties, in the order they were set.
+     */
+    private final Map<String, String> systemProperties = new LinkedHashMap<String, String>();
+
+    /**
+     * The extra environment variables.
+     */
+    private final Map<String, String> environmentVariables = new HashMap<String, String>();
+
+    /**
+     * The JAR file to execute.
+     */
+    private File jarFile;
+
+    /**
+     * The main class to execute.
+     */
+    private String mainClass;
+
+    /**
+     * The application arguments.
+     */
+    private final List<String> appArguments = new ArrayList<String>();
+
+    /**
+     * The file the output of the JVM is redirected to.
+     */
+    private File outputFile;
+
+    /**
+     * Whether to append to the output file.
+     */
+    private boolean appendOutput;
+
+    /**
+     * Timeout in milliseconds after which the JVM gets killed, non-positive to disable it.
+     */
+    private long timeout;
+
+    /**
+     * Whether the JVM outlives the current one.
+     */
+    private boolean spawn;
+
+    /**
+     * The launched JVM process.
+     */
+    private volatile Process process;
+
+    /**
+     * The PID of the launched JVM process, <code>-1</code> if unknown.
+     */
+    private volatile long pid = -1;
+
+    /**
+     * Exit code of the launched JVM process.
+     */
+    private volatile int exitCode;
+
+    /**
+     * Released when the launched JVM process has exited.
+     */
+    private final CountDownLatch exited = new CountDownLatch(1);
+
+    /**
+     * Shutdown hook terminating the launched JVM process if it is still running when the current
+     * JVM exits, unless spawned.
+     */
+    private final Thread destroyer = new Thread("Cargo JVM process destroyer")
+    {
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void run()
+        {
+            Process running = ProcessJvmLauncher.this.process;
+            if (running != null)
+            {
+                running.destroy();
+            }
+        }
+    };
+
+    /**
+     * Timer killing the launched JVM process when the timeout elapses.
+     */
+    private Timer watchdog;
+
+    /**
+     * Creates a new launcher.
+     * 
+     * @param logger Logger the output of the JVM is sent to, when not redirected to a file.
+     * @param category Log category.
+     */
+    public ProcessJvmLauncher(Logger logger, String category)
+    {
+        this.logger = logger;
+        this.category = category;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setWorkingDirectory(File workingDirectory)
+    {
+        this.workingDirectory = workingDirectory;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setJvm(String command)
+    {
+        if (command != null && !command.isEmpty())
+        {
+            this.jvm = command;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addJvmArgument(File file)
+    {
+        if (file != null)
+        {
+            this.jvmArguments.add(file.getAbsolutePath());
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addJvmArguments(String... values)
+    {
+        if (values != null)
+        {
+            for (String value : values)
+            {
+                this.jvmArguments.add(value);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addJvmArgumentLine(String line)
+    {
+        if (line != null)
+        {
+            addJvmArguments(Commandline.translateCommandline(line));
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addClasspathEntries(String... paths)
+    {
+        if (paths != null)
+        {
+            for (String path : paths)
+            {
+                this.classpath.add(path);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addClasspathEntries(File... paths)
+    {
+        if (paths != null)
+        {
+            for (File path : paths)
+            {
+                this.classpath.add(path.getAbsolutePath());
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getClasspath()
+    {
+        StringBuilder result = new StringBuilder();
+        for (String path : this.classpath)
+        {
+            if (result.length() > 0)
+            {
+                result.append(File.pathSeparatorChar);
+            }
+            result.append(path);
+        }
+        return result.toString();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setSystemProperty(String name, String value)
+    {
+        if (name != null && !name.isEmpty())
+        {
+            if (value == null)
+            {
+                this.systemProperties.put(name, "");
+            }
+            else
+            {
+                this.systemProperties.put(name, value);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setEnvironmentVariable(String name, String value)
+    {
+        if (name != null && !name.isEmpty())
+        {
+            this.environmentVariables.put(name, value);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getEnvironmentVariable(String name)
+    {
+        String value = this.environmentVariables.get(name);
+        if (value == null)
+        {
+            value = System.getenv(name);
+        }
+        return value;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setJarFile(File jarFile)
+    {
+        if (jarFile != null)
+        {
+            this.jarFile = jarFile;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setMainClass(String mainClass)
+    {
+        if (mainClass != null)
+        {
+            this.mainClass = mainClass;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addAppArgument(File file)
+    {
+        if (file != null)
+        {
+            this.appArguments.add(file.getAbsolutePath());
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addAppArguments(String... values)
+    {
+        if (values != null)
+        {
+            for (String value : values)
+            {
+                this.appArguments.add(value);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addAppArgumentLine(String line)
+    {
+        if (line != null)
+        {
+            addAppArguments(Commandline.translateCommandline(line));
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setOutputFile(File outputFile)
+    {
+        this.outputFile = outputFile;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setAppendOutput(boolean appendOutput)
+    {
+        this.appendOutput = appendOutput;
+    }
+
+    /**
+     * Builds the command line launching the JVM, in the same order as the Ant Java task does.
+     * 
+     * @return The command line tokens.
+     */
+    private List<String> buildCommandLine()
+    {
+        List<String> commandLine = new ArrayList<String>();
+        if (this.jvm == null)
+        {
+            commandLine.add(JavaEnvUtils.getJreExecutable("java"));
+        }
+        else
+        {
+            commandLine.add(this.jvm);
+        }
+        commandLine.addAll(this.jvmArguments);
+        for (Map.Entry<String, String> systemProperty : this.systemProperties.entrySet())
+        {
+            commandLine.add("-D" + systemProperty.getKey() + "=" + systemProperty.getValue());
+        }
+        if (!this.classpath.isEmpty())
+        {
+            commandLine.add("-classpath");
+            commandLine.add(getClasspath());
+        }
+        if (this.jarFile != null)
+        {
+            commandLine.add("-jar");
+            commandLine.add(this.jarFile.getAbsolutePath());
+        }
+        else if (this.mainClass != null)
+        {
+            commandLine.add(this.mainClass);
+        }
+        commandLine.addAll(this.appArguments);
+        return commandLine;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getCommandLine()
+    {
+        List<String> commandLine = buildCommandLine();
+        return Commandline.toString(commandLine.toArray(new String[commandLine.size()]));
+    }
+
+    /**
+     * Asks the launched JVM to terminate and, if it has not exited after
+     * {@link #KILL_GRACE_PERIOD} milliseconds, kills it. {@inheritDoc}
+     */
+    @Override
+    public void kill()
+    {
+        Process running = this.process;
+        if (running == null || this.exited.getCount() == 0)
+        {
+            return;
+        }
+
+        running.destroy();
+        try
+        {
+            if (this.exited.await(KILL_GRACE_PERIOD, TimeUnit.MILLISECONDS))
+            {
+                return;
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        destroyForcibly(running);
+    }
+
+    /**
+     * Kills a JVM process which did not exit when asked to, using
+     * <code>Process.destroyForcibly()</code> where available and sending it a <code>KILL</code>
+     * signal otherwise.
+     * 
+     * @param running The JVM process.
+     */
+    private void destroyForcibly(Process running)
+    {
+        this.logger.debug("JVM process [" + this.pid + "] did not exit within ["
+            + KILL_GRACE_PERIOD + "] ms, killing it", this.category);
+        try
+        {
+            MethodBinding.bind(Process.class, "destroyForcibly").invoke(running);
+            return;
+        }
+        catch (NoSuchMethodException e)
+        {
+            // Java 7, use the PID instead
+        }
+        catch (IllegalAccessException | InvocationTargetException e)
+        {
+            this.logger.debug("Cannot destroy JVM process forcibly: " + e, this.category);
+        }
+
+        if (this.pid != -1 && !Os.isFamily(Os.FAMILY_WINDOWS))
+        {
+            try
+            {
+                new ProcessBuilder("kill", "-9", String.valueOf(this.pid)).start();
+            }
+            catch (IOException e)
+            {
+                this.logger.warn("Failed to kill JVM process [" + this.pid + "]: " + e,
+                    this.category);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setTimeout(long millis)
+    {
+        this.timeout = millis;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setSpawn(boolean spawn)
+    {
+        this.spawn = spawn;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void start() throws JvmLauncherException
+    {
+        if (this.process != null)
+        {
+            throw new JvmLauncherException("JVM has already been launched");
+        }
+
+        ProcessBuilder builder = new ProcessBuilder(buildCommandLine());
+        builder.directory(this.workingDirectory);
+        for (Map.Entry<String, String> variable : this.environmentVariables.entrySet())
+        {
+            if (variable.getValue() == null)
+            {
+                builder.environment().remove(variable.getKey());
+            }
+            else
+            {
+                builder.environment().put(variable.getKey(), variable.getValue());
+            }
+        }
+
+        // The output goes straight from the JVM to the file, without being read by this JVM
+        if (this.outputFile != null)
+        {
+            builder.redirectErrorStream(true);
+            if (this.appendOutput)
+            {
+                builder.redirectOutput(Redirect.appendTo(this.outputFile));
+            }
+            else
+            {
+                builder.redirectOutput(Redirect.to(this.outputFile));
+            }
+        }
+        else if (this.spawn)
+        {
+            // A spawned JVM must not write to pipes which will be gone with the current JVM
+            builder.redirectErrorStream(true);
+            builder.redirectOutput(Redirect.to(getNullDevice()));
+        }
+
+        Process started;
+        try
+        {
+            started = builder.start();
+        }
+        catch (IOException e)
+        {
+            throw new JvmLauncherException("Failed to launch JVM with command line ["
+                + getCommandLine() + "]", e);
+        }
+        this.process = started;
+        this.pid = getPid(started);
+        this.logger.debug("Launched JVM process [" + this.pid + "]", this.category);
+
+        try
+        {
+            started.getOutputStream().close();
+        }
+        catch (IOException e)
+        {
+            // Ignored, the JVM does not read its input anyway
+        }
+        if (this.outputFile == null && !this.spawn)
+        {
+            startDaemon("output logger", new ProcessOutputLogger(started.getInputStream(), false,
+                this.logger, this.category));
+            startDaemon("error logger", new ProcessOutputLogger(started.getErrorStream(), true,
+                this.logger, this.category));
+        }
+
+        if (!this.spawn)
+        {
+            Runtime.getRuntime().addShutdownHook(this.destroyer);
+        }
+        if (this.timeout > 0)
+        {
+            this.watchdog = new Timer("Cargo JVM process watchdog", true);
+            this.watchdog.schedule(new TimerTask()
+            {
+                /**
+                 * {@inheritDoc}
+                 */
+                @Override
+                public void run()
+                {
+                    ProcessJvmLauncher.this.logger.info("JVM process ["
+                        + ProcessJvmLauncher.this.pid + "] did not finish within the timeout "
+                        + "period [" + ProcessJvmLauncher.this.timeout + "], terminating it",
+                        ProcessJvmLauncher.this.category);
+                    kill();
+                }
+            }, this.timeout);
+        }
+
+        startDaemon("exit watcher", new Runnable()
+        {
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public void run()
+            {
+                waitForProcess();
+            }
+        });
+    }
+
+    /**
+     * Waits for the launched JVM process to exit, then records its exit code, releases the
+     * threads waiting for it and cleans up.
+     */
+    private void waitForProcess()
+    {
+        while (true)
+        {
+            try
+            {
+                this.exitCode = this.process.waitFor();
+                break;
+            }
+            catch (InterruptedException e)
+            {
+                // Keep waiting, nobody else will notice the exit
+            }
+        }
+        this.exited.countDown();
+        this.logger.debug("JVM process [" + this.pid + "] exited with code [" + this.exitCode
+            + "]", this.category);
+
+        if (this.watchdog != null)
+        {
+            this.watchdog.cancel();
+        }
+        if (!this.spawn)
+        {
+            try
+            {
+                Runtime.getRuntime().removeShutdownHook(this.destroyer);
+            }
+            catch (IllegalStateException e)
+            {
+                // The current JVM is shutting down already
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int execute() throws JvmLauncherException
+    {
+        start();
+        try
+        {
+            this.exited.await();
+        }
+        catch (InterruptedException e)
+        {
+            throw new JvmLauncherException("Interrupted while waiting for the JVM to exit", e);
+        }
+        return this.exitCode;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean waitForExit(long millis) throws InterruptedException
+    {
+        if (this.process == null)
+        {
+            return true;
+        }
+        return this.exited.await(millis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Starts a daemon thread working on the launched JVM process.
+     * 
+     * @param name Name of the thread, without the common prefix.
+     * @param runnable Work of the thread.
+     */
+    private void startDaemon(String name, Runnable runnable)
+    {
+        Thread thread = new Thread(runnable, "Cargo JVM process " + name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Gets the PID of a process, using <code>Process.pid()</code> where available and reading the
+     * field of the UNIX implementation otherwise.
+     * 
+     * @param process The process.
+     * @return The PID of the process, <code>-1</code> if unknown.
+     */
+    private static long getPid(Process process)
+    {
+        try
+        {
+            return (Long) MethodBinding.bind(Process.class, "pid").invoke(process);
+        }
+        catch (NoSuchMethodException e)
+        {
+            // Before Java 9, read the field instead
+        }
+        catch (IllegalAccessException | InvocationTargetException e)
+        {
+            return -1;
+        }
+
+        try
+        {
+            Field field = process.getClass().getDeclaredField("pid");
+            field.setAccessible(true);
+            return field.getInt(process);
+        }
+        catch (NoSuchFieldException | IllegalAccessException e)
+        {
+            return -1;
+        }
+    }
+
+    /**
+     * @return The file discarding everything written to it.
+     */
+    private static File getNullDevice()
+    {
+        if (Os.isFamily(Os.FAMILY_WINDOWS))
+        {
+            return new File("NUL");
+        }
+        return new File("/dev/null");
+    }
+}
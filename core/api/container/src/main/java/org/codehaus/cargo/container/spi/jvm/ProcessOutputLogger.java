@@ -0,0 +1,116 @@
+/*
+ * ========================================================================
+ *
+ * Codehaus CARGO, copyright 2004-2011 Vincent Massol, 2012-2018 Ali Tokmen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * ========================================================================
+ */
+package org.codehaus.cargo.container.spi.jvm;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+
+import org.codehaus.cargo.util.log.Logger;
+
+/**
+ * Sends each line read from an output stream of a launched JVM to a Cargo logger, the way the Ant
+ * build listener used to for the Ant Java task.
+ */
+class ProcessOutputLogger implements Runnable
+{
+    /**
+     * The output stream of the process, read with the platform charset like the JVM writes it.
+     */
+    private final InputStream inputStream;
+
+    /**
+     * Whether the stream is the error stream of the process.
+     */
+    private final boolean error;
+
+    /**
+     * The logger to send the lines to.
+     */
+    private final Logger logger;
+
+    /**
+     * The log category.
+     */
+    private final String category;
+
+    /**
+     * @param inputStream The output stream of the process.
+     * @param error Whether the stream is the error stream of the process.
+     * @param logger The logger to send the lines to.
+     * @param category The log category.
+     */
+    public ProcessOutputLogger(InputStream inputStream, boolean error, Logger logger,
+        String category)
+    {
+        this.inputStream = inputStream;
+        this.error = error;
+        this.logger = logger;
+        this.category = category;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void run()
+    {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream)))
+        {
+            String line;
+            while ((line = reader.readLine()) != null)
+            {
+                log(line);
+            }
+        }
+        catch (IOException e)
+        {
+            // The process is gone, nothing more to read
+        }
+    }
+
+    /**
+     * Logs a line of output.
+     * 
+     * @param line The line to log.
+     */
+    private void log(String line)
+    {
+        if (!error)
+        {
+            logger.info(line, category);
+        }
+        // CARGO-1095: Some containers output all messages on stderr, which then would make
+        // CARGO output everything as WARN. Avoid this situation by reading the message.
+        else if (line.contains("DEBUG") || line.contains("FINE") || line.contains("TRACE"))
+        {
+            logger.debug(line, category);
+        }
+        else if (line.contains("WARN") || line.contains("ERROR") || line.contains("FATAL"))
+        {
+            logger.warn(line, category);
+        }
+        else
+        {
+            logger.info(line, category);
+        }
+    }
+}
@@ -19,20 +19,48 @@
  */
 package org.codehaus.cargo.container.spi.packager;
 
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.zip.GZIPOutputStream;
 
+import org.apache.tools.ant.DirectoryScanner;
+import org.apache.tools.tar.TarEntry;
+import org.apache.tools.tar.TarOutputStream;
+import org.apache.tools.zip.UnixStat;
+import org.apache.tools.zip.ZipEntry;
+import org.apache.tools.zip.ZipOutputStream;
 import org.codehaus.cargo.container.InstalledLocalContainer;
 import org.codehaus.cargo.container.packager.Packager;
+import org.codehaus.cargo.util.CargoException;
 import org.codehaus.cargo.util.DefaultFileHandler;
 import org.codehaus.cargo.util.FileHandler;
 import org.codehaus.cargo.util.log.LoggedObject;
 
 /**
- * Package a container distribution and its local configuration in a directory.
+ * Package a container distribution and its local configuration in a directory.<br>
+ * <br>
+ * If the target directory name ends with <code>.zip</code>, <code>.tar</code>,
+ * <code>.tar.gz</code> or <code>.tgz</code>, the package is instead streamed into an archive of
+ * that type, without creating any intermediate directory.
  */
 public abstract class AbstractDirectoryPackager extends LoggedObject implements Packager
 {
+    /**
+     * Size of the buffers used when writing archives.
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
     /**
      * @see #getTargetDirectory()
      */
@@ -86,17 +114,210 @@ public abstract class AbstractDirectoryPackager extends LoggedObject implements
     @Override
     public void packageContainer(InstalledLocalContainer container)
     {
-        getFileHandler().copyDirectory(container.getHome(), getTargetDirectory(),
-            getDistributionExclusions());
-
         List<String> configurationExclusions = getDefaultConfigurationExclusions();
         configurationExclusions.addAll(getConfigurationExclusions());
 
+        if (isArchive())
+        {
+            packageArchive(container, configurationExclusions);
+            return;
+        }
+
+        getFileHandler().copyDirectory(container.getHome(), getTargetDirectory(),
+            getDistributionExclusions());
+
         getFileHandler().copyDirectory(container.getConfiguration().getHome(),
             getTargetDirectory(),
             configurationExclusions);
     }
 
+    /**
+     * @return <code>true</code> if the package is to be created as an archive rather than as a
+     * directory, based on the extension of the target.
+     */
+    protected boolean isArchive()
+    {
+        String target = getTargetDirectory().toLowerCase(Locale.ENGLISH);
+        return target.endsWith(".zip") || target.endsWith(".tar") || target.endsWith(".tar.gz")
+            || target.endsWith(".tgz");
+    }
+
+    /**
+     * Streams the container distribution and its local configuration into an archive. Both
+     * directories are scanned once, configuration files overriding distribution files with the
+     * same path as when packaging into a directory, and entries are written in path order so that
+     * packaging the same files always produces the same archive layout.
+     * 
+     * @param container Container to package.
+     * @param configurationExclusions Configuration files to exclude.
+     */
+    private void packageArchive(InstalledLocalContainer container,
+        List<String> configurationExclusions)
+    {
+        SortedMap<String, File> entries = new TreeMap<String, File>();
+        addEntries(entries, container.getHome(), getDistributionExclusions());
+        addEntries(entries, container.getConfiguration().getHome(), configurationExclusions);
+
+        File archive = new File(getTargetDirectory()).getAbsoluteFile();
+        archive.getParentFile().mkdirs();
+        String name = archive.getName().toLowerCase(Locale.ENGLISH);
+        getLogger().info("Packaging " + entries.size() + " entries into [" + archive + "]",
+            this.getClass().getName());
+
+        try (OutputStream fileOut = new FileOutputStream(archive);
+            OutputStream out = new BufferedOutputStream(fileOut, BUFFER_SIZE))
+        {
+            if (name.endsWith(".zip"))
+            {
+                writeZip(entries, out);
+            }
+            else if (name.endsWith(".tar"))
+            {
+                writeTar(entries, out);
+            }
+            else
+            {
+                writeTar(entries, new GZIPOutputStream(out, BUFFER_SIZE));
+            }
+        }
+        catch (IOException e)
+        {
+            throw new CargoException("Failed to package container into [" + archive + "]", e);
+        }
+    }
+
+    /**
+     * Adds the files and directories of a directory to the archive entries, excluding the given
+     * patterns as well as Ant's default excludes.
+     * 
+     * @param entries Archive entries, indexed by entry name.
+     * @param directory Directory to scan.
+     * @param excludes Ant patterns of the files to exclude.
+     */
+    private void addEntries(Map<String, File> entries, String directory, List<String> excludes)
+    {
+        DirectoryScanner scanner = new DirectoryScanner();
+        scanner.setBasedir(new File(directory));
+        scanner.setExcludes(excludes.toArray(new String[excludes.size()]));
+        scanner.addDefaultExcludes();
+        scanner.scan();
+
+        for (String path : scanner.getIncludedDirectories())
+        {
+            if (!path.isEmpty())
+            {
+                entries.put(path.replace(File.separatorChar, '/') + "/",
+                    new File(directory, path));
+            }
+        }
+        for (String path : scanner.getIncludedFiles())
+        {
+            entries.put(path.replace(File.separatorChar, '/'), new File(directory, path));
+        }
+    }
+
+    /**
+     * Writes entries as a ZIP archive.
+     * 
+     * @param entries Archive entries, indexed by entry name.
+     * @param out Stream to write to.
+     * @throws IOException If writing fails.
+     */
+    private void writeZip(SortedMap<String, File> entries, OutputStream out) throws IOException
+    {
+        ZipOutputStream zip = new ZipOutputStream(out);
+        zip.setEncoding("UTF-8");
+        byte[] buffer = new byte[BUFFER_SIZE];
+        for (Map.Entry<String, File> entry : entries.entrySet())
+        {
+            File file = entry.getValue();
+            ZipEntry zipEntry = new ZipEntry(entry.getKey());
+            zipEntry.setTime(file.lastModified());
+            if (file.isDirectory())
+            {
+                zipEntry.setUnixMode(UnixStat.DIR_FLAG | UnixStat.DEFAULT_DIR_PERM);
+                zip.putNextEntry(zipEntry);
+            }
+            else
+            {
+                zipEntry.setUnixMode(UnixStat.FILE_FLAG | getFileMode(file));
+                zip.putNextEntry(zipEntry);
+                copy(file, zip, buffer);
+            }
+            zip.closeEntry();
+        }
+        zip.finish();
+        zip.flush();
+    }
+
+    /**
+     * Writes entries as a TAR archive, then closes the stream.
+     * 
+     * @param entries Archive entries, indexed by entry name.
+     * @param out Stream to write to.
+     * @throws IOException If writing fails.
+     */
+    private void writeTar(SortedMap<String, File> entries, OutputStream out) throws IOException
+    {
+        try (TarOutputStream tar = new TarOutputStream(out))
+        {
+            tar.setLongFileMode(TarOutputStream.LONGFILE_GNU);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            for (Map.Entry<String, File> entry : entries.entrySet())
+            {
+                File file = entry.getValue();
+                TarEntry tarEntry = new TarEntry(entry.getKey());
+                tarEntry.setModTime(file.lastModified());
+                if (file.isDirectory())
+                {
+                    tarEntry.setMode(UnixStat.DIR_FLAG | UnixStat.DEFAULT_DIR_PERM);
+                    tar.putNextEntry(tarEntry);
+                }
+                else
+                {
+                    tarEntry.setMode(UnixStat.FILE_FLAG | getFileMode(file));
+                    tarEntry.setSize(file.length());
+                    tar.putNextEntry(tarEntry);
+                    copy(file, tar, buffer);
+                }
+                tar.closeEntry();
+            }
+        }
+    }
+
+    /**
+     * @param file File to package.
+     * @return UNIX permissions to give to the file in the archive.
+     */
+    private int getFileMode(File file)
+    {
+        if (file.canExecute())
+        {
+            return 0755;
+        }
+        return UnixStat.DEFAULT_FILE_PERM;
+    }
+
+    /**
+     * Copies a file into an archive entry.
+     * 
+     * @param file File to copy.
+     * @param out Archive stream.
+     * @param buffer Copy buffer.
+     * @throws IOException If reading or writing fails.
+     */
+    private void copy(File file, OutputStream out, byte[] buffer) throws IOException
+    {
+        try (InputStream in = new FileInputStream(file))
+        {
+            int read;
+            while ((read = in.read(buffer)) != -1)
+            {
+                out.write(buffer, 0, read);
+            }
+        }
+    }
+
     /**
      * @return the list of files to exclude by default from the configuration.
      * @see #getConfigurationExclusions()
@@ -0,0 +1,204 @@
+/*
+ * ========================================================================
+ *
+ * Codehaus CARGO, copyright 2004-2011 Vincent Massol, 2012-2018 Ali Tokmen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * ========================================================================
+ */
+package org.codehaus.cargo.container.spi.startup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+import org.codehaus.cargo.container.Container;
+
+/**
+ * Abstract implementation of monitor checking container status by probing a lightweight
+ * readiness endpoint, as returned by {@link #getPingUrl()}. Unlike a ping, redirects are only
+ * followed if {@link #isFollowRedirects()} says so and connections are never explicitly
+ * disconnected, so that successive probes reuse the same kept alive HTTP connection instead of
+ * rendering a full page over a new connection each time.
+ */
+public abstract class AbstractProbeContainerMonitor extends AbstractPingContainerMonitor
+{
+    /**
+     * Connect and read timeout of a single probe, in milliseconds.
+     */
+    private static final int PROBE_TIMEOUT = 5000;
+
+    /**
+     * Maximum number of redirections followed by one probe.
+     */
+    private static final int MAX_REDIRECTS = 5;
+
+    /**
+     * HTTP 307 Temporary Redirect response code.
+     */
+    private static final int TEMPORARY_REDIRECT = 307;
+
+    /**
+     * HTTP 308 Permanent Redirect response code.
+     */
+    private static final int PERMANENT_REDIRECT = 308;
+
+    /**
+     * Constructor.
+     *
+     * @param container Container to be monitored.
+     */
+    public AbstractProbeContainerMonitor(Container container)
+    {
+        super(container);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isRunning()
+    {
+        URL probeUrl = getPingUrl();
+        try
+        {
+            HttpURLConnection connection = probe(probeUrl);
+            for (int redirects = 0; isFollowRedirects()
+                && isRedirect(connection.getResponseCode()); redirects++)
+            {
+                String location = connection.getHeaderField("Location");
+                if (redirects == MAX_REDIRECTS || location == null)
+                {
+                    return false;
+                }
+                probeUrl = new URL(probeUrl, location);
+                connection = probe(probeUrl);
+            }
+            return isReady(connection);
+        }
+        catch (IOException e)
+        {
+            getLogger().debug("Probe " + probeUrl + " failed: " + e, this.getClass().getName());
+            return false;
+        }
+    }
+
+    /**
+     * Sends one probe request. Its response is fully read and closed so the connection goes back
+     * to the keep-alive cache; calling <code>disconnect()</code> would close it.
+     *
+     * @param probeUrl URL to probe.
+     * @return Connection, with the response read.
+     * @throws IOException If the probe fails.
+     */
+    private HttpURLConnection probe(URL probeUrl) throws IOException
+    {
+        HttpURLConnection connection = (HttpURLConnection) probeUrl.openConnection();
+        connection.setInstanceFollowRedirects(false);
+        connection.setUseCaches(false);
+        connection.setConnectTimeout(PROBE_TIMEOUT);
+        connection.setReadTimeout(PROBE_TIMEOUT);
+        connection.setRequestMethod(getProbeMethod());
+
+        int responseCode = connection.getResponseCode();
+
+        InputStream body;
+        if (responseCode >= 400)
+        {
+            body = connection.getErrorStream();
+        }
+        else
+        {
+            body = connection.getInputStream();
+        }
+        if (body != null)
+        {
+            try
+            {
+                byte[] buffer = new byte[1024];
+                while (body.read(buffer) != -1)
+                {
+                    // Drain
+                }
+            }
+            finally
+            {
+                body.close();
+            }
+        }
+
+        getLogger().debug("Probe " + probeUrl + " returned " + responseCode,
+            this.getClass().getName());
+        return connection;
+    }
+
+    /**
+     * @param responseCode HTTP response code.
+     * @return <code>true</code> if the response code is a redirection.
+     */
+    protected static boolean isRedirect(int responseCode)
+    {
+        switch (responseCode)
+        {
+            case HttpURLConnection.HTTP_MOVED_PERM:
+            case HttpURLConnection.HTTP_MOVED_TEMP:
+            case HttpURLConnection.HTTP_SEE_OTHER:
+            case TEMPORARY_REDIRECT:
+            case PERMANENT_REDIRECT:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * @return <code>true</code> if redirections are to be followed, with one probe per
+     * redirection, up to 5 redirections. <code>false</code> by default, in which case the response
+     * code of the redirection itself is checked with {@link #isReady(int)}.
+     */
+    protected boolean isFollowRedirects()
+    {
+        return false;
+    }
+
+    /**
+     * @return HTTP method used for probing, <code>HEAD</code> by default.
+     */
+    protected String getProbeMethod()
+    {
+        return "HEAD";
+    }
+
+    /**
+     * @param connection Connection of the last probe, with its response read.
+     * @return <code>true</code> if the response means the container is ready. By default, checks
+     * the response code with {@link #isReady(int)}.
+     * @throws IOException If the response cannot be read.
+     */
+    protected boolean isReady(HttpURLConnection connection) throws IOException
+    {
+        return isReady(connection.getResponseCode());
+    }
+
+    /**
+     * @param responseCode HTTP response code of the probe.
+     * @return <code>true</code> if the response code means the container is ready. By default,
+     * only success (2xx) codes are considered ready.
+     */
+    protected boolean isReady(int responseCode)
+    {
+        return responseCode >= 200 && responseCode < 300;
+    }
+}
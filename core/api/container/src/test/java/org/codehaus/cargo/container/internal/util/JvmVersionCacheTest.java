@@ -0,0 +1,137 @@
+/*
+ * ========================================================================
+ *
+ * Codehaus CARGO, copyright 2004-2011 Vincent Massol, 2012-2018 Ali Tokmen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * ========================================================================
+ */
+package org.codehaus.cargo.container.internal.util;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for {@link JvmVersionCache}.
+ */
+public class JvmVersionCacheTest extends TestCase
+{
+    /**
+     * Probe counting its invocations.
+     */
+    private static class CountingProbe implements JvmVersionCache.VersionProbe
+    {
+        /**
+         * Number of invocations.
+         */
+        private int count;
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String probeVersion() throws IOException
+        {
+            count++;
+            return "1.8.0_292\"";
+        }
+    }
+
+    /**
+     * Temporary Java home.
+     */
+    private File javaHome;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void setUp() throws Exception
+    {
+        super.setUp();
+        javaHome = File.createTempFile("cargo-jvm-", "");
+        javaHome.delete();
+        new File(javaHome, "bin").mkdirs();
+        new File(javaHome, "bin/java").createNewFile();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void tearDown() throws Exception
+    {
+        new File(javaHome, "bin/java").delete();
+        new File(javaHome, "bin").delete();
+        new File(javaHome, "release").delete();
+        new File(javaHome, "jvm-versions.properties").delete();
+        javaHome.delete();
+        super.tearDown();
+    }
+
+    /**
+     * Test that a JVM is probed only once.
+     * @throws Exception If anything goes wrong.
+     */
+    public void testProbedOnce() throws Exception
+    {
+        JvmVersionCache cache = new JvmVersionCache(null);
+        CountingProbe probe = new CountingProbe();
+        String java = new File(javaHome, "bin/java").getPath();
+
+        assertEquals(8, cache.getMajorVersion(javaHome.getPath(), java, probe));
+        assertEquals(8, cache.getMajorVersion(javaHome.getPath(), java, probe));
+        assertEquals(1, probe.count);
+    }
+
+    /**
+     * Test that the <code>release</code> file is used instead of probing.
+     * @throws Exception If anything goes wrong.
+     */
+    public void testReleaseFile() throws Exception
+    {
+        try (Writer writer = new FileWriter(new File(javaHome, "release")))
+        {
+            writer.write("IMPLEMENTOR=\"Oracle Corporation\"\nJAVA_VERSION=\"11.0.2\"\n");
+        }
+        JvmVersionCache cache = new JvmVersionCache(null);
+        CountingProbe probe = new CountingProbe();
+
+        assertEquals(11, cache.getMajorVersion(javaHome.getPath(),
+            new File(javaHome, "bin/java").getPath(), probe));
+        assertEquals(0, probe.count);
+    }
+
+    /**
+     * Test that probed versions are persisted and reused by other caches.
+     * @throws Exception If anything goes wrong.
+     */
+    public void testPersisted() throws Exception
+    {
+        File cacheFile = new File(javaHome, "jvm-versions.properties");
+        CountingProbe probe = new CountingProbe();
+        String java = new File(javaHome, "bin/java").getPath();
+
+        assertEquals(8, new JvmVersionCache(cacheFile).getMajorVersion(javaHome.getPath(), java,
+            probe));
+        assertTrue(cacheFile.isFile());
+        assertEquals(8, new JvmVersionCache(cacheFile).getMajorVersion(javaHome.getPath(), java,
+            probe));
+        assertEquals(1, probe.count);
+    }
+}
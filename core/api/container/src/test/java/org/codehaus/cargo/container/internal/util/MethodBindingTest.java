@@ -0,0 +1,103 @@
+/*
+ * ========================================================================
+ *
+ * Codehaus CARGO, copyright 2004-2011 Vincent Massol, 2012-2018 Ali Tokmen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * ========================================================================
+ */
+package org.codehaus.cargo.container.internal.util;
+
+import java.lang.reflect.InvocationTargetException;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for {@link MethodBinding}.
+ */
+public class MethodBindingTest extends TestCase
+{
+    /**
+     * Test invoking instance methods, with primitive and <code>void</code> signatures.
+     * @throws Exception If anything goes wrong.
+     */
+    public void testInvoke() throws Exception
+    {
+        assertEquals("arg", MethodBinding.bind(String.class, "substring", int.class, int.class)
+            .invoke("cargo", 1, 4));
+
+        StringBuilder builder = new StringBuilder("cargo");
+        assertNull(MethodBinding.bind(StringBuilder.class, "setLength", int.class)
+            .invoke(builder, 3));
+        assertEquals("car", builder.toString());
+    }
+
+    /**
+     * Test invoking static methods and constructors.
+     * @throws Exception If anything goes wrong.
+     */
+    public void testStaticAndConstructor() throws Exception
+    {
+        assertEquals(Integer.valueOf(42),
+            MethodBinding.bind(Integer.class, "valueOf", String.class).invoke(null, "42"));
+        assertEquals("cargo", MethodBinding.bindConstructor(StringBuilder.class, String.class)
+            .newInstance("cargo").toString());
+    }
+
+    /**
+     * Test that bindings are resolved once.
+     * @throws Exception If anything goes wrong.
+     */
+    public void testCached() throws Exception
+    {
+        assertSame(MethodBinding.bind(String.class, "trim"),
+            MethodBinding.bind(String.class, "trim"));
+        assertNotSame(MethodBinding.bind(String.class, "indexOf", String.class),
+            MethodBinding.bind(String.class, "indexOf", int.class));
+    }
+
+    /**
+     * Test that exceptions thrown by the target are wrapped like reflection does.
+     * @throws Exception If anything goes wrong.
+     */
+    public void testTargetException() throws Exception
+    {
+        try
+        {
+            MethodBinding.bind(Integer.class, "parseInt", String.class).invoke(null, "cargo");
+            fail("No exception thrown");
+        }
+        catch (InvocationTargetException expected)
+        {
+            assertTrue(expected.getCause() instanceof NumberFormatException);
+        }
+    }
+
+    /**
+     * Test that missing methods are detected when binding.
+     * @throws Exception If anything goes wrong.
+     */
+    public void testMissingMethod() throws Exception
+    {
+        try
+        {
+            MethodBinding.bind(String.class, "noSuchMethod");
+            fail("No exception thrown");
+        }
+        catch (NoSuchMethodException expected)
+        {
+            // Expected
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * ========================================================================
+ *
+ * Codehaus CARGO, copyright 2004-2011 Vincent Massol, 2012-2018 Ali Tokmen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * ========================================================================
+ */
+package org.codehaus.cargo.container.internal.util;
+
+import java.io.File;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Process started by {@link ProcessExecutorTest}. It writes to the file descriptor of the standard
+ * output, which is what {@link ProcessExecutor} reads.
+ */
+public final class ProcessExecutorChildMain
+{
+    /**
+     * Utility class.
+     */
+    private ProcessExecutorChildMain()
+    {
+        // Nothing
+    }
+
+    /**
+     * @param args Arguments of the process.
+     * @return Command starting a {@link ProcessExecutorChildMain} process with the current JVM.
+     */
+    public static List<String> command(String... args)
+    {
+        List<String> command = new ArrayList<String>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator
+            + "java");
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(ProcessExecutorChildMain.class.getName());
+        command.addAll(Arrays.asList(args));
+        return command;
+    }
+
+    /**
+     * @param args <code>sleep &lt;ms&gt;</code> to sleep, <code>line &lt;length&gt;</code> to
+     * output one line of the given length, <code>chatter</code> to output lines forever or
+     * <code>spawn &lt;ms&gt;</code> to start a child sleeping for the given time which inherits
+     * the output, and exit.
+     * @throws Exception If anything goes wrong.
+     */
+    public static void main(String[] args) throws Exception
+    {
+        PrintStream out = new PrintStream(new FileOutputStream(FileDescriptor.out), true);
+        if ("sleep".equals(args[0]))
+        {
+            Thread.sleep(Long.parseLong(args[1]));
+        }
+        else if ("line".equals(args[0]))
+        {
+            StringBuilder line = new StringBuilder();
+            for (int i = Integer.parseInt(args[1]); i > 0; i--)
+            {
+                line.append('x');
+            }
+            out.println(line);
+        }
+        else if ("chatter".equals(args[0]))
+        {
+            while (true)
+            {
+                out.println("chatter");
+            }
+        }
+        else if ("spawn".equals(args[0]))
+        {
+            new ProcessBuilder(command("sleep", args[1])).inheritIO().start();
+            out.println("spawned");
+        }
+    }
+}
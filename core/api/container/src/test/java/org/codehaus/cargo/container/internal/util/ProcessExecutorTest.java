@@ -0,0 +1,178 @@
+/*
+ * ========================================================================
+ *
+ * Codehaus CARGO, copyright 2004-2011 Vincent Massol, 2012-2018 Ali Tokmen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * ========================================================================
+ */
+package org.codehaus.cargo.container.internal.util;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.codehaus.cargo.util.CargoException;
+import org.codehaus.cargo.util.log.NullLogger;
+
+/**
+ * Unit tests for {@link ProcessExecutor}.
+ */
+public class ProcessExecutorTest extends TestCase
+{
+    /**
+     * Java executable of the current JVM.
+     */
+    private static final String JAVA =
+        System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+
+    /**
+     * Test that the exit code and the last output lines, including the standard error, are
+     * reported.
+     */
+    public void testExitHandler()
+    {
+        final List<String> output = new ArrayList<String>();
+        final int[] exitCodes = new int[1];
+
+        ProcessExecutor executor = new ProcessExecutor(new NullLogger());
+        executor.setMaxBufferedLines(1);
+        int exitCode = executor.executeAndWait(Arrays.asList(JAVA, "-version"),
+            new ProcessExecutor.ExitHandler()
+            {
+                /**
+                 * {@inheritDoc}
+                 */
+                @Override
+                public void processExited(int code, List<String> lastLines)
+                {
+                    exitCodes[0] = code;
+                    output.addAll(lastLines);
+                }
+            });
+
+        assertEquals(0, exitCode);
+        assertEquals(0, exitCodes[0]);
+        assertEquals(1, output.size());
+    }
+
+    /**
+     * Test that a failing command returns its exit code.
+     */
+    public void testFailingCommand()
+    {
+        ProcessExecutor executor = new ProcessExecutor(new NullLogger());
+        assertTrue(executor.executeAndWait(JAVA + " -cargoUnknownOption") != 0);
+    }
+
+    /**
+     * Test that a process running for longer than the timeout is destroyed.
+     */
+    public void testTimeout()
+    {
+        ProcessExecutor executor = new ProcessExecutor(new NullLogger());
+        executor.setTimeout(1000);
+        long start = System.currentTimeMillis();
+        try
+        {
+            executor.executeAndWait(ProcessExecutorChildMain.command("sleep", "60000"), null);
+            fail("The process has not timed out");
+        }
+        catch (CargoException expected)
+        {
+            assertTrue(expected.getMessage().contains("did not complete within 1000 ms"));
+        }
+        assertTrue(System.currentTimeMillis() - start < 30000);
+    }
+
+    /**
+     * Test that the timeout is enforced even if the process never stops writing output.
+     */
+    public void testTimeoutWithContinuousOutput()
+    {
+        ProcessExecutor executor = new ProcessExecutor(new NullLogger());
+        executor.setTimeout(1000);
+        long start = System.currentTimeMillis();
+        try
+        {
+            executor.executeAndWait(ProcessExecutorChildMain.command("chatter"), null);
+            fail("The process has not timed out");
+        }
+        catch (CargoException expected)
+        {
+            assertTrue(expected.getMessage().contains("chatter"));
+        }
+        assertTrue(System.currentTimeMillis() - start < 30000);
+    }
+
+    /**
+     * Test that waiting ends when the process exits, even though a child process still holds its
+     * output open.
+     */
+    public void testChildHoldingOutput()
+    {
+        final List<String> output = new ArrayList<String>();
+        ProcessExecutor executor = new ProcessExecutor(new NullLogger());
+        executor.setTimeout(60000);
+        long start = System.currentTimeMillis();
+        List<String> command = ProcessExecutorChildMain.command("spawn", "20000");
+        int exitCode = executor.executeAndWait(command,
+            new ProcessExecutor.ExitHandler()
+            {
+                /**
+                 * {@inheritDoc}
+                 */
+                @Override
+                public void processExited(int code, List<String> lastLines)
+                {
+                    output.addAll(lastLines);
+                }
+            });
+
+        assertEquals(0, exitCode);
+        assertTrue(output.contains("spawned"));
+        assertTrue(System.currentTimeMillis() - start < 15000);
+    }
+
+    /**
+     * Test that output lines are capped at 64 KiB.
+     */
+    public void testLineCap()
+    {
+        final List<String> output = new ArrayList<String>();
+        ProcessExecutor executor = new ProcessExecutor(new NullLogger());
+        List<String> command =
+            ProcessExecutorChildMain.command("line", String.valueOf(3 * 65536 + 10));
+        executor.executeAndWait(command,
+            new ProcessExecutor.ExitHandler()
+            {
+                /**
+                 * {@inheritDoc}
+                 */
+                @Override
+                public void processExited(int code, List<String> lastLines)
+                {
+                    output.addAll(lastLines);
+                }
+            });
+
+        assertEquals(4, output.size());
+        assertEquals(65536, output.get(0).length());
+        assertEquals(65536, output.get(2).length());
+        assertEquals(10, output.get(3).length());
+    }
+}
@@ -33,6 +33,7 @@ import org.codehaus.cargo.container.configuration.ConfigurationCapability;
 import org.codehaus.cargo.container.property.GeneralPropertySet;
 import org.codehaus.cargo.container.property.LoggingLevel;
 import org.codehaus.cargo.container.property.ServletPropertySet;
+import org.codehaus.cargo.container.stub.InstalledLocalContainerStub;
 import org.codehaus.cargo.util.VFSFileHandler;
 
 /**
@@ -47,6 +48,16 @@ public class StandaloneConfigurationTest extends TestCase
     public class TestableAbstractStandaloneConfiguration
         extends AbstractStandaloneLocalConfiguration
     {
+        /**
+         * Number of times the configuration has been created.
+         */
+        private int configureCount;
+
+        /**
+         * Cargo version.
+         */
+        private String cargoVersion = "1.0";
+
         /**
          * {@inheritDoc}
          * @param dir Configuration directory.
@@ -64,6 +75,16 @@ public class StandaloneConfigurationTest extends TestCase
         protected void doConfigure(LocalContainer container)
         {
             // Do nothing voluntarily for testing
+            configureCount++;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected String getCargoVersion()
+        {
+            return cargoVersion;
         }
 
         /**
@@ -170,6 +191,71 @@ public class StandaloneConfigurationTest extends TestCase
         }
     }
 
+    /**
+     * Test that an unchanged configuration is reused when requested.
+     * @throws Exception If anything goes wrong.
+     */
+    public void testReuseUnchangedConfiguration() throws Exception
+    {
+        String configDir = "ram:///cargo/testReuseUnchangedConfiguration";
+
+        TestableAbstractStandaloneConfiguration configuration =
+            new TestableAbstractStandaloneConfiguration(configDir);
+        configuration.setFileHandler(new VFSFileHandler());
+        configuration.setProperty(GeneralPropertySet.REUSE_CONFIGURATION, "true");
+        configuration.setupConfigurationDir();
+        LocalContainer container = new InstalledLocalContainerStub(configuration);
+
+        configuration.configure(container);
+        assertEquals(1, configuration.configureCount);
+        configuration.configure(container);
+        assertEquals(1, configuration.configureCount);
+
+        configuration.setProperty(ServletPropertySet.PORT, "8081");
+        configuration.configure(container);
+        assertEquals(2, configuration.configureCount);
+    }
+
+    /**
+     * Test that a configuration created by another Cargo version is not reused.
+     * @throws Exception If anything goes wrong.
+     */
+    public void testNoReuseAcrossCargoVersions() throws Exception
+    {
+        String configDir = "ram:///cargo/testNoReuseAcrossCargoVersions";
+
+        TestableAbstractStandaloneConfiguration configuration =
+            new TestableAbstractStandaloneConfiguration(configDir);
+        configuration.setFileHandler(new VFSFileHandler());
+        configuration.setProperty(GeneralPropertySet.REUSE_CONFIGURATION, "true");
+        configuration.setupConfigurationDir();
+        LocalContainer container = new InstalledLocalContainerStub(configuration);
+
+        configuration.configure(container);
+        configuration.cargoVersion = "1.1";
+        configuration.configure(container);
+        assertEquals(2, configuration.configureCount);
+    }
+
+    /**
+     * Test that the configuration is created every time by default.
+     * @throws Exception If anything goes wrong.
+     */
+    public void testNoReuseByDefault() throws Exception
+    {
+        String configDir = "ram:///cargo/testNoReuseByDefault";
+
+        TestableAbstractStandaloneConfiguration configuration =
+            new TestableAbstractStandaloneConfiguration(configDir);
+        configuration.setFileHandler(new VFSFileHandler());
+        configuration.setupConfigurationDir();
+        LocalContainer container = new InstalledLocalContainerStub(configuration);
+
+        configuration.configure(container);
+        configuration.configure(container);
+        assertEquals(2, configuration.configureCount);
+    }
+
     /**
      * Test the setting of default properties.
      * @throws Exception If anything goes wrong.
@@ -0,0 +1,118 @@
+/*
+ * ========================================================================
+ *
+ * Codehaus CARGO, copyright 2004-2011 Vincent Massol, 2012-2018 Ali Tokmen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * ========================================================================
+ */
+package org.codehaus.cargo.container.spi.jvm;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+
+import junit.framework.TestCase;
+
+import org.codehaus.cargo.util.log.NullLogger;
+
+/**
+ * Unit tests for {@link ProcessJvmLauncher}.
+ */
+public class ProcessJvmLauncherTest extends TestCase
+{
+    /**
+     * Launcher under test.
+     */
+    private ProcessJvmLauncher launcher;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void setUp() throws Exception
+    {
+        super.setUp();
+        launcher = new ProcessJvmLauncher(new NullLogger(), getClass().getName());
+        launcher.setJvm(new File(new File(System.getProperty("java.home"), "bin"), "java")
+            .getAbsolutePath());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void tearDown() throws Exception
+    {
+        launcher.kill();
+        super.tearDown();
+    }
+
+    /**
+     * Test the command line follows the order of the Ant Java task.
+     */
+    public void testGetCommandLine()
+    {
+        launcher.addAppArguments("app");
+        launcher.setMainClass("Main");
+        launcher.addClasspathEntries("a.jar", "b.jar");
+        launcher.setSystemProperty("name", "value");
+        launcher.addJvmArgumentLine("-Xmx64m -Dx=\"y z\"");
+
+        String commandLine = launcher.getCommandLine();
+        assertTrue(commandLine, commandLine.endsWith(" -Xmx64m \"-Dx=y z\" -Dname=value -classpath "
+            + "a.jar" + File.pathSeparator + "b.jar Main app"));
+    }
+
+    /**
+     * Test the output of the JVM is redirected to the output file and its exit code returned.
+     * @throws Exception If anything goes wrong.
+     */
+    public void testExecuteRedirectsOutput() throws Exception
+    {
+        File output = File.createTempFile("cargo-jvm-launcher-test", ".log");
+        try
+        {
+            launcher.addJvmArguments("-version");
+            launcher.setOutputFile(output);
+
+            assertEquals(0, launcher.execute());
+            assertTrue(launcher.waitForExit(0));
+            String content = new String(Files.readAllBytes(output.toPath()),
+                Charset.defaultCharset());
+            assertTrue(content, content.contains("version"));
+        }
+        finally
+        {
+            output.delete();
+        }
+    }
+
+    /**
+     * Test a running JVM gets terminated.
+     * @throws Exception If anything goes wrong.
+     */
+    public void testKill() throws Exception
+    {
+        assertTrue(launcher.waitForExit(0));
+
+        launcher.addClasspathEntries(System.getProperty("java.class.path"));
+        launcher.setMainClass(SleepingJvmMain.class.getName());
+        launcher.start();
+        assertFalse(launcher.waitForExit(500));
+
+        launcher.kill();
+        assertTrue(launcher.waitForExit(10000));
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * ========================================================================
+ *
+ * Codehaus CARGO, copyright 2004-2011 Vincent Massol, 2012-2018 Ali Tokmen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * ========================================================================
+ */
+package org.codehaus.cargo.container.spi.jvm;
+
+/**
+ * JVM started by {@link ProcessJvmLauncherTest}, which keeps running for a minute.
+ */
+public final class SleepingJvmMain
+{
+    /**
+     * Utility class.
+     */
+    private SleepingJvmMain()
+    {
+        // Nothing
+    }
+
+    /**
+     * @param args Ignored.
+     * @throws InterruptedException If interrupted while sleeping.
+     */
+    public static void main(String[] args) throws InterruptedException
+    {
+        Thread.sleep(60000);
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * ========================================================================
+ *
+ * Codehaus CARGO, copyright 2004-2011 Vincent Massol, 2012-2018 Ali Tokmen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * ========================================================================
+ */
+package org.codehaus.cargo.container.spi.packager;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import junit.framework.TestCase;
+
+import org.apache.tools.tar.TarEntry;
+import org.apache.tools.tar.TarInputStream;
+import org.codehaus.cargo.container.InstalledLocalContainer;
+import org.codehaus.cargo.container.stub.InstalledLocalContainerStub;
+import org.codehaus.cargo.container.stub.StandaloneLocalConfigurationStub;
+import org.codehaus.cargo.util.DefaultFileHandler;
+import org.codehaus.cargo.util.FileHandler;
+
+/**
+ * Unit tests for {@link AbstractDirectoryPackager}.
+ */
+public class DirectoryPackagerTest extends TestCase
+{
+    /**
+     * Packager excluding the distribution configuration.
+     */
+    private static class TestableDirectoryPackager extends AbstractDirectoryPackager
+    {
+        /**
+         * {@inheritDoc}
+         * @param target Target directory or archive.
+         */
+        public TestableDirectoryPackager(String target)
+        {
+            super(target);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected List<String> getDistributionExclusions()
+        {
+            return Arrays.asList("conf/**");
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected List<String> getConfigurationExclusions()
+        {
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * File handler.
+     */
+    private FileHandler fileHandler = new DefaultFileHandler();
+
+    /**
+     * Test directory.
+     */
+    private File testDir;
+
+    /**
+     * Container to package.
+     */
+    private InstalledLocalContainer container;
+
+    /**
+     * Creates a container distribution and configuration. {@inheritDoc}
+     * @throws Exception If anything goes wrong.
+     */
+    @Override
+    protected void setUp() throws Exception
+    {
+        super.setUp();
+
+        testDir = File.createTempFile("cargo-packager-test", null);
+        testDir.delete();
+        String home = fileHandler.append(testDir.getPath(), "home");
+        String config = fileHandler.append(testDir.getPath(), "config");
+
+        fileHandler.writeTextFile(fileHandler.append(home, "bin/startup.sh"), "run", null);
+        new File(home, "bin/startup.sh").setExecutable(true);
+        fileHandler.writeTextFile(fileHandler.append(home, "conf/server.xml"), "default", null);
+        fileHandler.writeTextFile(fileHandler.append(home, "lib/container.jar"), "jar", null);
+        fileHandler.writeTextFile(fileHandler.append(config, "conf/server.xml"), "custom", null);
+        fileHandler.writeTextFile(fileHandler.append(config, "webapps/cargocpc.war"), "cpc",
+            null);
+
+        container = new InstalledLocalContainerStub(new StandaloneLocalConfigurationStub(config));
+        container.setHome(home);
+    }
+
+    /**
+     * Deletes the test directory. {@inheritDoc}
+     * @throws Exception If anything goes wrong.
+     */
+    @Override
+    protected void tearDown() throws Exception
+    {
+        fileHandler.delete(testDir.getPath());
+        super.tearDown();
+    }
+
+    /**
+     * Test packaging into a ZIP archive.
+     * @throws Exception If anything goes wrong.
+     */
+    public void testPackageZip() throws Exception
+    {
+        File archive = new File(testDir, "package.zip");
+        new TestableDirectoryPackager(archive.getPath()).packageContainer(container);
+
+        try (ZipFile zip = new ZipFile(archive))
+        {
+            List<String> names = new ArrayList<String>();
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements())
+            {
+                names.add(entries.nextElement().getName());
+            }
+            assertEquals(Arrays.asList("bin/", "bin/startup.sh", "conf/", "conf/server.xml",
+                "lib/", "lib/container.jar", "webapps/"), names);
+
+            try (InputStream serverXml = zip.getInputStream(zip.getEntry("conf/server.xml")))
+            {
+                assertEquals('c', serverXml.read());
+            }
+        }
+    }
+
+    /**
+     * Test packaging into a gzipped TAR archive.
+     * @throws Exception If anything goes wrong.
+     */
+    public void testPackageTarGz() throws Exception
+    {
+        File archive = new File(testDir, "package.tar.gz");
+        new TestableDirectoryPackager(archive.getPath()).packageContainer(container);
+
+        List<String> names = new ArrayList<String>();
+        try (InputStream file = new FileInputStream(archive);
+            TarInputStream tar = new TarInputStream(new GZIPInputStream(file)))
+        {
+            TarEntry entry;
+            while ((entry = tar.getNextEntry()) != null)
+            {
+                names.add(entry.getName());
+                if ("bin/startup.sh".equals(entry.getName())
+                    && new File(container.getHome(), "bin/startup.sh").canExecute())
+                {
+                    assertEquals(0755, entry.getMode() & 0777);
+                }
+                if ("conf/server.xml".equals(entry.getName()))
+                {
+                    assertEquals(6, entry.getSize());
+                }
+            }
+        }
+        assertEquals(Arrays.asList("bin/", "bin/startup.sh", "conf/", "conf/server.xml",
+            "lib/", "lib/container.jar", "webapps/"), names);
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ * ========================================================================
+ *
+ * Codehaus CARGO, copyright 2004-2011 Vincent Massol, 2012-2018 Ali Tokmen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * ========================================================================
+ */
+package org.codehaus.cargo.container.spi.startup;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import junit.framework.TestCase;
+
+import org.codehaus.cargo.container.stub.InstalledLocalContainerStub;
+
+/**
+ * Unit tests for {@link AbstractProbeContainerMonitor}.
+ */
+public class AbstractProbeContainerMonitorTest extends TestCase
+{
+    /**
+     * Readiness endpoint stand-in.
+     */
+    private HttpServer server;
+
+    /**
+     * Response code of the <code>/probe</code> path.
+     */
+    private volatile int probeResponseCode;
+
+    /**
+     * Response code of the <code>/logon</code> path, to which <code>/probe</code> redirects.
+     */
+    private volatile int logonResponseCode;
+
+    /**
+     * Requests received by the stand-in, as <code>METHOD path</code>.
+     */
+    private List<String> requests;
+
+    /**
+     * Probe monitor of the stand-in.
+     */
+    private static class TestProbeMonitor extends AbstractProbeContainerMonitor
+    {
+        /**
+         * URL to probe.
+         */
+        private URL url;
+
+        /**
+         * Whether to follow redirections.
+         */
+        private boolean followRedirects;
+
+        /**
+         * @param url URL to probe.
+         * @param followRedirects Whether to follow redirections.
+         */
+        public TestProbeMonitor(URL url, boolean followRedirects)
+        {
+            super(new InstalledLocalContainerStub());
+            this.url = url;
+            this.followRedirects = followRedirects;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected URL getPingUrl()
+        {
+            return this.url;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected boolean isFollowRedirects()
+        {
+            return this.followRedirects;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void setUp() throws Exception
+    {
+        super.setUp();
+        this.requests = new ArrayList<String>();
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        this.server.createContext("/", new HttpHandler()
+        {
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public void handle(HttpExchange exchange) throws IOException
+            {
+                String path = exchange.getRequestURI().getPath();
+                synchronized (requests)
+                {
+                    requests.add(exchange.getRequestMethod() + " " + path);
+                }
+
+                int responseCode;
+                if ("/probe".equals(path))
+                {
+                    responseCode = probeResponseCode;
+                    exchange.getResponseHeaders().add("Location", "/logon");
+                }
+                else if ("/logon".equals(path))
+                {
+                    responseCode = logonResponseCode;
+                }
+                else
+                {
+                    responseCode = 404;
+                }
+                exchange.sendResponseHeaders(responseCode, -1);
+                exchange.close();
+            }
+        });
+        this.server.start();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void tearDown() throws Exception
+    {
+        this.server.stop(0);
+        super.tearDown();
+    }
+
+    /**
+     * Test that a successful response means ready and an unavailable one means not ready.
+     * @throws Exception If anything goes wrong.
+     */
+    public void testReadyAndNotReady() throws Exception
+    {
+        AbstractProbeContainerMonitor monitor = new TestProbeMonitor(getUrl("/probe"), false);
+
+        this.probeResponseCode = 503;
+        assertFalse(monitor.isRunning());
+
+        this.probeResponseCode = 200;
+        assertTrue(monitor.isRunning());
+
+        assertEquals(2, this.requests.size());
+        assertEquals("HEAD /probe", this.requests.get(0));
+    }
+
+    /**
+     * Test that a redirection is not considered ready when redirections are not followed.
+     * @throws Exception If anything goes wrong.
+     */
+    public void testRedirectNotReady() throws Exception
+    {
+        this.probeResponseCode = 302;
+        this.logonResponseCode = 200;
+
+        assertFalse(new TestProbeMonitor(getUrl("/probe"), false).isRunning());
+        assertEquals(1, this.requests.size());
+    }
+
+    /**
+     * Test that the target of a followed redirection decides whether the container is ready.
+     * @throws Exception If anything goes wrong.
+     */
+    public void testFollowedRedirect() throws Exception
+    {
+        AbstractProbeContainerMonitor monitor = new TestProbeMonitor(getUrl("/probe"), true);
+        this.probeResponseCode = 302;
+
+        this.logonResponseCode = 503;
+        assertFalse(monitor.isRunning());
+
+        this.logonResponseCode = 200;
+        assertTrue(monitor.isRunning());
+
+        assertEquals(4, this.requests.size());
+        assertEquals("HEAD /logon", this.requests.get(3));
+    }
+
+    /**
+     * Test that an unreachable endpoint means not ready.
+     * @throws Exception If anything goes wrong.
+     */
+    public void testUnreachable() throws Exception
+    {
+        URL url = getUrl("/probe");
+        this.server.stop(0);
+        assertFalse(new TestProbeMonitor(url, false).isRunning());
+    }
+
+    /**
+     * @param path Path on the stand-in.
+     * @return URL of <code>path</code> on the stand-in.
+     * @throws MalformedURLException If the URL is invalid.
+     */
+    private URL getUrl(String path) throws MalformedURLException
+    {
+        return new URL("http", "localhost", this.server.getAddress().getPort(), path);
+    }
+}
@@ -29,6 +29,7 @@ import java.io.FileFilter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.security.MessageDigest;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.jar.JarInputStream;
@@ -192,6 +193,31 @@ public class DefaultJarArchive implements JarArchive
         return resources;
     }
 
+    /**
+     * Updates a message digest with the raw bytes of this archive.
+     * 
+     * @param digest Message digest to update
+     * @throws IOException If an exception occurred reading the archive
+     */
+    public void updateDigest(MessageDigest digest) throws IOException
+    {
+        if (this.content != null)
+        {
+            digest.update(this.content);
+            return;
+        }
+
+        try (InputStream in = getFileHandler().getInputStream(this.sourceFile))
+        {
+            byte[] buffer = new byte[40960];
+            int bytesRead;
+            while ((bytesRead = in.read(buffer)) != -1)
+            {
+                digest.update(buffer, 0, bytesRead);
+            }
+        }
+    }
+
     /**
      * Returns the content of the archive as <code>JarInputStream</code>.
      * 
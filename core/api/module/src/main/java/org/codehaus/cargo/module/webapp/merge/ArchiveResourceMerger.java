@@ -54,6 +54,22 @@ public class ArchiveResourceMerger
         this.resource = resource;
     }
 
+    /**
+     * @return name of the resource path
+     */
+    public String getResource()
+    {
+        return this.resource;
+    }
+
+    /**
+     * @return the processor
+     */
+    public MergeProcessor getMergeProcessor()
+    {
+        return this.next;
+    }
+
     /**
      * Add an item into the merge.
      * 
@@ -102,8 +118,13 @@ public class ArchiveResourceMerger
             File outputFile = new File(assembleDir.getAbsolutePath() + File.separator
                 + this.resource);
 
-            // Make sure the directory actually exists
-            outputFile.getParentFile().mkdir();
+            // Make sure the directory actually exists; merges of other resources may be creating
+            // it at the same time, hence mkdirs() failing is fine as long as it then exists
+            File outputDir = outputFile.getParentFile();
+            if (!outputDir.mkdirs() && !outputDir.isDirectory())
+            {
+                throw new MergeException("Cannot create directory " + outputDir);
+            }
 
             try (FileOutputStream fos = new FileOutputStream(outputFile))
             {
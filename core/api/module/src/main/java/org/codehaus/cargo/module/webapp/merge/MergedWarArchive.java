@@ -23,10 +23,26 @@ import java.io.File;
 import java.io.FileFilter;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 
 import org.codehaus.cargo.module.AbstractDescriptorIo;
+import org.codehaus.cargo.module.DefaultJarArchive;
 import org.codehaus.cargo.module.merge.MergeException;
 import org.codehaus.cargo.module.merge.MergeProcessor;
 import org.codehaus.cargo.module.webapp.WarArchive;
@@ -71,6 +87,11 @@ public class MergedWarArchive implements WarArchive
      */
     private WebXmlMerger webXmlMerger;
 
+    /**
+     * Maximum number of threads used when merging.
+     */
+    private int threads = 1;
+
     /**
      * Constructor.
      */
@@ -165,18 +186,59 @@ public class MergedWarArchive implements WarArchive
      */
     protected void executeMergeProcessors(File assembleDir) throws MergeException, IOException
     {
+        executeMergeProcessors(assembleDir, null);
+    }
+
+    /**
+     * Executes the merge processors. Processors working on different resources are independent
+     * and run concurrently if an executor is given; processors working on the same resource run
+     * one after the other, in the order they were added.
+     * 
+     * @param assembleDir in the directory to output the merge data to
+     * @param executor executor to run the processors with, <code>null</code> to run them in the
+     * calling thread
+     * @throws MergeException when there is a problem
+     * @throws IOException if an IO exception
+     */
+    private void executeMergeProcessors(final File assembleDir, ExecutorService executor)
+        throws MergeException, IOException
+    {
+        Map<String, List<ArchiveResourceMerger>> processorsByResource =
+            new LinkedHashMap<String, List<ArchiveResourceMerger>>();
         for (ArchiveResourceMerger processor : this.mergeProcessors)
         {
-            for (MergeWarFileDetails details : this.warFiles)
+            List<ArchiveResourceMerger> processors =
+                processorsByResource.get(processor.getResource());
+            if (processors == null)
             {
-                WarArchive wa = details.getWarFile();
-
-                processor.addMergeItem(wa);
+                processors = new ArrayList<ArchiveResourceMerger>();
+                processorsByResource.put(processor.getResource(), processors);
             }
-
-            processor.execute(assembleDir);
+            processors.add(processor);
         }
 
+        List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+        for (final List<ArchiveResourceMerger> processors : processorsByResource.values())
+        {
+            tasks.add(new Callable<Void>()
+            {
+                @Override
+                public Void call() throws MergeException
+                {
+                    for (ArchiveResourceMerger processor : processors)
+                    {
+                        for (MergeWarFileDetails details : warFiles)
+                        {
+                            processor.addMergeItem(details.getWarFile());
+                        }
+
+                        processor.execute(assembleDir);
+                    }
+                    return null;
+                }
+            });
+        }
+        invokeAll(executor, tasks);
     }
 
     /**
@@ -193,15 +255,110 @@ public class MergedWarArchive implements WarArchive
         // Do actual merge
         merge(assembleDir);
 
-        // Create a jar file
-        new JarUtils().createJarFromDirectory(assembleDir, warFile);
+        // Create a reproducible jar file
+        new JarUtils().createJarFromDirectory(assembleDir, warFile,
+            JarUtils.REPRODUCIBLE_ENTRY_TIME);
 
         // Delete temp directory.
         fileHandler.delete(assembleDir);
     }
 
     /**
-     * Here we write combined archive file structure out into the new location.
+     * Computes a fingerprint of all inputs of this merge: the content of all WAR and JAR files,
+     * whether JAR files are merged and which merge processors are executed on which resources.
+     * Two merges with the same fingerprint produce the same output, which allows callers to skip
+     * merges when nothing has changed.
+     * 
+     * @return Hexadecimal fingerprint, or <code>null</code> if one of the WAR files cannot be
+     * fingerprinted (for example, because it is not backed by an archive)
+     * @throws IOException If one of the inputs cannot be read
+     */
+    public String getFingerprint() throws IOException
+    {
+        MessageDigest digest;
+        try
+        {
+            digest = MessageDigest.getInstance("SHA-256");
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            throw new IOException("Cannot create message digest", e);
+        }
+
+        if (!updateDigest(digest))
+        {
+            return null;
+        }
+
+        StringBuilder fingerprint = new StringBuilder();
+        for (byte b : digest.digest())
+        {
+            fingerprint.append(String.format("%02x", b));
+        }
+        return fingerprint.toString();
+    }
+
+    /**
+     * Updates a message digest with all inputs of this merge.
+     * 
+     * @param digest Message digest to update
+     * @return <code>false</code> if one of the WAR files cannot be fingerprinted
+     * @throws IOException If one of the inputs cannot be read
+     */
+    private boolean updateDigest(MessageDigest digest) throws IOException
+    {
+        for (MergeWarFileDetails details : this.warFiles)
+        {
+            WarArchive warFile = details.getWarFile();
+            digest.update("war:".getBytes(StandardCharsets.UTF_8));
+            if (warFile instanceof DefaultJarArchive)
+            {
+                ((DefaultJarArchive) warFile).updateDigest(digest);
+            }
+            else if (warFile instanceof MergedWarArchive)
+            {
+                if (!((MergedWarArchive) warFile).updateDigest(digest))
+                {
+                    return false;
+                }
+            }
+            else
+            {
+                return false;
+            }
+        }
+
+        FileHandler fileHandler = new DefaultFileHandler();
+        for (File jarFile : this.jarFiles)
+        {
+            digest.update(("jar:" + jarFile.getName() + ":").getBytes(StandardCharsets.UTF_8));
+            try (InputStream in = fileHandler.getInputStream(jarFile.getAbsolutePath()))
+            {
+                byte[] buffer = new byte[40960];
+                int bytesRead;
+                while ((bytesRead = in.read(buffer)) != -1)
+                {
+                    digest.update(buffer, 0, bytesRead);
+                }
+            }
+        }
+
+        digest.update(("mergeJarFiles:" + this.mergeJarFiles).getBytes(StandardCharsets.UTF_8));
+        for (ArchiveResourceMerger processor : this.mergeProcessors)
+        {
+            digest.update(("processor:" + processor.getResource() + ":"
+                + processor.getMergeProcessor().getClass().getName())
+                    .getBytes(StandardCharsets.UTF_8));
+        }
+        return true;
+    }
+
+    /**
+     * Here we write combined archive file structure out into the new location. If more than one
+     * thread is allowed (see {@link #setThreads(int)}), the WAR files are expanded, the JAR files
+     * copied and the merge processors executed concurrently; the result is nevertheless the same
+     * as a sequential merge: files coming from later WAR files overwrite the ones coming from
+     * earlier WAR files.
      * @param assembleDir target directory to write to
      * @throws IOException If there was a problem reading the deployment descriptor in the WAR
      * @throws JDOMException If the deployment descriptor of the WAR could not be parsed
@@ -211,49 +368,279 @@ public class MergedWarArchive implements WarArchive
     {
         DefaultFileHandler fileHandler = new DefaultFileHandler();
 
-        // 1: Merge together the web XML items
-        WebXml mergedWebXml = getWebXml();
+        ExecutorService executor = null;
+        if (this.threads > 1)
+        {
+            executor = Executors.newFixedThreadPool(this.threads);
+        }
+        try
+        {
+            // 1: Expand everything somewhere temporary, and meanwhile merge together the web XML
+            // items
+            WebXml mergedWebXml = expandAndMergeWebXml(assembleDir, executor);
+
+            if (!mergeJarFiles)
+            {
+                File f = new File(assembleDir);
+                File webInfLib = new File(f, "WEB-INF/lib");
+                File[] files = webInfLib.listFiles();
+                for (int i = 0; i < files.length; i++)
+                {
+                    if (!files[i].isDirectory()
+                        && files[i].getName().toLowerCase().endsWith(".jar"))
+                    {
+                        fileHandler.delete(files[i].getAbsolutePath());
+                    }
+                }
+            }
+
+            copyJars(assembleDir, executor);
 
-        // 2. Expand everything in order somewhere temporary
-        expandToPath(assembleDir);
+            // (over)write the web-inf configs
+            AbstractDescriptorIo.writeAll(mergedWebXml, fileHandler.append(new File(assembleDir)
+                .getAbsolutePath(), File.separator + "WEB-INF"));
 
-        if (!mergeJarFiles)
+            executeMergeProcessors(new File(assembleDir), executor);
+        }
+        finally
         {
-            File f = new File(assembleDir);
-            File webInfLib = new File(f, "WEB-INF/lib");
-            File[] files = webInfLib.listFiles();
-            for (int i = 0; i < files.length; i++)
+            if (executor != null)
             {
-                if (!files[i].isDirectory() && files[i].getName().toLowerCase().endsWith(".jar"))
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Expands all WAR files into the assembly directory and merges their web XML files. When an
+     * executor is given, each WAR file is expanded concurrently into its own staging directory,
+     * while web XML files are merged in the calling thread; staging directories are then moved
+     * into the assembly directory in the order of the WAR files.
+     * 
+     * @param assembleDir directory to expand the WAR files to
+     * @param executor executor to expand the WAR files with, <code>null</code> to expand them in
+     * the calling thread
+     * @return the merged web XML
+     * @throws IOException If there was a problem reading the deployment descriptor in the WAR
+     * @throws JDOMException If the deployment descriptor of the WAR could not be parsed
+     * @throws MergeException If one of the WAR files cannot be expanded
+     */
+    private WebXml expandAndMergeWebXml(String assembleDir, ExecutorService executor)
+        throws MergeException, IOException, JDOMException
+    {
+        if (executor == null || this.warFiles.size() < 2)
+        {
+            WebXml mergedWebXml = getWebXml();
+            expandToPath(assembleDir);
+            return mergedWebXml;
+        }
+
+        File assembleDirFile = new File(assembleDir).getAbsoluteFile();
+        final List<File> stagingDirs = new ArrayList<File>(this.warFiles.size());
+        List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(this.warFiles.size());
+        for (int i = 0; i < this.warFiles.size(); i++)
+        {
+            final WarArchive wa = this.warFiles.get(i).getWarFile();
+            final File stagingDir = new File(assembleDirFile.getParentFile(),
+                assembleDirFile.getName() + ".merge-" + i);
+            stagingDirs.add(stagingDir);
+            tasks.add(new Callable<Void>()
+            {
+                @Override
+                public Void call() throws IOException
                 {
-                    fileHandler.delete(files[i].getAbsolutePath());
+                    wa.expandToPath(stagingDir.getAbsolutePath());
+                    return null;
                 }
-            }
+            });
         }
 
-        copyJars(assembleDir);
+        DefaultFileHandler fileHandler = new DefaultFileHandler();
+        try
+        {
+            List<Future<Void>> expansions = new ArrayList<Future<Void>>(tasks.size());
+            for (Callable<Void> task : tasks)
+            {
+                expansions.add(executor.submit(task));
+            }
+
+            WebXml mergedWebXml = getWebXml();
+
+            waitFor(expansions);
+            fileHandler.mkdirs(assembleDirFile.getAbsolutePath());
+            for (File stagingDir : stagingDirs)
+            {
+                moveContents(stagingDir, assembleDirFile);
+            }
 
-        // (over)write the web-inf configs
-        AbstractDescriptorIo.writeAll(mergedWebXml, fileHandler.append(new File(assembleDir)
-            .getAbsolutePath(), File.separator + "WEB-INF"));
+            return mergedWebXml;
+        }
+        finally
+        {
+            for (File stagingDir : stagingDirs)
+            {
+                if (stagingDir.exists())
+                {
+                    fileHandler.delete(stagingDir.getAbsolutePath());
+                }
+            }
+        }
+    }
 
-        executeMergeProcessors(new File(assembleDir));
+    /**
+     * Moves the contents of a directory into another one, overwriting existing files.
+     * 
+     * @param source directory to move the contents of
+     * @param target directory to move the contents to
+     * @throws IOException If a file cannot be moved
+     */
+    private void moveContents(File source, File target) throws IOException
+    {
+        File[] children = source.listFiles();
+        if (children == null)
+        {
+            return;
+        }
+        Arrays.sort(children);
+        for (File child : children)
+        {
+            File targetChild = new File(target, child.getName());
+            if (child.isDirectory())
+            {
+                if (!targetChild.mkdirs() && !targetChild.isDirectory())
+                {
+                    throw new IOException("Cannot create directory " + targetChild);
+                }
+                moveContents(child, targetChild);
+            }
+            else
+            {
+                Files.move(child.toPath(), targetChild.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
     }
 
     /**
      * @param assembleDir directory to copy JAR files to
+     * @param executor executor to copy the JAR files with, <code>null</code> to copy them in the
+     * calling thread
+     * @throws MergeException If a JAR file cannot be copied
      */
-    private void copyJars(String assembleDir)
+    private void copyJars(String assembleDir, ExecutorService executor) throws MergeException
     {
-        FileHandler fileHandler = new DefaultFileHandler();
+        final FileHandler fileHandler = new DefaultFileHandler();
 
         File f = new File(assembleDir);
         File webInfLib = new File(f, "WEB-INF/lib");
         fileHandler.mkdirs(webInfLib.getAbsolutePath());
+
+        // When two JAR files have the same name, the last one wins
+        Map<String, File> jars = new LinkedHashMap<String, File>();
         for (File sourceFile : this.jarFiles)
         {
-            fileHandler.copyFile(sourceFile.getAbsolutePath(), new File(webInfLib, sourceFile
-                    .getName()).getAbsolutePath());
+            jars.remove(sourceFile.getName());
+            jars.put(sourceFile.getName(), sourceFile);
+        }
+
+        List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(jars.size());
+        for (final File sourceFile : jars.values())
+        {
+            final File targetFile = new File(webInfLib, sourceFile.getName());
+            tasks.add(new Callable<Void>()
+            {
+                @Override
+                public Void call()
+                {
+                    fileHandler.copyFile(sourceFile.getAbsolutePath(),
+                        targetFile.getAbsolutePath());
+                    return null;
+                }
+            });
+        }
+        try
+        {
+            invokeAll(executor, tasks);
+        }
+        catch (IOException e)
+        {
+            throw new MergeException("Problem copying JAR files", e);
+        }
+    }
+
+    /**
+     * Runs tasks and waits for all of them to complete.
+     * 
+     * @param executor executor to run the tasks with, <code>null</code> to run them in the
+     * calling thread
+     * @param tasks tasks to run
+     * @throws MergeException If one of the tasks failed with a {@link MergeException}
+     * @throws IOException If one of the tasks failed with an {@link IOException}
+     */
+    private static void invokeAll(ExecutorService executor, List<Callable<Void>> tasks)
+        throws MergeException, IOException
+    {
+        if (executor == null || tasks.size() < 2)
+        {
+            for (Callable<Void> task : tasks)
+            {
+                FutureTask<Void> future = new FutureTask<Void>(task);
+                future.run();
+                waitFor(Collections.<Future<Void>>singletonList(future));
+            }
+            return;
+        }
+
+        List<Future<Void>> futures = new ArrayList<Future<Void>>(tasks.size());
+        for (Callable<Void> task : tasks)
+        {
+            futures.add(executor.submit(task));
+        }
+        waitFor(futures);
+    }
+
+    /**
+     * Waits for tasks to complete, and rethrows the failure of the first failed task if any.
+     * 
+     * @param futures tasks to wait for
+     * @throws MergeException If one of the tasks failed with a checked exception other than
+     * {@link IOException}
+     * @throws IOException If one of the tasks failed with an {@link IOException}
+     */
+    private static void waitFor(List<Future<Void>> futures) throws MergeException, IOException
+    {
+        Throwable failure = null;
+        for (Future<Void> future : futures)
+        {
+            try
+            {
+                future.get();
+            }
+            catch (ExecutionException e)
+            {
+                if (failure == null)
+                {
+                    failure = e.getCause();
+                }
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                throw new MergeException("Interrupted while merging", e);
+            }
+        }
+
+        if (failure instanceof IOException)
+        {
+            throw (IOException) failure;
+        }
+        else if (failure instanceof RuntimeException)
+        {
+            throw (RuntimeException) failure;
+        }
+        else if (failure != null)
+        {
+            throw new MergeException("Problem executing merge", failure);
         }
     }
 
@@ -350,6 +737,17 @@ public class MergedWarArchive implements WarArchive
         }
     }
 
+    /**
+     * Set the maximum number of threads used when merging. The default is <code>1</code>, i.e.
+     * everything is done in the calling thread.
+     * 
+     * @param threads maximum number of threads
+     */
+    public void setThreads(int threads)
+    {
+        this.threads = threads;
+    }
+
     /**
      * Control whether to also merge the JAR files.
      * 
@@ -117,6 +117,17 @@ public class WarArchiveMerger implements MergeProcessor
         this.result.mergeJarFiles(doMergeJarFiles);
     }
 
+    /**
+     * Set the maximum number of threads used when merging.
+     * 
+     * @param threads maximum number of threads, <code>1</code> (default) to merge everything in
+     * the calling thread
+     */
+    public void setThreads(int threads)
+    {
+        this.result.setThreads(threads);
+    }
+
     /**
      * Get the class used for web xml merging.
      * 
@@ -0,0 +1,254 @@
+/*
+ * ========================================================================
+ *
+ * Codehaus CARGO, copyright 2004-2011 Vincent Massol, 2012-2018 Ali Tokmen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * ========================================================================
+ */
+package org.codehaus.cargo.module.webapp.merge;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import junit.framework.TestCase;
+
+import org.codehaus.cargo.module.merge.MergeException;
+import org.codehaus.cargo.module.merge.MergeProcessor;
+import org.codehaus.cargo.module.webapp.DefaultWarArchive;
+import org.codehaus.cargo.util.DefaultFileHandler;
+
+/**
+ * Unit tests for {@link MergedWarArchive}.
+ */
+public class MergedWarArchiveTest extends TestCase
+{
+    /**
+     * Number of WAR files merged by the tests.
+     */
+    private static final int WARS = 6;
+
+    /**
+     * Directory holding all files created by a test.
+     */
+    private File workDir;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void setUp() throws Exception
+    {
+        super.setUp();
+        this.workDir = File.createTempFile("cargo-merge", null);
+        assertTrue(this.workDir.delete());
+        assertTrue(this.workDir.mkdirs());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void tearDown() throws Exception
+    {
+        new DefaultFileHandler().delete(this.workDir.getAbsolutePath());
+        super.tearDown();
+    }
+
+    /**
+     * Verifies that merging with several threads produces exactly the same files as merging
+     * sequentially: files from later WAR files overwrite the ones from earlier WAR files, the
+     * last JAR file of a given name wins and merge processors see the WAR files in order.
+     *
+     * @throws Exception If anything goes wrong
+     */
+    public void testParallelMergeMatchesSerialMerge() throws Exception
+    {
+        List<File> wars = new ArrayList<File>();
+        for (int i = 0; i < WARS; i++)
+        {
+            wars.add(createWar(i));
+        }
+
+        Map<String, String> serial = merge(wars, 1, "serial");
+        Map<String, String> parallel = merge(wars, 4, "parallel");
+
+        assertEquals(serial, parallel);
+        assertEquals("war" + (WARS - 1), serial.get("index.jsp"));
+        assertEquals("war0", serial.get("war0/nested/dir/file.txt"));
+        assertEquals("lib" + (WARS - 1), serial.get("WEB-INF/lib/common.jar"));
+        StringBuilder concatenated = new StringBuilder();
+        for (int i = 0; i < WARS; i++)
+        {
+            concatenated.append("config").append(i);
+        }
+        assertEquals(concatenated.toString(), serial.get("WEB-INF/config.txt"));
+        assertTrue(serial.containsKey("WEB-INF/web.xml"));
+    }
+
+    /**
+     * Merges WAR files into a new directory.
+     *
+     * @param wars WAR files to merge
+     * @param threads number of threads to merge with
+     * @param name name of the directory to merge into
+     * @return contents of all merged files, by path relative to the merge directory
+     * @throws Exception If anything goes wrong
+     */
+    private Map<String, String> merge(List<File> wars, int threads, String name)
+        throws Exception
+    {
+        WarArchiveMerger merger = new WarArchiveMerger();
+        merger.setThreads(threads);
+        merger.addMergeProcessor("WEB-INF/config.txt", new ConcatenatingMergeProcessor());
+        for (File war : wars)
+        {
+            merger.addMergeItem(new DefaultWarArchive(war.getAbsolutePath()));
+        }
+        for (int i = 0; i < WARS; i++)
+        {
+            File jarDir = new File(this.workDir, name + "-lib" + i);
+            assertTrue(jarDir.mkdirs());
+            File jar = new File(jarDir, "common.jar");
+            Files.write(jar.toPath(), ("lib" + i).getBytes("UTF-8"));
+            merger.addMergeItem(jar);
+        }
+
+        File assembleDir = new File(this.workDir, name);
+        MergedWarArchive merged = (MergedWarArchive) merger.performMerge();
+        merged.merge(assembleDir.getAbsolutePath());
+
+        Map<String, String> contents = new TreeMap<String, String>();
+        readContents(assembleDir, "", contents);
+        return contents;
+    }
+
+    /**
+     * Reads the contents of all files below a directory.
+     *
+     * @param dir directory to read
+     * @param prefix path of the directory relative to the merge directory
+     * @param contents map to read the file contents into
+     * @throws IOException If a file cannot be read
+     */
+    private void readContents(File dir, String prefix, Map<String, String> contents)
+        throws IOException
+    {
+        File[] children = dir.listFiles();
+        Arrays.sort(children);
+        for (File child : children)
+        {
+            if (child.isDirectory())
+            {
+                readContents(child, prefix + child.getName() + "/", contents);
+            }
+            else
+            {
+                contents.put(prefix + child.getName(),
+                    new String(Files.readAllBytes(child.toPath()), "UTF-8"));
+            }
+        }
+    }
+
+    /**
+     * Creates a WAR file with a web.xml, one file shared by all WAR files, one file in a nested
+     * directory specific to this WAR file and a resource merged by a merge processor.
+     *
+     * @param index index of the WAR file
+     * @return the WAR file
+     * @throws IOException If the WAR file cannot be written
+     */
+    private File createWar(int index) throws IOException
+    {
+        File war = new File(this.workDir, "war" + index + ".war");
+        try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(war)))
+        {
+            addEntry(zip, "WEB-INF/web.xml", "<web-app><servlet><servlet-name>s" + index
+                + "</servlet-name><servlet-class>S" + index
+                + "</servlet-class></servlet></web-app>");
+            addEntry(zip, "WEB-INF/config.txt", "config" + index);
+            addEntry(zip, "index.jsp", "war" + index);
+            addEntry(zip, "war" + index + "/nested/dir/file.txt", "war" + index);
+        }
+        return war;
+    }
+
+    /**
+     * Adds an entry to a ZIP file.
+     *
+     * @param zip ZIP file to add the entry to
+     * @param name name of the entry
+     * @param content content of the entry
+     * @throws IOException If the entry cannot be written
+     */
+    private void addEntry(ZipOutputStream zip, String name, String content) throws IOException
+    {
+        zip.putNextEntry(new ZipEntry(name));
+        zip.write(content.getBytes("UTF-8"));
+        zip.closeEntry();
+    }
+
+    /**
+     * Merge processor concatenating all merged items, in the order they were added.
+     */
+    private static class ConcatenatingMergeProcessor implements MergeProcessor
+    {
+        /**
+         * Concatenated items.
+         */
+        private ByteArrayOutputStream merged = new ByteArrayOutputStream();
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void addMergeItem(Object mergeItem) throws MergeException
+        {
+            try (InputStream is = (InputStream) mergeItem)
+            {
+                byte[] buffer = new byte[1024];
+                int count;
+                while ((count = is.read(buffer)) > 0)
+                {
+                    this.merged.write(buffer, 0, count);
+                }
+            }
+            catch (IOException e)
+            {
+                throw new MergeException("Cannot read merge item", e);
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Object performMerge()
+        {
+            return new ByteArrayInputStream(this.merged.toByteArray());
+        }
+    }
+}
@@ -24,15 +24,17 @@ package org.codehaus.cargo.util;
 
 import java.io.File;
 import java.net.URI;
+import java.util.List;
 import java.util.Map;
 
 import org.apache.tools.ant.Project;
 import org.apache.tools.ant.Task;
-import org.apache.tools.ant.filters.ReplaceTokens;
 import org.apache.tools.ant.types.Environment;
 import org.apache.tools.ant.types.FilterChain;
 import org.apache.tools.ant.types.Path;
 
+import org.codehaus.cargo.util.internal.ReplaceTokensFilter;
+
 /**
  * Set of common Ant utility methods.
  */
@@ -145,7 +147,8 @@ public class AntUtils
     }
 
     /**
-     * Add a token to an existing filter chain.
+     * Add a token to an existing filter chain. Consecutive tokens share a single
+     * {@link ReplaceTokensFilter}, so that the text is scanned once whatever the number of tokens.
      * 
      * @param filterChain the filter chain to augment
      * @param key the token key
@@ -154,12 +157,28 @@ public class AntUtils
     public void addTokenToFilterChain(FilterChain filterChain, String key,
         String value)
     {
-        ReplaceTokens replaceToken = new ReplaceTokens();
-        ReplaceTokens.Token token = new ReplaceTokens.Token();
-        token.setKey(key);
-        token.setValue(value);
-        replaceToken.addConfiguredToken(token);
-        filterChain.addReplaceTokens(replaceToken);
+        getReplaceTokensFilter(filterChain).addToken(key, value);
+    }
+
+    /**
+     * @param filterChain the filter chain to augment
+     * @return the token filter at the end of the filter chain, added if needed
+     */
+    private ReplaceTokensFilter getReplaceTokensFilter(FilterChain filterChain)
+    {
+        List<?> filters = filterChain.getFilterReaders();
+        if (!filters.isEmpty())
+        {
+            Object lastFilter = filters.get(filters.size() - 1);
+            if (lastFilter instanceof ReplaceTokensFilter)
+            {
+                return (ReplaceTokensFilter) lastFilter;
+            }
+        }
+
+        ReplaceTokensFilter replaceTokens = new ReplaceTokensFilter();
+        filterChain.add(replaceTokens);
+        return replaceTokens;
     }
 
     /**
@@ -40,14 +40,13 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.Set;
 import java.util.Vector;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 
-import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpression;
-import javax.xml.xpath.XPathFactory;
 
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
@@ -60,6 +59,8 @@ import org.apache.tools.ant.types.FileSet;
 import org.apache.tools.ant.types.FilterChain;
 import org.apache.tools.ant.util.FileUtils;
 
+import org.codehaus.cargo.util.internal.ReplacingWriter;
+import org.codehaus.cargo.util.internal.XmlFactories;
 import org.codehaus.cargo.util.log.LoggedObject;
 
 /**
@@ -369,30 +370,75 @@ public class DefaultFileHandler extends LoggedObject implements FileHandler
     public void replaceInFile(String file, Map<String, String> replacements, String encoding,
         boolean ignoreNonExistingProperties) throws CargoException
     {
-        String fileContents = readTextFile(file, encoding);
-
-        for (Map.Entry<String, String> replacement : replacements.entrySet())
+        // The file is streamed once through a writer replacing all keys, into a temporary file
+        // which then replaces the original file if all keys have been found
+        File replacedFile;
+        Set<String> replacedKeys;
+        try
+        {
+            replacedFile = File.createTempFile("cargo-replace-", ".tmp");
+        }
+        catch (IOException e)
         {
-            if (!fileContents.contains(replacement.getKey()))
+            throw new CargoException("Failed to create temporary file to replace in " + file, e);
+        }
+        try
+        {
+            try (BufferedReader in = new BufferedReader(newReader(getInputStream(file), encoding));
+                ReplacingWriter out = new ReplacingWriter(new BufferedWriter(newWriter(
+                    new FileOutputStream(replacedFile), encoding)), replacements))
             {
-                String message = "File " + file + " does not contain replacement key "
-                    + replacement.getKey();
-
-                if (ignoreNonExistingProperties)
+                // Line separators are normalized the same way as readTextFile does
+                String lineSeparator = System.getProperty("line.separator");
+                String line = in.readLine();
+                while (line != null)
                 {
-                    getLogger().debug(message, this.getClass().getName());
-                    continue;
+                    out.write(line);
+                    line = in.readLine();
+                    if (line != null)
+                    {
+                        out.write(lineSeparator);
+                    }
                 }
-                else
+                out.close();
+                replacedKeys = out.getReplacedKeys();
+            }
+            catch (IOException e)
+            {
+                throw new CargoException("Failed to replace in file: " + file, e);
+            }
+
+            for (String key : replacements.keySet())
+            {
+                if (!replacedKeys.contains(key))
                 {
-                    throw new CargoException(message);
+                    String message = "File " + file + " does not contain replacement key " + key;
+
+                    if (ignoreNonExistingProperties)
+                    {
+                        getLogger().debug(message, this.getClass().getName());
+                    }
+                    else
+                    {
+                        throw new CargoException(message);
+                    }
                 }
             }
 
-            fileContents = fileContents.replace(replacement.getKey(), replacement.getValue());
+            try (InputStream in = new FileInputStream(replacedFile);
+                OutputStream out = getOutputStream(file))
+            {
+                copy(in, out, 8192);
+            }
+            catch (IOException e)
+            {
+                throw new CargoException("Cannot write file" + file, e);
+            }
+        }
+        finally
+        {
+            replacedFile.delete();
         }
-
-        writeTextFile(file, fileContents, encoding);
     }
 
     /**
@@ -442,17 +488,14 @@ public class DefaultFileHandler extends LoggedObject implements FileHandler
         XmlUtils domUtils = new XmlUtils(this);
         Document doc = domUtils.loadXmlFromFile(file);
 
-        try
+        try (XmlFactories factories = XmlFactories.acquire())
         {
-            XPathFactory xPathFactory = XPathFactory.newInstance();
-            XPath xPath = xPathFactory.newXPath();
-
             for (Map.Entry<XmlReplacementDetails, String> replacement : replacements.entrySet())
             {
                 String expression = replacement.getKey().getXpathExpression();
                 String attributeName = replacement.getKey().getAttributeName();
 
-                XPathExpression xPathExpr = xPath.compile(expression);
+                XPathExpression xPathExpr = factories.compileXPath(expression, null);
 
                 Node node = (Node) xPathExpr.evaluate(doc, XPathConstants.NODE);
 
@@ -857,13 +900,24 @@ public class DefaultFileHandler extends LoggedObject implements FileHandler
             mkdirs(parent);
         }
 
+        return newWriter(getOutputStream(file), encoding);
+    }
+
+    /**
+     * @param os The output stream to wrap, must not be {@code null}.
+     * @param encoding The character encoding, may be {@code null}.
+     * @return The writer, never {@code null}.
+     * @throws IOException If the writer could not be opened.
+     */
+    private Writer newWriter(OutputStream os, String encoding) throws IOException
+    {
         if (encoding == null || encoding.isEmpty())
         {
-            return new OutputStreamWriter(getOutputStream(file));
+            return new OutputStreamWriter(os);
         }
         else
         {
-            return new OutputStreamWriter(getOutputStream(file), encoding);
+            return new OutputStreamWriter(os, encoding);
         }
     }
 
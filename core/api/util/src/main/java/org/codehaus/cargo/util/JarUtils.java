@@ -19,19 +19,44 @@
  */
 package org.codehaus.cargo.util;
 
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.TimeZone;
 import java.util.jar.JarEntry;
 import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
 
 /**
  * Some utility classes for manipulating JAR files.
  */
 public final class JarUtils
 {
+    /**
+     * Modification time given to all entries of reproducible JAR files, 1980-01-02T00:00:00Z (the
+     * day after the beginning of the ZIP epoch, so that any time zone can represent it).
+     */
+    public static final long REPRODUCIBLE_ENTRY_TIME = 315619200000L;
+
+    /**
+     * Size of the copy buffers.
+     */
+    private static final int BUFFER_SIZE = 40960;
+
     /**
      * Create a jar file from a particular directory.
      * 
@@ -43,16 +68,34 @@ public final class JarUtils
     protected void createJarFromDirectory(File root, File directory, JarOutputStream jarStream)
         throws IOException
     {
-        byte[] buffer = new byte[40960];
+        createJarFromDirectory(root, directory, jarStream, null);
+    }
+
+    /**
+     * Create a jar file from a particular directory. Files are added in alphabetical order, so
+     * that the same directory always produces entries in the same order.
+     * 
+     * @param root in the root directory
+     * @param directory in the directory we are adding
+     * @param jarStream the jar stream to be added to
+     * @param entryTime modification time to give to all entries, stored with its UTC date and
+     * time whatever the default time zone, <code>null</code> to keep the default (current time)
+     * @throws IOException on IOException
+     */
+    protected void createJarFromDirectory(File root, File directory, JarOutputStream jarStream,
+        Long entryTime) throws IOException
+    {
+        byte[] buffer = new byte[BUFFER_SIZE];
         int bytesRead;
 
         File[] filesToAdd = directory.listFiles();
+        Arrays.sort(filesToAdd);
 
         for (File fileToAdd : filesToAdd)
         {
             if (fileToAdd.isDirectory())
             {
-                createJarFromDirectory(root, fileToAdd, jarStream);
+                createJarFromDirectory(root, fileToAdd, jarStream, entryTime);
             }
             else
             {
@@ -67,6 +110,10 @@ public final class JarUtils
                     // is actually a directory.
                     entryName = entryName.replace('\\', '/');
                     JarEntry entry = new JarEntry(entryName);
+                    if (entryTime != null)
+                    {
+                        setTime(entry, entryTime);
+                    }
                     jarStream.putNextEntry(entry);
 
                     // Read the file and write it to the jar.
@@ -90,6 +137,25 @@ public final class JarUtils
      */
     public File createJarFromDirectory(String directory, File outputJar)
         throws IOException
+    {
+        return createJarFromDirectory(directory, outputJar, null);
+    }
+
+    /**
+     * Create a JAR file from a directory, recursing through children. Entries are written in
+     * alphabetical order and, if an entry time is given, all with that modification time; the
+     * same directory content therefore always produces the same JAR file.
+     * 
+     * @param directory in directory source
+     * @param outputJar in file to output the jar data to
+     * @param entryTime modification time to give to all entries, for example
+     * {@link #REPRODUCIBLE_ENTRY_TIME}, stored with its UTC date and time whatever the default
+     * time zone, <code>null</code> to keep the default (current time)
+     * @return out File that was generated
+     * @throws IOException when there is an I/O exception
+     */
+    public File createJarFromDirectory(String directory, File outputJar, Long entryTime)
+        throws IOException
     {
         if (!outputJar.getParentFile().exists())
         {
@@ -98,11 +164,115 @@ public final class JarUtils
         try (JarOutputStream jarStream = new JarOutputStream(new FileOutputStream(outputJar)))
         {
             File dir = new File(directory);
-            createJarFromDirectory(dir, dir, jarStream);
+            createJarFromDirectory(dir, dir, jarStream, entryTime);
         }
         return outputJar;
     }
 
+    /**
+     * Rewrites a JAR file so that it only depends on the content of its entries: all entries get
+     * {@link #REPRODUCIBLE_ENTRY_TIME} as modification time and lose their extra fields, and the
+     * comment lines of the <code>META-INF/maven/&lt;groupId&gt;/&lt;artifactId&gt;/pom.properties
+     * </code> files, which hold the date they were generated at, are removed. The order of the
+     * entries is kept, so that <code>META-INF/MANIFEST.MF</code> stays at its place.
+     *
+     * @param archive JAR file to rewrite.
+     * @throws IOException when there is an I/O exception
+     */
+    public void makeReproducible(File archive) throws IOException
+    {
+        File reproducible = new File(archive.getPath() + ".reproducible");
+        try (ZipInputStream in = new ZipInputStream(new FileInputStream(archive));
+            ZipOutputStream out = new ZipOutputStream(new FileOutputStream(reproducible)))
+        {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            for (ZipEntry entry = in.getNextEntry(); entry != null; entry = in.getNextEntry())
+            {
+                ZipEntry copy = new ZipEntry(entry.getName());
+                setTime(copy, REPRODUCIBLE_ENTRY_TIME);
+                out.putNextEntry(copy);
+                if (isPomProperties(entry.getName()))
+                {
+                    ByteArrayOutputStream properties = new ByteArrayOutputStream();
+                    copy(in, properties, buffer);
+                    removeComments(properties.toByteArray(), out);
+                }
+                else
+                {
+                    copy(in, out, buffer);
+                }
+                out.closeEntry();
+            }
+        }
+        catch (IOException e)
+        {
+            reproducible.delete();
+            throw e;
+        }
+        Files.move(reproducible.toPath(), archive.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Sets the modification time of a ZIP entry. {@link ZipEntry#setTime(long)} stores the date
+     * and time of the default time zone, the time is therefore shifted so that the stored date
+     * and time are the UTC ones and the entry has the same bytes in every time zone.
+     *
+     * @param entry ZIP entry.
+     * @param time Modification time.
+     */
+    private static void setTime(ZipEntry entry, long time)
+    {
+        entry.setTime(time - TimeZone.getDefault().getOffset(time));
+    }
+
+    /**
+     * @param entryName Name of a JAR entry.
+     * @return <code>true</code> if the entry is a <code>pom.properties</code> file written by
+     * Maven.
+     */
+    private static boolean isPomProperties(String entryName)
+    {
+        return entryName.startsWith("META-INF/maven/") && entryName.endsWith("/pom.properties");
+    }
+
+    /**
+     * Copies a stream to another, without closing any of them.
+     *
+     * @param in Stream to read.
+     * @param out Stream to write to.
+     * @param buffer Copy buffer.
+     * @throws IOException when there is an I/O exception
+     */
+    private static void copy(InputStream in, OutputStream out, byte[] buffer)
+        throws IOException
+    {
+        int bytesRead;
+        while ((bytesRead = in.read(buffer)) != -1)
+        {
+            out.write(buffer, 0, bytesRead);
+        }
+    }
+
+    /**
+     * Writes a properties file without its comment lines.
+     *
+     * @param properties Properties file, in ISO-8859-1 as written by {@link java.util.Properties}.
+     * @param out Stream to write to, not closed.
+     * @throws IOException when there is an I/O exception
+     */
+    private static void removeComments(byte[] properties, OutputStream out) throws IOException
+    {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(
+            new ByteArrayInputStream(properties), StandardCharsets.ISO_8859_1));
+        for (String line = reader.readLine(); line != null; line = reader.readLine())
+        {
+            if (!line.startsWith("#"))
+            {
+                out.write((line + "\n").getBytes(StandardCharsets.ISO_8859_1));
+            }
+        }
+    }
+
     /**
      * Search through JAR file to check if it contains specified class.
      *
@@ -27,19 +27,14 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpression;
-import javax.xml.xpath.XPathFactory;
-import javax.xml.xpath.XPath;
 
 import org.apache.tools.ant.util.ReaderInputStream;
+import org.codehaus.cargo.util.internal.XmlFactories;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.NodeList;
@@ -56,16 +51,6 @@ public class XmlUtils
      */
     private FileHandler fileHandler;
 
-    /**
-     * XML document builder.
-     */
-    private DocumentBuilder builder;
-
-    /**
-     * XPath.
-     */
-    private XPath xPath;
-
     /**
      * XML namespaces map.
      */
@@ -115,31 +100,6 @@ public class XmlUtils
         this.fileHandler = fileHandler;
         this.namespaceContext = new NamespaceContextImpl();
         this.namespaceAware = namespaceAware;
-        XPathFactory xPathFactory = XPathFactory.newInstance();
-        this.xPath = xPathFactory.newXPath();
-        this.xPath.setNamespaceContext(namespaceContext);
-        DocumentBuilderFactory domFactory = DocumentBuilderFactory.newInstance();
-        domFactory.setNamespaceAware(namespaceAware);
-        // Do not load remote DTDS as remote servers sometimes become unreachable
-        try
-        {
-            domFactory.setFeature(
-                "http://apache.org/xml/features/nonvalidating/load-dtd-grammar", false);
-            domFactory.setFeature(
-                "http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
-        }
-        catch (ParserConfigurationException ignored)
-        {
-            // Ignored
-        }
-        try
-        {
-            this.builder = domFactory.newDocumentBuilder();
-        }
-        catch (Exception e)
-        {
-            throw new CargoException("Cannot create XML DOM builder", e);
-        }
     }
 
     /**
@@ -168,8 +128,12 @@ public class XmlUtils
                     }
                 }
             }
-            XPathExpression xPathExpr = xPath.compile(xpathWithoutNamespace);
-            nodelist = (NodeList) xPathExpr.evaluate(toSearch, XPathConstants.NODESET);
+            try (XmlFactories factories = XmlFactories.acquire())
+            {
+                XPathExpression xPathExpr =
+                    factories.compileXPath(xpathWithoutNamespace, namespaces);
+                nodelist = (NodeList) xPathExpr.evaluate(toSearch, XPathConstants.NODESET);
+            }
         }
         catch (Exception e)
         {
@@ -218,9 +182,10 @@ public class XmlUtils
         {
             throw new CargoException("The destination is a directory: " + sourceFile);
         }
-        try (InputStream is = getFileHandler().getInputStream(sourceFile))
+        try (InputStream is = getFileHandler().getInputStream(sourceFile);
+            XmlFactories factories = XmlFactories.acquire())
         {
-            return this.builder.parse(is);
+            return factories.getDocumentBuilder(namespaceAware).parse(is);
         }
         catch (Exception e)
         {
@@ -236,10 +201,10 @@ public class XmlUtils
      */
     public void saveXml(Document document, String filename)
     {
-        try (OutputStream os = getFileHandler().getOutputStream(filename))
+        try (OutputStream os = getFileHandler().getOutputStream(filename);
+            XmlFactories factories = XmlFactories.acquire())
         {
-            TransformerFactory tFactory = TransformerFactory.newInstance();
-            Transformer transformer = tFactory.newTransformer();
+            Transformer transformer = factories.getTransformer();
             transformer.transform(new DOMSource(document), new StreamResult(os));
         }
         catch (Exception e)
@@ -290,9 +255,9 @@ public class XmlUtils
      */
     public Element parseIntoElement(String elementToParse)
     {
-        try
+        try (XmlFactories factories = XmlFactories.acquire())
         {
-            Document parsed = this.builder.parse(
+            Document parsed = factories.getDocumentBuilder(namespaceAware).parse(
                 new BufferedInputStream(new ReaderInputStream(new StringReader(elementToParse))));
             return parsed.getDocumentElement();
         }
@@ -309,7 +274,10 @@ public class XmlUtils
      */
     public Document createDocument()
     {
-        return builder.newDocument();
+        try (XmlFactories factories = XmlFactories.acquire())
+        {
+            return factories.getDocumentBuilder(namespaceAware).newDocument();
+        }
     }
 
     /**
@@ -0,0 +1,311 @@
+/*
+ * ========================================================================
+ *
+ * Codehaus CARGO, copyright 2004-2011 Vincent Massol, 2012-2018 Ali Tokmen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * ========================================================================
+ */
+package org.codehaus.cargo.util.internal;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.tools.ant.filters.ChainableReader;
+
+/**
+ * Filter replacing any number of <code>@key@</code> tokens in a single pass over the text. It
+ * follows the semantics of Ant's {@link org.apache.tools.ant.filters.ReplaceTokens}: the text
+ * between two <code>@</code> characters is looked up as a key; if there is no such key the opening
+ * <code>@</code> and the text are kept as is and the closing <code>@</code> opens the next token,
+ * and replacement values are not scanned again. Unlike a chain of Ant filters, tokens are looked
+ * up in one hash table and the text is processed in blocks rather than character per character.
+ */
+public class ReplaceTokensFilter implements ChainableReader
+{
+    /**
+     * Character delimiting tokens.
+     */
+    private static final char TOKEN_DELIMITER = '@';
+
+    /**
+     * Token values, indexed by key.
+     */
+    private final Map<String, String> tokens = new HashMap<String, String>();
+
+    /**
+     * Length of the longest key.
+     */
+    private int maxKeyLength;
+
+    /**
+     * Adds a token. As with chained Ant filters, the first value added for a key is the one used.
+     * 
+     * @param key Token key.
+     * @param value Token value.
+     */
+    public void addToken(String key, String value)
+    {
+        if (!tokens.containsKey(key))
+        {
+            tokens.put(key, value);
+            maxKeyLength = Math.max(maxKeyLength, key.length());
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Reader chain(Reader reader)
+    {
+        return new ReplaceTokensReader(reader, new HashMap<String, String>(tokens),
+            maxKeyLength);
+    }
+
+    /**
+     * Reader doing the replacement.
+     */
+    private static class ReplaceTokensReader extends FilterReader
+    {
+        /**
+         * Size of the blocks read from the underlying reader.
+         */
+        private static final int BLOCK_SIZE = 8192;
+
+        /**
+         * Token values, indexed by key.
+         */
+        private final Map<String, String> tokens;
+
+        /**
+         * Length of the longest key.
+         */
+        private final int maxKeyLength;
+
+        /**
+         * Block read from the underlying reader.
+         */
+        private final char[] block = new char[BLOCK_SIZE];
+
+        /**
+         * Filtered text not yet returned.
+         */
+        private final StringBuilder output = new StringBuilder();
+
+        /**
+         * Position of the next character to return in {@link #output}.
+         */
+        private int outputIndex;
+
+        /**
+         * Key being read, <code>null</code> if not within a token.
+         */
+        private StringBuilder key;
+
+        /**
+         * Whether the current token has been found to be longer than any key, in which case text
+         * is copied until the next delimiter.
+         */
+        private boolean skipping;
+
+        /**
+         * Whether the underlying reader is exhausted.
+         */
+        private boolean eof;
+
+        /**
+         * @param in Underlying reader.
+         * @param tokens Token values, indexed by key.
+         * @param maxKeyLength Length of the longest key.
+         */
+        public ReplaceTokensReader(Reader in, Map<String, String> tokens, int maxKeyLength)
+        {
+            super(in);
+            this.tokens = tokens;
+            this.maxKeyLength = maxKeyLength;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int read() throws IOException
+        {
+            if (!fill())
+            {
+                return -1;
+            }
+            return output.charAt(outputIndex++);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int read(char[] cbuf, int off, int len) throws IOException
+        {
+            if (len == 0)
+            {
+                return 0;
+            }
+            if (!fill())
+            {
+                return -1;
+            }
+            int count = Math.min(len, output.length() - outputIndex);
+            output.getChars(outputIndex, outputIndex + count, cbuf, off);
+            outputIndex += count;
+            return count;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public long skip(long n) throws IOException
+        {
+            long skipped = 0;
+            while (skipped < n && fill())
+            {
+                int count = (int) Math.min(n - skipped, output.length() - outputIndex);
+                outputIndex += count;
+                skipped += count;
+            }
+            return skipped;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean ready() throws IOException
+        {
+            return outputIndex < output.length() || in.ready();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean markSupported()
+        {
+            return false;
+        }
+
+        /**
+         * Makes sure filtered text is available.
+         * 
+         * @return <code>false</code> if the end of the text has been reached.
+         * @throws IOException If reading fails.
+         */
+        private boolean fill() throws IOException
+        {
+            while (outputIndex == output.length())
+            {
+                if (eof)
+                {
+                    return false;
+                }
+                output.setLength(0);
+                outputIndex = 0;
+
+                int read = in.read(block, 0, BLOCK_SIZE);
+                if (read == -1)
+                {
+                    eof = true;
+                    if (key != null)
+                    {
+                        // Unterminated token, keep it as is
+                        output.append(TOKEN_DELIMITER).append(key);
+                        key = null;
+                    }
+                }
+                else
+                {
+                    filter(read);
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Filters a block read from the underlying reader into {@link #output}.
+         * 
+         * @param length Number of characters in {@link #block}.
+         */
+        private void filter(int length)
+        {
+            int copyFrom = 0;
+            for (int i = 0; i < length; i++)
+            {
+                char c = block[i];
+                if (key == null && !skipping)
+                {
+                    if (c == TOKEN_DELIMITER)
+                    {
+                        output.append(block, copyFrom, i - copyFrom);
+                        key = new StringBuilder();
+                    }
+                    continue;
+                }
+
+                if (c == TOKEN_DELIMITER)
+                {
+                    if (skipping)
+                    {
+                        output.append(block, copyFrom, i - copyFrom);
+                        skipping = false;
+                        key = new StringBuilder();
+                        continue;
+                    }
+
+                    String value = tokens.get(key.toString());
+                    if (value == null)
+                    {
+                        // Not a token: keep the text, the closing delimiter opens a new token
+                        output.append(TOKEN_DELIMITER).append(key);
+                        key = new StringBuilder();
+                    }
+                    else
+                    {
+                        output.append(value);
+                        key = null;
+                        copyFrom = i + 1;
+                    }
+                }
+                else if (key != null)
+                {
+                    key.append(c);
+                    if (key.length() > maxKeyLength)
+                    {
+                        // Too long to match any key, copy until the next delimiter
+                        output.append(TOKEN_DELIMITER).append(key);
+                        key = null;
+                        skipping = true;
+                        copyFrom = i + 1;
+                    }
+                }
+            }
+
+            if (key == null)
+            {
+                output.append(block, copyFrom, length - copyFrom);
+            }
+        }
+    }
+}
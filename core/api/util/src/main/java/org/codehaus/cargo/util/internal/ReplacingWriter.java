@@ -0,0 +1,237 @@
+/*
+ * ========================================================================
+ *
+ * Codehaus CARGO, copyright 2004-2011 Vincent Massol, 2012-2018 Ali Tokmen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * ========================================================================
+ */
+package org.codehaus.cargo.util.internal;
+
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writer replacing any number of keys with their values in a single pass over the text written to
+ * it. Keys are kept in a trie; at each position the longest key starting there is replaced, and
+ * replaced text is not scanned again. Only as many characters as the longest key are held back,
+ * so the memory used does not depend on the size of the text.
+ */
+public class ReplacingWriter extends FilterWriter
+{
+    /**
+     * Trie node.
+     */
+    private static class Node
+    {
+        /**
+         * Child nodes, indexed by character.
+         */
+        private final Map<Character, Node> children = new HashMap<Character, Node>();
+
+        /**
+         * Key ending at this node, <code>null</code> if none.
+         */
+        private String key;
+
+        /**
+         * Value replacing {@link #key}.
+         */
+        private String value;
+    }
+
+    /**
+     * Root of the trie.
+     */
+    private final Node root = new Node();
+
+    /**
+     * Length of the longest key.
+     */
+    private int maxKeyLength;
+
+    /**
+     * Text written but not yet matched against the keys.
+     */
+    private final StringBuilder pending = new StringBuilder();
+
+    /**
+     * Keys which have been replaced at least once.
+     */
+    private final Set<String> replacedKeys = new HashSet<String>();
+
+    /**
+     * Whether the writer has been closed.
+     */
+    private boolean closed;
+
+    /**
+     * @param out Underlying writer.
+     * @param replacements Values to replace keys with, indexed by key. Empty keys are ignored.
+     */
+    public ReplacingWriter(Writer out, Map<String, String> replacements)
+    {
+        super(out);
+
+        for (Map.Entry<String, String> replacement : replacements.entrySet())
+        {
+            String key = replacement.getKey();
+            if (key.isEmpty())
+            {
+                continue;
+            }
+
+            Node node = root;
+            for (int i = 0; i < key.length(); i++)
+            {
+                Character c = key.charAt(i);
+                Node child = node.children.get(c);
+                if (child == null)
+                {
+                    child = new Node();
+                    node.children.put(c, child);
+                }
+                node = child;
+            }
+            node.key = key;
+            node.value = replacement.getValue();
+            maxKeyLength = Math.max(maxKeyLength, key.length());
+        }
+    }
+
+    /**
+     * @return Keys which have been replaced at least once. Complete once the writer is closed.
+     */
+    public Set<String> getReplacedKeys()
+    {
+        return replacedKeys;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(int c) throws IOException
+    {
+        pending.append((char) c);
+        replace(false);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException
+    {
+        pending.append(cbuf, off, len);
+        replace(false);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(String str, int off, int len) throws IOException
+    {
+        pending.append(str, off, off + len);
+        replace(false);
+    }
+
+    /**
+     * Flushes the underlying writer. Text which might be the beginning of a key is only written
+     * when the writer is closed.
+     * @throws IOException If the underlying writer cannot be flushed.
+     */
+    @Override
+    public void flush() throws IOException
+    {
+        out.flush();
+    }
+
+    /**
+     * Writes the remaining text and closes the underlying writer.
+     * @throws IOException If the remaining text cannot be written or the underlying writer cannot
+     * be closed.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        if (!closed)
+        {
+            closed = true;
+            try
+            {
+                replace(true);
+            }
+            finally
+            {
+                out.close();
+            }
+        }
+    }
+
+    /**
+     * Replaces keys in the pending text and writes out the text which cannot be part of a key
+     * anymore.
+     * 
+     * @param end Whether no more text will be written.
+     * @throws IOException If writing fails.
+     */
+    private void replace(boolean end) throws IOException
+    {
+        int length = pending.length();
+        int written = 0;
+        int position = 0;
+        while (position < length && (end || length - position >= maxKeyLength))
+        {
+            Node node = root.children.get(pending.charAt(position));
+            Node match = null;
+            int matchEnd = position;
+            for (int i = position + 1; node != null; i++)
+            {
+                if (node.key != null)
+                {
+                    match = node;
+                    matchEnd = i;
+                }
+                if (i == length)
+                {
+                    break;
+                }
+                node = node.children.get(pending.charAt(i));
+            }
+
+            if (match == null)
+            {
+                position++;
+            }
+            else
+            {
+                out.append(pending, written, position);
+                out.write(match.value);
+                replacedKeys.add(match.key);
+                position = matchEnd;
+                written = matchEnd;
+            }
+        }
+
+        out.append(pending, written, position);
+        pending.delete(0, position);
+    }
+}
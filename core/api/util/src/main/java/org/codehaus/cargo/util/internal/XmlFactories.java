@@ -0,0 +1,252 @@
+/*
+ * ========================================================================
+ *
+ * Codehaus CARGO, copyright 2004-2011 Vincent Massol, 2012-2018 Ali Tokmen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * ========================================================================
+ */
+package org.codehaus.cargo.util.internal;
+
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+
+import org.codehaus.cargo.util.CargoException;
+import org.codehaus.cargo.util.NamespaceContextImpl;
+
+/**
+ * Pooled XML parsers, transformers and compiled XPath expressions. Looking up the JAXP factories
+ * goes through the service loader, which is slow on large classpaths, and none of the JAXP
+ * objects are thread safe; hence an instance is leased with {@link #acquire()} by one thread at a
+ * time and returned to a bounded pool with {@link #close()}. The pool is only referenced by this
+ * class, so that unlike a thread local it does not keep the Cargo class loader alive from
+ * long-lived threads.
+ */
+public final class XmlFactories implements AutoCloseable
+{
+    /**
+     * Maximum number of compiled XPath expressions kept per instance.
+     */
+    private static final int MAX_CACHED_EXPRESSIONS = 256;
+
+    /**
+     * Maximum number of idle instances kept in the pool.
+     */
+    private static final int MAX_POOLED = 8;
+
+    /**
+     * Idle instances.
+     */
+    private static final Deque<XmlFactories> POOL = new ArrayDeque<XmlFactories>();
+
+    /**
+     * Document builders, indexed by namespace awareness.
+     */
+    private final Map<Boolean, DocumentBuilder> builders = new HashMap<Boolean, DocumentBuilder>();
+
+    /**
+     * Transformer factory, created on first use.
+     */
+    private TransformerFactory transformerFactory;
+
+    /**
+     * Transformer, created on first use.
+     */
+    private Transformer transformer;
+
+    /**
+     * XPath compiler, created on first use.
+     */
+    private XPath xPath;
+
+    /**
+     * Compiled XPath expressions, indexed by namespaces and expression.
+     */
+    private final Map<Map.Entry<Map<String, String>, String>, XPathExpression> expressions =
+        new LinkedHashMap<Map.Entry<Map<String, String>, String>, XPathExpression>(16, 0.75f, true)
+        {
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            protected boolean removeEldestEntry(
+                Map.Entry<Map.Entry<Map<String, String>, String>, XPathExpression> eldest)
+            {
+                return size() > MAX_CACHED_EXPRESSIONS;
+            }
+        };
+
+    /**
+     * Instances are only created by {@link #acquire()}.
+     */
+    private XmlFactories()
+    {
+        // Nothing
+    }
+
+    /**
+     * Leases an instance, to be returned with {@link #close()} once its XML objects are not used
+     * anymore.
+     * 
+     * @return Pooled instance, or a new one if the pool is empty.
+     */
+    public static XmlFactories acquire()
+    {
+        synchronized (POOL)
+        {
+            XmlFactories factories = POOL.poll();
+            if (factories != null)
+            {
+                return factories;
+            }
+        }
+        return new XmlFactories();
+    }
+
+    /**
+     * Returns this instance to the pool, or drops it if the pool is full. Neither this instance
+     * nor the objects it has returned may be used afterwards.
+     */
+    @Override
+    public void close()
+    {
+        synchronized (POOL)
+        {
+            if (POOL.size() < MAX_POOLED)
+            {
+                POOL.push(this);
+            }
+        }
+    }
+
+    /**
+     * Returns the document builder of this instance. External DTDs are not loaded, as remote
+     * servers sometimes become unreachable.
+     * 
+     * @param namespaceAware Whether the builder should be namespace aware.
+     * @return Document builder, reset to its initial configuration.
+     */
+    public DocumentBuilder getDocumentBuilder(boolean namespaceAware)
+    {
+        DocumentBuilder builder = this.builders.get(namespaceAware);
+        if (builder == null)
+        {
+            DocumentBuilderFactory domFactory = DocumentBuilderFactory.newInstance();
+            domFactory.setNamespaceAware(namespaceAware);
+            try
+            {
+                domFactory.setFeature(
+                    "http://apache.org/xml/features/nonvalidating/load-dtd-grammar", false);
+                domFactory.setFeature(
+                    "http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+            }
+            catch (ParserConfigurationException ignored)
+            {
+                // Ignored
+            }
+            try
+            {
+                builder = domFactory.newDocumentBuilder();
+            }
+            catch (ParserConfigurationException e)
+            {
+                throw new CargoException("Cannot create XML DOM builder", e);
+            }
+            this.builders.put(namespaceAware, builder);
+        }
+        else
+        {
+            builder.reset();
+        }
+        return builder;
+    }
+
+    /**
+     * @return Identity transformer of this instance, reset to its initial configuration.
+     */
+    public Transformer getTransformer()
+    {
+        if (this.transformer == null)
+        {
+            if (this.transformerFactory == null)
+            {
+                this.transformerFactory = TransformerFactory.newInstance();
+            }
+            try
+            {
+                this.transformer = this.transformerFactory.newTransformer();
+            }
+            catch (TransformerConfigurationException e)
+            {
+                throw new CargoException("Cannot create XML transformer", e);
+            }
+        }
+        else
+        {
+            this.transformer.reset();
+        }
+        return this.transformer;
+    }
+
+    /**
+     * Returns a compiled XPath expression of this instance.
+     * 
+     * @param expression XPath expression.
+     * @param namespaces Map of prefixes with XML namespaces used by the expression.
+     * @return Compiled XPath expression.
+     * @throws XPathExpressionException If the expression cannot be compiled.
+     */
+    public XPathExpression compileXPath(String expression, Map<String, String> namespaces)
+        throws XPathExpressionException
+    {
+        Map<String, String> namespacesCopy = new HashMap<String, String>();
+        if (namespaces != null)
+        {
+            namespacesCopy.putAll(namespaces);
+        }
+        Map.Entry<Map<String, String>, String> key =
+            new AbstractMap.SimpleImmutableEntry<Map<String, String>, String>(
+                namespacesCopy, expression);
+
+        XPathExpression compiled = this.expressions.get(key);
+        if (compiled == null)
+        {
+            if (this.xPath == null)
+            {
+                this.xPath = XPathFactory.newInstance().newXPath();
+            }
+            NamespaceContextImpl namespaceContext = new NamespaceContextImpl();
+            namespaceContext.setNamespaces(namespacesCopy);
+            this.xPath.setNamespaceContext(namespaceContext);
+            compiled = this.xPath.compile(expression);
+            this.expressions.put(key, compiled);
+        }
+        return compiled;
+    }
+}
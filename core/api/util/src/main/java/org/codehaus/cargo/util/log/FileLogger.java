@@ -19,12 +19,15 @@
  */
 package org.codehaus.cargo.util.log;
 
-import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.Closeable;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.Date;
@@ -33,20 +36,45 @@ import org.codehaus.cargo.util.CargoException;
 import org.codehaus.cargo.util.internal.log.AbstractLogger;
 
 /**
- * File implementation which sends logged messages to a file.
+ * File implementation which sends logged messages to a file. Messages are written in UTF-8.
+ * Warning and informational messages are flushed to the file at once; debug messages, which make
+ * up most of the output, are buffered until the buffer is full, another message is flushed, the
+ * logger is flushed or closed, or at the latest {@link #FLUSH_INTERVAL} milliseconds after they
+ * have been logged. The latter is done by a daemon thread which only runs while debug messages
+ * are pending.
  */
-public class FileLogger extends AbstractLogger
+public class FileLogger extends AbstractLogger implements Closeable
 {
     /**
-     * The OutputStream to log to.
+     * Maximum delay in milliseconds before a debug message gets flushed.
      */
-    private OutputStream output;
+    public static final long FLUSH_INTERVAL = 1000;
 
     /**
-     * Date format used when logging to the file.
+     * Size of the write buffer, in characters.
+     */
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * The Writer to log to, <code>null</code> once the logger is closed.
+     */
+    private Writer output;
+
+    /**
+     * Date format used when logging to the file, only used while holding the lock of this logger.
      */
     private final DateFormat format = new SimpleDateFormat("HH:mm:ss.SSS");
 
+    /**
+     * Whether messages have been written since the last flush.
+     */
+    private boolean dirty;
+
+    /**
+     * Thread which will flush the pending debug messages, <code>null</code> if none is pending.
+     */
+    private Thread flusher;
+
     /**
      * @param file the file to log to
      * @param append if true the file is appended to insted of being erased
@@ -61,7 +89,8 @@ public class FileLogger extends AbstractLogger
                 parent.mkdirs();
             }
             FileOutputStream fileOutputStream = new FileOutputStream(file, append);
-            this.output = new BufferedOutputStream(fileOutputStream);
+            this.output = new BufferedWriter(
+                new OutputStreamWriter(fileOutputStream, StandardCharsets.UTF_8), BUFFER_SIZE);
         }
         catch (FileNotFoundException e)
         {
@@ -78,26 +107,135 @@ public class FileLogger extends AbstractLogger
         this(new File(file), append);
     }
 
+    /**
+     * Flushes the messages logged so far to the file.
+     */
+    public synchronized void flush()
+    {
+        if (this.dirty && this.output != null)
+        {
+            try
+            {
+                this.output.flush();
+                this.dirty = false;
+            }
+            catch (IOException e)
+            {
+                throw new CargoException("Failed to flush log messages", e);
+            }
+        }
+    }
+
+    /**
+     * Flushes the messages logged so far and closes the file. Messages logged afterwards are
+     * discarded.
+     */
+    @Override
+    public synchronized void close()
+    {
+        if (this.flusher != null)
+        {
+            this.flusher.interrupt();
+            this.flusher = null;
+        }
+        if (this.output != null)
+        {
+            try
+            {
+                this.output.close();
+            }
+            catch (IOException e)
+            {
+                throw new CargoException("Failed to close log file", e);
+            }
+            finally
+            {
+                this.output = null;
+                this.dirty = false;
+            }
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
-    protected void doLog(LogLevel level, String message, String category)
+    protected synchronized void doLog(LogLevel level, String message, String category)
     {
+        if (this.output == null)
+        {
+            return;
+        }
+
         final String formattedCategory = category.length() > 20
             ? category.substring(category.length() - 20) : category;
 
-        final String msg = "[" + this.format.format(new Date()) + "]"
-            + "[" + level.getLevel() + "][" + formattedCategory + "] " + message + "\n";
         try
         {
-            this.output.write(msg.getBytes());
-            this.output.flush();
+            this.output.write('[');
+            this.output.write(this.format.format(new Date()));
+            this.output.write("][");
+            this.output.write(level.getLevel());
+            this.output.write("][");
+            this.output.write(formattedCategory);
+            this.output.write("] ");
+            this.output.write(message);
+            this.output.write('\n');
         }
         catch (IOException e)
         {
-            throw new CargoException("Failed to write log message ["
-                + msg + "]", e);
+            throw new CargoException("Failed to write log message [" + message + "]", e);
         }
+
+        this.dirty = true;
+        if (!LogLevel.DEBUG.equals(level))
+        {
+            flush();
+        }
+        else if (this.flusher == null)
+        {
+            scheduleFlush();
+        }
+    }
+
+    /**
+     * Starts a thread which flushes the pending debug messages after {@link #FLUSH_INTERVAL}
+     * milliseconds. The thread holds this logger, so that its messages are not lost if the logger
+     * is garbage collected without having been flushed.
+     */
+    private void scheduleFlush()
+    {
+        this.flusher = new Thread("Cargo FileLogger flusher")
+        {
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public void run()
+            {
+                try
+                {
+                    Thread.sleep(FLUSH_INTERVAL);
+                }
+                catch (InterruptedException e)
+                {
+                    // Flush now
+                }
+                synchronized (FileLogger.this)
+                {
+                    FileLogger.this.flusher = null;
+                    try
+                    {
+                        flush();
+                    }
+                    catch (CargoException e)
+                    {
+                        // Nobody to report the failure to, the next flush reports it
+                    }
+                }
+            }
+        };
+        this.flusher.setDaemon(true);
+        this.flusher.start();
     }
 }
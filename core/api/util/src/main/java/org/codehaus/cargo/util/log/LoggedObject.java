@@ -46,4 +46,16 @@ public class LoggedObject implements Loggable
     {
         return this.log;
     }
+
+    /**
+     * Checks the level of the logger, so that messages which would not be logged are not built.
+     * 
+     * @param level the level of a message
+     * @return <code>true</code> if the logger logs messages of that level
+     */
+    protected boolean isLogged(LogLevel level)
+    {
+        LogLevel loggerLevel = getLogger().getLevel();
+        return loggerLevel == null || loggerLevel.compareTo(level) >= 0;
+    }
 }
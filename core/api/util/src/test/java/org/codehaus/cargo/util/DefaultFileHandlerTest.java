@@ -19,6 +19,8 @@
  */
 package org.codehaus.cargo.util;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.UUID;
 
 import junit.framework.TestCase;
@@ -193,4 +195,48 @@ public class DefaultFileHandlerTest extends TestCase
         assertTrue("File " + file + " does not contain: " + test, read.contains(test));
     }
 
+    /**
+     * Test replacing several keys in a file.
+     */
+    public void testReplaceInFile()
+    {
+        final String file = "target/replace-in-file.txt";
+        this.fileHandler.writeTextFile(file, "port=8080\nhost=localhost\nport=8080", "UTF-8");
+
+        Map<String, String> replacements = new HashMap<String, String>();
+        replacements.put("8080", "9090");
+        replacements.put("localhost", "example.com");
+        this.fileHandler.replaceInFile(file, replacements, "UTF-8");
+
+        String newLine = System.getProperty("line.separator");
+        assertEquals("port=9090" + newLine + "host=example.com" + newLine + "port=9090",
+            this.fileHandler.readTextFile(file, "UTF-8"));
+    }
+
+    /**
+     * Test replacing a key which does not exist in a file.
+     */
+    public void testReplaceInFileMissingKey()
+    {
+        final String file = "target/replace-in-file-missing-key.txt";
+        this.fileHandler.writeTextFile(file, "port=8080", "UTF-8");
+
+        Map<String, String> replacements = new HashMap<String, String>();
+        replacements.put("8080", "9090");
+        replacements.put("missing", "value");
+        try
+        {
+            this.fileHandler.replaceInFile(file, replacements, "UTF-8");
+            fail("No exception thrown for the missing key");
+        }
+        catch (CargoException expected)
+        {
+            assertTrue(expected.getMessage().contains("missing"));
+        }
+        assertEquals("port=8080", this.fileHandler.readTextFile(file, "UTF-8"));
+
+        this.fileHandler.replaceInFile(file, replacements, "UTF-8", true);
+        assertEquals("port=9090", this.fileHandler.readTextFile(file, "UTF-8"));
+    }
+
 }
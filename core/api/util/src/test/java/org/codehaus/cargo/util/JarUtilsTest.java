@@ -0,0 +1,229 @@
+/*
+ * ========================================================================
+ *
+ * Codehaus CARGO, copyright 2004-2011 Vincent Massol, 2012-2018 Ali Tokmen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * ========================================================================
+ */
+package org.codehaus.cargo.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.TimeZone;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for {@link JarUtils}.
+ */
+public class JarUtilsTest extends TestCase
+{
+    /**
+     * File handler.
+     */
+    private FileHandler fileHandler;
+
+    /**
+     * Default time zone before the test.
+     */
+    private TimeZone defaultTimeZone;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void setUp() throws Exception
+    {
+        super.setUp();
+        this.fileHandler = new DefaultFileHandler();
+        this.defaultTimeZone = TimeZone.getDefault();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void tearDown() throws Exception
+    {
+        TimeZone.setDefault(this.defaultTimeZone);
+        super.tearDown();
+    }
+
+    /**
+     * Test that the reproducible entry time is 1980-01-02T00:00:00Z.
+     */
+    public void testReproducibleEntryTime()
+    {
+        Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        calendar.clear();
+        calendar.set(1980, Calendar.JANUARY, 2);
+        assertEquals(calendar.getTimeInMillis(), JarUtils.REPRODUCIBLE_ENTRY_TIME);
+    }
+
+    /**
+     * Test that creating a JAR twice from the same directory with a fixed entry time produces
+     * exactly the same file, even if the files have been modified and the default time zone has
+     * changed in between.
+     * 
+     * @throws Exception If anything goes wrong.
+     */
+    public void testCreateReproducibleJarFromDirectory() throws Exception
+    {
+        String directory = this.fileHandler.createUniqueTmpDirectory();
+        try
+        {
+            this.fileHandler.writeTextFile(this.fileHandler.append(directory, "b.txt"), "b",
+                "UTF-8");
+            this.fileHandler.mkdirs(this.fileHandler.append(directory, "a"));
+            this.fileHandler.writeTextFile(this.fileHandler.append(directory, "a/c.txt"), "c",
+                "UTF-8");
+
+            JarUtils jarUtils = new JarUtils();
+            File first = new File(directory + ".first.jar");
+            TimeZone.setDefault(TimeZone.getTimeZone("Pacific/Kiritimati"));
+            jarUtils.createJarFromDirectory(directory, first, JarUtils.REPRODUCIBLE_ENTRY_TIME);
+
+            assertTrue(new File(directory, "b.txt").setLastModified(
+                System.currentTimeMillis() - 60000));
+            TimeZone.setDefault(TimeZone.getTimeZone("Pacific/Pago_Pago"));
+            File second = new File(directory + ".second.jar");
+            jarUtils.createJarFromDirectory(directory, second, JarUtils.REPRODUCIBLE_ENTRY_TIME);
+
+            assertTrue(Arrays.equals(Files.readAllBytes(first.toPath()),
+                Files.readAllBytes(second.toPath())));
+
+            first.delete();
+            second.delete();
+        }
+        finally
+        {
+            this.fileHandler.delete(directory);
+        }
+    }
+
+    /**
+     * Test that an archive built twice, at different times and in different time zones, is
+     * byte-identical once made reproducible, and that its content is kept.
+     * 
+     * @throws Exception If anything goes wrong.
+     */
+    public void testMakeReproducible() throws Exception
+    {
+        String directory = this.fileHandler.createUniqueTmpDirectory();
+        try
+        {
+            JarUtils jarUtils = new JarUtils();
+
+            File first = new File(directory, "first.war");
+            TimeZone.setDefault(TimeZone.getTimeZone("Europe/Paris"));
+            createArchive(first, System.currentTimeMillis());
+            jarUtils.makeReproducible(first);
+
+            File second = new File(directory, "second.war");
+            TimeZone.setDefault(TimeZone.getTimeZone("America/New_York"));
+            createArchive(second, System.currentTimeMillis() - 86400000L);
+            jarUtils.makeReproducible(second);
+
+            assertTrue(Arrays.equals(Files.readAllBytes(first.toPath()),
+                Files.readAllBytes(second.toPath())));
+
+            try (ZipFile zip = new ZipFile(first))
+            {
+                ZipEntry manifest = zip.entries().nextElement();
+                assertEquals("META-INF/MANIFEST.MF", manifest.getName());
+                assertEquals("Manifest-Version: 1.0\n", new String(
+                    readAll(zip, manifest), StandardCharsets.UTF_8));
+                assertEquals("version=1.0\ngroupId=g\nartifactId=a\n", new String(readAll(
+                    zip, zip.getEntry("META-INF/maven/g/a/pom.properties")),
+                    StandardCharsets.ISO_8859_1));
+                assertEquals("<web-app/>", new String(
+                    readAll(zip, zip.getEntry("WEB-INF/web.xml")), StandardCharsets.UTF_8));
+            }
+        }
+        finally
+        {
+            this.fileHandler.delete(directory);
+        }
+    }
+
+    /**
+     * Creates an archive the way Maven does, with entries dated at a given time and a
+     * <code>pom.properties</code> file holding that date.
+     * 
+     * @param archive Archive to create.
+     * @param time Build time.
+     * @throws Exception If anything goes wrong.
+     */
+    private void createArchive(File archive, long time) throws Exception
+    {
+        try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(archive)))
+        {
+            addEntry(zip, "META-INF/MANIFEST.MF", "Manifest-Version: 1.0\n", time);
+            addEntry(zip, "META-INF/maven/g/a/pom.properties", "#Generated by Maven\n#"
+                + new Date(time) + "\nversion=1.0\ngroupId=g\nartifactId=a\n", time);
+            addEntry(zip, "WEB-INF/web.xml", "<web-app/>", time);
+        }
+    }
+
+    /**
+     * Adds an entry to an archive.
+     * 
+     * @param zip Archive.
+     * @param name Entry name.
+     * @param content Entry content.
+     * @param time Entry modification time.
+     * @throws Exception If anything goes wrong.
+     */
+    private void addEntry(ZipOutputStream zip, String name, String content, long time)
+        throws Exception
+    {
+        ZipEntry entry = new ZipEntry(name);
+        entry.setTime(time);
+        zip.putNextEntry(entry);
+        zip.write(content.getBytes(StandardCharsets.ISO_8859_1));
+        zip.closeEntry();
+    }
+
+    /**
+     * @param zip Archive.
+     * @param entry Entry of the archive.
+     * @return Content of the entry.
+     * @throws Exception If anything goes wrong.
+     */
+    private byte[] readAll(ZipFile zip, ZipEntry entry) throws Exception
+    {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        try (InputStream in = zip.getInputStream(entry))
+        {
+            byte[] buffer = new byte[1024];
+            int read;
+            while ((read = in.read(buffer)) != -1)
+            {
+                content.write(buffer, 0, read);
+            }
+        }
+        return content.toByteArray();
+    }
+}
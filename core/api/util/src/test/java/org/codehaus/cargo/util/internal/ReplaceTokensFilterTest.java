@@ -0,0 +1,117 @@
+/*
+ * ========================================================================
+ *
+ * Codehaus CARGO, copyright 2004-2011 Vincent Massol, 2012-2018 Ali Tokmen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * ========================================================================
+ */
+package org.codehaus.cargo.util.internal;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for {@link ReplaceTokensFilter}.
+ */
+public class ReplaceTokensFilterTest extends TestCase
+{
+    /**
+     * Filter to test.
+     */
+    private ReplaceTokensFilter filter;
+
+    /**
+     * Creates the filter. {@inheritDoc}
+     * @throws Exception If anything goes wrong.
+     */
+    @Override
+    protected void setUp() throws Exception
+    {
+        super.setUp();
+
+        filter = new ReplaceTokensFilter();
+        filter.addToken("cargo.hostname", "localhost");
+        filter.addToken("cargo.servlet.port", "8080");
+        filter.addToken("empty", "");
+    }
+
+    /**
+     * @param text Text to filter.
+     * @return Filtered text.
+     * @throws IOException If anything goes wrong.
+     */
+    private String filter(String text) throws IOException
+    {
+        StringBuilder result = new StringBuilder();
+        try (Reader reader = filter.chain(new StringReader(text)))
+        {
+            char[] buffer = new char[3];
+            int read;
+            while ((read = reader.read(buffer)) != -1)
+            {
+                result.append(buffer, 0, read);
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * Test replacing tokens.
+     * @throws Exception If anything goes wrong.
+     */
+    public void testReplaceTokens() throws Exception
+    {
+        assertEquals("http://localhost:8080/",
+            filter("http://@cargo.hostname@:@cargo.servlet.port@/"));
+        assertEquals("ab", filter("a@empty@b"));
+    }
+
+    /**
+     * Test that unknown tokens are kept and that their closing delimiter opens the next token.
+     * @throws Exception If anything goes wrong.
+     */
+    public void testUnknownTokens() throws Exception
+    {
+        assertEquals("@unknown@", filter("@unknown@"));
+        assertEquals("@unknown8080", filter("@unknown@cargo.servlet.port@"));
+        assertEquals("user@example.com", filter("user@example.com"));
+        assertEquals("@@localhost", filter("@@@cargo.hostname@"));
+    }
+
+    /**
+     * Test unterminated tokens and text longer than any key between delimiters.
+     * @throws Exception If anything goes wrong.
+     */
+    public void testUnterminatedAndLongTokens() throws Exception
+    {
+        assertEquals("a@cargo.hostname", filter("a@cargo.hostname"));
+        assertEquals("@this text is longer than any keylocalhost",
+            filter("@this text is longer than any key@cargo.hostname@"));
+    }
+
+    /**
+     * Test that the first value added for a key is kept and that values are not filtered again.
+     * @throws Exception If anything goes wrong.
+     */
+    public void testFirstValueAndNoRecursion() throws Exception
+    {
+        filter.addToken("cargo.hostname", "ignored");
+        filter.addToken("nested", "@cargo.hostname@");
+        assertEquals("localhost @cargo.hostname@", filter("@cargo.hostname@ @nested@"));
+    }
+}
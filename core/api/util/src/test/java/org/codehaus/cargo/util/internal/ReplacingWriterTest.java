@@ -0,0 +1,96 @@
+/*
+ * ========================================================================
+ *
+ * Codehaus CARGO, copyright 2004-2011 Vincent Massol, 2012-2018 Ali Tokmen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * ========================================================================
+ */
+package org.codehaus.cargo.util.internal;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.HashMap;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for {@link ReplacingWriter}.
+ */
+public class ReplacingWriterTest extends TestCase
+{
+    /**
+     * @param replacements Replacements.
+     * @param chunks Text to write, in chunks.
+     * @return Text with the replacements done.
+     * @throws IOException If anything goes wrong.
+     */
+    private String replace(Map<String, String> replacements, String... chunks) throws IOException
+    {
+        StringWriter result = new StringWriter();
+        try (ReplacingWriter writer = new ReplacingWriter(result, replacements))
+        {
+            for (String chunk : chunks)
+            {
+                writer.write(chunk);
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * Test replacing keys split across written chunks.
+     * @throws Exception If anything goes wrong.
+     */
+    public void testKeysAcrossChunks() throws Exception
+    {
+        Map<String, String> replacements = new HashMap<String, String>();
+        replacements.put("<port>", "<port>9090");
+        replacements.put("jetty.home", "config.home");
+        assertEquals("a <port>9090 b config.home c",
+            replace(replacements, "a <po", "rt> b jet", "ty.", "home c"));
+    }
+
+    /**
+     * Test that the longest key wins and that replaced text is not scanned again.
+     * @throws Exception If anything goes wrong.
+     */
+    public void testLongestMatchNoRescan() throws Exception
+    {
+        Map<String, String> replacements = new HashMap<String, String>();
+        replacements.put("ab", "1");
+        replacements.put("abc", "2");
+        replacements.put("x", "ab");
+        assertEquals("21ab", replace(replacements, "abcabx"));
+    }
+
+    /**
+     * Test the replaced keys.
+     * @throws Exception If anything goes wrong.
+     */
+    public void testReplacedKeys() throws Exception
+    {
+        Map<String, String> replacements = new HashMap<String, String>();
+        replacements.put("found", "value");
+        replacements.put("missing", "value");
+        StringWriter result = new StringWriter();
+        ReplacingWriter writer = new ReplacingWriter(result, replacements);
+        writer.write("text with found key, and a partial missin");
+        writer.close();
+        assertEquals("text with value key, and a partial missin", result.toString());
+        assertTrue(writer.getReplacedKeys().contains("found"));
+        assertFalse(writer.getReplacedKeys().contains("missing"));
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * ========================================================================
+ *
+ * Codehaus CARGO, copyright 2004-2011 Vincent Massol, 2012-2018 Ali Tokmen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * ========================================================================
+ */
+package org.codehaus.cargo.util.internal;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for {@link XmlFactories}.
+ */
+public class XmlFactoriesTest extends TestCase
+{
+    /**
+     * Test that compiled XPath expressions are reused per namespaces and expression.
+     * @throws Exception If anything goes wrong.
+     */
+    public void testCompiledXPathCached() throws Exception
+    {
+        Map<String, String> namespaces = new HashMap<String, String>();
+        namespaces.put("j2ee", "http://java.sun.com/xml/ns/j2ee");
+
+        try (XmlFactories factories = XmlFactories.acquire())
+        {
+            assertSame(factories.compileXPath("//j2ee:web-app", namespaces),
+                factories.compileXPath("//j2ee:web-app",
+                    new HashMap<String, String>(namespaces)));
+
+            Map<String, String> otherNamespaces = new HashMap<String, String>();
+            otherNamespaces.put("j2ee", "http://xmlns.jcp.org/xml/ns/javaee");
+            assertNotSame(factories.compileXPath("//j2ee:web-app", namespaces),
+                factories.compileXPath("//j2ee:web-app", otherNamespaces));
+        }
+    }
+
+    /**
+     * Test that the document builders of an instance are reused.
+     */
+    public void testDocumentBuilderReused()
+    {
+        try (XmlFactories factories = XmlFactories.acquire())
+        {
+            assertSame(factories.getDocumentBuilder(true), factories.getDocumentBuilder(true));
+            assertNotSame(factories.getDocumentBuilder(true),
+                factories.getDocumentBuilder(false));
+        }
+    }
+
+    /**
+     * Test that returned instances are reused, and that leased instances are not shared.
+     */
+    public void testInstancesPooled()
+    {
+        XmlFactories first = XmlFactories.acquire();
+        XmlFactories second = XmlFactories.acquire();
+        assertNotSame(first, second);
+
+        second.close();
+        assertSame(second, XmlFactories.acquire());
+        first.close();
+        second.close();
+    }
+
+    /**
+     * Test that the pool is bounded.
+     */
+    public void testPoolBounded()
+    {
+        Set<XmlFactories> leased = new HashSet<XmlFactories>();
+        for (int i = 0; i < 20; i++)
+        {
+            leased.add(XmlFactories.acquire());
+        }
+        assertEquals(20, leased.size());
+        for (XmlFactories factories : leased)
+        {
+            factories.close();
+        }
+
+        Set<XmlFactories> reused = new HashSet<XmlFactories>();
+        for (int i = 0; i < 20; i++)
+        {
+            reused.add(XmlFactories.acquire());
+        }
+        reused.retainAll(leased);
+        assertTrue(reused.size() < 20);
+        for (XmlFactories factories : reused)
+        {
+            factories.close();
+        }
+    }
+}
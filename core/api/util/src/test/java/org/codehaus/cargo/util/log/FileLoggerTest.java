@@ -0,0 +1,136 @@
+/*
+ * ========================================================================
+ *
+ * Codehaus CARGO, copyright 2004-2011 Vincent Massol, 2012-2018 Ali Tokmen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * ========================================================================
+ */
+package org.codehaus.cargo.util.log;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for {@link FileLogger}.
+ */
+public class FileLoggerTest extends TestCase
+{
+    /**
+     * Log file.
+     */
+    private File file;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void setUp() throws Exception
+    {
+        super.setUp();
+        this.file = File.createTempFile("cargo-file-logger", ".log");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void tearDown() throws Exception
+    {
+        this.file.delete();
+        super.tearDown();
+    }
+
+    /**
+     * Test that warning and informational messages are written at once, together with the debug
+     * messages buffered before them.
+     * @throws Exception If anything goes wrong.
+     */
+    public void testInfoAndWarningFlushed() throws Exception
+    {
+        FileLogger logger = new FileLogger(this.file, false);
+        logger.setLevel(LogLevel.DEBUG);
+        try
+        {
+            logger.debug("first", "category");
+            logger.info("second", "category");
+            assertEquals(2, readLines().size());
+
+            logger.warn("third", "category");
+            List<String> lines = readLines();
+            assertEquals(3, lines.size());
+            assertTrue(lines.get(2), lines.get(2).endsWith("[warn][category] third"));
+        }
+        finally
+        {
+            logger.close();
+        }
+    }
+
+    /**
+     * Test that buffered debug messages are written when the logger is closed, and that messages
+     * logged afterwards are discarded.
+     * @throws Exception If anything goes wrong.
+     */
+    public void testDebugFlushedOnClose() throws Exception
+    {
+        FileLogger logger = new FileLogger(this.file, false);
+        logger.setLevel(LogLevel.DEBUG);
+        logger.debug("first", "category");
+        logger.debug("second", "category");
+
+        logger.close();
+        assertEquals(2, readLines().size());
+
+        logger.info("third", "category");
+        logger.close();
+        assertEquals(2, readLines().size());
+    }
+
+    /**
+     * Test that debug messages are written within the flush interval even if nothing else is
+     * logged, and that the logger is not required to be flushed or closed for that.
+     * @throws Exception If anything goes wrong.
+     */
+    public void testDebugFlushedAfterInterval() throws Exception
+    {
+        FileLogger logger = new FileLogger(this.file, false);
+        logger.setLevel(LogLevel.DEBUG);
+        logger.debug("first", "category");
+        logger.debug("second", "category");
+        assertEquals(0, readLines().size());
+        logger = null;
+        System.gc();
+
+        long deadline = System.currentTimeMillis() + 10 * FileLogger.FLUSH_INTERVAL;
+        while (readLines().size() < 2 && System.currentTimeMillis() < deadline)
+        {
+            Thread.sleep(50);
+        }
+        assertEquals(2, readLines().size());
+    }
+
+    /**
+     * @return Lines of the log file.
+     * @throws Exception If anything goes wrong.
+     */
+    private List<String> readLines() throws Exception
+    {
+        return Files.readAllLines(this.file.toPath(), StandardCharsets.UTF_8);
+    }
+}
@@ -89,7 +89,8 @@ public class GlassFish4xInstalledLocalDeployer extends GlassFish3xInstalledLocal
             args.add(groups.toString());
             args.add(user.getName().trim());
             new PrintWriter(System.out).println(args);
-            this.getLocalContainer().invokeAsAdmin(false, args);
+            // The temporary password file is needed until asadmin has run
+            this.getLocalContainer().invokeAsAdminImmediately(args);
 
             tempPasswordFile.delete();
         }
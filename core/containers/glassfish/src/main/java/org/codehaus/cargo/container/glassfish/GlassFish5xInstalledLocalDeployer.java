@@ -55,8 +55,9 @@ public class GlassFish5xInstalledLocalDeployer extends GlassFish4xInstalledLocal
             args.add("delete-jdbc-resource");
             args.add(jdbcName);
 
-            // The return value is checked by GlassFish3xAsAdmin.invokeAsAdmin
-            this.getLocalContainer().invokeAsAdmin(false, args);
+            // The return value is checked by GlassFish3xAsAdmin.invokeAsAdmin; failures are
+            // handled below, so these commands cannot wait for an asadmin batch to be flushed
+            this.getLocalContainer().invokeAsAdminImmediately(args);
 
             args.clear();
             this.addConnectOptions(args);
@@ -64,7 +65,7 @@ public class GlassFish5xInstalledLocalDeployer extends GlassFish4xInstalledLocal
             args.add(poolName);
 
             // The return value is checked by GlassFish3xAsAdmin.invokeAsAdmin
-            this.getLocalContainer().invokeAsAdmin(false, args);
+            this.getLocalContainer().invokeAsAdminImmediately(args);
         }
         catch (Throwable t)
         {
@@ -45,6 +45,15 @@ public abstract class AbstractAsAdmin
     public abstract int invokeAsAdmin(boolean async, JvmLauncher java, String[] args)
         throws CargoException;
 
+    /**
+     * @return <code>true</code> if this asadmin supports executing several commands using
+     * <code>multimode --file</code>, <code>false</code> otherwise.
+     */
+    public boolean isMultimodeSupported()
+    {
+        return false;
+    }
+
     /**
      * Creates and returns the password file that contains admin's password.
      * 
@@ -19,9 +19,12 @@
  */
 package org.codehaus.cargo.container.glassfish.internal;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
 
 import org.codehaus.cargo.container.configuration.LocalConfiguration;
@@ -43,6 +46,10 @@ import org.codehaus.cargo.util.CargoException;
 public abstract class AbstractGlassFishInstalledLocalContainer
     extends AbstractInstalledLocalContainer
 {
+    /**
+     * Batch of asadmin commands being recorded, <code>null</code> if not in batch mode.
+     */
+    private AsAdminBatch asAdminBatch;
 
     /**
      * Calls parent constructor, which saves the configuration.
@@ -55,7 +62,11 @@ public abstract class AbstractGlassFishInstalledLocalContainer
     }
 
     /**
-     * Invokes asadmin.
+     * Invokes asadmin. In batch mode (see {@link #startAsAdminBatch()}), synchronous invocations
+     * are recorded and only executed when the batch is flushed: the returned exit code is then
+     * always {@code 0} and failures are only reported, as a {@link CargoException}, by
+     * {@link #flushAsAdminBatch()}. Callers which need to handle the failure of a command
+     * themselves must use {@link #invokeAsAdminImmediately(List)} instead.
      * 
      * @param async Asynchronous invoke?
      * @param args Invoke arguments.
@@ -63,12 +74,51 @@ public abstract class AbstractGlassFishInstalledLocalContainer
      */
     public int invokeAsAdmin(boolean async, List<String> args)
     {
+        if (!async && this.asAdminBatch != null)
+        {
+            if (AsAdminBatch.isBatchable(args))
+            {
+                if (!this.asAdminBatch.add(args))
+                {
+                    flushAsAdminBatch();
+                    this.asAdminBatch.add(args);
+                }
+                return 0;
+            }
+
+            // Commands which cannot be batched run immediately, after the recorded ones
+            flushAsAdminBatch();
+        }
+
         JvmLauncher java = createJvmLauncher(false);
         String[] argsArray = new String[args.size()];
         argsArray = args.toArray(argsArray);
         return invokeAsAdmin(async, java, argsArray);
     }
 
+    /**
+     * Invokes asadmin synchronously, even in batch mode. Commands recorded so far are executed
+     * first, so that the commands keep their order and a failure of this command is reported by
+     * this call.
+     * 
+     * @param args Invoke arguments.
+     * @return The exit code from asadmin.
+     */
+    public int invokeAsAdminImmediately(List<String> args)
+    {
+        flushAsAdminBatch();
+        AsAdminBatch batch = this.asAdminBatch;
+        this.asAdminBatch = null;
+        try
+        {
+            return invokeAsAdmin(false, args);
+        }
+        finally
+        {
+            this.asAdminBatch = batch;
+        }
+    }
+
     /**
      * Invokes asadmin.
      * 
@@ -96,6 +146,160 @@ public abstract class AbstractGlassFishInstalledLocalContainer
         return asadmin.invokeAsAdmin(async, java, args);
     }
 
+    /**
+     * Starts recording synchronous asadmin invocations done through
+     * {@link #invokeAsAdmin(boolean, List)}, in order to execute them all in a single
+     * <code>asadmin multimode</code> invocation when {@link #flushAsAdminBatch()} is called. Does
+     * nothing if the asadmin of this container does not support multimode.
+     * 
+     * @return <code>true</code> if batch mode has been started, <code>false</code> if asadmin
+     * invocations will keep on being executed immediately.
+     */
+    public boolean startAsAdminBatch()
+    {
+        if (this.asAdminBatch == null && getAsAdmin().isMultimodeSupported())
+        {
+            this.asAdminBatch = new AsAdminBatch();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Executes all asadmin commands recorded since the batch mode has been started, in a single
+     * <code>asadmin multimode</code> invocation. The batch mode stays active.<br>
+     * <br>
+     * <code>asadmin multimode</code> goes on after a failed command and only exits with the status
+     * of the last command, hence the output is parsed and the first command which did not report
+     * its success makes this method fail.
+     * 
+     * @throws CargoException If any of the commands fails.
+     */
+    public void flushAsAdminBatch()
+    {
+        if (this.asAdminBatch == null || this.asAdminBatch.isEmpty())
+        {
+            return;
+        }
+
+        AsAdminBatch batch = this.asAdminBatch;
+        this.asAdminBatch = new AsAdminBatch();
+
+        String commands = batch.toMultimodeFile();
+        getLogger().debug("Executing asadmin commands in multimode:\n" + commands,
+            this.getClass().getName());
+
+        File commandsFile;
+        File outputFile;
+        try
+        {
+            commandsFile = File.createTempFile("cargo-asadmin-", ".txt");
+            outputFile = File.createTempFile("cargo-asadmin-", ".log");
+        }
+        catch (IOException e)
+        {
+            throw new CargoException("Cannot create asadmin multimode file", e);
+        }
+        try
+        {
+            getFileHandler().writeTextFile(commandsFile.getAbsolutePath(), commands, null);
+
+            List<String> args = batch.getProgramOptions();
+            args.add("multimode");
+            args.add("--file");
+            args.add(commandsFile.getAbsolutePath());
+
+            JvmLauncher java = createJvmLauncher(false);
+            java.setOutputFile(outputFile);
+            java.setAppendOutput(false);
+            // The per-command status lines are parsed, make sure they are not translated
+            java.addJvmArguments("-Duser.language=en", "-Duser.country=US");
+            String[] argsArray = new String[args.size()];
+            argsArray = args.toArray(argsArray);
+
+            CargoException exitFailure = null;
+            try
+            {
+                invokeAsAdmin(false, java, argsArray);
+            }
+            catch (CargoException e)
+            {
+                exitFailure = e;
+            }
+
+            String output = getFileHandler().readTextFile(outputFile.getAbsolutePath(), null);
+            logAsAdminOutput(output);
+            int failed = batch.getFirstFailedCommand(output);
+            if (failed != -1)
+            {
+                throw new CargoException("GlassFish admin command (" + batch.getCommand(failed)
+                    + ") failed in asadmin multimode", exitFailure);
+            }
+            if (exitFailure != null)
+            {
+                throw exitFailure;
+            }
+        }
+        finally
+        {
+            commandsFile.delete();
+            outputFile.delete();
+        }
+    }
+
+    /**
+     * Sends the output of an asadmin invocation where the output of asadmin invocations usually
+     * goes: the container output file if one is set, the logger otherwise.
+     * 
+     * @param output Output of asadmin.
+     */
+    private void logAsAdminOutput(String output)
+    {
+        if (getOutput() != null)
+        {
+            try
+            {
+                Files.write(new File(getOutput()).toPath(), output.getBytes(),
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+            catch (IOException e)
+            {
+                throw new CargoException("Cannot write to output file " + getOutput(), e);
+            }
+        }
+        else
+        {
+            for (String line : output.split("\\r?\\n"))
+            {
+                if (!line.isEmpty())
+                {
+                    getLogger().info(line, this.getClass().getName());
+                }
+            }
+        }
+    }
+
+    /**
+     * Ends the batch mode, executing all commands still recorded.
+     * 
+     * @param flush Whether to execute the recorded commands, or discard them.
+     * @throws CargoException If asadmin fails.
+     */
+    public void endAsAdminBatch(boolean flush)
+    {
+        try
+        {
+            if (flush)
+            {
+                flushAsAdminBatch();
+            }
+        }
+        finally
+        {
+            this.asAdminBatch = null;
+        }
+    }
+
     /**
      * Returns the asadmin for the GlassFish server.
      * 
@@ -207,6 +411,7 @@ public abstract class AbstractGlassFishInstalledLocalContainer
 
         AbstractGlassFishInstalledLocalDeployer deployer = getLocalDeployer();
 
+        boolean batch = startAsAdminBatch();
         try
         {
             // Deploy datasources and resources
@@ -247,9 +452,19 @@ public abstract class AbstractGlassFishInstalledLocalContainer
             {
                 deployer.redeploy(deployable);
             }
+
+            if (batch)
+            {
+                endAsAdminBatch(true);
+            }
         }
         catch (Throwable t)
         {
+            if (batch)
+            {
+                endAsAdminBatch(false);
+            }
+
             StringBuilder sb = new StringBuilder();
             sb.append("At least one GlassFish deployment has failed: ");
             sb.append(t.toString());
@@ -99,6 +99,75 @@ public abstract class AbstractGlassFishInstalledLocalDeployer extends AbstractLo
         this.doDeploy(deployable, true);
     }
 
+    /**
+     * {@inheritDoc}. If supported by asadmin, all deployments are done in a single asadmin
+     * invocation.
+     */
+    @Override
+    public void deploy(List<Deployable> deployables)
+    {
+        boolean batch = this.getLocalContainer().startAsAdminBatch();
+        boolean success = false;
+        try
+        {
+            super.deploy(deployables);
+            success = true;
+        }
+        finally
+        {
+            if (batch)
+            {
+                this.getLocalContainer().endAsAdminBatch(success);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}. If supported by asadmin, all undeployments are done in a single asadmin
+     * invocation.
+     */
+    @Override
+    public void undeploy(List<Deployable> deployables)
+    {
+        boolean batch = this.getLocalContainer().startAsAdminBatch();
+        boolean success = false;
+        try
+        {
+            super.undeploy(deployables);
+            success = true;
+        }
+        finally
+        {
+            if (batch)
+            {
+                this.getLocalContainer().endAsAdminBatch(success);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}. If supported by asadmin, all redeployments are done in a single asadmin
+     * invocation.
+     */
+    @Override
+    public void redeploy(List<Deployable> deployables)
+    {
+        boolean batch = this.getLocalContainer().startAsAdminBatch();
+        boolean success = false;
+        try
+        {
+            super.redeploy(deployables);
+            success = true;
+        }
+        finally
+        {
+            if (batch)
+            {
+                this.getLocalContainer().endAsAdminBatch(success);
+            }
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -0,0 +1,257 @@
+/*
+ * ========================================================================
+ *
+ * Codehaus CARGO, copyright 2004-2011 Vincent Massol, 2012-2018 Ali Tokmen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * ========================================================================
+ */
+package org.codehaus.cargo.container.glassfish.internal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Batch of asadmin commands, executed in a single <code>asadmin multimode --file</code>
+ * invocation. All commands of a batch share the same asadmin program options (host, port, user,
+ * password file...), which are given once to the <code>multimode</code> invocation.<br>
+ * <br>
+ * As <code>asadmin multimode</code> only exits with the status of the last command, the result
+ * of each command is read from the <code>Command ... executed successfully.</code> and
+ * <code>Command ... failed.</code> lines it prints.
+ */
+public class AsAdminBatch
+{
+
+    /**
+     * asadmin program options which take a value as next argument.
+     */
+    private static final Set<String> PROGRAM_OPTIONS_WITH_VALUE = new HashSet<String>(
+        Arrays.asList("--host", "-H", "--port", "-p", "--user", "-u", "--passwordfile", "-W"));
+
+    /**
+     * Program options shared by all commands of the batch.
+     */
+    private List<String> programOptions;
+
+    /**
+     * Commands of the batch, without the program options.
+     */
+    private List<List<String>> commands = new ArrayList<List<String>>();
+
+    /**
+     * Checks whether a command can be written to a multimode file. The multimode file is read line
+     * by line, hence arguments containing line breaks cannot be represented in it.
+     * 
+     * @param args asadmin arguments, as they would be given to a single asadmin invocation.
+     * @return <code>true</code> if the command can be added to a batch.
+     */
+    public static boolean isBatchable(List<String> args)
+    {
+        for (String arg : args)
+        {
+            if (arg.indexOf('\n') != -1 || arg.indexOf('\r') != -1)
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Adds a command to the batch.
+     * 
+     * @param args asadmin arguments, as they would be given to a single asadmin invocation.
+     * @return <code>true</code> if the command has been added, <code>false</code> if its program
+     * options differ from the ones of the commands already in the batch.
+     * @throws IllegalArgumentException If the command cannot be batched, see
+     * {@link #isBatchable(List)}.
+     */
+    public boolean add(List<String> args)
+    {
+        if (!isBatchable(args))
+        {
+            throw new IllegalArgumentException("asadmin arguments with line breaks cannot be "
+                + "executed in multimode: " + args);
+        }
+
+        List<String> options = new ArrayList<String>();
+        int i = 0;
+        while (i < args.size() && args.get(i).startsWith("-"))
+        {
+            String option = args.get(i);
+            options.add(option);
+            i++;
+            if (PROGRAM_OPTIONS_WITH_VALUE.contains(option) && i < args.size())
+            {
+                options.add(args.get(i));
+                i++;
+            }
+        }
+
+        if (this.programOptions == null)
+        {
+            this.programOptions = options;
+        }
+        else if (!this.programOptions.equals(options))
+        {
+            return false;
+        }
+
+        this.commands.add(new ArrayList<String>(args.subList(i, args.size())));
+        return true;
+    }
+
+    /**
+     * @return <code>true</code> if the batch does not contain any command.
+     */
+    public boolean isEmpty()
+    {
+        return this.commands.isEmpty();
+    }
+
+    /**
+     * @return Program options shared by all commands of the batch.
+     */
+    public List<String> getProgramOptions()
+    {
+        if (this.programOptions == null)
+        {
+            return new ArrayList<String>();
+        }
+        return new ArrayList<String>(this.programOptions);
+    }
+
+    /**
+     * @param index Index of a command in the batch.
+     * @return The command, as it is written to the multimode file.
+     */
+    public String getCommand(int index)
+    {
+        return toMultimodeLine(this.commands.get(index));
+    }
+
+    /**
+     * Finds the first command of the batch which has not been executed successfully, according to
+     * the output of <code>asadmin multimode</code>. Commands are executed in order, and each of
+     * them is followed by a <code>Command &lt;name&gt; executed successfully.</code> or a
+     * <code>Command &lt;name&gt; failed.</code> line; a command for which no such line is found is
+     * considered as failed.
+     * 
+     * @param output Output of <code>asadmin multimode</code>.
+     * @return Index of the first failed command, <code>-1</code> if all commands succeeded.
+     */
+    public int getFirstFailedCommand(String output)
+    {
+        int index = 0;
+        for (String line : output.split("\\r?\\n"))
+        {
+            if (index >= this.commands.size())
+            {
+                break;
+            }
+            String prefix = "Command " + this.commands.get(index).get(0) + " ";
+            line = line.trim();
+            if (line.startsWith(prefix))
+            {
+                if (line.startsWith("executed successfully", prefix.length()))
+                {
+                    index++;
+                }
+                else if (line.endsWith(" failed."))
+                {
+                    return index;
+                }
+            }
+        }
+        if (index < this.commands.size())
+        {
+            return index;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the content of the file to give to <code>asadmin multimode --file</code>: one
+     * command per line, with arguments quoted when required.
+     * 
+     * @return Content of the multimode file.
+     */
+    public String toMultimodeFile()
+    {
+        StringBuilder file = new StringBuilder();
+        for (List<String> command : this.commands)
+        {
+            file.append(toMultimodeLine(command));
+            file.append('\n');
+        }
+        return file.toString();
+    }
+
+    /**
+     * @param command Command, without the program options.
+     * @return Line of the multimode file executing the command.
+     */
+    private static String toMultimodeLine(List<String> command)
+    {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < command.size(); i++)
+        {
+            if (i > 0)
+            {
+                line.append(' ');
+            }
+            line.append(quote(command.get(i)));
+        }
+        return line.toString();
+    }
+
+    /**
+     * Quotes an argument for the asadmin multimode tokenizer, if it contains whitespaces, quotes
+     * or backslashes.
+     * 
+     * @param argument Argument to quote.
+     * @return Quoted argument.
+     */
+    private static String quote(String argument)
+    {
+        boolean needsQuoting = argument.isEmpty();
+        for (int i = 0; i < argument.length() && !needsQuoting; i++)
+        {
+            char c = argument.charAt(i);
+            needsQuoting = Character.isWhitespace(c) || c == '"' || c == '\'' || c == '\\';
+        }
+        if (!needsQuoting)
+        {
+            return argument;
+        }
+
+        StringBuilder quoted = new StringBuilder(argument.length() + 2);
+        quoted.append('"');
+        for (int i = 0; i < argument.length(); i++)
+        {
+            char c = argument.charAt(i);
+            if (c == '"' || c == '\\')
+            {
+                quoted.append('\\');
+            }
+            quoted.append(c);
+        }
+        quoted.append('"');
+        return quoted.toString();
+    }
+}
@@ -103,4 +103,13 @@ public class GlassFish3xAsAdmin extends AbstractAsAdmin
         return exitCode;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isMultimodeSupported()
+    {
+        return true;
+    }
+
 }
@@ -0,0 +1,141 @@
+/*
+ * ========================================================================
+ *
+ * Codehaus CARGO, copyright 2004-2011 Vincent Massol, 2012-2018 Ali Tokmen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * ========================================================================
+ */
+package org.codehaus.cargo.container.glassfish.internal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for {@link AsAdminBatch}.
+ */
+public class AsAdminBatchTest extends TestCase
+{
+    /**
+     * Program options used by the tests.
+     */
+    private static final List<String> OPTIONS =
+        Arrays.asList("--interactive=false", "--host", "localhost", "--port", "4848");
+
+    /**
+     * Creates asadmin arguments made of the program options and a command.
+     *
+     * @param command Command and its arguments.
+     * @return asadmin arguments.
+     */
+    private static List<String> args(String... command)
+    {
+        List<String> args = new ArrayList<String>(OPTIONS);
+        args.addAll(Arrays.asList(command));
+        return args;
+    }
+
+    /**
+     * Test that program options are given once and each command goes on its own line.
+     */
+    public void testProgramOptionsAndLines()
+    {
+        AsAdminBatch batch = new AsAdminBatch();
+        assertTrue(batch.isEmpty());
+        assertTrue(batch.add(args("deploy", "--force", "/tmp/a.war")));
+        assertTrue(batch.add(args("undeploy", "b")));
+        assertFalse(batch.isEmpty());
+
+        assertEquals(OPTIONS, batch.getProgramOptions());
+        assertEquals("deploy --force /tmp/a.war\nundeploy b\n", batch.toMultimodeFile());
+        assertEquals("undeploy b", batch.getCommand(1));
+    }
+
+    /**
+     * Test that a command with different program options is refused.
+     */
+    public void testDifferentProgramOptions()
+    {
+        AsAdminBatch batch = new AsAdminBatch();
+        assertTrue(batch.add(args("undeploy", "a")));
+        assertFalse(batch.add(Arrays.asList("--port", "4949", "undeploy", "b")));
+        assertEquals("undeploy a\n", batch.toMultimodeFile());
+    }
+
+    /**
+     * Test quoting of arguments with spaces, quotes and backslashes.
+     */
+    public void testQuoting()
+    {
+        AsAdminBatch batch = new AsAdminBatch();
+        batch.add(args("create-jvm-options", "a b", "say \"hi\"", "it's", "C:\\dir", ""));
+        assertEquals("create-jvm-options \"a b\" \"say \\\"hi\\\"\" \"it's\" \"C:\\\\dir\" \"\"\n",
+            batch.toMultimodeFile());
+    }
+
+    /**
+     * Test that arguments with line breaks cannot be batched.
+     */
+    public void testLineBreaks()
+    {
+        assertTrue(AsAdminBatch.isBatchable(args("set", "a=b")));
+        assertFalse(AsAdminBatch.isBatchable(args("set", "a=b\nc")));
+        assertFalse(AsAdminBatch.isBatchable(args("set", "a=b\r")));
+
+        AsAdminBatch batch = new AsAdminBatch();
+        try
+        {
+            batch.add(args("set", "a=b\nundeploy c"));
+            fail("A command with a line break has been batched");
+        }
+        catch (IllegalArgumentException expected)
+        {
+            assertTrue(batch.isEmpty());
+        }
+    }
+
+    /**
+     * Test finding the first failed command in the multimode output, knowing that the exit status
+     * of multimode is only the one of the last command.
+     */
+    public void testFirstFailedCommand()
+    {
+        AsAdminBatch batch = new AsAdminBatch();
+        batch.add(args("create-jdbc-connection-pool", "pool"));
+        batch.add(args("create-jdbc-resource", "jdbc/ds"));
+        batch.add(args("deploy", "a.war"));
+
+        assertEquals(-1, batch.getFirstFailedCommand(
+            "JDBC connection pool pool created successfully.\n"
+                + "Command create-jdbc-connection-pool executed successfully.\n"
+                + "Command create-jdbc-resource executed successfully with warnings.\r\n"
+                + "Application deployed with name a.\n"
+                + "Command deploy executed successfully.\n"));
+
+        assertEquals(1, batch.getFirstFailedCommand(
+            "Command create-jdbc-connection-pool executed successfully.\n"
+                + "remote failure: A resource named jdbc/ds already exists.\n"
+                + "Command create-jdbc-resource failed.\n"
+                + "Command deploy executed successfully.\n"));
+
+        assertEquals(2, batch.getFirstFailedCommand(
+            "Command create-jdbc-connection-pool executed successfully.\n"
+                + "Command create-jdbc-resource executed successfully.\n"));
+
+        assertEquals(0, batch.getFirstFailedCommand(""));
+    }
+}
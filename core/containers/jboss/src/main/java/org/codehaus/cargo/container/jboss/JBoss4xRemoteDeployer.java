@@ -29,6 +29,8 @@ import java.net.SocketTimeoutException;
 import java.net.URL;
 import java.net.URLEncoder;
 import java.net.UnknownHostException;
+import java.util.Collections;
+import java.util.List;
 
 import org.codehaus.cargo.container.ContainerException;
 import org.codehaus.cargo.container.RemoteContainer;
@@ -169,7 +171,16 @@ public class JBoss4xRemoteDeployer extends AbstractRemoteDeployer
     @Override
     public void deploy(Deployable deployable)
     {
-        invokeRemotely(deployable, this.deployURL, true);
+        invokeRemotely(Collections.singletonList(deployable), this.deployURL, true);
+    }
+
+    /**
+     * {@inheritDoc} All deployables are served by the same embedded HTTP server.
+     */
+    @Override
+    public void deploy(List<Deployable> deployables)
+    {
+        invokeRemotely(deployables, this.deployURL, true);
     }
 
     /**
@@ -178,7 +189,16 @@ public class JBoss4xRemoteDeployer extends AbstractRemoteDeployer
     @Override
     public void undeploy(Deployable deployable)
     {
-        invokeRemotely(deployable, this.undeployURL, false);
+        invokeRemotely(Collections.singletonList(deployable), this.undeployURL, false);
+    }
+
+    /**
+     * {@inheritDoc} All deployables are served by the same embedded HTTP server.
+     */
+    @Override
+    public void undeploy(List<Deployable> deployables)
+    {
+        invokeRemotely(deployables, this.undeployURL, false);
     }
 
     /**
@@ -187,7 +207,16 @@ public class JBoss4xRemoteDeployer extends AbstractRemoteDeployer
     @Override
     public void redeploy(Deployable deployable)
     {
-        invokeRemotely(deployable, this.redeployURL, true);
+        invokeRemotely(Collections.singletonList(deployable), this.redeployURL, true);
+    }
+
+    /**
+     * {@inheritDoc} All deployables are served by the same embedded HTTP server.
+     */
+    @Override
+    public void redeploy(List<Deployable> deployables)
+    {
+        invokeRemotely(deployables, this.redeployURL, true);
     }
 
     /**
@@ -205,30 +234,44 @@ public class JBoss4xRemoteDeployer extends AbstractRemoteDeployer
     }
 
     /**
-     * @param deployable deployable to deploy
+     * @param deployables deployables to deploy
      * @param jmxConsoleURL URL to jmx console
-     * @param expectDownload expect deployable to be downloaded
+     * @param expectDownload expect deployables to be downloaded
      */
-    private void invokeRemotely(Deployable deployable, String jmxConsoleURL,
+    private void invokeRemotely(List<Deployable> deployables, String jmxConsoleURL,
         boolean expectDownload)
     {
+        if (deployables.isEmpty())
+        {
+            return;
+        }
+
         this.fileServer.setLogger(this.getLogger());
-        this.fileServer.setFile(this.fileHandler, deployable);
+        this.fileServer.setFile(this.fileHandler, deployables.get(0));
+        for (Deployable deployable : deployables.subList(1, deployables.size()))
+        {
+            this.fileServer.addFile(this.fileHandler, deployable);
+        }
         this.fileServer.setListeningParameters(this.deployableServerSocketAddress,
             configuration.getPropertyValue(JBossPropertySet.REMOTEDEPLOY_HOSTNAME));
 
         try
         {
             this.fileServer.start();
-            String encodedURL = encodeURLLocation(this.fileServer.getURL());
-            String invokedURL = this.configuration.getPropertyValue(GeneralPropertySet.PROTOCOL)
-                + "://" + this.configuration.getPropertyValue(GeneralPropertySet.HOSTNAME) + ":"
-                + this.configuration.getPropertyValue(ServletPropertySet.PORT) + jmxConsoleURL
-                + encodedURL;
-            invokeURL(invokedURL);
-            if (this.fileServer.getCallCount() == 0 && expectDownload)
+            for (Deployable deployable : deployables)
             {
-                throw new CargoException("Application server didn't request the file");
+                String encodedURL = encodeURLLocation(this.fileServer.getURL(deployable));
+                String invokedURL =
+                    this.configuration.getPropertyValue(GeneralPropertySet.PROTOCOL) + "://"
+                    + this.configuration.getPropertyValue(GeneralPropertySet.HOSTNAME) + ":"
+                    + this.configuration.getPropertyValue(ServletPropertySet.PORT)
+                    + jmxConsoleURL + encodedURL;
+                invokeURL(invokedURL);
+                if (this.fileServer.getCallCount(deployable) == 0 && expectDownload)
+                {
+                    throw new CargoException("Application server didn't request the file "
+                        + deployable.getFile());
+                }
             }
         }
         catch (ContainerException e)
@@ -27,7 +27,7 @@ import org.codehaus.cargo.util.FileHandler;
 import org.codehaus.cargo.util.log.Logger;
 
 /**
- * Implementation of a Web server that serves one file.
+ * Implementation of a Web server that serves deployables to remote servers.
  */
 public interface ISimpleHttpFileServer
 {
@@ -38,6 +38,14 @@ public interface ISimpleHttpFileServer
      */
     void setFile(FileHandler handler, Deployable deployable);
 
+    /**
+     * Serves an additional file from the same port, under its own path. Must be called after
+     * {@link #setFile(FileHandler, Deployable)}.
+     * @param handler file handler to use.
+     * @param deployable deployable to handle.
+     */
+    void addFile(FileHandler handler, Deployable deployable);
+
     /**
      * @param listenSocket socket to listen on.
      * @param remoteDeployAddress remote hostname to use in the url, if null it will be obtained
@@ -55,6 +63,13 @@ public interface ISimpleHttpFileServer
      */
     URL getURL();
 
+    /**
+     * @param deployable deployable given to {@link #setFile(FileHandler, Deployable)} or
+     * {@link #addFile(FileHandler, Deployable)}.
+     * @return url this server serves <code>deployable</code> on.
+     */
+    URL getURL(Deployable deployable);
+
     /**
      * starts the server.
      */
@@ -65,6 +80,12 @@ public interface ISimpleHttpFileServer
      */
     int getCallCount();
 
+    /**
+     * @param deployable deployable being served.
+     * @return the number of successful calls received for <code>deployable</code>.
+     */
+    int getCallCount(Deployable deployable);
+
     /**
      * @return exception, if any occured.
      */
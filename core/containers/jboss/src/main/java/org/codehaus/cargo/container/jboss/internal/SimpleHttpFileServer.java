@@ -19,18 +19,32 @@
  */
 package org.codehaus.cargo.container.jboss.internal;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
 import java.net.InetSocketAddress;
 import java.net.MalformedURLException;
-import java.net.ServerSocket;
-import java.net.Socket;
-import java.net.SocketException;
 import java.net.URL;
+import java.net.URLDecoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.codehaus.cargo.container.deployable.Deployable;
 import org.codehaus.cargo.container.deployable.DeployableType;
@@ -40,18 +54,36 @@ import org.codehaus.cargo.util.FileHandler;
 import org.codehaus.cargo.util.log.Logger;
 
 /**
- * Implementation of a Web server that serves one file.
+ * Implementation of a Web server that serves files to remote application servers. Requests are
+ * handled concurrently, connections are kept alive as per HTTP/1.1 and single byte
+ * <code>Range</code> requests are supported. Local files are sent using
+ * {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)}.
  */
 public class SimpleHttpFileServer implements Runnable, ISimpleHttpFileServer
 {
 
+    /**
+     * Maximum size of the request line and headers of an HTTP request.
+     */
+    private static final int MAX_REQUEST_HEAD_SIZE = 8192;
+
+    /**
+     * Size of the buffer used when a file can only be read as a stream.
+     */
+    private static final int STREAM_BUFFER_SIZE = 65536;
+
+    /**
+     * Charset used for HTTP request and response heads.
+     */
+    private static final Charset US_ASCII = Charset.forName("US-ASCII");
+
     /**
      * Logger instance.
      */
     protected Logger logger;
 
     /**
-     * URL for retrieving file.
+     * URL for retrieving the primary file.
      */
     protected URL url;
 
@@ -61,41 +93,73 @@ public class SimpleHttpFileServer implements Runnable, ISimpleHttpFileServer
     protected FileHandler fileHandler;
 
     /**
-     * Path of the file to serve.
+     * Path of the primary file to serve.
      */
     protected String filePath;
 
     /**
-     * Remote path of served file.
+     * Remote path of the primary file.
      */
     protected String remotePath;
 
     /**
-     * TCP socket.
+     * TCP server channel.
      */
-    protected ServerSocket serverSocket;
+    protected ServerSocketChannel serverChannel;
 
     /**
-     * Call count.
+     * Call count, over all served files.
      */
-    protected int callCount;
+    protected final AtomicInteger callCount = new AtomicInteger();
 
     /**
      * Has stop been called?
      */
-    protected boolean stopped;
+    protected volatile boolean stopped;
 
     /**
      * Last exception.
      */
-    protected Throwable lastException;
+    protected volatile Throwable lastException;
+
+    /**
+     * Served files, indexed by remote path.
+     */
+    private final Map<String, String> files = new ConcurrentHashMap<String, String>();
+
+    /**
+     * Call counts, indexed by remote path.
+     */
+    private final Map<String, AtomicInteger> callCounts =
+        new ConcurrentHashMap<String, AtomicInteger>();
+
+    /**
+     * Currently open client connections.
+     */
+    private final Set<SocketChannel> connections =
+        Collections.newSetFromMap(new ConcurrentHashMap<SocketChannel, Boolean>());
+
+    /**
+     * Host name to use in the URLs.
+     */
+    private String urlHost;
+
+    /**
+     * Port to use in the URLs.
+     */
+    private int urlPort;
+
+    /**
+     * Executor handling client connections.
+     */
+    private ExecutorService executor;
 
     /**
      * create the simple http file server.
      */
     public SimpleHttpFileServer()
     {
-        callCount = 0;
+        // Nothing
     }
 
     /**
@@ -108,57 +172,73 @@ public class SimpleHttpFileServer implements Runnable, ISimpleHttpFileServer
     }
 
     /**
-     * @param handler file handler to use.
-     * @param deployable deployable to handle.
+     * {@inheritDoc}
      */
     @Override
     public void setFile(FileHandler handler, Deployable deployable)
     {
-        String filePath = deployable.getFile();
-
-        this.filePath = filePath;
+        this.files.clear();
+        this.callCounts.clear();
         this.fileHandler = handler;
+        this.filePath = deployable.getFile();
         this.remotePath = "/" + getDeployableName(deployable);
+        addFile(handler, deployable);
     }
 
     /**
-     * @param listenSocket socket to listen on.
-     * @param remoteDeployAddress remote hostname to use in the url, if null it will be obtained
-     * from the listenSocket.
+     * {@inheritDoc}
      */
     @Override
-    public void setListeningParameters(InetSocketAddress listenSocket, String remoteDeployAddress)
+    public void addFile(FileHandler handler, Deployable deployable)
     {
         if (this.remotePath == null)
         {
             throw new CargoException("Please call setFile first!");
         }
 
-        try
+        String path = "/" + getDeployableName(deployable);
+        String existing = this.files.get(path);
+        if (existing != null && !existing.equals(deployable.getFile()))
         {
-            String finalRemoteDeployAddress = remoteDeployAddress;
-            if (finalRemoteDeployAddress == null)
-            {
-                finalRemoteDeployAddress = listenSocket.getHostName();
-            }
-            this.url = new URL("http", finalRemoteDeployAddress, listenSocket.getPort(),
-                this.remotePath);
+            throw new CargoException("Both [" + existing + "] and [" + deployable.getFile()
+                + "] would be served as " + path);
         }
-        catch (MalformedURLException e)
+        this.fileHandler = handler;
+        this.files.put(path, deployable.getFile());
+        this.callCounts.put(path, new AtomicInteger());
+    }
+
+    /**
+     * @param listenSocket socket to listen on.
+     * @param remoteDeployAddress remote hostname to use in the url, if null it will be obtained
+     * from the listenSocket.
+     */
+    @Override
+    public void setListeningParameters(InetSocketAddress listenSocket, String remoteDeployAddress)
+    {
+        if (this.remotePath == null)
         {
-            throw new CargoException("Could not create a url for " + listenSocket + " and file: "
-                + this.remotePath, e);
+            throw new CargoException("Please call setFile first!");
         }
 
         try
         {
-            this.serverSocket = new ServerSocket(listenSocket.getPort(), 0,
-                listenSocket.getAddress());
+            this.serverChannel = ServerSocketChannel.open();
+            this.serverChannel.socket().setReuseAddress(true);
+            this.serverChannel.socket().bind(listenSocket);
         }
         catch (IOException e)
         {
             throw new CargoException("Could not create a socket for " + listenSocket, e);
         }
+
+        this.urlHost = remoteDeployAddress;
+        if (this.urlHost == null)
+        {
+            this.urlHost = listenSocket.getHostName();
+        }
+        this.urlPort = this.serverChannel.socket().getLocalPort();
+        this.url = createURL(this.remotePath);
     }
 
     /**
@@ -175,13 +255,41 @@ public class SimpleHttpFileServer implements Runnable, ISimpleHttpFileServer
         return url;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public URL getURL(Deployable deployable)
+    {
+        if (this.url == null)
+        {
+            throw new CargoException("Please call setListeningParameters first!");
+        }
+
+        return createURL("/" + getDeployableName(deployable));
+    }
+
     /**
      * @return the number of successful calls received.
      */
     @Override
     public int getCallCount()
     {
-        return this.callCount;
+        return this.callCount.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getCallCount(Deployable deployable)
+    {
+        AtomicInteger count = this.callCounts.get("/" + getDeployableName(deployable));
+        if (count == null)
+        {
+            return 0;
+        }
+        return count.get();
     }
 
     /**
@@ -204,12 +312,31 @@ public class SimpleHttpFileServer implements Runnable, ISimpleHttpFileServer
             throw new CargoException("Please call setLogger first!");
         }
 
-        if (this.serverSocket == null)
+        if (this.serverChannel == null)
         {
             throw new CargoException("Please call setListeningParameters first!");
         }
 
         this.stopped = false;
+        this.executor = Executors.newCachedThreadPool(new ThreadFactory()
+        {
+            /**
+             * Number of threads created so far.
+             */
+            private final AtomicInteger count = new AtomicInteger();
+
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public Thread newThread(Runnable runnable)
+            {
+                Thread thread = new Thread(runnable,
+                    "cargo-http-file-server-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
         Thread thread = new Thread(this);
         thread.setDaemon(true);
         thread.start();
@@ -225,12 +352,23 @@ public class SimpleHttpFileServer implements Runnable, ISimpleHttpFileServer
 
         try
         {
-            this.serverSocket.close();
+            this.serverChannel.close();
+            for (SocketChannel connection : this.connections)
+            {
+                connection.close();
+            }
         }
         catch (IOException e)
         {
             throw new CargoException("Error stopping embedded HTTP server", e);
         }
+        finally
+        {
+            if (this.executor != null)
+            {
+                this.executor.shutdownNow();
+            }
+        }
     }
 
     /**
@@ -245,120 +383,466 @@ public class SimpleHttpFileServer implements Runnable, ISimpleHttpFileServer
         }
         catch (Throwable t)
         {
-            if (!this.stopped)
+            reportException(t);
+        }
+    }
+
+    /**
+     * Accepts connections and hands them over to the executor.
+     * @throws IOException if accepting fails.
+     */
+    private void runAndThrow() throws IOException
+    {
+        while (!this.stopped)
+        {
+            this.logger.debug("Waiting for connection on socket " + this.serverChannel,
+                this.getClass().getName());
+
+            final SocketChannel channel;
+            try
+            {
+                channel = this.serverChannel.accept();
+            }
+            catch (ClosedChannelException e)
+            {
+                // Server stopped
+                return;
+            }
+
+            this.connections.add(channel);
+            this.executor.execute(new Runnable()
             {
-                this.lastException = t;
-                this.logger.warn("Error in the embedded HTTP server: " + t.toString(),
-                    this.getClass().getName());
-                for (StackTraceElement ste : t.getStackTrace())
+                /**
+                 * {@inheritDoc}
+                 */
+                @Override
+                public void run()
                 {
-                    this.logger.warn(ste.toString(), this.getClass().getName());
+                    handleConnection(channel);
                 }
-            }
+            });
         }
     }
 
     /**
-     * runs the thread.
-     * @throws Throwable if anything is thrown.
+     * Serves all requests sent over a connection, until either side closes it.
+     * @param channel Client connection.
      */
-    private void runAndThrow() throws Throwable
+    private void handleConnection(SocketChannel channel)
     {
-        final String expectedGetRequest = "GET " + this.remotePath;
+        this.logger.debug("Handling requests on socket " + channel, this.getClass().getName());
 
-        while (!this.stopped)
+        try
         {
-            this.logger.debug("Waiting for connection on socket " + this.serverSocket,
-                this.getClass().getName());
+            ByteBuffer buffer = ByteBuffer.allocate(MAX_REQUEST_HEAD_SIZE);
+            buffer.flip();
 
-            // wait for a connection
-            try (Socket socket = this.serverSocket.accept())
+            boolean keepAlive = true;
+            while (keepAlive && !this.stopped)
             {
-                this.logger.debug("Handling request on socket " + socket,
-                    this.getClass().getName());
-
-                boolean error = false;
-                BufferedReader in = new BufferedReader(new InputStreamReader(
-                    socket.getInputStream()));
+                String head = readRequestHead(channel, buffer);
+                if (head == null)
+                {
+                    break;
+                }
+                keepAlive = handleRequest(channel, head);
+            }
+        }
+        catch (IOException e)
+        {
+            // Client went away or server stopped. Not ignoring will result in the CARGO-859
+            // (JBoss timing out with big files) if the server retries.
+            this.logger.debug("Connection " + channel + " ended: " + e,
+                this.getClass().getName());
+        }
+        catch (Throwable t)
+        {
+            reportException(t);
+        }
+        finally
+        {
+            this.connections.remove(channel);
+            try
+            {
+                channel.close();
+            }
+            catch (IOException ignored)
+            {
+                // Ignored
+            }
+        }
+    }
 
-                String line = in.readLine();
-                if (line == null)
+    /**
+     * Reads the request line and headers of the next request on a connection.
+     * @param channel Client connection.
+     * @param buffer Buffer, in read mode, which may already contain bytes of the request.
+     * @return Request line and headers, <code>null</code> if the connection was closed.
+     * @throws IOException If reading fails or the request head is too large.
+     */
+    private String readRequestHead(SocketChannel channel, ByteBuffer buffer) throws IOException
+    {
+        while (true)
+        {
+            for (int i = buffer.position(); i + 3 < buffer.limit(); i++)
+            {
+                if (buffer.get(i) == '\r' && buffer.get(i + 1) == '\n'
+                    && buffer.get(i + 2) == '\r' && buffer.get(i + 3) == '\n')
                 {
-                    line = "";
+                    byte[] head = new byte[i - buffer.position()];
+                    buffer.get(head);
+                    buffer.position(i + 4);
+                    return new String(head, US_ASCII);
                 }
-                if (!line.startsWith(expectedGetRequest))
+            }
+
+            buffer.compact();
+            if (!buffer.hasRemaining())
+            {
+                throw new IOException("HTTP request head exceeds " + MAX_REQUEST_HEAD_SIZE
+                    + " bytes");
+            }
+            int read = channel.read(buffer);
+            buffer.flip();
+            if (read < 0)
+            {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Answers one HTTP request.
+     * @param channel Client connection.
+     * @param head Request line and headers.
+     * @return <code>true</code> if the connection should be kept alive.
+     * @throws IOException If writing the response fails.
+     */
+    private boolean handleRequest(SocketChannel channel, String head) throws IOException
+    {
+        String[] lines = head.split("\r\n");
+        this.logger.debug("Got HTTP request line " + lines[0], this.getClass().getName());
+
+        String[] requestLine = lines[0].split(" ");
+        Map<String, String> headers = new HashMap<String, String>();
+        for (int i = 1; i < lines.length; i++)
+        {
+            int colon = lines[i].indexOf(':');
+            if (colon > 0)
+            {
+                headers.put(lines[i].substring(0, colon).trim().toLowerCase(Locale.ENGLISH),
+                    lines[i].substring(colon + 1).trim());
+            }
+        }
+
+        boolean keepAlive = false;
+        if (requestLine.length == 3)
+        {
+            String connection = headers.get("connection");
+            if ("HTTP/1.1".equals(requestLine[2]))
+            {
+                keepAlive = !"close".equalsIgnoreCase(connection);
+            }
+            else
+            {
+                keepAlive = "keep-alive".equalsIgnoreCase(connection);
+            }
+        }
+
+        String method = requestLine[0];
+        String path = null;
+        if (requestLine.length > 1)
+        {
+            path = findPath(requestLine[1]);
+        }
+
+        if (path == null)
+        {
+            writeHead(channel, "404 Not Found", keepAlive, "Content-Length: 0\r\n");
+        }
+        else if (!"GET".equals(method) && !"HEAD".equals(method))
+        {
+            writeHead(channel, "405 Method Not Allowed", keepAlive,
+                "Allow: GET, HEAD\r\nContent-Length: 0\r\n");
+        }
+        else
+        {
+            String file = this.files.get(path);
+            long size = this.fileHandler.getSize(file);
+            long[] range = parseRange(headers.get("range"), size);
+
+            StringBuilder extra = new StringBuilder();
+            extra.append("Content-Type: application/octet-stream\r\n");
+            extra.append("Accept-Ranges: bytes\r\n");
+            if (range == null)
+            {
+                range = new long[] {0, size - 1};
+                extra.append("Content-Length: " + size + "\r\n");
+                writeHead(channel, "200 OK", keepAlive, extra.toString());
+            }
+            else if (range.length == 0)
+            {
+                writeHead(channel, "416 Range Not Satisfiable", keepAlive,
+                    "Content-Range: bytes */" + size + "\r\nContent-Length: 0\r\n");
+                return keepAlive;
+            }
+            else
+            {
+                extra.append("Content-Length: " + (range[1] - range[0] + 1) + "\r\n");
+                extra.append("Content-Range: bytes " + range[0] + "-" + range[1] + "/" + size
+                    + "\r\n");
+                writeHead(channel, "206 Partial Content", keepAlive, extra.toString());
+            }
+
+            if ("GET".equals(method))
+            {
+                sendFile(channel, file, range[0], range[1] - range[0] + 1);
+                this.callCounts.get(path).incrementAndGet();
+                this.callCount.incrementAndGet();
+            }
+        }
+
+        this.logger.debug("Finished responding to HTTP request line " + lines[0],
+            this.getClass().getName());
+
+        return keepAlive;
+    }
+
+    /**
+     * @param target Request target.
+     * @return Remote path of the served file matching <code>target</code>, <code>null</code> if
+     * none matches.
+     */
+    private String findPath(String target)
+    {
+        String path = target;
+        int query = path.indexOf('?');
+        if (query != -1)
+        {
+            path = path.substring(0, query);
+        }
+        if (this.files.containsKey(path))
+        {
+            return path;
+        }
+
+        try
+        {
+            path = URLDecoder.decode(path, "UTF-8");
+        }
+        catch (UnsupportedEncodingException e)
+        {
+            throw new CargoException("UTF-8 is not supported", e);
+        }
+        catch (IllegalArgumentException e)
+        {
+            return null;
+        }
+        if (this.files.containsKey(path))
+        {
+            return path;
+        }
+        return null;
+    }
+
+    /**
+     * Parses a <code>Range</code> header. Only single byte ranges are honoured; other ranges are
+     * ignored, in which case the whole file is sent as allowed by RFC 7233.
+     * @param header Value of the <code>Range</code> header, may be <code>null</code>.
+     * @param size Size of the file.
+     * @return First and last byte positions, <code>null</code> if the whole file should be sent
+     * or an empty array if the range cannot be satisfied.
+     */
+    private long[] parseRange(String header, long size)
+    {
+        if (header == null || !header.startsWith("bytes=") || header.indexOf(',') != -1)
+        {
+            return null;
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash == -1)
+        {
+            return null;
+        }
+
+        long first;
+        long last;
+        try
+        {
+            if (dash == 0)
+            {
+                long suffix = Long.parseLong(spec.substring(1));
+                first = Math.max(0, size - suffix);
+                last = size - 1;
+                if (suffix == 0)
                 {
-                    error = true;
+                    return new long[0];
                 }
-                while (!"".equals(line))
+            }
+            else
+            {
+                first = Long.parseLong(spec.substring(0, dash));
+                last = size - 1;
+                if (dash < spec.length() - 1)
                 {
-                    line = in.readLine();
+                    last = Math.min(last, Long.parseLong(spec.substring(dash + 1)));
                 }
+            }
+        }
+        catch (NumberFormatException e)
+        {
+            return null;
+        }
 
-                this.logger.debug("Got HTTP request line " + line, this.getClass().getName());
+        if (first >= size || first > last)
+        {
+            return new long[0];
+        }
+        return new long[] {first, last};
+    }
 
-                OutputStream out = socket.getOutputStream();
-                if (error)
+    /**
+     * Writes the status line and headers of a response.
+     * @param channel Client connection.
+     * @param status Status code and reason.
+     * @param keepAlive Whether the connection is kept alive.
+     * @param headers Additional headers, each terminated by CRLF.
+     * @throws IOException If writing fails.
+     */
+    private void writeHead(SocketChannel channel, String status, boolean keepAlive,
+        String headers) throws IOException
+    {
+        StringBuilder answer = new StringBuilder();
+        answer.append("HTTP/1.1 ");
+        answer.append(status);
+        answer.append("\r\n");
+        if (keepAlive)
+        {
+            answer.append("Connection: keep-alive");
+        }
+        else
+        {
+            answer.append("Connection: close");
+        }
+        answer.append("\r\n");
+        answer.append(headers);
+        answer.append("\r\n");
+
+        writeFully(channel, ByteBuffer.wrap(answer.toString().getBytes(US_ASCII)));
+    }
+
+    /**
+     * Sends part of a file. Local files are transferred by the kernel where supported, other files
+     * are copied through a buffer.
+     * @param channel Client connection.
+     * @param file Path of the file to send.
+     * @param offset Offset of the first byte to send.
+     * @param length Number of bytes to send.
+     * @throws IOException If reading or writing fails.
+     */
+    private void sendFile(SocketChannel channel, String file, long offset, long length)
+        throws IOException
+    {
+        File localFile = new File(file);
+        if (localFile.isFile())
+        {
+            Path localPath = localFile.toPath();
+            try (FileChannel fileChannel = FileChannel.open(localPath, StandardOpenOption.READ))
+            {
+                long position = offset;
+                long remaining = length;
+                while (remaining > 0)
                 {
-                    StringBuilder answer = new StringBuilder();
-                    answer.append("HTTP/1.0 404 NOTFOUND");
-                    answer.append("\r\n");
-                    answer.append("Connection: close");
-                    answer.append("\r\n");
-                    answer.append("\r\n");
-
-                    out.write(answer.toString().getBytes("US-ASCII"));
-                    out.flush();
+                    long sent = fileChannel.transferTo(position, remaining, channel);
+                    if (sent <= 0 && position >= fileChannel.size())
+                    {
+                        throw new IOException("File " + file + " was truncated while sending");
+                    }
+                    position += sent;
+                    remaining -= sent;
                 }
-                else
+            }
+        }
+        else
+        {
+            try (InputStream in = this.fileHandler.getInputStream(file))
+            {
+                long toSkip = offset;
+                while (toSkip > 0)
                 {
-                    StringBuilder answer = new StringBuilder();
-                    answer.append("HTTP/1.0 200 OK");
-                    answer.append("\r\n");
-                    answer.append("Connection: close");
-                    answer.append("\r\n");
-                    answer.append("Content-Type: application/octet-stream");
-                    answer.append("\r\n");
-                    answer.append("Content-Length: ");
-                    answer.append(Long.toString(this.fileHandler.getSize(this.filePath)));
-                    answer.append("\r\n");
-                    answer.append("\r\n");
-
-                    out.write(answer.toString().getBytes("US-ASCII"));
-                    out.flush();
-
-                    byte[] fileBytes = new byte[socket.getSendBufferSize()];
-
-                    try (InputStream file = this.fileHandler.getInputStream(this.filePath))
+                    long skipped = in.skip(toSkip);
+                    if (skipped <= 0)
                     {
-                        int read;
-                        while ((read = file.read(fileBytes)) > 0)
-                        {
-                            out.write(fileBytes, 0, read);
-                            out.flush();
-                        }
+                        throw new IOException("Cannot skip to offset " + offset + " in " + file);
                     }
+                    toSkip -= skipped;
+                }
 
-                    this.callCount++;
+                byte[] bytes = new byte[STREAM_BUFFER_SIZE];
+                long remaining = length;
+                while (remaining > 0)
+                {
+                    int read = in.read(bytes, 0, (int) Math.min(bytes.length, remaining));
+                    if (read < 0)
+                    {
+                        throw new IOException("File " + file + " was truncated while sending");
+                    }
+                    writeFully(channel, ByteBuffer.wrap(bytes, 0, read));
+                    remaining -= read;
                 }
+            }
+        }
+    }
 
-                this.logger.debug("Finished responding to HTTP request line " + line,
-                    this.getClass().getName());
+    /**
+     * @param channel Client connection.
+     * @param buffer Bytes to write.
+     * @throws IOException If writing fails.
+     */
+    private void writeFully(SocketChannel channel, ByteBuffer buffer) throws IOException
+    {
+        while (buffer.hasRemaining())
+        {
+            channel.write(buffer);
+        }
+    }
 
-                out.flush();
-                out.close();
-                out = null;
-                in.close();
-                in = null;
-            }
-            catch (SocketException ignored)
+    /**
+     * Records and logs an unexpected error, unless the server is being stopped.
+     * @param t Error.
+     */
+    private void reportException(Throwable t)
+    {
+        if (!this.stopped)
+        {
+            this.lastException = t;
+            this.logger.warn("Error in the embedded HTTP server: " + t.toString(),
+                this.getClass().getName());
+            for (StackTraceElement ste : t.getStackTrace())
             {
-                // Ignored exception. Not ignoring will break the while loop, end the sending
-                // thread and result in the CARGO-859 (JBoss timing out with big files)
+                this.logger.warn(ste.toString(), this.getClass().getName());
             }
         }
     }
 
+    /**
+     * @param path Remote path.
+     * @return URL serving <code>path</code>.
+     */
+    private URL createURL(String path)
+    {
+        try
+        {
+            return new URL("http", this.urlHost, this.urlPort, path);
+        }
+        catch (MalformedURLException e)
+        {
+            throw new CargoException("Could not create a url for " + this.urlHost + ":"
+                + this.urlPort + " and file: " + path, e);
+        }
+    }
+
     /**
      * Get the deployable name for a given deployable. This also takes into account the WAR context.
      * @param deployable Deployable to get the name for.
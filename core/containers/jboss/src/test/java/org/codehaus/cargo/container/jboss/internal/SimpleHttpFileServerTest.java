@@ -0,0 +1,185 @@
+/*
+ * ========================================================================
+ *
+ * Codehaus CARGO, copyright 2004-2011 Vincent Massol, 2012-2018 Ali Tokmen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * ========================================================================
+ */
+package org.codehaus.cargo.container.jboss.internal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.file.Files;
+
+import junit.framework.TestCase;
+
+import org.codehaus.cargo.container.deployable.EAR;
+import org.codehaus.cargo.container.deployable.WAR;
+import org.codehaus.cargo.util.DefaultFileHandler;
+import org.codehaus.cargo.util.log.NullLogger;
+
+/**
+ * Unit tests for {@link SimpleHttpFileServer}.
+ */
+public class SimpleHttpFileServerTest extends TestCase
+{
+    /**
+     * Server being tested.
+     */
+    private SimpleHttpFileServer server;
+
+    /**
+     * Served WAR.
+     */
+    private WAR war;
+
+    /**
+     * Served EAR.
+     */
+    private EAR ear;
+
+    /**
+     * Creates two files and serves them. {@inheritDoc}
+     * @throws Exception If anything goes wrong.
+     */
+    @Override
+    protected void setUp() throws Exception
+    {
+        super.setUp();
+
+        File warFile = File.createTempFile("cargo", ".war");
+        warFile.deleteOnExit();
+        Files.write(warFile.toPath(), "0123456789".getBytes("US-ASCII"));
+        File earFile = File.createTempFile("cargo", ".ear");
+        earFile.deleteOnExit();
+        Files.write(earFile.toPath(), "abcdef".getBytes("US-ASCII"));
+
+        this.war = new WAR(warFile.getAbsolutePath());
+        this.war.setContext("test");
+        this.ear = new EAR(earFile.getAbsolutePath());
+
+        this.server = new SimpleHttpFileServer();
+        this.server.setLogger(new NullLogger());
+        this.server.setFile(new DefaultFileHandler(), this.war);
+        this.server.addFile(new DefaultFileHandler(), this.ear);
+        this.server.setListeningParameters(new InetSocketAddress("localhost", 0), null);
+        this.server.start();
+    }
+
+    /**
+     * Stops the server. {@inheritDoc}
+     * @throws Exception If anything goes wrong.
+     */
+    @Override
+    protected void tearDown() throws Exception
+    {
+        this.server.stop();
+        super.tearDown();
+    }
+
+    /**
+     * Test that several files, full or partial, can be retrieved over one kept alive connection.
+     * @throws Exception If anything goes wrong.
+     */
+    public void testKeepAliveAndRange() throws Exception
+    {
+        assertEquals("/test.war", this.server.getURL().getPath());
+        assertEquals(this.server.getURL(), this.server.getURL(this.war));
+
+        try (Socket socket = new Socket("localhost", this.server.getURL().getPort()))
+        {
+            OutputStream out = socket.getOutputStream();
+            InputStream in = socket.getInputStream();
+
+            out.write("GET /test.war HTTP/1.1\r\nHost: localhost\r\n\r\n".getBytes("US-ASCII"));
+            String response = readResponse(in);
+            assertTrue(response, response.startsWith("HTTP/1.1 200 OK\r\n"));
+            assertTrue(response, response.contains("Connection: keep-alive\r\n"));
+            assertTrue(response, response.endsWith("\r\n\r\n0123456789"));
+
+            out.write(("GET " + this.server.getURL(this.ear).getPath()
+                + " HTTP/1.1\r\nRange: bytes=2-3\r\n\r\n").getBytes("US-ASCII"));
+            response = readResponse(in);
+            assertTrue(response, response.startsWith("HTTP/1.1 206 Partial Content\r\n"));
+            assertTrue(response, response.contains("Content-Range: bytes 2-3/6\r\n"));
+            assertTrue(response, response.endsWith("\r\n\r\ncd"));
+
+            out.write("GET /test.war HTTP/1.1\r\nRange: bytes=-3\r\n\r\n".getBytes("US-ASCII"));
+            response = readResponse(in);
+            assertTrue(response, response.endsWith("\r\n\r\n789"));
+
+            out.write("GET /test.war HTTP/1.1\r\nRange: bytes=20-\r\n\r\n".getBytes("US-ASCII"));
+            response = readResponse(in);
+            assertTrue(response, response.startsWith("HTTP/1.1 416 "));
+        }
+
+        assertEquals(3, this.server.getCallCount());
+        assertEquals(2, this.server.getCallCount(this.war));
+        assertEquals(1, this.server.getCallCount(this.ear));
+        assertNull(this.server.getException());
+    }
+
+    /**
+     * Test that unknown paths are not served.
+     * @throws Exception If anything goes wrong.
+     */
+    public void testNotFound() throws Exception
+    {
+        try (Socket socket = new Socket("localhost", this.server.getURL().getPort()))
+        {
+            socket.getOutputStream().write(
+                "GET /other.war HTTP/1.0\r\n\r\n".getBytes("US-ASCII"));
+            String response = readResponse(socket.getInputStream());
+            assertTrue(response, response.startsWith("HTTP/1.1 404 Not Found\r\n"));
+            assertTrue(response, response.contains("Connection: close\r\n"));
+        }
+
+        assertEquals(0, this.server.getCallCount());
+    }
+
+    /**
+     * Reads one response, using its <code>Content-Length</code> header.
+     * @param in Stream to read from.
+     * @return Response head and body.
+     * @throws IOException If reading fails.
+     */
+    private String readResponse(InputStream in) throws IOException
+    {
+        ByteArrayOutputStream response = new ByteArrayOutputStream();
+        String head = "";
+        while (!head.endsWith("\r\n\r\n"))
+        {
+            int read = in.read();
+            assertTrue("Premature end of response " + head, read != -1);
+            response.write(read);
+            head = response.toString("US-ASCII");
+        }
+
+        int start = head.indexOf("Content-Length: ") + "Content-Length: ".length();
+        int length = Integer.parseInt(head.substring(start, head.indexOf("\r\n", start)));
+        for (int i = 0; i < length; i++)
+        {
+            int read = in.read();
+            assertTrue("Premature end of response " + response, read != -1);
+            response.write(read);
+        }
+        return response.toString("US-ASCII");
+    }
+}
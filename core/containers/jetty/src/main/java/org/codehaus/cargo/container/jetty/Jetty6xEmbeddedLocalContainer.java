@@ -22,13 +22,13 @@ package org.codehaus.cargo.container.jetty;
 import java.io.File;
 import java.lang.reflect.Array;
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 
 import org.codehaus.cargo.container.ContainerException;
 import org.codehaus.cargo.container.configuration.LocalConfiguration;
 import org.codehaus.cargo.container.deployable.Deployable;
 import org.codehaus.cargo.container.deployable.DeployableType;
 import org.codehaus.cargo.container.deployable.WAR;
+import org.codehaus.cargo.container.internal.util.MethodBinding;
 import org.codehaus.cargo.container.jetty.internal.AbstractJettyEmbeddedLocalContainer;
 import org.codehaus.cargo.container.jetty.internal.JettyExecutorThread;
 import org.codehaus.cargo.container.jetty.internal.JettyUtils;
@@ -70,12 +70,12 @@ public class Jetty6xEmbeddedLocalContainer extends AbstractJettyEmbeddedLocalCon
     /**
      * The method to call to add a handler for a webapp.
      */
-    protected Method addHandlerMethod;
+    protected MethodBinding addHandlerMethod;
 
     /**
      * The method to call to undeploy a handler for a webapp.
      */
-    protected Method removeHandlerMethod;
+    protected MethodBinding removeHandlerMethod;
 
     /**
      * {@inheritDoc}
@@ -117,10 +117,9 @@ public class Jetty6xEmbeddedLocalContainer extends AbstractJettyEmbeddedLocalCon
         if (this.defaultRealm != null)
         {
             Object securityHandler =
-                webapp.getClass().getMethod("getSecurityHandler", new Class[] {}).invoke(webapp,
-                    new Object[] {});
-            securityHandler.getClass().getMethod("setUserRealm", new Class[] {userRealmClass})
-                .invoke(securityHandler, new Object[] {this.defaultRealm});
+                MethodBinding.bind(webapp.getClass(), "getSecurityHandler").invoke(webapp);
+            MethodBinding.bind(securityHandler.getClass(), "setUserRealm", userRealmClass)
+                .invoke(securityHandler, this.defaultRealm);
         }
     }
 
@@ -157,18 +156,16 @@ public class Jetty6xEmbeddedLocalContainer extends AbstractJettyEmbeddedLocalCon
         Class selectConnectorClass =
             getClassLoader().loadClass("org.mortbay.jetty.nio.SelectChannelConnector");
         Object connector = selectConnectorClass.newInstance();
-        selectConnectorClass.getMethod("setPort", new Class[] {int.class}).invoke(
-            connector,
-            new Object[] {new Integer(getConfiguration()
-                .getPropertyValue(ServletPropertySet.PORT))});
+        MethodBinding.bind(selectConnectorClass, "setPort", int.class).invoke(connector,
+            new Integer(getConfiguration().getPropertyValue(ServletPropertySet.PORT)));
 
         // server.addConnector(selectConnector);
         Class connectorClass = getClassLoader().loadClass("org.mortbay.jetty.Connector");
         Object connectorArray =
             Array.newInstance(connectorClass, 1);
         Array.set(connectorArray, 0, connector);
-        getServer().getClass().getMethod("addConnector", new Class[] {connectorClass}).invoke(
-            getServer(), new Object[] {connector});
+        MethodBinding.bind(getServer().getClass(), "addConnector", connectorClass).invoke(
+            getServer(), connector);
     }
 
     /**
@@ -201,18 +198,18 @@ public class Jetty6xEmbeddedLocalContainer extends AbstractJettyEmbeddedLocalCon
         Object handlerArray = Array.newInstance(handlerClass, 2);
         Array.set(handlerArray, 0, contextHandlers);
         Array.set(handlerArray, 1, defaultHandler);
-        handlers.getClass().getMethod("setHandlers", new Class[] {handlerArray.getClass()})
-            .invoke(handlers, new Object[] {handlerArray});
-        getServer().getClass().getMethod("setHandler", new Class[] {handlerClass}).invoke(
-            getServer(), new Object[] {handlers});
+        MethodBinding.bind(handlers.getClass(), "setHandlers", handlerArray.getClass())
+            .invoke(handlers, handlerArray);
+        MethodBinding.bind(getServer().getClass(), "setHandler", handlerClass).invoke(
+            getServer(), handlers);
 
         // Method to add a webappcontext to jetty
         addHandlerMethod =
-            contextHandlers.getClass().getMethod("addHandler", new Class[] {handlerClass});
+            MethodBinding.bind(contextHandlers.getClass(), "addHandler", handlerClass);
 
         // Method to remove a webappcontext from jetty
         removeHandlerMethod =
-            contextHandlers.getClass().getMethod("removeHandler", new Class[] {handlerClass});
+            MethodBinding.bind(contextHandlers.getClass(), "removeHandler", handlerClass);
     }
 
     /**
@@ -258,13 +255,13 @@ public class Jetty6xEmbeddedLocalContainer extends AbstractJettyEmbeddedLocalCon
         Object handler =
             getClassLoader().loadClass("org.mortbay.jetty.webapp.WebAppContext").newInstance();
 
-        handler.getClass().getMethod("setContextPath", new Class[] {String.class}).invoke(
-            handler, new Object[] {"/" + ((WAR) deployable).getContext()});
-        handler.getClass().getMethod("setWar", new Class[] {String.class}).invoke(handler,
-            new Object[] {deployable.getFile()});
-        handler.getClass().getMethod("setDefaultsDescriptor", String.class).invoke(handler,
-            getFileHandler().append(getConfiguration().getHome(), "etc/webdefault.xml"));
-        handler.getClass().getMethod("setExtraClasspath", String.class)
+        MethodBinding.bind(handler.getClass(), "setContextPath", String.class).invoke(
+            handler, "/" + ((WAR) deployable).getContext());
+        MethodBinding.bind(handler.getClass(), "setWar", String.class).invoke(handler,
+            deployable.getFile());
+        MethodBinding.bind(handler.getClass(), "setDefaultsDescriptor", String.class).invoke(
+            handler, getFileHandler().append(getConfiguration().getHome(), "etc/webdefault.xml"));
+        MethodBinding.bind(handler.getClass(), "setExtraClasspath", String.class)
             .invoke(handler, JettyUtils.getExtraClasspath((WAR) deployable, false));
 
         setDefaultRealm(handler);
@@ -285,10 +282,9 @@ public class Jetty6xEmbeddedLocalContainer extends AbstractJettyEmbeddedLocalCon
     {
         Object handler =
             getClassLoader().loadClass("org.mortbay.jetty.webapp.WebAppContext").newInstance();
-        handler.getClass().getMethod("setContextPath", new Class[] {String.class}).invoke(
-            handler, new Object[] {contextPath});
-        handler.getClass().getMethod("setWar", new Class[] {String.class}).invoke(handler,
-            new Object[] {war});
+        MethodBinding.bind(handler.getClass(), "setContextPath", String.class).invoke(
+            handler, contextPath);
+        MethodBinding.bind(handler.getClass(), "setWar", String.class).invoke(handler, war);
 
         setDefaultRealm(handler);
 
@@ -308,11 +304,11 @@ public class Jetty6xEmbeddedLocalContainer extends AbstractJettyEmbeddedLocalCon
         {
             throw new ContainerException("No Jetty instance to deploy to");
         }
-        addHandlerMethod.invoke(contextHandlers, new Object[] {handler});
-        Method m = getServer().getClass().getMethod("isStarted", new Class[] {});
-        if (((Boolean) m.invoke(getServer(), null)).booleanValue())
+        addHandlerMethod.invoke(contextHandlers, handler);
+        MethodBinding m = MethodBinding.bind(getServer().getClass(), "isStarted");
+        if (((Boolean) m.invoke(getServer())).booleanValue())
         {
-            handlerClass.getMethod("start", new Class[] {}).invoke(handler, null);
+            MethodBinding.bind(handlerClass, "start").invoke(handler);
         }
     }
 
@@ -333,7 +329,7 @@ public class Jetty6xEmbeddedLocalContainer extends AbstractJettyEmbeddedLocalCon
         {
             throw new ContainerException("No Jetty instance to deploy to");
         }
-        removeHandlerMethod.invoke(contextHandlers, new Object[] {handler});
+        removeHandlerMethod.invoke(contextHandlers, handler);
     }
 
     /**
@@ -357,15 +353,13 @@ public class Jetty6xEmbeddedLocalContainer extends AbstractJettyEmbeddedLocalCon
 
             for (User user : getConfiguration().getUsers())
             {
-                this.defaultRealm.getClass().getMethod("put",
-                    new Class[] {Object.class, Object.class}).invoke(this.defaultRealm,
-                        new Object[] {user.getName(), user.getPassword()});
+                MethodBinding.bind(this.defaultRealm.getClass(), "put", Object.class, Object.class)
+                    .invoke(this.defaultRealm, user.getName(), user.getPassword());
 
                 for (String role : user.getRoles())
                 {
-                    this.defaultRealm.getClass().getMethod("addUserToRole",
-                        new Class[] {String.class, String.class}).invoke(this.defaultRealm,
-                            new Object[] {user.getName(), role});
+                    MethodBinding.bind(this.defaultRealm.getClass(), "addUserToRole",
+                        String.class, String.class).invoke(this.defaultRealm, user.getName(), role);
                 }
             }
 
@@ -375,13 +369,12 @@ public class Jetty6xEmbeddedLocalContainer extends AbstractJettyEmbeddedLocalCon
             Array.set(userRealmsArray, 0, this.defaultRealm);
 
             // Add newly created realm to server
-            getServer().getClass().getMethod("setUserRealms",
-                new Class[] {userRealmsArray.getClass()}).invoke(getServer(),
-                    new Object[] {userRealmsArray});
+            MethodBinding.bind(getServer().getClass(), "setUserRealms",
+                userRealmsArray.getClass()).invoke(getServer(), userRealmsArray);
 
             Object[] realmlist =
-                (Object[]) getServer().getClass().getMethod("getUserRealms", new Class[] {})
-                    .invoke(getServer(), new Object[] {});
+                (Object[]) MethodBinding.bind(getServer().getClass(), "getUserRealms")
+                    .invoke(getServer());
             getLogger().info(
                 "Added " + (realmlist == null ? "0" : String.valueOf(realmlist.length))
                     + " realms ", getClass().getName());
@@ -398,8 +391,8 @@ public class Jetty6xEmbeddedLocalContainer extends AbstractJettyEmbeddedLocalCon
         {
             super.createServerObject();
 
-            this.server.getClass().getMethod("setStopAtShutdown", new Class[] {boolean.class})
-                .invoke(this.server, new Object[] {Boolean.TRUE});
+            MethodBinding.bind(this.server.getClass(), "setStopAtShutdown", boolean.class)
+                .invoke(this.server, Boolean.TRUE);
         }
     }
 
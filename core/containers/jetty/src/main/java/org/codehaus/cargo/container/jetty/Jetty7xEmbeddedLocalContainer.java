@@ -21,12 +21,12 @@ package org.codehaus.cargo.container.jetty;
 
 import java.lang.reflect.Array;
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 
 import org.codehaus.cargo.container.ContainerException;
 import org.codehaus.cargo.container.configuration.LocalConfiguration;
 import org.codehaus.cargo.container.deployable.Deployable;
 import org.codehaus.cargo.container.deployable.WAR;
+import org.codehaus.cargo.container.internal.util.MethodBinding;
 import org.codehaus.cargo.container.property.ServletPropertySet;
 import org.codehaus.cargo.container.property.User;
 import org.codehaus.cargo.container.jetty.internal.JettyUtils;
@@ -76,10 +76,9 @@ public class Jetty7xEmbeddedLocalContainer extends Jetty6xEmbeddedLocalContainer
         if (this.defaultRealm != null)
         {
             Object securityHandler =
-                webapp.getClass().getMethod("getSecurityHandler", new Class[] {}).invoke(webapp,
-                    new Object[] {});
-            securityHandler.getClass().getMethod("setLoginService", new Class[] {userRealmClass})
-                .invoke(securityHandler, new Object[] {this.defaultRealm});
+                MethodBinding.bind(webapp.getClass(), "getSecurityHandler").invoke(webapp);
+            MethodBinding.bind(securityHandler.getClass(), "setLoginService", userRealmClass)
+                .invoke(securityHandler, this.defaultRealm);
         }
     }
 
@@ -97,17 +96,15 @@ public class Jetty7xEmbeddedLocalContainer extends Jetty6xEmbeddedLocalContainer
         Class selectConnectorClass =
             getClassLoader().loadClass("org.eclipse.jetty.server.nio.SelectChannelConnector");
         Object connector = selectConnectorClass.newInstance();
-        selectConnectorClass.getMethod("setPort", new Class[] {int.class}).invoke(
-            connector,
-            new Object[] {new Integer(getConfiguration()
-                .getPropertyValue(ServletPropertySet.PORT))});
+        MethodBinding.bind(selectConnectorClass, "setPort", int.class).invoke(connector,
+            new Integer(getConfiguration().getPropertyValue(ServletPropertySet.PORT)));
 
         // server.addConnector(selectConnector);
         Class connectorClass = getClassLoader().loadClass("org.eclipse.jetty.server.Connector");
         Object connectorArray = Array.newInstance(connectorClass, 1);
         Array.set(connectorArray, 0, connector);
-        getServer().getClass().getMethod("addConnector", new Class[] {connectorClass})
-            .invoke(getServer(), new Object[] {connector});
+        MethodBinding.bind(getServer().getClass(), "addConnector", connectorClass)
+            .invoke(getServer(), connector);
     }
 
     /**
@@ -136,18 +133,18 @@ public class Jetty7xEmbeddedLocalContainer extends Jetty6xEmbeddedLocalContainer
         Object handlerArray = Array.newInstance(handlerClass, 2);
         Array.set(handlerArray, 0, contextHandlers);
         Array.set(handlerArray, 1, defaultHandler);
-        handlers.getClass().getMethod("setHandlers", new Class[] {handlerArray.getClass()})
-            .invoke(handlers, new Object[] {handlerArray});
-        getServer().getClass().getMethod("setHandler", new Class[] {handlerClass})
-            .invoke(getServer(), new Object[] {handlers});
+        MethodBinding.bind(handlers.getClass(), "setHandlers", handlerArray.getClass())
+            .invoke(handlers, handlerArray);
+        MethodBinding.bind(getServer().getClass(), "setHandler", handlerClass)
+            .invoke(getServer(), handlers);
 
         // Method to add a webappcontext to jetty
         addHandlerMethod =
-            contextHandlers.getClass().getMethod("addHandler", new Class[] {handlerClass});
+            MethodBinding.bind(contextHandlers.getClass(), "addHandler", handlerClass);
 
         // Method to remove a webappcontext from jetty
         removeHandlerMethod =
-            contextHandlers.getClass().getMethod("removeHandler", new Class[] {handlerClass});
+            MethodBinding.bind(contextHandlers.getClass(), "removeHandler", handlerClass);
     }
 
     /**
@@ -159,13 +156,13 @@ public class Jetty7xEmbeddedLocalContainer extends Jetty6xEmbeddedLocalContainer
         Object handler =
             getClassLoader().loadClass("org.eclipse.jetty.webapp.WebAppContext").newInstance();
 
-        handler.getClass().getMethod("setContextPath", new Class[] {String.class}).invoke(
-            handler, new Object[] {"/" + ((WAR) deployable).getContext()});
-        handler.getClass().getMethod("setWar", new Class[] {String.class}).invoke(handler,
-            new Object[] {deployable.getFile()});
-        handler.getClass().getMethod("setDefaultsDescriptor", String.class).invoke(handler,
-            getFileHandler().append(getConfiguration().getHome(), "etc/webdefault.xml"));
-        handler.getClass().getMethod("setExtraClasspath", String.class)
+        MethodBinding.bind(handler.getClass(), "setContextPath", String.class).invoke(
+            handler, "/" + ((WAR) deployable).getContext());
+        MethodBinding.bind(handler.getClass(), "setWar", String.class).invoke(handler,
+            deployable.getFile());
+        MethodBinding.bind(handler.getClass(), "setDefaultsDescriptor", String.class).invoke(
+            handler, getFileHandler().append(getConfiguration().getHome(), "etc/webdefault.xml"));
+        MethodBinding.bind(handler.getClass(), "setExtraClasspath", String.class)
             .invoke(handler, JettyUtils.getExtraClasspath((WAR) deployable, false));
 
         setDefaultRealm(handler);
@@ -181,10 +178,9 @@ public class Jetty7xEmbeddedLocalContainer extends Jetty6xEmbeddedLocalContainer
     {
         Object handler =
             getClassLoader().loadClass("org.eclipse.jetty.webapp.WebAppContext").newInstance();
-        handler.getClass().getMethod("setContextPath", new Class[] {String.class}).invoke(
-            handler, new Object[] {contextPath});
-        handler.getClass().getMethod("setWar", new Class[] {String.class}).invoke(handler,
-            new Object[] {war});
+        MethodBinding.bind(handler.getClass(), "setContextPath", String.class).invoke(
+            handler, contextPath);
+        MethodBinding.bind(handler.getClass(), "setWar", String.class).invoke(handler, war);
 
         setDefaultRealm(handler);
 
@@ -221,19 +217,17 @@ public class Jetty7xEmbeddedLocalContainer extends Jetty6xEmbeddedLocalContainer
                     realmClass.getConstructor(new Class[] {String.class}).newInstance(
                         new Object[] {
                             getConfiguration().getPropertyValue(JettyPropertySet.REALM_NAME)});
-                Method putUser =
-                    realmClass.getMethod("putUser",
-                        new Class[] {java.lang.String.class,
-                            credentialClass, java.lang.String[].class});
+                MethodBinding putUser = MethodBinding.bind(realmClass, "putUser",
+                    java.lang.String.class, credentialClass, java.lang.String[].class);
                 for (User user : getConfiguration().getUsers())
                 {
                     String userName = user.getName();
-                    Object credential = credentialClass.getMethod("getCredential", String.class)
-                        .invoke(credentialClass, user.getPassword());
+                    Object credential =
+                        MethodBinding.bind(credentialClass, "getCredential", String.class)
+                            .invoke(credentialClass, user.getPassword());
                     String[] roles = user.getRoles().toArray(new String[user.getRoles().size()]);
 
-                    putUser.invoke(this.defaultRealm,
-                        new Object[] {userName, credential, roles});
+                    putUser.invoke(this.defaultRealm, userName, credential, roles);
                 }
             }
             catch (NoSuchMethodException e)
@@ -274,8 +268,8 @@ public class Jetty7xEmbeddedLocalContainer extends Jetty6xEmbeddedLocalContainer
                 throw new ContainerException("Failed to create Jetty Server instance", e);
             }
 
-            this.server.getClass().getMethod("setStopAtShutdown", new Class[] {boolean.class})
-                .invoke(this.server, new Object[] {Boolean.TRUE});
+            MethodBinding.bind(this.server.getClass(), "setStopAtShutdown", boolean.class)
+                .invoke(this.server, Boolean.TRUE);
         }
     }
 }
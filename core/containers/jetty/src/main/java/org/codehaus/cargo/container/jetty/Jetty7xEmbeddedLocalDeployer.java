@@ -23,6 +23,7 @@ import org.codehaus.cargo.container.ContainerException;
 import org.codehaus.cargo.container.EmbeddedLocalContainer;
 import org.codehaus.cargo.container.deployable.Deployable;
 import org.codehaus.cargo.container.deployable.DeployableType;
+import org.codehaus.cargo.container.internal.util.MethodBinding;
 import org.codehaus.cargo.container.jetty.internal.AbstractJettyEmbeddedLocalDeployer;
 
 /**
@@ -76,31 +77,29 @@ public class Jetty7xEmbeddedLocalDeployer extends AbstractJettyEmbeddedLocalDepl
                 String[] virtualHosts = getVirtualHosts();
                 for (int i = 0; virtualHosts != null && i < virtualHosts.length; i++)
                 {
-                    webAppContextClass.getMethod("setVirtualHosts",
-                        new Class[] {virtualHosts.getClass()}).invoke(webAppContext,
-                            new Object[] {virtualHosts[i]});
+                    MethodBinding.bind(webAppContextClass, "setVirtualHosts",
+                        virtualHosts.getClass()).invoke(webAppContext, virtualHosts[i]);
                 }
 
                 // check if extracting the war is wanted
                 if (getExtractWar() != null)
                 {
-                    webAppContextClass.getMethod("setExtractWAR", new Class[] {Boolean.TYPE})
-                        .invoke(webAppContext, new Object[] {getExtractWar()});
+                    MethodBinding.bind(webAppContextClass, "setExtractWAR", Boolean.TYPE)
+                        .invoke(webAppContext, getExtractWar());
                 }
 
                 if (getCopyWebApp() != null)
                 {
-                    webAppContextClass.getMethod("setCopyDir", new Class[] {Boolean.TYPE})
-                        .invoke(webAppContext, new Object[] {getCopyWebApp()});
+                    MethodBinding.bind(webAppContextClass, "setCopyDir", Boolean.TYPE)
+                        .invoke(webAppContext, getCopyWebApp());
                 }
 
                 if (getParentLoaderPriority() != null)
                 {
                     // check if user wants to invert the class loading
                     // hierarchy
-                    webAppContextClass.getMethod("setParentLoaderPriority",
-                        new Class[] {Boolean.TYPE}).invoke(webAppContext,
-                            new Object[] {getParentLoaderPriority()});
+                    MethodBinding.bind(webAppContextClass, "setParentLoaderPriority",
+                        Boolean.TYPE).invoke(webAppContext, getParentLoaderPriority());
                 }
 
                 return webAppContext;
@@ -144,7 +143,7 @@ public class Jetty7xEmbeddedLocalDeployer extends AbstractJettyEmbeddedLocalDepl
         try
         {
             Object deployedWebAppContext = getDeployedWebAppContext(deployable);
-            webAppContextClass.getMethod("start", null).invoke(deployedWebAppContext, null);
+            MethodBinding.bind(webAppContextClass, "start").invoke(deployedWebAppContext);
         }
         catch (Exception e)
         {
@@ -161,7 +160,7 @@ public class Jetty7xEmbeddedLocalDeployer extends AbstractJettyEmbeddedLocalDepl
         try
         {
             Object deployedWebAppContext = getDeployedWebAppContext(deployable);
-            webAppContextClass.getMethod("stop", null).invoke(deployedWebAppContext, null);
+            MethodBinding.bind(webAppContextClass, "stop").invoke(deployedWebAppContext);
         }
         catch (Exception e)
         {
@@ -20,9 +20,9 @@
 package org.codehaus.cargo.container.jetty;
 
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 
 import org.codehaus.cargo.container.configuration.LocalConfiguration;
+import org.codehaus.cargo.container.internal.util.MethodBinding;
 
 /**
  * A Jetty 8.x instance running embedded.
@@ -68,14 +68,14 @@ public class Jetty8xEmbeddedLocalContainer extends Jetty7xEmbeddedLocalContainer
     {
         setAttributeMethod().invoke(
             getServer(),
-            new Object[] {"org.eclipse.jetty.webapp.configuration",
-                new String[] {
-                    "org.eclipse.jetty.webapp.WebInfConfiguration",
-                    "org.eclipse.jetty.webapp.WebXmlConfiguration",
-                    "org.eclipse.jetty.webapp.MetaInfConfiguration",
-                    "org.eclipse.jetty.webapp.FragmentConfiguration",
-                    "org.eclipse.jetty.annotations.AnnotationConfiguration",
-                    "org.eclipse.jetty.webapp.JettyWebXmlConfiguration"}});
+            "org.eclipse.jetty.webapp.configuration",
+            new String[] {
+                "org.eclipse.jetty.webapp.WebInfConfiguration",
+                "org.eclipse.jetty.webapp.WebXmlConfiguration",
+                "org.eclipse.jetty.webapp.MetaInfConfiguration",
+                "org.eclipse.jetty.webapp.FragmentConfiguration",
+                "org.eclipse.jetty.annotations.AnnotationConfiguration",
+                "org.eclipse.jetty.webapp.JettyWebXmlConfiguration"});
     }
 
     /**
@@ -83,11 +83,13 @@ public class Jetty8xEmbeddedLocalContainer extends Jetty7xEmbeddedLocalContainer
      * 
      * @return the setAttribute() method
      * @throws NoSuchMethodException thrown if the configuration could not be set
+     * @throws IllegalAccessException thrown if the configuration could not be set
      */
-    private Method setAttributeMethod() throws NoSuchMethodException
+    private MethodBinding setAttributeMethod() throws NoSuchMethodException,
+        IllegalAccessException
     {
-        return getServer().getClass().getMethod("setAttribute",
-            new Class[] {String.class, Object.class});
+        return MethodBinding.bind(getServer().getClass(), "setAttribute",
+            String.class, Object.class);
     }
 
     /**
@@ -27,6 +27,7 @@ import java.util.Arrays;
 import java.util.List;
 
 import org.codehaus.cargo.container.configuration.LocalConfiguration;
+import org.codehaus.cargo.container.internal.util.MethodBinding;
 import org.codehaus.cargo.container.property.ServletPropertySet;
 
 /**
@@ -72,17 +73,15 @@ public class Jetty9xEmbeddedLocalContainer extends Jetty8xEmbeddedLocalContainer
             getClassLoader().loadClass("org.eclipse.jetty.server.ServerConnector");
         Object connector = selectConnectorClass.getConstructor(
             new Class[] {this.server.getClass()}).newInstance(new Object[] {this.server});
-        selectConnectorClass.getMethod("setPort", new Class[] {int.class}).invoke(
-            connector,
-            new Object[] {new Integer(getConfiguration()
-                .getPropertyValue(ServletPropertySet.PORT))});
+        MethodBinding.bind(selectConnectorClass, "setPort", int.class).invoke(connector,
+            new Integer(getConfiguration().getPropertyValue(ServletPropertySet.PORT)));
 
         // server.addConnector(selectConnector);
         Class connectorClass = getClassLoader().loadClass("org.eclipse.jetty.server.Connector");
         Object connectorArray = Array.newInstance(connectorClass, 1);
         Array.set(connectorArray, 0, connector);
-        getServer().getClass().getMethod("addConnector", new Class[] {connectorClass})
-            .invoke(getServer(), new Object[] {connector});
+        MethodBinding.bind(getServer().getClass(), "addConnector", connectorClass)
+            .invoke(getServer(), connector);
     }
 
     /**
@@ -113,9 +112,8 @@ public class Jetty9xEmbeddedLocalContainer extends Jetty8xEmbeddedLocalContainer
                 dftServerClassesList.addAll(Arrays.asList(dftServerClasses));
                 dftServerClasses = new String[dftServerClassesList.size()];
                 dftServerClasses = dftServerClassesList.toArray(dftServerClasses);
-                server.getClass().getMethod("setAttribute",
-                    new Class[] {String.class, Object.class}).invoke(server, new Object[] {
-                        "org.eclipse.jetty.webapp.serverClasses", dftServerClasses});
+                MethodBinding.bind(server.getClass(), "setAttribute", String.class, Object.class)
+                    .invoke(server, "org.eclipse.jetty.webapp.serverClasses", dftServerClasses);
 
                 String[] dftSystemClasses = (String[])
                     webAppContextClass.getDeclaredField("__dftSystemClasses").get(null);
@@ -125,9 +123,8 @@ public class Jetty9xEmbeddedLocalContainer extends Jetty8xEmbeddedLocalContainer
                 dftSystemClassesList.add("org.eclipse.jetty.cdi.websocket.");
                 dftSystemClasses = new String[dftSystemClassesList.size()];
                 dftSystemClasses = dftSystemClassesList.toArray(dftSystemClasses);
-                server.getClass().getMethod("setAttribute",
-                    new Class[] {String.class, Object.class}).invoke(server, new Object[] {
-                        "org.eclipse.jetty.webapp.systemClasses", dftSystemClasses});
+                MethodBinding.bind(server.getClass(), "setAttribute", String.class, Object.class)
+                    .invoke(server, "org.eclipse.jetty.webapp.systemClasses", dftSystemClasses);
             }
         }
     }
@@ -30,6 +30,10 @@ import java.io.OutputStream;
 import java.io.StringReader;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import org.codehaus.cargo.container.ContainerException;
 import org.codehaus.cargo.container.RemoteContainer;
@@ -125,6 +129,97 @@ public class JettyRemoteDeployer extends AbstractRemoteDeployer
         }
     }
 
+    /**
+     * Deploys several WARs with one request to the <code>deploy-batch</code> command of the
+     * deployer webapp, which only makes them available to Jetty once all of them have been
+     * received. Single deployables, deployables other than WARs, WARs with nested contexts and
+     * deployer webapps without the <code>deploy-batch</code> command are deployed one by one.
+     * @param deployables Deployables to deploy.
+     */
+    @Override
+    public void deploy(List<Deployable> deployables)
+    {
+        if (deployables.size() < 2 || !isBatchable(deployables))
+        {
+            super.deploy(deployables);
+            return;
+        }
+
+        String response;
+        try
+        {
+            HttpURLConnection connection = createDeployBatchConnection(deployables.size());
+
+            try (ZipOutputStream archives = new ZipOutputStream(connection.getOutputStream()))
+            {
+                // The WARs are already compressed
+                archives.setLevel(0);
+                for (Deployable deployable : deployables)
+                {
+                    archives.putNextEntry(new ZipEntry(getBatchEntryName((WAR) deployable)));
+                    Files.copy(new File(deployable.getFile()).toPath(), archives);
+                    archives.closeEntry();
+                }
+            }
+
+            response = getResponseMessage(connection);
+            if (connection.getResponseCode() == HttpURLConnection.HTTP_NOT_FOUND
+                || response.contains("is not recognized"))
+            {
+                getLogger().debug("The deployer webapp does not support batch deployments, "
+                    + "deploying one by one", this.getClass().getName());
+                super.deploy(deployables);
+                return;
+            }
+        }
+        catch (Exception e)
+        {
+            throw new ContainerException("Failed to deploy " + deployables, e);
+        }
+
+        try
+        {
+            if (!lastLine(response).startsWith("OK -"))
+            {
+                throw new ContainerException("Response when deploying " + deployables
+                    + " was: " + response);
+            }
+        }
+        catch (IOException e)
+        {
+            throw new ContainerException("Failed to deploy " + deployables, e);
+        }
+    }
+
+    /**
+     * @param deployables Deployables to deploy.
+     * @return <code>true</code> if all deployables are WARs which can be deployed in a batch.
+     */
+    protected boolean isBatchable(List<Deployable> deployables)
+    {
+        for (Deployable deployable : deployables)
+        {
+            if (!(deployable instanceof WAR) || ((WAR) deployable).getContext().contains("/"))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param war WAR to deploy.
+     * @return Name of the entry of <code>war</code> in a batch deployment request.
+     */
+    protected String getBatchEntryName(WAR war)
+    {
+        if ("".equals(war.getContext()))
+        {
+            return "ROOT.war";
+        }
+        return war.getContext() + ".war";
+    }
+
     /**
      * Undeploy a {@link Deployable} from the running container. NOTE: THIS WILL DELETE THE WAR FROM
      * THE WEBAPP DIRECTORY
@@ -158,9 +253,32 @@ public class JettyRemoteDeployer extends AbstractRemoteDeployer
      */
     protected HttpURLConnection createDeployConnection(WAR war) throws IOException
     {
+        return createPutConnection(this.deployerUrl + "/deploy?path=/" + war.getContext(),
+            "application/octet-stream");
+    }
 
-        String deployUrl = this.deployerUrl + "/deploy?path=/" + war.getContext();
+    /**
+     * Creates a batch deploy connection for the deployer.
+     * @param count Number of WARs in the batch
+     * @return The URL for the deployer
+     * @throws IOException If an IOException occurs
+     */
+    protected HttpURLConnection createDeployBatchConnection(int count) throws IOException
+    {
+        return createPutConnection(this.deployerUrl + "/deploy-batch?count=" + count,
+            "application/zip");
+    }
 
+    /**
+     * Creates a connection for uploading data to the deployer.
+     * @param deployUrl The URL of the deployer command
+     * @param contentType The content type of the uploaded data
+     * @return The URL for the deployer
+     * @throws IOException If an IOException occurs
+     */
+    protected HttpURLConnection createPutConnection(String deployUrl, String contentType)
+        throws IOException
+    {
         URL url = new URL(deployUrl);
         HttpURLConnection connection = (HttpURLConnection) url.openConnection();
 
@@ -169,7 +287,7 @@ public class JettyRemoteDeployer extends AbstractRemoteDeployer
         connection.setDoOutput(true);
         connection.setUseCaches(false);
         connection.setRequestMethod("PUT");
-        connection.setRequestProperty("Content-Type", "application/octet-stream");
+        connection.setRequestProperty("Content-Type", contentType);
 
         // When trying to upload large amount of data the internal connection buffer can become
         // too large and exceed the heap size, leading to a java.lang.OutOfMemoryError.
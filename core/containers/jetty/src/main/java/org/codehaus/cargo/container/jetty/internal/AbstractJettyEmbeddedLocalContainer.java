@@ -20,12 +20,12 @@
 package org.codehaus.cargo.container.jetty.internal;
 
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 
 import org.codehaus.cargo.container.ContainerCapability;
 import org.codehaus.cargo.container.ContainerException;
 import org.codehaus.cargo.container.configuration.LocalConfiguration;
 import org.codehaus.cargo.container.internal.ServletContainerCapability;
+import org.codehaus.cargo.container.internal.util.MethodBinding;
 import org.codehaus.cargo.container.spi.AbstractEmbeddedLocalContainer;
 import org.codehaus.cargo.util.CargoException;
 
@@ -81,21 +81,21 @@ public abstract class AbstractJettyEmbeddedLocalContainer
             {
                 Thread.sleep(1000);
 
-                Method isStarted;
+                MethodBinding isStarted;
                 try
                 {
-                    isStarted = getServer().getClass().getMethod("isStarted", null);
+                    isStarted = MethodBinding.bind(getServer().getClass(), "isStarted");
                 }
-                catch (NoSuchMethodException e)
+                catch (NoSuchMethodException|IllegalAccessException e)
                 {
                     throw new ContainerException("Cannot find method isStarted", e);
                 }
                 Boolean started;
                 try
                 {
-                    started = (Boolean) isStarted.invoke(getServer(), null);
+                    started = (Boolean) isStarted.invoke(getServer());
                 }
-                catch (IllegalAccessException|InvocationTargetException e)
+                catch (InvocationTargetException e)
                 {
                     throw new ContainerException("Cannot execute method isStarted", e);
                 }
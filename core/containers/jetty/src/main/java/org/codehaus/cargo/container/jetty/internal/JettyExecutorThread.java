@@ -20,6 +20,7 @@
 package org.codehaus.cargo.container.jetty.internal;
 
 import org.codehaus.cargo.container.ContainerException;
+import org.codehaus.cargo.container.internal.util.MethodBinding;
 import org.codehaus.cargo.util.log.Loggable;
 import org.codehaus.cargo.util.log.Logger;
 import org.codehaus.cargo.util.log.NullLogger;
@@ -64,15 +65,13 @@ public class JettyExecutorThread extends Thread implements Loggable
         {
             if (this.isForStart)
             {
-                this.server.getClass().getMethod("start", null).invoke(this.server, null);
+                MethodBinding.bind(this.server.getClass(), "start").invoke(this.server);
 
                 try
                 {
-                    Object threadPool = this.server.getClass().getMethod(
-                        "getThreadPool", new Class[] {}).invoke(this.server,
-                            new Object[] {});
-                    threadPool.getClass().getMethod("join", new Class[] {})
-                        .invoke(threadPool, new Object[] {});
+                    Object threadPool = MethodBinding.bind(this.server.getClass(),
+                        "getThreadPool").invoke(this.server);
+                    MethodBinding.bind(threadPool.getClass(), "join").invoke(threadPool);
                 }
                 catch (NoSuchMethodException e)
                 {
@@ -82,11 +81,11 @@ public class JettyExecutorThread extends Thread implements Loggable
             }
             else
             {
-                this.server.getClass().getMethod("stop", null).invoke(this.server, null);
+                MethodBinding.bind(this.server.getClass(), "stop").invoke(this.server);
 
                 try
                 {
-                    this.server.getClass().getMethod("destroy", null).invoke(this.server, null);
+                    MethodBinding.bind(this.server.getClass(), "destroy").invoke(this.server);
                 }
                 catch (NoSuchMethodException e)
                 {
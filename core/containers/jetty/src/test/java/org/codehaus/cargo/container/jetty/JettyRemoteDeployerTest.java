@@ -0,0 +1,252 @@
+/*
+ * ========================================================================
+ *
+ * Codehaus CARGO, copyright 2004-2011 Vincent Massol, 2012-2018 Ali Tokmen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * ========================================================================
+ */
+package org.codehaus.cargo.container.jetty;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import junit.framework.TestCase;
+
+import org.codehaus.cargo.container.deployable.Deployable;
+import org.codehaus.cargo.container.deployable.WAR;
+
+/**
+ * Unit tests for {@link JettyRemoteDeployer}.
+ */
+public class JettyRemoteDeployerTest extends TestCase
+{
+    /**
+     * Deployer webapp stand-in.
+     */
+    private HttpServer server;
+
+    /**
+     * Requests received by the deployer webapp stand-in, as <code>METHOD path?query</code>.
+     */
+    private List<String> requests;
+
+    /**
+     * Entries of the batches received by the deployer webapp stand-in, as
+     * <code>name=content</code>.
+     */
+    private List<String> entries;
+
+    /**
+     * Whether the deployer webapp stand-in supports batches.
+     */
+    private boolean batchSupported;
+
+    /**
+     * Temporary directory holding the WARs.
+     */
+    private File directory;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void setUp() throws Exception
+    {
+        super.setUp();
+        this.requests = new ArrayList<String>();
+        this.entries = new ArrayList<String>();
+        this.batchSupported = true;
+        this.directory = Files.createTempDirectory("cargo-jetty-deployer").toFile();
+
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        this.server.createContext("/cargo-jetty-deployer", new HttpHandler()
+        {
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public void handle(HttpExchange exchange) throws IOException
+            {
+                String command = exchange.getRequestURI().getPath();
+                requests.add(exchange.getRequestMethod() + " " + command + "?"
+                    + exchange.getRequestURI().getQuery());
+
+                String response;
+                if (command.endsWith("/deploy-batch") && batchSupported)
+                {
+                    readBatch(exchange.getRequestBody());
+                    response = "OK - " + entries.size() + " webapps deployed\n";
+                }
+                else if (command.endsWith("/deploy-batch"))
+                {
+                    drain(exchange.getRequestBody());
+                    response = "Error - Command /deploy-batch is not recognized with PUT\n";
+                }
+                else
+                {
+                    drain(exchange.getRequestBody());
+                    response = "OK - Webapp deployed\n";
+                }
+
+                byte[] bytes = response.getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(200, bytes.length);
+                try (OutputStream out = exchange.getResponseBody())
+                {
+                    out.write(bytes);
+                }
+            }
+        });
+        this.server.start();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void tearDown() throws Exception
+    {
+        this.server.stop(0);
+        File[] files = this.directory.listFiles();
+        if (files != null)
+        {
+            for (File file : files)
+            {
+                file.delete();
+            }
+        }
+        this.directory.delete();
+        super.tearDown();
+    }
+
+    /**
+     * Test that several WARs are deployed with one batch request.
+     * @throws Exception If anything goes wrong.
+     */
+    public void testDeployBatch() throws Exception
+    {
+        createDeployer().deploy(Arrays.asList(createWar("a", "a"), createWar("b", "")));
+
+        assertEquals(Arrays.asList("PUT /cargo-jetty-deployer/deploy-batch?count=2"),
+            this.requests);
+        assertEquals(Arrays.asList("a.war=a", "ROOT.war=b"), this.entries);
+    }
+
+    /**
+     * Test that WARs are deployed one by one if the deployer webapp does not support batches.
+     * @throws Exception If anything goes wrong.
+     */
+    public void testDeployBatchNotSupported() throws Exception
+    {
+        this.batchSupported = false;
+
+        createDeployer().deploy(Arrays.asList(createWar("a", "a"), createWar("b", "b")));
+
+        assertEquals(Arrays.asList("PUT /cargo-jetty-deployer/deploy-batch?count=2",
+            "PUT /cargo-jetty-deployer/deploy?path=/a",
+            "PUT /cargo-jetty-deployer/deploy?path=/b"), this.requests);
+    }
+
+    /**
+     * Test that WARs with nested contexts, which cannot be batch entries, are deployed one by
+     * one.
+     * @throws Exception If anything goes wrong.
+     */
+    public void testNestedContextNotBatched() throws Exception
+    {
+        createDeployer().deploy(Arrays.asList(createWar("a", "a"), createWar("b", "b/c")));
+
+        assertEquals(Arrays.asList("PUT /cargo-jetty-deployer/deploy?path=/a",
+            "PUT /cargo-jetty-deployer/deploy?path=/b/c"), this.requests);
+    }
+
+    /**
+     * @return Deployer using the deployer webapp stand-in.
+     */
+    private JettyRemoteDeployer createDeployer()
+    {
+        JettyRuntimeConfiguration configuration = new JettyRuntimeConfiguration();
+        configuration.setProperty(JettyPropertySet.DEPLOYER_URL, "http://localhost:"
+            + this.server.getAddress().getPort() + "/cargo-jetty-deployer");
+        return new JettyRemoteDeployer(new Jetty7xRemoteContainer(configuration));
+    }
+
+    /**
+     * @param name WAR name, also used as its content.
+     * @param context WAR context.
+     * @return WAR.
+     * @throws IOException If the WAR cannot be written.
+     */
+    private Deployable createWar(String name, String context) throws IOException
+    {
+        File file = new File(this.directory, name + ".war");
+        Files.write(file.toPath(), name.getBytes(StandardCharsets.UTF_8));
+        WAR war = new WAR(file.getAbsolutePath());
+        war.setContext(context);
+        return war;
+    }
+
+    /**
+     * Reads a batch into {@link #entries}.
+     * @param in Batch.
+     * @throws IOException If the batch cannot be read.
+     */
+    private void readBatch(InputStream in) throws IOException
+    {
+        ZipInputStream archives = new ZipInputStream(in);
+        for (ZipEntry entry = archives.getNextEntry(); entry != null;
+            entry = archives.getNextEntry())
+        {
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            byte[] buffer = new byte[1024];
+            int read;
+            while ((read = archives.read(buffer)) != -1)
+            {
+                content.write(buffer, 0, read);
+            }
+            this.entries.add(entry.getName() + "="
+                + new String(content.toByteArray(), StandardCharsets.UTF_8));
+        }
+        drain(in);
+    }
+
+    /**
+     * Reads a stream to its end.
+     * @param in Stream.
+     * @throws IOException If the stream cannot be read.
+     */
+    private static void drain(InputStream in) throws IOException
+    {
+        byte[] buffer = new byte[1024];
+        while (in.read(buffer) != -1)
+        {
+            // Discard
+        }
+    }
+}
@@ -46,6 +46,7 @@ public class Jonas4xRuntimeConfiguration extends AbstractRuntimeConfiguration
         setProperty(GeneralPropertySet.HOSTNAME, "localhost");
         setProperty(JonasPropertySet.JONAS_SERVER_NAME, "jonas");
         setProperty(JonasPropertySet.JONAS_DOMAIN_NAME, "jonas");
+        setProperty(JonasPropertySet.JONAS_UPLOAD_CHUNK_SIZE, "8388608");
     }
 
     /**
@@ -98,6 +98,32 @@ public class JonasPropertySet
      */
     public static final String JONAS_UNDEPLOY_IGNORE_VERSION = "cargo.jonas.undeploy.ignoreVersion";
 
+    /**
+     * Size, in bytes, of the chunks used by the remote deployer to upload deployables with the
+     * {@link #JONAS_UPLOAD_APPEND_OPERATION}. Deployables not bigger than one chunk, or uploaded
+     * without an append operation, are sent in one piece.
+     */
+    public static final String JONAS_UPLOAD_CHUNK_SIZE = "cargo.jonas.upload.chunkSize";
+
+    /**
+     * Name of a server MBean operation with a <code>(byte[] chunk, String filePath)</code>
+     * signature appending a chunk to a file uploaded with <code>sendFile</code>. JOnAS servers
+     * only provide <code>sendFile</code>, which takes the whole deployable at once: set this
+     * property only if the server MBean has been extended with such an operation. If not set,
+     * or if the server MBean does not have the operation, deployables are sent in one piece.
+     */
+    public static final String JONAS_UPLOAD_APPEND_OPERATION = "cargo.jonas.upload.appendOperation";
+
+    /**
+     * Name of a server MBean operation with a <code>(String filePath, String algorithm)</code>
+     * signature returning the hexadecimal checksum of an uploaded file. JOnAS servers do not
+     * provide such an operation: set this property only if the server MBean has been extended
+     * with one. If set and provided by the server MBean, the SHA-1 checksum of every uploaded
+     * deployable is verified.
+     */
+    public static final String JONAS_UPLOAD_CHECKSUM_OPERATION =
+        "cargo.jonas.upload.checksumOperation";
+
     /**
      * Prefix used for configuration properties that will set values on the JOnAS configurator.
      */
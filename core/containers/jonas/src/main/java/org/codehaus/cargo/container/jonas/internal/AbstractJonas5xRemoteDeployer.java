@@ -148,7 +148,7 @@ public abstract class AbstractJonas5xRemoteDeployer extends AbstractJonasRemoteD
             MBeanServerConnectionFactory factory = null;
             try
             {
-                factory = getMBeanServerConnectionFactory();
+                factory = getPooledMBeanServerConnectionFactory();
                 MBeanServerConnection mbsc = factory.getServerConnection(configuration);
 
                 ObjectName depmonitorServiceMBeanName = getDepmonitorServiceMBeanName(
@@ -204,7 +204,7 @@ public abstract class AbstractJonas5xRemoteDeployer extends AbstractJonasRemoteD
             MBeanServerConnectionFactory factory = null;
             try
             {
-                factory = getMBeanServerConnectionFactory();
+                factory = getPooledMBeanServerConnectionFactory();
                 MBeanServerConnection mbsc = factory.getServerConnection(configuration);
 
                 ObjectName depmonitorServiceMBeanName = getDepmonitorServiceMBeanName(
@@ -419,7 +419,7 @@ public abstract class AbstractJonas5xRemoteDeployer extends AbstractJonasRemoteD
                 // Only look for deployables in JONAS_BASE/deploy
                 String lookForFile = "/deploy/" + localFileName;
 
-                factory = getMBeanServerConnectionFactory();
+                factory = getPooledMBeanServerConnectionFactory();
                 MBeanServerConnection mbsc = factory.getServerConnection(configuration);
                 RemoteDeployerConfig config = getConfig();
 
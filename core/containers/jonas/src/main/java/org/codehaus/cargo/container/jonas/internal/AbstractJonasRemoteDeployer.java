@@ -22,13 +22,23 @@
  */
 package org.codehaus.cargo.container.jonas.internal;
 
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
 
 import javax.management.InstanceNotFoundException;
+import javax.management.IntrospectionException;
 import javax.management.MBeanException;
+import javax.management.MBeanInfo;
+import javax.management.MBeanOperationInfo;
 import javax.management.MBeanServerConnection;
 import javax.management.MalformedObjectNameException;
 import javax.management.ObjectName;
@@ -42,19 +52,33 @@ import org.codehaus.cargo.container.deployable.DeployableType;
 import org.codehaus.cargo.container.deployable.WAR;
 import org.codehaus.cargo.container.jonas.JonasPropertySet;
 import org.codehaus.cargo.container.spi.deployer.AbstractRemoteDeployer;
-import org.codehaus.cargo.util.DefaultFileHandler;
-import org.codehaus.cargo.util.FileHandler;
 
 /**
  * Abstract base class for JOnAS remote deployment.
  */
 public abstract class AbstractJonasRemoteDeployer extends AbstractRemoteDeployer
 {
+    /**
+     * Algorithm used for checksums of uploaded files.
+     */
+    protected static final String CHECKSUM_ALGORITHM = "SHA-1";
+
+    /**
+     * Default upload chunk size, in bytes.
+     */
+    private static final int DEFAULT_UPLOAD_CHUNK_SIZE = 8 * 1024 * 1024;
+
     /**
      * The run time configuration.
      */
     protected RuntimeConfiguration configuration;
 
+    /**
+     * Upload operations supported by the server, detected once per MBean server connection.
+     */
+    private final Map<MBeanServerConnection, UploadOperations> uploadOperations =
+        Collections.synchronizedMap(new WeakHashMap<MBeanServerConnection, UploadOperations>());
+
     /**
      * Action types.
      */
@@ -237,6 +261,17 @@ public abstract class AbstractJonasRemoteDeployer extends AbstractRemoteDeployer
      */
     public abstract MBeanServerConnectionFactory getMBeanServerConnectionFactory();
 
+    /**
+     * Get an MBean Connection factory sharing connections with the other JOnAS remote deployers
+     * targeting the same server.
+     * 
+     * @return the pooled MBean Connection factory
+     */
+    protected MBeanServerConnectionFactory getPooledMBeanServerConnectionFactory()
+    {
+        return new PooledMBeanServerConnectionFactory(getMBeanServerConnectionFactory());
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -257,7 +292,7 @@ public abstract class AbstractJonasRemoteDeployer extends AbstractRemoteDeployer
         MBeanServerConnectionFactory factory = null;
         try
         {
-            factory = getMBeanServerConnectionFactory();
+            factory = getPooledMBeanServerConnectionFactory();
             MBeanServerConnection mbsc = factory.getServerConnection(configuration);
 
             ObjectName serverMBeanName = getServerMBeanName(config.getDomainName(), config
@@ -339,7 +374,7 @@ public abstract class AbstractJonasRemoteDeployer extends AbstractRemoteDeployer
         MBeanServerConnectionFactory factory = null;
         try
         {
-            factory = getMBeanServerConnectionFactory();
+            factory = getPooledMBeanServerConnectionFactory();
             MBeanServerConnection mbsc = factory.getServerConnection(configuration);
 
             String remoteFileName = getRemoteFileName(deployable, config.getDeployableIdentifier(),
@@ -469,7 +504,14 @@ public abstract class AbstractJonasRemoteDeployer extends AbstractRemoteDeployer
     }
 
     /**
-     * Upload the deployable on the server.
+     * Upload the deployable on the server. JOnAS servers only provide <code>sendFile</code>,
+     * which takes the whole deployable at once, and the deployable is therefore read in memory
+     * and sent in one piece. If the server MBean has been extended with an append operation (see
+     * {@link JonasPropertySet#JONAS_UPLOAD_APPEND_OPERATION}) and the deployable is bigger than
+     * the chunk size (see {@link JonasPropertySet#JONAS_UPLOAD_CHUNK_SIZE}), the deployable is
+     * streamed in chunks instead. In both cases, the checksum of the uploaded file is verified if
+     * the server MBean has been extended with a checksum operation (see
+     * {@link JonasPropertySet#JONAS_UPLOAD_CHECKSUM_OPERATION}).
      * 
      * @param deployable he deployable Object
      * @param mbsc MBean Server Connection
@@ -479,31 +521,195 @@ public abstract class AbstractJonasRemoteDeployer extends AbstractRemoteDeployer
      * @throws InstanceNotFoundException Instance Not Found Exception
      * @throws MBeanException MBean Exception
      * @throws ReflectionException Reflection Exception
+     * @throws IntrospectionException Introspection Exception
      * @throws IOException IO Exception
      */
-    private String uploadDeployableOnServer(Deployable deployable, MBeanServerConnection mbsc,
+    protected String uploadDeployableOnServer(Deployable deployable, MBeanServerConnection mbsc,
         ObjectName serverMBeanName, RemoteDeployerConfig config) throws InstanceNotFoundException,
-        MBeanException, ReflectionException, IOException
+        MBeanException, ReflectionException, IntrospectionException, IOException
     {
         getLogger().debug("Uploading file \"" + deployable.getFile() + "\" on server",
             this.getClass().getName());
 
-        // Read file
         File file = new File(deployable.getFile());
-        FileHandler fileHandler = new DefaultFileHandler();
-        FileInputStream in = new FileInputStream(file);
-        ByteArrayOutputStream out = new ByteArrayOutputStream();
-        fileHandler.copy(in, out);
-        in.close();
-
-        // Send file
         String remoteFileName = getRemoteFileName(deployable, config.getDeployableIdentifier(),
             false);
         getLogger().debug("Sending file to server with file name " + remoteFileName,
             this.getClass().getName());
+
+        UploadOperations operations = getUploadOperations(mbsc, serverMBeanName);
+        MessageDigest digest = null;
+        if (operations.getChecksumOperation() != null)
+        {
+            try
+            {
+                digest = MessageDigest.getInstance(CHECKSUM_ALGORITHM);
+            }
+            catch (NoSuchAlgorithmException e)
+            {
+                throw new ContainerException("Cannot compute upload checksum", e);
+            }
+        }
+
+        int chunkSize = getUploadChunkSize();
+        String filePathOnServer;
+        if (file.length() > chunkSize && operations.getAppendOperation() != null)
+        {
+            filePathOnServer = uploadInChunks(file, remoteFileName, chunkSize, digest,
+                operations.getAppendOperation(), mbsc, serverMBeanName);
+        }
+        else
+        {
+            byte[] content = Files.readAllBytes(file.toPath());
+            if (digest != null)
+            {
+                digest.update(content);
+            }
+            filePathOnServer = sendFile(content, remoteFileName, mbsc, serverMBeanName);
+        }
+        if (digest != null)
+        {
+            verifyChecksum(filePathOnServer, digest, operations.getChecksumOperation(), mbsc,
+                serverMBeanName);
+        }
+
+        getLogger().debug("File uploaded on server, saved as \"" + filePathOnServer + "\"",
+            this.getClass().getName());
+        return filePathOnServer;
+    }
+
+    /**
+     * Streams a file to the server in chunks: the first chunk is sent using
+     * <code>sendFile</code>, the following ones are appended to it.
+     * 
+     * @param file File to upload.
+     * @param remoteFileName Name of the file on the server.
+     * @param chunkSize Chunk size, in bytes.
+     * @param digest Message digest to update with the uploaded content, <code>null</code> if
+     * the checksum is not verified.
+     * @param appendOperation Server MBean operation appending a chunk to an uploaded file.
+     * @param mbsc MBean Server Connection
+     * @param serverMBeanName Server MBean name.
+     * @return the file Path On the Server
+     * @throws InstanceNotFoundException Instance Not Found Exception
+     * @throws MBeanException MBean Exception
+     * @throws ReflectionException Reflection Exception
+     * @throws IOException IO Exception
+     */
+    private String uploadInChunks(File file, String remoteFileName, int chunkSize,
+        MessageDigest digest, String appendOperation, MBeanServerConnection mbsc,
+        ObjectName serverMBeanName)
+        throws InstanceNotFoundException, MBeanException, ReflectionException, IOException
+    {
+        long total = file.length();
+        long sent = 0;
+        long lastReportedPercent = -1;
+        String filePathOnServer = null;
+        byte[] buffer = new byte[chunkSize];
+        try (InputStream in = new FileInputStream(file))
+        {
+            int read;
+            while ((read = readChunk(in, buffer)) > 0)
+            {
+                byte[] chunk = buffer;
+                if (read < buffer.length)
+                {
+                    chunk = Arrays.copyOf(buffer, read);
+                }
+                if (digest != null)
+                {
+                    digest.update(chunk);
+                }
+
+                if (filePathOnServer == null)
+                {
+                    filePathOnServer = sendFile(chunk, remoteFileName, mbsc, serverMBeanName);
+                }
+                else
+                {
+                    mbsc.invoke(serverMBeanName, appendOperation, new Object[]
+                    {
+                        chunk, filePathOnServer
+                    }, new String[]
+                    {
+                        byte[].class.getName(), String.class.getName()
+                    });
+                }
+
+                sent += read;
+                long percent = sent * 100 / total;
+                if (percent / 10 != lastReportedPercent / 10)
+                {
+                    lastReportedPercent = percent;
+                    getLogger().info("Uploaded " + sent + " of " + total + " bytes of "
+                        + file.getName() + " (" + percent + "%)", this.getClass().getName());
+                }
+            }
+        }
+
+        return filePathOnServer;
+    }
+
+    /**
+     * Verifies the checksum of an uploaded file.
+     * 
+     * @param filePathOnServer Path of the uploaded file on the server.
+     * @param digest Message digest updated with the uploaded content.
+     * @param checksumOperation Server MBean operation computing the checksum of an uploaded
+     * file.
+     * @param mbsc MBean Server Connection
+     * @param serverMBeanName Server MBean name.
+     * @throws InstanceNotFoundException Instance Not Found Exception
+     * @throws MBeanException MBean Exception
+     * @throws ReflectionException Reflection Exception
+     * @throws IOException IO Exception
+     */
+    private void verifyChecksum(String filePathOnServer, MessageDigest digest,
+        String checksumOperation, MBeanServerConnection mbsc, ObjectName serverMBeanName)
+        throws InstanceNotFoundException, MBeanException, ReflectionException, IOException
+    {
+        StringBuilder checksum = new StringBuilder();
+        for (byte b : digest.digest())
+        {
+            checksum.append(String.format("%02x", b));
+        }
+        String remoteChecksum = (String) mbsc.invoke(serverMBeanName, checksumOperation,
+            new Object[]
+            {
+                filePathOnServer, CHECKSUM_ALGORITHM
+            }, new String[]
+            {
+                String.class.getName(), String.class.getName()
+            });
+        if (!checksum.toString().equalsIgnoreCase(remoteChecksum))
+        {
+            throw new ContainerException("Checksum of uploaded file " + filePathOnServer
+                + " is " + remoteChecksum + ", expected " + checksum);
+        }
+        getLogger().debug("Checksum of uploaded file verified: " + checksum,
+            this.getClass().getName());
+    }
+
+    /**
+     * Sends a file (or the first chunk of it) to the server.
+     * 
+     * @param content File content.
+     * @param remoteFileName Name of the file on the server.
+     * @param mbsc MBean Server Connection
+     * @param serverMBeanName Server MBean name.
+     * @return the file Path On the Server
+     * @throws InstanceNotFoundException Instance Not Found Exception
+     * @throws MBeanException MBean Exception
+     * @throws ReflectionException Reflection Exception
+     * @throws IOException IO Exception
+     */
+    private String sendFile(byte[] content, String remoteFileName, MBeanServerConnection mbsc,
+        ObjectName serverMBeanName) throws InstanceNotFoundException, MBeanException,
+        ReflectionException, IOException
+    {
         String filePathOnServer = (String) mbsc.invoke(serverMBeanName, "sendFile", new Object[]
         {
-            out.toByteArray(), remoteFileName, Boolean.TRUE
+            content, remoteFileName, Boolean.TRUE
         }, new String[]
         {
             byte[].class.getName(), String.class.getName(), boolean.class.getName()
@@ -514,12 +720,217 @@ public abstract class AbstractJonasRemoteDeployer extends AbstractRemoteDeployer
         {
             throw new ContainerException("Server returned a null uploaded file path");
         }
-
-        getLogger().debug("File uploaded on server, saved as \"" + filePathOnServer + "\"",
-            this.getClass().getName());
         return filePathOnServer;
     }
 
+    /**
+     * Reads a chunk, i.e. fills the buffer unless the end of the stream is reached.
+     * 
+     * @param in Stream to read from.
+     * @param buffer Buffer to fill.
+     * @return Number of bytes read, <code>0</code> at the end of the stream.
+     * @throws IOException IO Exception
+     */
+    private static int readChunk(InputStream in, byte[] buffer) throws IOException
+    {
+        int total = 0;
+        while (total < buffer.length)
+        {
+            int read = in.read(buffer, total, buffer.length - total);
+            if (read == -1)
+            {
+                break;
+            }
+            total += read;
+        }
+        return total;
+    }
+
+    /**
+     * Returns the upload operations configured with
+     * {@link JonasPropertySet#JONAS_UPLOAD_APPEND_OPERATION} and
+     * {@link JonasPropertySet#JONAS_UPLOAD_CHECKSUM_OPERATION} which the server supports. If any
+     * is configured, they are looked up in the server MBean information the first time a
+     * connection is used for uploading, and remembered for as long as the connection is in use.
+     * 
+     * @param mbsc MBean Server Connection
+     * @param serverMBeanName Server MBean name.
+     * @return Upload operations supported by the server.
+     * @throws InstanceNotFoundException Instance Not Found Exception
+     * @throws ReflectionException Reflection Exception
+     * @throws IntrospectionException Introspection Exception
+     * @throws IOException IO Exception
+     */
+    private UploadOperations getUploadOperations(MBeanServerConnection mbsc,
+        ObjectName serverMBeanName) throws InstanceNotFoundException, ReflectionException,
+        IntrospectionException, IOException
+    {
+        String appendOperation =
+            getOperationProperty(JonasPropertySet.JONAS_UPLOAD_APPEND_OPERATION);
+        String checksumOperation =
+            getOperationProperty(JonasPropertySet.JONAS_UPLOAD_CHECKSUM_OPERATION);
+        if (appendOperation == null && checksumOperation == null)
+        {
+            return new UploadOperations(serverMBeanName, null, null);
+        }
+
+        UploadOperations operations = this.uploadOperations.get(mbsc);
+        if (operations == null || !operations.getServerMBeanName().equals(serverMBeanName))
+        {
+            MBeanInfo info = mbsc.getMBeanInfo(serverMBeanName);
+            if (!hasOperation(info, appendOperation, byte[].class.getName(),
+                String.class.getName()))
+            {
+                appendOperation = null;
+            }
+            if (!hasOperation(info, checksumOperation, String.class.getName(),
+                String.class.getName()))
+            {
+                checksumOperation = null;
+            }
+            operations = new UploadOperations(serverMBeanName, appendOperation,
+                checksumOperation);
+            this.uploadOperations.put(mbsc, operations);
+        }
+        return operations;
+    }
+
+    /**
+     * @param name Name of a property naming a server MBean operation.
+     * @return Value of the property, <code>null</code> if not set.
+     */
+    private String getOperationProperty(String name)
+    {
+        String operation = this.configuration.getPropertyValue(name);
+        if (operation == null || operation.trim().isEmpty())
+        {
+            return null;
+        }
+        return operation.trim();
+    }
+
+    /**
+     * Checks whether an MBean has an operation. If it does not, a warning is logged.
+     * 
+     * @param info MBean information.
+     * @param operationName Operation name, <code>null</code> if not configured.
+     * @param signature Operation signature.
+     * @return <code>true</code> if the MBean has the operation.
+     */
+    private boolean hasOperation(MBeanInfo info, String operationName, String... signature)
+    {
+        if (operationName == null)
+        {
+            return false;
+        }
+        for (MBeanOperationInfo operation : info.getOperations())
+        {
+            if (operationName.equals(operation.getName())
+                && operation.getSignature().length == signature.length)
+            {
+                boolean matches = true;
+                for (int i = 0; i < signature.length; i++)
+                {
+                    matches &= signature[i].equals(operation.getSignature()[i].getType());
+                }
+                if (matches)
+                {
+                    return true;
+                }
+            }
+        }
+        getLogger().warn("Server MBean has no " + operationName + " operation with the "
+            + Arrays.asList(signature) + " signature, not using it", this.getClass().getName());
+        return false;
+    }
+
+    /**
+     * @return Upload chunk size, in bytes.
+     */
+    private int getUploadChunkSize()
+    {
+        String chunkSize =
+            this.configuration.getPropertyValue(JonasPropertySet.JONAS_UPLOAD_CHUNK_SIZE);
+        if (chunkSize == null || chunkSize.trim().isEmpty())
+        {
+            return DEFAULT_UPLOAD_CHUNK_SIZE;
+        }
+        try
+        {
+            int size = Integer.parseInt(chunkSize.trim());
+            if (size <= 0)
+            {
+                throw new ContainerException("Invalid upload chunk size: " + chunkSize);
+            }
+            return size;
+        }
+        catch (NumberFormatException e)
+        {
+            throw new ContainerException("Invalid upload chunk size: " + chunkSize, e);
+        }
+    }
+
+    /**
+     * Upload operations supported by a server MBean.
+     */
+    private static final class UploadOperations
+    {
+        /**
+         * Server MBean name.
+         */
+        private final ObjectName serverMBeanName;
+
+        /**
+         * Operation appending to uploaded files, <code>null</code> if not supported.
+         */
+        private final String appendOperation;
+
+        /**
+         * Operation computing checksums of uploaded files, <code>null</code> if not supported.
+         */
+        private final String checksumOperation;
+
+        /**
+         * @param serverMBeanName Server MBean name.
+         * @param appendOperation Operation appending to uploaded files, <code>null</code> if not
+         * supported.
+         * @param checksumOperation Operation computing checksums of uploaded files,
+         * <code>null</code> if not supported.
+         */
+        private UploadOperations(ObjectName serverMBeanName, String appendOperation,
+            String checksumOperation)
+        {
+            this.serverMBeanName = serverMBeanName;
+            this.appendOperation = appendOperation;
+            this.checksumOperation = checksumOperation;
+        }
+
+        /**
+         * @return Server MBean name.
+         */
+        public ObjectName getServerMBeanName()
+        {
+            return this.serverMBeanName;
+        }
+
+        /**
+         * @return Operation appending to uploaded files, <code>null</code> if not supported.
+         */
+        public String getAppendOperation()
+        {
+            return this.appendOperation;
+        }
+
+        /**
+         * @return Operation computing checksums of uploaded files, <code>null</code> if not
+         * supported.
+         */
+        public String getChecksumOperation()
+        {
+            return this.checksumOperation;
+        }
+    }
+
     /**
      * This class represents the Remote Deployer Configuration.
      */
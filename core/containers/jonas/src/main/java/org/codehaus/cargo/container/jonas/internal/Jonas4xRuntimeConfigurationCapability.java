@@ -49,6 +49,10 @@ public class Jonas4xRuntimeConfigurationCapability extends AbstractRuntimeConfig
         this.propertySupportMap.put(JonasPropertySet.JONAS_CLUSTER_NAME, Boolean.TRUE);
 
         this.propertySupportMap.put(JonasPropertySet.JONAS_DEPLOYABLE_IDENTIFIER, Boolean.TRUE);
+        this.propertySupportMap.put(JonasPropertySet.JONAS_UPLOAD_CHUNK_SIZE, Boolean.TRUE);
+        this.propertySupportMap.put(JonasPropertySet.JONAS_UPLOAD_APPEND_OPERATION, Boolean.TRUE);
+        this.propertySupportMap.put(JonasPropertySet.JONAS_UPLOAD_CHECKSUM_OPERATION,
+            Boolean.TRUE);
 
         this.propertySupportMap.put(JonasPropertySet.JONAS_MEJB_JNDI_PATH, Boolean.TRUE);
         this.propertySupportMap.put(JonasPropertySet.JONAS_MEJB_JAAS_FILE, Boolean.TRUE);
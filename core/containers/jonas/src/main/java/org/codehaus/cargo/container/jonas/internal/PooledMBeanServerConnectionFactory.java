@@ -0,0 +1,428 @@
+/*
+ * ========================================================================
+ *
+ * Codehaus CARGO, copyright 2004-2011 Vincent Massol, 2012-2018 Ali Tokmen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * ========================================================================
+ */
+package org.codehaus.cargo.container.jonas.internal;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.management.MBeanServerConnection;
+
+import org.codehaus.cargo.container.configuration.RuntimeConfiguration;
+
+/**
+ * MBean server connection factory sharing connections across deployers and deployment actions.
+ * Connections are kept in a process-wide pool keyed by the underlying factory type and the runtime
+ * configuration, which holds the remote endpoint and the credentials. As JMX connections are
+ * thread safe, one connection is leased to all concurrent users of the same key; calling
+ * {@link #destroy()} returns the lease instead of closing the connection. Connections are checked
+ * before being reused after an idle period, and closed once unused for
+ * {@link #IDLE_TIMEOUT} milliseconds by a daemon thread, which only runs while the pool holds
+ * idle connections. {@link #closeAll()} closes all pooled connections.
+ */
+public class PooledMBeanServerConnectionFactory implements MBeanServerConnectionFactory
+{
+    /**
+     * Time after which an unused connection gets closed, in milliseconds.
+     */
+    public static final long IDLE_TIMEOUT = 60000;
+
+    /**
+     * Pooled connections, indexed by key.
+     */
+    private static final Map<String, PooledConnection> POOL =
+        new HashMap<String, PooledConnection>();
+
+    /**
+     * Time after which an unused connection gets closed, in milliseconds.
+     */
+    private static long idleTimeout = IDLE_TIMEOUT;
+
+    /**
+     * Thread closing idle connections, <code>null</code> if not running.
+     */
+    private static Thread evictor;
+
+    /**
+     * Factory used to create new connections.
+     */
+    private final MBeanServerConnectionFactory delegate;
+
+    /**
+     * Connection leased by this factory, <code>null</code> if none.
+     */
+    private PooledConnection leased;
+
+    /**
+     * Pooled connection.
+     */
+    private static class PooledConnection
+    {
+        /**
+         * Factory which has created the connection, and which closes it.
+         */
+        private final MBeanServerConnectionFactory factory;
+
+        /**
+         * MBean server connection.
+         */
+        private final MBeanServerConnection connection;
+
+        /**
+         * Number of active leases.
+         */
+        private int leases;
+
+        /**
+         * Time the last lease has been returned.
+         */
+        private long lastUsed;
+
+        /**
+         * Whether the connection has been removed from the pool, and should be closed once all
+         * leases are returned.
+         */
+        private boolean retired;
+
+        /**
+         * @param factory Factory which has created the connection.
+         * @param connection MBean server connection.
+         */
+        public PooledConnection(MBeanServerConnectionFactory factory,
+            MBeanServerConnection connection)
+        {
+            this.factory = factory;
+            this.connection = connection;
+        }
+    }
+
+    /**
+     * @param delegate Factory used to create new connections.
+     */
+    public PooledMBeanServerConnectionFactory(MBeanServerConnectionFactory delegate)
+    {
+        this.delegate = delegate;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public MBeanServerConnection getServerConnection(RuntimeConfiguration configuration)
+        throws Exception
+    {
+        if (leased != null)
+        {
+            return leased.connection;
+        }
+
+        String key = getKey(configuration);
+        PooledConnection pooled;
+        boolean inUse = false;
+        List<PooledConnection> evicted;
+        synchronized (POOL)
+        {
+            evicted = evictIdleConnections();
+
+            pooled = POOL.get(key);
+            if (pooled != null)
+            {
+                inUse = pooled.leases > 0;
+                pooled.leases++;
+            }
+        }
+        close(evicted);
+
+        // A connection leased by someone else is known to be working, else check it
+        if (pooled != null && !inUse && !isHealthy(pooled.connection))
+        {
+            release(pooled, true);
+            pooled = null;
+        }
+
+        if (pooled == null)
+        {
+            pooled = new PooledConnection(delegate, delegate.getServerConnection(configuration));
+            pooled.leases = 1;
+            PooledConnection replaced;
+            synchronized (POOL)
+            {
+                // Another thread may have pooled a connection for the same key meanwhile
+                replaced = POOL.put(key, pooled);
+                if (replaced != null)
+                {
+                    replaced.retired = true;
+                    if (replaced.leases > 0)
+                    {
+                        replaced = null;
+                    }
+                }
+            }
+            if (replaced != null)
+            {
+                replaced.factory.destroy();
+            }
+        }
+
+        leased = pooled;
+        return pooled.connection;
+    }
+
+    /**
+     * Returns the connection leased by this factory to the pool.
+     */
+    @Override
+    public void destroy()
+    {
+        if (leased != null)
+        {
+            release(leased, false);
+            leased = null;
+        }
+    }
+
+    /**
+     * Return a lease, and close the connection if it is not pooled anymore.
+     * 
+     * @param pooled Pooled connection.
+     * @param broken Whether the connection has been found not to work.
+     */
+    private static void release(PooledConnection pooled, boolean broken)
+    {
+        boolean close;
+        synchronized (POOL)
+        {
+            pooled.leases--;
+            pooled.lastUsed = System.currentTimeMillis();
+            if (broken && !pooled.retired)
+            {
+                pooled.retired = true;
+                POOL.values().remove(pooled);
+            }
+            close = pooled.retired && pooled.leases == 0;
+            if (!pooled.retired && pooled.leases == 0)
+            {
+                startEvictor();
+            }
+        }
+        if (close)
+        {
+            pooled.factory.destroy();
+        }
+    }
+
+    /**
+     * Close all pooled connections. Connections currently leased are closed once returned.
+     */
+    public static void closeAll()
+    {
+        List<PooledConnection> closed = new ArrayList<PooledConnection>();
+        synchronized (POOL)
+        {
+            for (PooledConnection pooled : POOL.values())
+            {
+                pooled.retired = true;
+                if (pooled.leases == 0)
+                {
+                    closed.add(pooled);
+                }
+            }
+            POOL.clear();
+            POOL.notifyAll();
+        }
+        close(closed);
+    }
+
+    /**
+     * Start the thread closing idle connections, unless it is running. Must be called while
+     * holding the pool lock.
+     */
+    private static void startEvictor()
+    {
+        if (evictor != null)
+        {
+            return;
+        }
+
+        evictor = new Thread(new Runnable()
+        {
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public void run()
+            {
+                runEvictor();
+            }
+        }, "cargo-jmx-connection-evictor");
+        evictor.setDaemon(true);
+        evictor.start();
+    }
+
+    /**
+     * Close idle connections as they reach the idle timeout, until the pool has no idle
+     * connection left, so that the thread does not outlive the pooled connections.
+     */
+    private static void runEvictor()
+    {
+        while (true)
+        {
+            List<PooledConnection> evicted;
+            synchronized (POOL)
+            {
+                evicted = evictIdleConnections();
+                if (evicted.isEmpty())
+                {
+                    long nextEviction = getNextEviction();
+                    if (nextEviction == -1)
+                    {
+                        evictor = null;
+                        return;
+                    }
+
+                    try
+                    {
+                        POOL.wait(Math.max(1, nextEviction - System.currentTimeMillis()));
+                    }
+                    catch (InterruptedException e)
+                    {
+                        evictor = null;
+                        return;
+                    }
+                }
+            }
+            close(evicted);
+        }
+    }
+
+    /**
+     * Must be called while holding the pool lock.
+     * 
+     * @return Time at which the next idle connection reaches the idle timeout, <code>-1</code>
+     * if no pooled connection is idle.
+     */
+    private static long getNextEviction()
+    {
+        long nextEviction = -1;
+        for (PooledConnection pooled : POOL.values())
+        {
+            if (pooled.leases == 0)
+            {
+                long eviction = pooled.lastUsed + idleTimeout;
+                if (nextEviction == -1 || eviction < nextEviction)
+                {
+                    nextEviction = eviction;
+                }
+            }
+        }
+        return nextEviction;
+    }
+
+    /**
+     * Remove the connections that have not been used for {@link #IDLE_TIMEOUT} milliseconds from
+     * the pool. Must be called while holding the pool lock.
+     * 
+     * @return Connections to close.
+     */
+    private static List<PooledConnection> evictIdleConnections()
+    {
+        List<PooledConnection> evicted = new ArrayList<PooledConnection>();
+        long now = System.currentTimeMillis();
+        for (Iterator<PooledConnection> i = POOL.values().iterator(); i.hasNext();)
+        {
+            PooledConnection pooled = i.next();
+            if (pooled.leases == 0 && now - pooled.lastUsed >= idleTimeout)
+            {
+                pooled.retired = true;
+                evicted.add(pooled);
+                i.remove();
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * @param connections Connections to close.
+     */
+    private static void close(List<PooledConnection> connections)
+    {
+        for (PooledConnection pooled : connections)
+        {
+            pooled.factory.destroy();
+        }
+    }
+
+    /**
+     * Checks a connection with a cheap remote call.
+     * 
+     * @param connection MBean server connection.
+     * @return <code>true</code> if the server answered.
+     */
+    private static boolean isHealthy(MBeanServerConnection connection)
+    {
+        try
+        {
+            connection.getMBeanCount();
+            return true;
+        }
+        catch (IOException|SecurityException e)
+        {
+            return false;
+        }
+    }
+
+    /**
+     * @param configuration Runtime configuration.
+     * @return Pool key for the given configuration, covering the endpoint and the credentials.
+     */
+    private String getKey(RuntimeConfiguration configuration)
+    {
+        return delegate.getClass().getName() + " "
+            + new TreeMap<String, String>(configuration.getProperties());
+    }
+
+    /**
+     * @return Number of pooled connections, for testing purposes.
+     */
+    static int getPoolSize()
+    {
+        synchronized (POOL)
+        {
+            return POOL.size();
+        }
+    }
+
+    /**
+     * @param timeout Time after which an unused connection gets closed, in milliseconds, for
+     * testing purposes.
+     */
+    static void setIdleTimeout(long timeout)
+    {
+        synchronized (POOL)
+        {
+            idleTimeout = timeout;
+            POOL.notifyAll();
+        }
+    }
+}
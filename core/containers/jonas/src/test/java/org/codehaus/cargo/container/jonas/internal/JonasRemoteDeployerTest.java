@@ -22,8 +22,24 @@
  */
 package org.codehaus.cargo.container.jonas.internal;
 
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.util.Arrays;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerConnection;
+import javax.management.MBeanServerFactory;
 import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
 
+import org.codehaus.cargo.container.ContainerException;
 import org.codehaus.cargo.container.RemoteContainer;
 import org.codehaus.cargo.container.configuration.RuntimeConfiguration;
 import org.codehaus.cargo.container.deployable.Deployable;
@@ -233,6 +249,350 @@ public class JonasRemoteDeployerTest extends MockObjectTestCase
         assertEquals("jar", deployerConfig.getClusterName());
     }
 
+    /**
+     * Test that, unless upload operations are configured, deployables are sent in one piece
+     * without looking at the server MBean operations, even if the server has extra operations.
+     * @throws Exception If anything goes wrong.
+     */
+    public void testUploadDeployableWithoutConfiguredOperations() throws Exception
+    {
+        runtime.setProperty(JonasPropertySet.JONAS_UPLOAD_CHUNK_SIZE, "1000");
+
+        byte[] content = createContent(4321);
+        Deployable deployable = createDeployable(content);
+        TestServer server = new TestServer();
+        ObjectName serverMBeanName = deployer.getServerMBeanName("jonas", "jonas");
+        MBeanServer mbeanServer = createMBeanServer(server, TestServerMBean.class,
+            serverMBeanName);
+        int[] mbeanInfoCalls = new int[1];
+
+        deployer.uploadDeployableOnServer(deployable,
+            countMBeanInfoCalls(mbeanServer, mbeanInfoCalls), serverMBeanName,
+            deployer.getConfig());
+
+        assertEquals(0, mbeanInfoCalls[0]);
+        assertEquals(1, server.calls);
+        assertEquals(0, server.checksumCalls);
+        assertTrue(Arrays.equals(content, server.content.toByteArray()));
+    }
+
+    /**
+     * Test uploading a deployable in chunks to a server supporting appending to files.
+     * @throws Exception If anything goes wrong.
+     */
+    public void testUploadDeployableInChunks() throws Exception
+    {
+        runtime.setProperty(JonasPropertySet.JONAS_UPLOAD_CHUNK_SIZE, "1000");
+        configureUploadOperations();
+
+        byte[] content = createContent(4321);
+        Deployable deployable = createDeployable(content);
+        TestServer server = new TestServer();
+        ObjectName serverMBeanName = deployer.getServerMBeanName("jonas", "jonas");
+        MBeanServer mbeanServer = createMBeanServer(server, TestServerMBean.class,
+            serverMBeanName);
+
+        String filePathOnServer = deployer.uploadDeployableOnServer(deployable, mbeanServer,
+            serverMBeanName, deployer.getConfig());
+
+        assertEquals("/uploaded/" + new File(deployable.getFile()).getName(), filePathOnServer);
+        assertEquals(5, server.calls);
+        assertEquals(1, server.checksumCalls);
+        assertTrue(Arrays.equals(content, server.content.toByteArray()));
+    }
+
+    /**
+     * Test that a deployable sent in one piece also gets its checksum verified.
+     * @throws Exception If anything goes wrong.
+     */
+    public void testUploadDeployableInOnePieceVerifiesChecksum() throws Exception
+    {
+        configureUploadOperations();
+        byte[] content = createContent(4321);
+        Deployable deployable = createDeployable(content);
+        TestServer server = new TestServer();
+        ObjectName serverMBeanName = deployer.getServerMBeanName("jonas", "jonas");
+        MBeanServer mbeanServer = createMBeanServer(server, TestServerMBean.class,
+            serverMBeanName);
+
+        deployer.uploadDeployableOnServer(deployable, mbeanServer, serverMBeanName,
+            deployer.getConfig());
+
+        assertEquals(1, server.calls);
+        assertEquals(1, server.checksumCalls);
+        assertTrue(Arrays.equals(content, server.content.toByteArray()));
+    }
+
+    /**
+     * Test that a checksum mismatch makes the upload fail, whatever the upload path.
+     * @throws Exception If anything goes wrong.
+     */
+    public void testUploadChecksumMismatch() throws Exception
+    {
+        configureUploadOperations();
+        Deployable deployable = createDeployable(createContent(10));
+        TestServer server = new TestServer();
+        server.corrupt = true;
+        ObjectName serverMBeanName = deployer.getServerMBeanName("jonas", "jonas");
+        MBeanServer mbeanServer = createMBeanServer(server, TestServerMBean.class,
+            serverMBeanName);
+
+        try
+        {
+            deployer.uploadDeployableOnServer(deployable, mbeanServer, serverMBeanName,
+                deployer.getConfig());
+            fail("A corrupt upload has been accepted");
+        }
+        catch (ContainerException expected)
+        {
+            assertTrue(expected.getMessage().contains("Checksum"));
+        }
+    }
+
+    /**
+     * Test that a server without the configured append and checksum operations gets the whole
+     * deployable in one <code>sendFile</code> call, even if it is bigger than the chunk size.
+     * @throws Exception If anything goes wrong.
+     */
+    public void testUploadDeployableWithoutAppendOperation() throws Exception
+    {
+        runtime.setProperty(JonasPropertySet.JONAS_UPLOAD_CHUNK_SIZE, "1000");
+        configureUploadOperations();
+
+        byte[] content = createContent(4321);
+        Deployable deployable = createDeployable(content);
+        TestServer server = new TestServer();
+        ObjectName serverMBeanName = deployer.getServerMBeanName("jonas", "jonas");
+        MBeanServer mbeanServer = createMBeanServer(server, SendFileMBean.class,
+            serverMBeanName);
+
+        deployer.uploadDeployableOnServer(deployable, mbeanServer, serverMBeanName,
+            deployer.getConfig());
+
+        assertEquals(1, server.calls);
+        assertEquals(0, server.checksumCalls);
+        assertTrue(Arrays.equals(content, server.content.toByteArray()));
+    }
+
+    /**
+     * Test that the supported upload operations are only detected once per connection.
+     * @throws Exception If anything goes wrong.
+     */
+    public void testUploadOperationsDetectedOncePerConnection() throws Exception
+    {
+        runtime.setProperty(JonasPropertySet.JONAS_UPLOAD_CHUNK_SIZE, "1000");
+        configureUploadOperations();
+
+        Deployable deployable = createDeployable(createContent(4321));
+        TestServer server = new TestServer();
+        ObjectName serverMBeanName = deployer.getServerMBeanName("jonas", "jonas");
+        MBeanServer mbeanServer = createMBeanServer(server, TestServerMBean.class,
+            serverMBeanName);
+        int[] mbeanInfoCalls = new int[1];
+        MBeanServerConnection connection = countMBeanInfoCalls(mbeanServer, mbeanInfoCalls);
+
+        deployer.uploadDeployableOnServer(deployable, connection, serverMBeanName,
+            deployer.getConfig());
+        deployer.uploadDeployableOnServer(deployable, connection, serverMBeanName,
+            deployer.getConfig());
+
+        assertEquals(1, mbeanInfoCalls[0]);
+        assertEquals(2, server.checksumCalls);
+    }
+
+    /**
+     * Configures the append and checksum operations of {@link TestServerMBean}.
+     */
+    private void configureUploadOperations()
+    {
+        runtime.setProperty(JonasPropertySet.JONAS_UPLOAD_APPEND_OPERATION, "appendFile");
+        runtime.setProperty(JonasPropertySet.JONAS_UPLOAD_CHECKSUM_OPERATION, "getFileChecksum");
+    }
+
+    /**
+     * @param mbeanServer MBean server.
+     * @param mbeanInfoCalls Array whose first element is incremented on every
+     * <code>getMBeanInfo</code> call.
+     * @return Connection to <code>mbeanServer</code> counting <code>getMBeanInfo</code> calls.
+     */
+    private MBeanServerConnection countMBeanInfoCalls(final MBeanServer mbeanServer,
+        final int[] mbeanInfoCalls)
+    {
+        return (MBeanServerConnection) Proxy.newProxyInstance(
+            getClass().getClassLoader(), new Class<?>[] {MBeanServerConnection.class},
+            new InvocationHandler()
+            {
+                /**
+                 * {@inheritDoc}
+                 */
+                @Override
+                public Object invoke(Object proxy, Method method, Object[] args)
+                    throws Throwable
+                {
+                    if ("getMBeanInfo".equals(method.getName()))
+                    {
+                        mbeanInfoCalls[0]++;
+                    }
+                    try
+                    {
+                        return method.invoke(mbeanServer, args);
+                    }
+                    catch (InvocationTargetException e)
+                    {
+                        throw e.getCause();
+                    }
+                }
+            });
+    }
+
+    /**
+     * @param size Size of the content.
+     * @return Content of a deployable, with all byte values.
+     */
+    private static byte[] createContent(int size)
+    {
+        byte[] content = new byte[size];
+        for (int i = 0; i < content.length; i++)
+        {
+            content[i] = (byte) i;
+        }
+        return content;
+    }
+
+    /**
+     * @param content Content of the deployable.
+     * @return WAR deployable with the given content.
+     * @throws Exception If anything goes wrong.
+     */
+    private static Deployable createDeployable(byte[] content) throws Exception
+    {
+        File file = File.createTempFile("cargo-jonas-", ".war");
+        file.deleteOnExit();
+        Files.write(file.toPath(), content);
+        return new DefaultDeployableFactory().createDeployable("jonas4x", file.getAbsolutePath(),
+            DeployableType.WAR);
+    }
+
+    /**
+     * @param server Server MBean implementation.
+     * @param managementInterface Management interface to expose the server MBean with.
+     * @param serverMBeanName Server MBean name.
+     * @param <T> Management interface type.
+     * @return MBean server with the server MBean registered.
+     * @throws Exception If anything goes wrong.
+     */
+    private static <T> MBeanServer createMBeanServer(T server, Class<T> managementInterface,
+        ObjectName serverMBeanName) throws Exception
+    {
+        MBeanServer mbeanServer = MBeanServerFactory.newMBeanServer();
+        mbeanServer.registerMBean(new StandardMBean(server, managementInterface),
+            serverMBeanName);
+        return mbeanServer;
+    }
+
+    /**
+     * Management interface of a server only supporting <code>sendFile</code>, like stock JOnAS
+     * servers.
+     */
+    public interface SendFileMBean
+    {
+        /**
+         * @param content File content.
+         * @param fileName File name.
+         * @param replaceExisting Whether to replace an existing file.
+         * @return Path of the uploaded file.
+         */
+        String sendFile(byte[] content, String fileName, boolean replaceExisting);
+    }
+
+    /**
+     * Management interface of {@link TestServer}, a server MBean extended with append and
+     * checksum operations.
+     */
+    public interface TestServerMBean extends SendFileMBean
+    {
+        /**
+         * @param content Chunk to append.
+         * @param filePath Path of the uploaded file.
+         */
+        void appendFile(byte[] content, String filePath);
+
+        /**
+         * @param filePath Path of the uploaded file.
+         * @param algorithm Checksum algorithm.
+         * @return Checksum of the uploaded file.
+         * @throws Exception If the algorithm is not supported.
+         */
+        String getFileChecksum(String filePath, String algorithm) throws Exception;
+    }
+
+    /**
+     * Server MBean storing uploaded files in memory.
+     */
+    public static class TestServer implements TestServerMBean
+    {
+        /**
+         * Uploaded content.
+         */
+        private ByteArrayOutputStream content = new ByteArrayOutputStream();
+
+        /**
+         * Number of upload calls.
+         */
+        private int calls;
+
+        /**
+         * Number of checksum calls.
+         */
+        private int checksumCalls;
+
+        /**
+         * Whether to return wrong checksums.
+         */
+        private boolean corrupt;
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String sendFile(byte[] content, String fileName, boolean replaceExisting)
+        {
+            this.calls++;
+            this.content.reset();
+            this.content.write(content, 0, content.length);
+            return "/uploaded/" + fileName;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void appendFile(byte[] content, String filePath)
+        {
+            this.calls++;
+            this.content.write(content, 0, content.length);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String getFileChecksum(String filePath, String algorithm) throws Exception
+        {
+            this.checksumCalls++;
+            if (this.corrupt)
+            {
+                return "0000";
+            }
+            StringBuilder checksum = new StringBuilder();
+            for (byte b : MessageDigest.getInstance(algorithm).digest(content.toByteArray()))
+            {
+                checksum.append(String.format("%02x", b));
+            }
+            return checksum.toString();
+        }
+    }
+
     /**
      * Mock deployer for {@link AbstractJonas4xRemoteDeployer}.
      */
@@ -0,0 +1,253 @@
+/*
+ * ========================================================================
+ *
+ * Codehaus CARGO, copyright 2004-2011 Vincent Massol, 2012-2018 Ali Tokmen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * ========================================================================
+ */
+package org.codehaus.cargo.container.jonas.internal;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+import javax.management.MBeanServerConnection;
+
+import junit.framework.TestCase;
+
+import org.codehaus.cargo.container.configuration.RuntimeConfiguration;
+import org.codehaus.cargo.container.jonas.Jonas4xRuntimeConfiguration;
+import org.codehaus.cargo.container.property.RemotePropertySet;
+
+/**
+ * Unit tests for {@link PooledMBeanServerConnectionFactory}.
+ */
+public class PooledMBeanServerConnectionFactoryTest extends TestCase
+{
+    /**
+     * Connections created by {@link TestFactory} instances.
+     */
+    private int created;
+
+    /**
+     * Connections closed by {@link TestFactory} instances.
+     */
+    private int destroyed;
+
+    /**
+     * Whether the connections created by {@link TestFactory} instances are broken.
+     */
+    private boolean broken;
+
+    /**
+     * Connection factory counting created and closed connections.
+     */
+    private class TestFactory implements MBeanServerConnectionFactory
+    {
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public MBeanServerConnection getServerConnection(RuntimeConfiguration configuration)
+        {
+            created++;
+            return (MBeanServerConnection) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class<?>[] {MBeanServerConnection.class},
+                new InvocationHandler()
+                {
+                    /**
+                     * {@inheritDoc}
+                     */
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args)
+                        throws IOException
+                    {
+                        if (broken)
+                        {
+                            throw new IOException("Connection broken");
+                        }
+                        return 0;
+                    }
+                });
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void destroy()
+        {
+            destroyed++;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void tearDown() throws Exception
+    {
+        PooledMBeanServerConnectionFactory.setIdleTimeout(
+            PooledMBeanServerConnectionFactory.IDLE_TIMEOUT);
+        PooledMBeanServerConnectionFactory.closeAll();
+        super.tearDown();
+    }
+
+    /**
+     * @param uri Remote URI, distinct for each test since the pool is shared.
+     * @return Runtime configuration for the given URI.
+     */
+    private RuntimeConfiguration createConfiguration(String uri)
+    {
+        RuntimeConfiguration configuration = new Jonas4xRuntimeConfiguration();
+        configuration.setProperty(RemotePropertySet.URI, uri);
+        return configuration;
+    }
+
+    /**
+     * Test that a returned connection is reused by the next factory.
+     * @throws Exception If anything goes wrong.
+     */
+    public void testConnectionReused() throws Exception
+    {
+        RuntimeConfiguration configuration = createConfiguration("test://reused");
+
+        MBeanServerConnectionFactory first = new PooledMBeanServerConnectionFactory(
+            new TestFactory());
+        MBeanServerConnection connection = first.getServerConnection(configuration);
+        first.destroy();
+
+        MBeanServerConnectionFactory second = new PooledMBeanServerConnectionFactory(
+            new TestFactory());
+        assertSame(connection, second.getServerConnection(configuration));
+        second.destroy();
+
+        assertEquals(1, created);
+        assertEquals(0, destroyed);
+    }
+
+    /**
+     * Test that concurrent users of the same server share one connection.
+     * @throws Exception If anything goes wrong.
+     */
+    public void testConnectionShared() throws Exception
+    {
+        RuntimeConfiguration configuration = createConfiguration("test://shared");
+
+        MBeanServerConnectionFactory outer = new PooledMBeanServerConnectionFactory(
+            new TestFactory());
+        MBeanServerConnectionFactory inner = new PooledMBeanServerConnectionFactory(
+            new TestFactory());
+        assertSame(outer.getServerConnection(configuration),
+            inner.getServerConnection(configuration));
+        inner.destroy();
+        outer.destroy();
+
+        assertEquals(1, created);
+    }
+
+    /**
+     * Test that different credentials do not share connections.
+     * @throws Exception If anything goes wrong.
+     */
+    public void testCredentialsNotShared() throws Exception
+    {
+        RuntimeConfiguration configuration1 = createConfiguration("test://credentials");
+        configuration1.setProperty(RemotePropertySet.USERNAME, "user1");
+        RuntimeConfiguration configuration2 = createConfiguration("test://credentials");
+        configuration2.setProperty(RemotePropertySet.USERNAME, "user2");
+
+        MBeanServerConnectionFactory first = new PooledMBeanServerConnectionFactory(
+            new TestFactory());
+        MBeanServerConnectionFactory second = new PooledMBeanServerConnectionFactory(
+            new TestFactory());
+        assertNotSame(first.getServerConnection(configuration1),
+            second.getServerConnection(configuration2));
+        first.destroy();
+        second.destroy();
+
+        assertEquals(2, created);
+    }
+
+    /**
+     * Test that a broken connection is closed and replaced.
+     * @throws Exception If anything goes wrong.
+     */
+    public void testBrokenConnectionReplaced() throws Exception
+    {
+        RuntimeConfiguration configuration = createConfiguration("test://broken");
+
+        MBeanServerConnectionFactory first = new PooledMBeanServerConnectionFactory(
+            new TestFactory());
+        MBeanServerConnection connection = first.getServerConnection(configuration);
+        first.destroy();
+
+        broken = true;
+        MBeanServerConnectionFactory second = new PooledMBeanServerConnectionFactory(
+            new TestFactory());
+        assertNotSame(connection, second.getServerConnection(configuration));
+        second.destroy();
+
+        assertEquals(2, created);
+        assertEquals(1, destroyed);
+    }
+
+    /**
+     * Test that idle connections are closed once the idle timeout has elapsed, without the pool
+     * being accessed again.
+     * @throws Exception If anything goes wrong.
+     */
+    public void testIdleConnectionEvicted() throws Exception
+    {
+        PooledMBeanServerConnectionFactory.setIdleTimeout(100);
+
+        MBeanServerConnectionFactory factory = new PooledMBeanServerConnectionFactory(
+            new TestFactory());
+        factory.getServerConnection(createConfiguration("test://idle"));
+        factory.destroy();
+
+        long deadline = System.currentTimeMillis() + 10000;
+        while (destroyed == 0 && System.currentTimeMillis() < deadline)
+        {
+            Thread.sleep(10);
+        }
+        assertEquals(1, destroyed);
+        assertEquals(0, PooledMBeanServerConnectionFactory.getPoolSize());
+    }
+
+    /**
+     * Test that closing the pool closes idle connections at once and leased connections once
+     * returned.
+     * @throws Exception If anything goes wrong.
+     */
+    public void testCloseAll() throws Exception
+    {
+        MBeanServerConnectionFactory idle = new PooledMBeanServerConnectionFactory(
+            new TestFactory());
+        idle.getServerConnection(createConfiguration("test://close-idle"));
+        idle.destroy();
+        MBeanServerConnectionFactory leased = new PooledMBeanServerConnectionFactory(
+            new TestFactory());
+        leased.getServerConnection(createConfiguration("test://close-leased"));
+
+        PooledMBeanServerConnectionFactory.closeAll();
+        assertEquals(1, destroyed);
+        assertEquals(0, PooledMBeanServerConnectionFactory.getPoolSize());
+
+        leased.destroy();
+        assertEquals(2, destroyed);
+    }
+}
@@ -69,6 +69,13 @@ public interface TomcatPropertySet
      */
     String HOST_STARTSTOPTHREADS = "cargo.tomcat.host.startStopThreads";
 
+    /**
+     * Maximum number of deployables the Tomcat manager-based deployers upload concurrently when
+     * deploying or redeploying several deployables at a time. Defaults to <code>1</code>, i.e.
+     * uploads are done one after the other.
+     */
+    String DEPLOYER_UPLOAD_THREADS = "cargo.tomcat.deployer.uploadThreads";
+
     /**
      * Whether the HTTP container is secured.
      */
@@ -23,6 +23,13 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.codehaus.cargo.container.Container;
 import org.codehaus.cargo.container.ContainerException;
@@ -36,6 +43,7 @@ import org.codehaus.cargo.container.property.RemotePropertySet;
 import org.codehaus.cargo.container.property.ServletPropertySet;
 import org.codehaus.cargo.container.spi.deployer.AbstractRemoteDeployer;
 import org.codehaus.cargo.container.spi.deployer.DeployerWatchdog;
+import org.codehaus.cargo.container.tomcat.TomcatPropertySet;
 
 /**
  * Common code to perform both local or remote deployments using a Tomcat manager-based deployer.
@@ -159,22 +167,250 @@ public abstract class AbstractTomcatManagerDeployer extends AbstractRemoteDeploy
         try
         {
             TomcatDeployableStatus status = getTomcatManager().getStatus(getPath(deployable));
-            if (!status.equals(TomcatDeployableStatus.NOT_FOUND))
+            undeployIfDeployed(deployable, status);
+            deploy(deployable);
+        }
+        catch (IOException|TomcatManagerException exception)
+        {
+            throw new ContainerException("Failed to redeploy [" + file + "]", exception);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * <p>
+     * The list of deployed applications is retrieved once from the Tomcat manager and uploads
+     * are done using up to {@link TomcatPropertySet#DEPLOYER_UPLOAD_THREADS} threads.
+     * </p>
+     */
+    @Override
+    public void deploy(List<Deployable> deployables)
+    {
+        uploadAll(deployables);
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * <p>
+     * The list of deployed applications is retrieved once from the Tomcat manager.
+     * </p>
+     */
+    @Override
+    public void undeploy(List<Deployable> deployables)
+    {
+        Map<String, TomcatDeployableStatus> statuses = getStatuses();
+        for (Deployable deployable : deployables)
+        {
+            String file = deployable.getFile();
+            getLogger().info("Undeploying [" + file + "]", this.getClass().getName());
+
+            if (getStatus(statuses, deployable).equals(TomcatDeployableStatus.NOT_FOUND))
+            {
+                throw new ContainerException(
+                    "Deployable [" + getPath(deployable) + "] is not deployed");
+            }
+
+            try
             {
-                getLogger().info("Redeploying [" + file + "]", this.getClass().getName());
-                undeploy(deployable);
+                performUndeploy(deployable);
             }
-            else
+            catch (IOException|TomcatManagerException exception)
             {
-                getLogger().info("[" + file + "] is not deployed. Doing a fresh deployment.",
-                    this.getClass().getName());
+                throw new ContainerException("Failed to undeploy [" + file + "]", exception);
             }
-            deploy(deployable);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * <p>
+     * The list of deployed applications is retrieved once from the Tomcat manager, the
+     * deployables which are already deployed are undeployed and all deployables are then uploaded
+     * using up to {@link TomcatPropertySet#DEPLOYER_UPLOAD_THREADS} threads.
+     * </p>
+     */
+    @Override
+    public void redeploy(List<Deployable> deployables)
+    {
+        Map<String, TomcatDeployableStatus> statuses = getStatuses();
+        for (Deployable deployable : deployables)
+        {
+            try
+            {
+                undeployIfDeployed(deployable, getStatus(statuses, deployable));
+            }
+            catch (IOException|TomcatManagerException exception)
+            {
+                throw new ContainerException(
+                    "Failed to redeploy [" + deployable.getFile() + "]", exception);
+            }
+        }
+        uploadAll(deployables);
+    }
+
+    /**
+     * Undeploys a deployable if its status shows it is currently deployed.
+     * 
+     * @param deployable the deployable to undeploy
+     * @param status the current status of the deployable
+     * @throws TomcatManagerException If TomcatManagerException error occured perfoming the command
+     * @throws IOException If I/O error occured getting the path of deployable
+     */
+    private void undeployIfDeployed(Deployable deployable, TomcatDeployableStatus status)
+        throws TomcatManagerException, IOException
+    {
+        String file = deployable.getFile();
+        if (!status.equals(TomcatDeployableStatus.NOT_FOUND))
+        {
+            getLogger().info("Redeploying [" + file + "]", this.getClass().getName());
+            performUndeploy(deployable);
+        }
+        else
+        {
+            getLogger().info("[" + file + "] is not deployed. Doing a fresh deployment.",
+                this.getClass().getName());
+        }
+    }
+
+    /**
+     * Uploads a list of deployables to the Tomcat manager, concurrently if the
+     * {@link TomcatPropertySet#DEPLOYER_UPLOAD_THREADS} property allows it. Deployment failures
+     * do not cancel the other uploads; the first failure (in the order of the list) is rethrown
+     * once all uploads have completed.
+     * 
+     * @param deployables the deployables to upload
+     */
+    private void uploadAll(List<Deployable> deployables)
+    {
+        int threads = getUploadThreads();
+        if (threads <= 1 || deployables.size() <= 1)
+        {
+            for (Deployable deployable : deployables)
+            {
+                deploy(deployable);
+            }
+            return;
+        }
+
+        // Make sure the manager is created before sharing it between threads
+        getTomcatManager();
+
+        ExecutorService executor =
+            Executors.newFixedThreadPool(Math.min(threads, deployables.size()));
+        try
+        {
+            List<Future<?>> uploads = new ArrayList<Future<?>>(deployables.size());
+            for (final Deployable deployable : deployables)
+            {
+                uploads.add(executor.submit(new Runnable()
+                {
+                    @Override
+                    public void run()
+                    {
+                        deploy(deployable);
+                    }
+                }));
+            }
+
+            RuntimeException failure = null;
+            for (Future<?> upload : uploads)
+            {
+                try
+                {
+                    upload.get();
+                }
+                catch (ExecutionException e)
+                {
+                    if (failure == null)
+                    {
+                        if (e.getCause() instanceof RuntimeException)
+                        {
+                            failure = (RuntimeException) e.getCause();
+                        }
+                        else
+                        {
+                            failure = new ContainerException("Failed to deploy", e.getCause());
+                        }
+                    }
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                    throw new ContainerException("Interrupted while deploying", e);
+                }
+            }
+            if (failure != null)
+            {
+                throw failure;
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * @return the maximum number of concurrent uploads to the Tomcat manager
+     */
+    private int getUploadThreads()
+    {
+        String threads =
+            getConfiguration().getPropertyValue(TomcatPropertySet.DEPLOYER_UPLOAD_THREADS);
+        if (threads == null || threads.trim().isEmpty())
+        {
+            return 1;
+        }
+        int uploadThreads;
+        try
+        {
+            uploadThreads = Integer.parseInt(threads.trim());
+        }
+        catch (NumberFormatException e)
+        {
+            throw new ContainerException("Invalid value [" + threads + "] for property ["
+                + TomcatPropertySet.DEPLOYER_UPLOAD_THREADS + "]", e);
+        }
+        if (uploadThreads < 1)
+        {
+            throw new ContainerException("Invalid value [" + threads + "] for property ["
+                + TomcatPropertySet.DEPLOYER_UPLOAD_THREADS + "], it must be at least 1");
+        }
+        return uploadThreads;
+    }
+
+    /**
+     * @return the statuses of all applications deployed in Tomcat, indexed by context path
+     */
+    private Map<String, TomcatDeployableStatus> getStatuses()
+    {
+        try
+        {
+            return getTomcatManager().getStatuses();
         }
         catch (IOException|TomcatManagerException exception)
         {
-            throw new ContainerException("Failed to redeploy [" + file + "]", exception);
+            throw new ContainerException("Failed to get the list of applications", exception);
+        }
+    }
+
+    /**
+     * @param statuses the statuses of all applications deployed in Tomcat
+     * @param deployable the deployable to look for
+     * @return the status of <code>deployable</code>
+     */
+    private TomcatDeployableStatus getStatus(Map<String, TomcatDeployableStatus> statuses,
+        Deployable deployable)
+    {
+        TomcatDeployableStatus status = statuses.get(getPath(deployable));
+        if (status == null)
+        {
+            status = TomcatDeployableStatus.NOT_FOUND;
         }
+        return status;
     }
 
     /**
@@ -20,139 +20,139 @@
 package org.codehaus.cargo.container.tomcat.internal;
 
 import java.io.File;
-import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.net.InetAddress;
 import java.util.ArrayList;
 import java.util.List;
 
 import org.codehaus.cargo.container.ContainerException;
+import org.codehaus.cargo.container.internal.util.MethodBinding;
 
 /**
- * Wrapper classes around Tomcat embedded API to hide reflection.
+ * Wrapper classes around Tomcat embedded API to hide reflection. Tomcat methods are resolved
+ * once per class loader through {@link MethodBinding}.
  */
 public final class TomcatEmbedded
 {
-    /** reflection method. */
-    private Constructor embeddedNew;
+    /** bound constructor. */
+    private MethodBinding embeddedNew;
 
-    /** reflection method. */
-    private Method embeddedCreateEngine;
+    /** bound method. */
+    private MethodBinding embeddedCreateEngine;
 
-    /** reflection method. */
-    private Method embeddedCreateHost;
+    /** bound method. */
+    private MethodBinding embeddedCreateHost;
 
-    /** reflection method. */
-    private Method embeddedStart;
+    /** bound method. */
+    private MethodBinding embeddedStart;
 
-    /** reflection method. */
-    private Method embeddedStop;
+    /** bound method. */
+    private MethodBinding embeddedStop;
 
-    /** reflection method. */
-    private Method embeddedAddEngine;
+    /** bound method. */
+    private MethodBinding embeddedAddEngine;
 
-    /** reflection method. */
-    private Method embeddedCreateConnector;
+    /** bound method. */
+    private MethodBinding embeddedCreateConnector;
 
-    /** reflection method. */
-    private Method embeddedAddConnector;
+    /** bound method. */
+    private MethodBinding embeddedAddConnector;
 
-    /** reflection method. */
-    private Method embeddedCreateContext;
+    /** bound method. */
+    private MethodBinding embeddedCreateContext;
 
-    /** reflection method. */
-    private Method embeddedSetRealm;
+    /** bound method. */
+    private MethodBinding embeddedSetRealm;
 
-    /** reflection method. */
-    private Method embeddedSetCatalinaBase;
+    /** bound method. */
+    private MethodBinding embeddedSetCatalinaBase;
 
-    /** reflection method. */
-    private Method embeddedSetCatalinaHome;
+    /** bound method. */
+    private MethodBinding embeddedSetCatalinaHome;
 
-    /** reflection method. */
-    private Method embeddedSetPort;
+    /** bound method. */
+    private MethodBinding embeddedSetPort;
 
-    /** reflection method. */
-    private Method embeddedEnableNaming;
+    /** bound method. */
+    private MethodBinding embeddedEnableNaming;
 
-    /** reflection method. */
-    private Method embeddedGetConnector;
+    /** bound method. */
+    private MethodBinding embeddedGetConnector;
 
-    /** reflection method. */
-    private Method embeddedGetEngine;
+    /** bound method. */
+    private MethodBinding embeddedGetEngine;
 
-    /** reflection method. */
-    private Method embeddedGetHost;
+    /** bound method. */
+    private MethodBinding embeddedGetHost;
 
-    /** reflection method. */
-    private Method engineSetName;
+    /** bound method. */
+    private MethodBinding engineSetName;
 
-    /** reflection method. */
-    private Method engineAddChild;
+    /** bound method. */
+    private MethodBinding engineAddChild;
 
-    /** reflection method. */
-    private Method engineSetDefaultHost;
+    /** bound method. */
+    private MethodBinding engineSetDefaultHost;
 
-    /** reflection method. */
-    private Method engineSetParentClassLoader;
+    /** bound method. */
+    private MethodBinding engineSetParentClassLoader;
 
-    /** reflection method. */
-    private Method engineSetService;
+    /** bound method. */
+    private MethodBinding engineSetService;
 
-    /** reflection method. */
-    private Method engineSetRealm;
+    /** bound method. */
+    private MethodBinding engineSetRealm;
 
-    /** reflection method. */
-    private Method standardEngineSetBaseDir;
+    /** bound method. */
+    private MethodBinding standardEngineSetBaseDir;
 
-    /** reflection method. */
-    private Method connectorDestroy;
+    /** bound method. */
+    private MethodBinding connectorDestroy;
 
     /** context class. */
     private Class contextClass;
 
-    /** reflection method. */
-    private Method contextDestroy;
+    /** bound method. */
+    private MethodBinding contextDestroy;
 
-    /** reflection method. */
-    private Method contextReload;
+    /** bound method. */
+    private MethodBinding contextReload;
 
-    /** reflection method. */
-    private Method contextSetAvailable;
+    /** bound method. */
+    private MethodBinding contextSetAvailable;
 
-    /** reflection method. */
-    private Method contextStart;
+    /** bound method. */
+    private MethodBinding contextStart;
 
-    /** reflection method. */
-    private Method contextStop;
+    /** bound method. */
+    private MethodBinding contextStop;
 
-    /** reflection method. */
-    private Method contextAddParameter;
+    /** bound method. */
+    private MethodBinding contextAddParameter;
 
-    /** reflection method. */
-    private Method hostSetAutoDeploy;
+    /** bound method. */
+    private MethodBinding hostSetAutoDeploy;
 
-    /** reflection method. */
-    private Method hostGetName;
+    /** bound method. */
+    private MethodBinding hostGetName;
 
-    /** reflection method. */
-    private Method hostAddChild;
+    /** bound method. */
+    private MethodBinding hostAddChild;
 
-    /** reflection method. */
-    private Method hostFindChild;
+    /** bound method. */
+    private MethodBinding hostFindChild;
 
-    /** reflection method. */
-    private Method hostFindChildren;
+    /** bound method. */
+    private MethodBinding hostFindChildren;
 
-    /** reflection method. */
-    private Method hostRemoveChild;
+    /** bound method. */
+    private MethodBinding hostRemoveChild;
 
-    /** reflection method. */
-    private Constructor memoryRealmNew;
+    /** bound constructor. */
+    private MethodBinding memoryRealmNew;
 
-    /** reflection method. */
-    private Method memoryRealmSetPathname;
+    /** bound method. */
+    private MethodBinding memoryRealmSetPathname;
 
     /**
      * ClassLoader to load Tomcat.
@@ -199,21 +199,21 @@ public final class TomcatEmbedded
         Class engine = Class.forName("org.apache.catalina.Engine", true, classLoader);
         Class container = Class.forName("org.apache.catalina.Container", true, classLoader);
 
-        engineSetName = engine.getMethod("setName", new Class[] {String.class});
-        engineAddChild = engine.getMethod("addChild", new Class[] {container});
-        engineSetDefaultHost = engine.getMethod("setDefaultHost", new Class[] {String.class});
-        engineSetParentClassLoader = engine.getMethod("setParentClassLoader",
-            new Class[] {ClassLoader.class});
+        engineSetName = MethodBinding.bind(engine, "setName", String.class);
+        engineAddChild = MethodBinding.bind(engine, "addChild", container);
+        engineSetDefaultHost = MethodBinding.bind(engine, "setDefaultHost", String.class);
+        engineSetParentClassLoader = MethodBinding.bind(engine, "setParentClassLoader",
+            ClassLoader.class);
 
         Class service = Class.forName("org.apache.catalina.Service", true, classLoader);
-        engineSetService = engine.getMethod("setService", new Class[] {service});
+        engineSetService = MethodBinding.bind(engine, "setService", service);
 
         Class standardEngine =
             Class.forName("org.apache.catalina.core.StandardEngine", true, classLoader);
         try
         {
             standardEngineSetBaseDir =
-                standardEngine.getMethod("setBaseDir", new Class[] {String.class});
+                MethodBinding.bind(standardEngine, "setBaseDir", String.class);
         }
         catch (NoSuchMethodException ignored)
         {
@@ -232,8 +232,8 @@ public final class TomcatEmbedded
     {
         Class memoryRealm =
             Class.forName("org.apache.catalina.realm.MemoryRealm", true, classLoader);
-        memoryRealmNew = memoryRealm.getConstructor(new Class[0]);
-        memoryRealmSetPathname = memoryRealm.getMethod("setPathname", new Class[] {String.class});
+        memoryRealmNew = MethodBinding.bindConstructor(memoryRealm);
+        memoryRealmSetPathname = MethodBinding.bind(memoryRealm, "setPathname", String.class);
     }
 
     /**
@@ -247,25 +247,25 @@ public final class TomcatEmbedded
         contextClass = Class.forName("org.apache.catalina.Context", true, classLoader);
         try
         {
-            contextDestroy = contextClass.getMethod("destroy", new Class[0]);
+            contextDestroy = MethodBinding.bind(contextClass, "destroy");
         }
         catch (NoSuchMethodException ignored)
         {
             // Context.destroy only exists since Tomcat 7.x
         }
-        contextReload = contextClass.getMethod("reload", new Class[0]);
+        contextReload = MethodBinding.bind(contextClass, "reload");
         try
         {
             contextSetAvailable =
-                contextClass.getMethod("setAvailable", new Class[] {boolean.class});
+                MethodBinding.bind(contextClass, "setAvailable", boolean.class);
         }
         catch (NoSuchMethodException e)
         {
-            contextStart = contextClass.getMethod("start", new Class[0]);
-            contextStop = contextClass.getMethod("stop", new Class[0]);
+            contextStart = MethodBinding.bind(contextClass, "start");
+            contextStop = MethodBinding.bind(contextClass, "stop");
         }
         contextAddParameter =
-            contextClass.getMethod("addParameter", new Class[] {String.class, String.class});
+            MethodBinding.bind(contextClass, "addParameter", String.class, String.class);
     }
 
     /**
@@ -279,12 +279,12 @@ public final class TomcatEmbedded
         Class container = Class.forName("org.apache.catalina.Container", true, classLoader);
 
         Class host = Class.forName("org.apache.catalina.Host", true, classLoader);
-        hostSetAutoDeploy = host.getMethod("setAutoDeploy", new Class[] {boolean.class});
-        hostGetName = host.getMethod("getName", new Class[0]);
-        hostAddChild = host.getMethod("addChild", new Class[] {container});
-        hostFindChild = host.getMethod("findChild", new Class[] {String.class});
-        hostFindChildren = host.getMethod("findChildren", new Class[0]);
-        hostRemoveChild = host.getMethod("removeChild", new Class[] {container});
+        hostSetAutoDeploy = MethodBinding.bind(host, "setAutoDeploy", boolean.class);
+        hostGetName = MethodBinding.bind(host, "getName");
+        hostAddChild = MethodBinding.bind(host, "addChild", container);
+        hostFindChild = MethodBinding.bind(host, "findChild", String.class);
+        hostFindChildren = MethodBinding.bind(host, "findChildren");
+        hostRemoveChild = MethodBinding.bind(host, "removeChild", container);
     }
 
     /**
@@ -314,48 +314,45 @@ public final class TomcatEmbedded
         try
         {
             embedded = Class.forName("org.apache.catalina.startup.Embedded", true, classLoader);
-            embeddedCreateEngine = embedded.getMethod("createEngine", new Class[0]);
+            embeddedCreateEngine = MethodBinding.bind(embedded, "createEngine");
             embeddedCreateHost =
-                embedded.getMethod("createHost", new Class[] {String.class, String.class});
-            embeddedAddEngine = embedded.getMethod("addEngine", new Class[] {engine});
-            embeddedCreateConnector = embedded
-                .getMethod("createConnector",
-                    new Class[] {InetAddress.class, int.class, boolean.class});
-            embeddedAddConnector = embedded.getMethod("addConnector", new Class[] {connector});
+                MethodBinding.bind(embedded, "createHost", String.class, String.class);
+            embeddedAddEngine = MethodBinding.bind(embedded, "addEngine", engine);
+            embeddedCreateConnector = MethodBinding.bind(embedded, "createConnector",
+                InetAddress.class, int.class, boolean.class);
+            embeddedAddConnector = MethodBinding.bind(embedded, "addConnector", connector);
             embeddedCreateContext =
-                embedded.getMethod("createContext", new Class[] {String.class, String.class});
-            embeddedSetRealm = embedded.getMethod("setRealm", new Class[] {realm});
+                MethodBinding.bind(embedded, "createContext", String.class, String.class);
+            embeddedSetRealm = MethodBinding.bind(embedded, "setRealm", realm);
             embeddedSetCatalinaBase =
-                embedded.getMethod("setCatalinaBase", new Class[] {String.class});
+                MethodBinding.bind(embedded, "setCatalinaBase", String.class);
             embeddedSetCatalinaHome =
-                embedded.getMethod("setCatalinaHome", new Class[] {String.class});
+                MethodBinding.bind(embedded, "setCatalinaHome", String.class);
         }
         catch (ClassNotFoundException e)
         {
             // Tomcat 8.x and newer don't have org.apache.catalina.startup.Embedded anymore
             embedded = Class.forName("org.apache.catalina.startup.Tomcat", true, classLoader);
-            embeddedSetCatalinaBase = embedded.getMethod("setBaseDir", new Class[] {String.class});
-            embeddedSetPort = embedded.getMethod("setPort", new Class[] {int.class});
-            embeddedEnableNaming = embedded.getMethod("enableNaming", new Class[0]);
-            embeddedGetConnector = embedded.getMethod("getConnector", new Class[0]);
-            embeddedGetEngine = embedded.getMethod("getEngine", new Class[0]);
-            embeddedGetHost = embedded.getMethod("getHost", new Class[0]);
-            engineSetRealm = engine.getMethod("setRealm", new Class[] {realm});
+            embeddedSetCatalinaBase = MethodBinding.bind(embedded, "setBaseDir", String.class);
+            embeddedSetPort = MethodBinding.bind(embedded, "setPort", int.class);
+            embeddedEnableNaming = MethodBinding.bind(embedded, "enableNaming");
+            embeddedGetConnector = MethodBinding.bind(embedded, "getConnector");
+            embeddedGetEngine = MethodBinding.bind(embedded, "getEngine");
+            embeddedGetHost = MethodBinding.bind(embedded, "getHost");
+            engineSetRealm = MethodBinding.bind(engine, "setRealm", realm);
             embeddedCreateContext =
-                embedded.getMethod("addWebapp", new Class[] {String.class, String.class});
+                MethodBinding.bind(embedded, "addWebapp", String.class, String.class);
 
             // See Tomcat8xEmbeddedLocalContainer#getClassLoader() to understand why we do this
             Class tomcatURLStreamHandlerFactory =
                 Class.forName("org.apache.catalina.webresources.TomcatURLStreamHandlerFactory",
                     true, classLoader);
-            Method getInstance =
-                tomcatURLStreamHandlerFactory.getMethod("getInstance", new Class[0]);
-            getInstance.invoke(null);
-        }
-        embeddedNew = embedded.getConstructor(new Class[0]);
-        embeddedStart = embedded.getMethod("start", new Class[0]);
-        embeddedStop = embedded.getMethod("stop", new Class[0]);
-        connectorDestroy = connector.getMethod("destroy", new Class[0]);
+            MethodBinding.bind(tomcatURLStreamHandlerFactory, "getInstance").invoke(null);
+        }
+        embeddedNew = MethodBinding.bindConstructor(embedded);
+        embeddedStart = MethodBinding.bind(embedded, "start");
+        embeddedStop = MethodBinding.bind(embedded, "stop");
+        connectorDestroy = MethodBinding.bind(connector, "destroy");
     }
 
     /**
@@ -386,7 +383,7 @@ public final class TomcatEmbedded
          * @param method the method to invoke
          * @return the value from the invocation.
          */
-        protected Object invoke(Method method)
+        protected Object invoke(MethodBinding method)
         {
             return invoke(method, new Object[0]);
         }
@@ -398,7 +395,7 @@ public final class TomcatEmbedded
          * @param arg1 the 1st argument for invocations.
          * @return the value from the invocation.
          */
-        protected Object invoke(Method method, Object arg1)
+        protected Object invoke(MethodBinding method, Object arg1)
         {
             return invoke(method, new Object[] {arg1});
         }
@@ -411,7 +408,7 @@ public final class TomcatEmbedded
          * @param arg2 the 2nd argument for invocations.
          * @return the value from the invocation.
          */
-        protected Object invoke(Method method, Object arg1, Object arg2)
+        protected Object invoke(MethodBinding method, Object arg1, Object arg2)
         {
             return invoke(method, new Object[] {arg1, arg2});
         }
@@ -425,7 +422,7 @@ public final class TomcatEmbedded
          * @param arg3 the 3rd argument for invocations.
          * @return the value from the invocation.
          */
-        protected Object invoke(Method method, Object arg1, Object arg2, Object arg3)
+        protected Object invoke(MethodBinding method, Object arg1, Object arg2, Object arg3)
         {
             return invoke(method, new Object[] {arg1, arg2, arg3});
         }
@@ -437,7 +434,7 @@ public final class TomcatEmbedded
          * @param args the arguments for invocations.
          * @return the value from the invocation.
          */
-        protected Object invoke(Method method, Object[] args)
+        protected Object invoke(MethodBinding method, Object[] args)
         {
             // unwrap everything
             for (int i = 0; i < args.length; i++)
@@ -456,7 +453,7 @@ public final class TomcatEmbedded
             {
                 return method.invoke(core, args);
             }
-            catch (IllegalAccessException|InvocationTargetException e)
+            catch (InvocationTargetException e)
             {
                 throw new ContainerException("Tomcat reported an error: " + e.getMessage(), e);
             }
@@ -933,7 +930,7 @@ public final class TomcatEmbedded
      * @param c Constructor to invoke.
      * @return The created object.
      */
-    private Object newInstance(Constructor c)
+    private Object newInstance(MethodBinding c)
     {
         // why do we set context class loader? see the comment inside the constructor
         // about commons logging.
@@ -942,9 +939,9 @@ public final class TomcatEmbedded
 
         try
         {
-            return c.newInstance(new Object[0]);
+            return c.newInstance();
         }
-        catch (InstantiationException|InvocationTargetException|IllegalAccessException e)
+        catch (InvocationTargetException e)
         {
             throw new ContainerException("Tomcat reported an error: " + e.getMessage(), e);
         }
@@ -29,6 +29,8 @@ import java.net.URL;
 import java.net.URLEncoder;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.StringTokenizer;
 
 import org.codehaus.cargo.util.Base64;
@@ -616,14 +618,7 @@ public class TomcatManager extends LoggedObject
                                     + "algorithm is set to " + algorithm, e);
                     }
 
-                    String ha1 = this.username + ":" + realm + ":" + this.password;
-                    byte[] hash = md5.digest(ha1.getBytes("UTF-8"));
-                    StringBuilder sb = new StringBuilder();
-                    for (byte hashByte : hash)
-                    {
-                        sb.append(String.format("%02x", hashByte));
-                    }
-                    ha1 = sb.toString();
+                    String ha1 = toMd5Hex(this.username + ":" + realm + ":" + this.password);
 
                     String uri;
                     String uriPath = invokeURL.getPath();
@@ -646,14 +641,7 @@ public class TomcatManager extends LoggedObject
                     {
                         ha2 = "PUT";
                     }
-                    ha2 += ":" + uri;
-                    hash = md5.digest(ha2.getBytes("UTF-8"));
-                    sb = new StringBuilder();
-                    for (byte hashByte : hash)
-                    {
-                        sb.append(String.format("%02x", hashByte));
-                    }
-                    ha2 = sb.toString();
+                    ha2 = toMd5Hex(ha2 + ":" + uri);
 
                     String nc = NONCE_COUNTER.count(nonce);
 
@@ -669,13 +657,7 @@ public class TomcatManager extends LoggedObject
                     {
                         ha3 = ha1 + ":" + nonce + ":" + ha2;
                     }
-                    hash = md5.digest(ha3.getBytes("UTF-8"));
-                    sb = new StringBuilder();
-                    for (byte hashByte : hash)
-                    {
-                        sb.append(String.format("%02x", hashByte));
-                    }
-                    ha3 = sb.toString();
+                    ha3 = toMd5Hex(ha3);
 
                     wwwAuthenticate = "Digest username=\"" + this.username + "\", "
                         + "realm=\"" + realm + "\", "
@@ -791,6 +773,30 @@ public class TomcatManager extends LoggedObject
         return header.substring(index1 + fullComponentLength, index2);
     }
 
+    /**
+     * Computes the hexadecimal MD5 hash of a string. The message digest is shared by all the
+     * requests issued through this wrapper, which can run concurrently when deploying several
+     * deployables at a time; hence access to it is synchronized.
+     * 
+     * @param value the string to hash, encoded as UTF-8
+     * @return the hexadecimal MD5 hash of <code>value</code>
+     * @throws IOException if UTF-8 encoding is not supported
+     */
+    private String toMd5Hex(String value) throws IOException
+    {
+        byte[] hash;
+        synchronized (this.md5)
+        {
+            hash = this.md5.digest(value.getBytes("UTF-8"));
+        }
+        StringBuilder sb = new StringBuilder();
+        for (byte hashByte : hash)
+        {
+            sb.append(String.format("%02x", hashByte));
+        }
+        return sb.toString();
+    }
+
     /**
      * Gets the HTTP Basic Authorization header value for the supplied username and password.
      * 
@@ -892,21 +898,55 @@ public class TomcatManager extends LoggedObject
      */
     public TomcatDeployableStatus getStatus(String path) throws IOException, TomcatManagerException
     {
-        StringTokenizer records = new StringTokenizer(list(), "\n");
+        TomcatDeployableStatus status = getStatuses().get(path);
+        if (status == null)
+        {
+            status = TomcatDeployableStatus.NOT_FOUND;
+        }
+        return status;
+    }
+
+    /**
+     * Return the statuses of all webapps deployed in the container, using one single call to the
+     * Tomcat manager. Callers which need the status of several webapps should use this method
+     * rather than calling {@link #getStatus(String)} for each of them.
+     * 
+     * @return the current status of each webapp in the running container, indexed by context path
+     * @throws TomcatManagerException if the Tomcat manager request fails
+     * @throws IOException if an i/o error occurs
+     */
+    public Map<String, TomcatDeployableStatus> getStatuses()
+        throws IOException, TomcatManagerException
+    {
+        return parseStatuses(list());
+    }
+
+    /**
+     * Parses the output of the Tomcat manager <code>list</code> command. Each webapp is listed on
+     * its own line, as <code>path:status:sessions:name</code>. When several versions of a webapp
+     * share the same context path, the status of the first one listed is kept.
+     * 
+     * @param list the output of the Tomcat manager <code>list</code> command
+     * @return the status of each webapp, indexed by context path
+     */
+    protected static Map<String, TomcatDeployableStatus> parseStatuses(String list)
+    {
+        Map<String, TomcatDeployableStatus> statuses =
+            new LinkedHashMap<String, TomcatDeployableStatus>();
+        StringTokenizer records = new StringTokenizer(list, "\n");
         while (records.hasMoreTokens())
         {
             String record = records.nextToken();
             StringTokenizer words = new StringTokenizer(record, ":");
-            while (words.hasMoreTokens())
+            if (words.countTokens() >= 2)
             {
-                String str = words.nextToken();
-                if (path.equals(str))
+                String path = words.nextToken();
+                if (path.startsWith("/") && !statuses.containsKey(path))
                 {
-                    String token = words.nextToken();
-                    return TomcatDeployableStatus.toStatus(token);
+                    statuses.put(path, TomcatDeployableStatus.toStatus(words.nextToken()));
                 }
             }
         }
-        return TomcatDeployableStatus.NOT_FOUND;
+        return statuses;
     }
 }
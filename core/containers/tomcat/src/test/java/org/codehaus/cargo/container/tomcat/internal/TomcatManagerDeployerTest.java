@@ -0,0 +1,266 @@
+/*
+ * ========================================================================
+ *
+ * Codehaus CARGO, copyright 2004-2011 Vincent Massol, 2012-2018 Ali Tokmen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * ========================================================================
+ */
+package org.codehaus.cargo.container.tomcat.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import junit.framework.TestCase;
+
+import org.codehaus.cargo.container.ContainerException;
+import org.codehaus.cargo.container.configuration.Configuration;
+import org.codehaus.cargo.container.deployable.Deployable;
+import org.codehaus.cargo.container.deployable.WAR;
+import org.codehaus.cargo.container.stub.RemoteContainerStub;
+import org.codehaus.cargo.container.stub.RuntimeConfigurationStub;
+import org.codehaus.cargo.container.tomcat.TomcatPropertySet;
+
+/**
+ * Unit tests for the batch operations of {@link AbstractTomcatManagerDeployer}.
+ */
+public class TomcatManagerDeployerTest extends TestCase
+{
+    /**
+     * Tomcat manager recording the uploads, all of which wait for each other so that they only
+     * succeed when run concurrently.
+     */
+    private static class ConcurrentTomcatManager extends TomcatManager
+    {
+        /**
+         * Barrier all uploads wait on.
+         */
+        private final CyclicBarrier barrier;
+
+        /**
+         * Time in milliseconds each upload waits for the other ones.
+         */
+        private final long timeout;
+
+        /**
+         * Paths of the uploaded deployables.
+         */
+        private final List<String> paths = Collections.synchronizedList(new ArrayList<String>());
+
+        /**
+         * @param uploads Number of uploads to wait for.
+         * @param timeout Time in milliseconds each upload waits for the other ones.
+         * @throws Exception If anything goes wrong.
+         */
+        public ConcurrentTomcatManager(int uploads, long timeout) throws Exception
+        {
+            super(new URL("http://localhost:1/manager"));
+            this.barrier = new CyclicBarrier(uploads);
+            this.timeout = timeout;
+        }
+
+        /**
+         * Waits for all other uploads then records the upload. {@inheritDoc}
+         * @param path Context path.
+         * @param version Ignored.
+         * @param war WAR content, closed.
+         * @param update Ignored.
+         * @param tag Ignored.
+         * @throws IOException If the uploads did not run concurrently.
+         */
+        @Override
+        public void deploy(String path, String version, InputStream war, boolean update,
+            String tag) throws IOException
+        {
+            war.close();
+            try
+            {
+                this.barrier.await(this.timeout, TimeUnit.MILLISECONDS);
+            }
+            catch (InterruptedException | BrokenBarrierException | TimeoutException e)
+            {
+                throw new IOException("Upload of [" + path + "] did not run concurrently", e);
+            }
+            this.paths.add(path);
+        }
+    }
+
+    /**
+     * Deployer using a {@link ConcurrentTomcatManager}.
+     */
+    private static class TestableTomcatManagerDeployer extends AbstractTomcatManagerDeployer
+    {
+        /**
+         * Configuration.
+         */
+        private final Configuration configuration;
+
+        /**
+         * Tomcat manager.
+         */
+        private final TomcatManager manager;
+
+        /**
+         * @param configuration Configuration.
+         * @param manager Tomcat manager.
+         */
+        public TestableTomcatManagerDeployer(Configuration configuration, TomcatManager manager)
+        {
+            super(new RemoteContainerStub());
+            this.configuration = configuration;
+            this.manager = manager;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected Configuration getConfiguration()
+        {
+            return this.configuration;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected TomcatManager createManager(Configuration configuration)
+        {
+            return this.manager;
+        }
+
+        /**
+         * Does nothing. {@inheritDoc}
+         * @param deployable Ignored.
+         */
+        @Override
+        protected void performUndeploy(Deployable deployable)
+        {
+            // Nothing to undeploy
+        }
+    }
+
+    /**
+     * WAR files to deploy.
+     */
+    private List<File> files = new ArrayList<File>();
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void tearDown() throws Exception
+    {
+        for (File file : files)
+        {
+            file.delete();
+        }
+        super.tearDown();
+    }
+
+    /**
+     * @param count Number of WARs to create.
+     * @return WAR deployables.
+     * @throws IOException If the WAR files cannot be created.
+     */
+    private List<Deployable> createWars(int count) throws IOException
+    {
+        List<Deployable> wars = new ArrayList<Deployable>();
+        for (int i = 0; i < count; i++)
+        {
+            File file = File.createTempFile("cargo-upload-" + i + "-", ".war");
+            files.add(file);
+            wars.add(new WAR(file.getAbsolutePath()));
+        }
+        return wars;
+    }
+
+    /**
+     * Test that deployables are uploaded concurrently when several upload threads are allowed.
+     * @throws Exception If anything goes wrong.
+     */
+    public void testConcurrentUploads() throws Exception
+    {
+        Configuration configuration = new RuntimeConfigurationStub();
+        configuration.setProperty(TomcatPropertySet.DEPLOYER_UPLOAD_THREADS, "3");
+        ConcurrentTomcatManager manager = new ConcurrentTomcatManager(3, 10000);
+        List<Deployable> wars = createWars(3);
+
+        new TestableTomcatManagerDeployer(configuration, manager).deploy(wars);
+
+        List<String> expected = new ArrayList<String>();
+        for (Deployable war : wars)
+        {
+            expected.add("/" + ((WAR) war).getContext());
+        }
+        List<String> uploaded = new ArrayList<String>(manager.paths);
+        Collections.sort(expected);
+        Collections.sort(uploaded);
+        assertEquals(expected, uploaded);
+    }
+
+    /**
+     * Test that an upload failure is reported once all uploads are done.
+     * @throws Exception If anything goes wrong.
+     */
+    public void testConcurrentUploadFailure() throws Exception
+    {
+        Configuration configuration = new RuntimeConfigurationStub();
+        configuration.setProperty(TomcatPropertySet.DEPLOYER_UPLOAD_THREADS, "2");
+        ConcurrentTomcatManager manager = new ConcurrentTomcatManager(3, 500);
+
+        try
+        {
+            new TestableTomcatManagerDeployer(configuration, manager).deploy(createWars(2));
+            fail("The uploads cannot meet at the barrier");
+        }
+        catch (ContainerException expected)
+        {
+            assertTrue(manager.paths.isEmpty());
+        }
+    }
+
+    /**
+     * Test that invalid numbers of upload threads are rejected.
+     * @throws Exception If anything goes wrong.
+     */
+    public void testInvalidUploadThreads() throws Exception
+    {
+        for (String threads : Arrays.asList("0", "-2", "many"))
+        {
+            Configuration configuration = new RuntimeConfigurationStub();
+            configuration.setProperty(TomcatPropertySet.DEPLOYER_UPLOAD_THREADS, threads);
+            try
+            {
+                new TestableTomcatManagerDeployer(configuration, new ConcurrentTomcatManager(1, 0))
+                    .deploy(createWars(1));
+                fail("Expected [" + threads + "] to be rejected");
+            }
+            catch (ContainerException expected)
+            {
+                assertTrue(expected.getMessage(), expected.getMessage().contains(threads));
+            }
+        }
+    }
+}
@@ -19,6 +19,8 @@
  */
 package org.codehaus.cargo.container.tomcat.internal;
 
+import java.util.Map;
+
 import org.codehaus.cargo.util.AbstractResourceTest;
 
 /**
@@ -45,4 +47,25 @@ public class TomcatManagerTest extends AbstractResourceTest
             TomcatManager.extractHeaderComponent(header, "opaque"));
         assertNull(TomcatManager.extractHeaderComponent(header, "nothing"));
     }
+
+    /**
+     * Test parsing the output of the Tomcat manager <code>list</code> command.
+     * @throws Exception If anything goes wrong.
+     */
+    public void testParseStatuses() throws Exception
+    {
+        String list = "OK - Listed applications for virtual host localhost\n"
+            + "/manager:running:0:manager\n"
+            + "/simple-war:stopped:0:simple-war##2\n"
+            + "/simple-war:running:0:simple-war##1\n"
+            + "/:running:0:ROOT\n";
+
+        Map<String, TomcatDeployableStatus> statuses = TomcatManager.parseStatuses(list);
+
+        assertEquals(3, statuses.size());
+        assertEquals(TomcatDeployableStatus.RUNNING, statuses.get("/manager"));
+        assertEquals(TomcatDeployableStatus.STOPPED, statuses.get("/simple-war"));
+        assertEquals(TomcatDeployableStatus.RUNNING, statuses.get("/"));
+        assertNull(statuses.get("/other"));
+    }
 }
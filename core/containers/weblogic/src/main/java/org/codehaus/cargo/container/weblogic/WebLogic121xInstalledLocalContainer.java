@@ -21,20 +21,18 @@ package org.codehaus.cargo.container.weblogic;
 
 import java.io.File;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
-import java.util.Set;
 
-import org.codehaus.cargo.container.ContainerException;
 import org.codehaus.cargo.container.configuration.LocalConfiguration;
 import org.codehaus.cargo.container.configuration.script.ScriptCommand;
 import org.codehaus.cargo.container.internal.util.ComplexPropertyUtils;
-import org.codehaus.cargo.container.property.User;
 import org.codehaus.cargo.container.spi.jvm.JvmLauncher;
+import org.codehaus.cargo.container.startup.ContainerMonitor;
 import org.codehaus.cargo.container.weblogic.internal.AbstractWebLogicInstalledLocalContainer;
 import org.codehaus.cargo.container.weblogic.internal.ConsoleUrlWebLogicMonitor;
+import org.codehaus.cargo.container.weblogic.internal.ReadyAppWebLogicMonitor;
 import org.codehaus.cargo.container.weblogic.internal.WebLogicLocalScriptingContainer;
-import org.codehaus.cargo.util.CargoException;
+import org.codehaus.cargo.container.weblogic.internal.configuration.WebLogicWlstConfigurationFactory;
 
 /**
  * Special container support for the Bea WebLogic 12.1.3 application server. Contains WLST support.
@@ -108,43 +106,15 @@ public class WebLogic121xInstalledLocalContainer extends
     }
 
     /**
-     * {@inheritDoc}.
+     * {@inheritDoc}. Users are created with WLST whatever the configuration type, and the online
+     * Jython scripts are executed afterwards.
      */
     @Override
     protected void executePostStartTasks() throws Exception
     {
-        List<ScriptCommand> configurationScript = new ArrayList<ScriptCommand>();
-        WebLogicWlstConfiguration configuration = (WebLogicWlstConfiguration) getConfiguration();
-
-        configurationScript.add(configuration.getConfigurationFactory().readDomainOnlineScript());
-
-        List<User> users = getConfiguration().getUsers();
-        Set<String> roles = User.createRoleMap(users).keySet();
-        for (String role : roles)
-        {
-            configurationScript.add(configuration.getConfigurationFactory().
-                    createGroupScript(role));
-        }
-
-        for (User user : users)
+        if (!getConfiguration().getUsers().isEmpty())
         {
-            // WebLogic cannot create user with same name as existing role
-            if (!roles.contains(user.getName()))
-            {
-                configurationScript.add(configuration.getConfigurationFactory().
-                        createUserScript(user));
-                configurationScript.addAll(configuration.getConfigurationFactory().
-                        addUserToGroupsScript(user));
-            }
-        }
-
-        configurationScript.add(configuration.getConfigurationFactory().updateDomainOnlineScript());
-
-        if (!users.isEmpty())
-        {
-            getLogger().info("Adding users and groups to WebLogic domain.",
-                this.getClass().getName());
-            executeScript(configurationScript);
+            createUsers();
         }
 
         // Execute online jython scripts
@@ -177,33 +147,7 @@ public class WebLogic121xInstalledLocalContainer extends
     @Override
     public void executeScript(List<ScriptCommand> configurationScript)
     {
-        String newLine = System.getProperty("line.separator");
-        StringBuffer buffer = new StringBuffer();
-        for (ScriptCommand configuration : configurationScript)
-        {
-            buffer.append(configuration.readScript());
-            buffer.append(newLine);
-        }
-
-        buffer.append("dumpStack()");
-
-        getLogger().debug("Sending WLST script: " + newLine + buffer.toString(),
-            this.getClass().getName());
-
-        try
-        {
-            // script is stored to *.py file which is added as parameter when invoking WLST
-            // configuration class
-            File tempFile = File.createTempFile("wlst", ".py");
-            tempFile.deleteOnExit();
-            getFileHandler().writeTextFile(tempFile.getAbsolutePath(), buffer.toString(), null);
-
-            executeScriptFiles(Arrays.asList(tempFile.getAbsolutePath()));
-        }
-        catch (Exception e)
-        {
-            throw new CargoException("Cannot execute WLST script.", e);
-        }
+        executeWlstScript(configurationScript);
     }
 
     /**
@@ -220,24 +164,7 @@ public class WebLogic121xInstalledLocalContainer extends
 
             if (scriptFile.exists())
             {
-                try
-                {
-                    JvmLauncher java = createJvmLauncher(false);
-
-                    addWlstArguments(java);
-
-                    java.addAppArgument(scriptFile);
-                    int result = java.execute();
-                    if (result != 0)
-                    {
-                        throw new ContainerException("Failure when invoking WLST script,"
-                                + " java returned " + result);
-                    }
-                }
-                catch (Exception e)
-                {
-                    throw new CargoException("Cannot execute WLST script.", e);
-                }
+                executeWlstScriptFile(scriptFile);
             }
             else
             {
@@ -248,20 +175,12 @@ public class WebLogic121xInstalledLocalContainer extends
     }
 
     /**
-     * Adding WLST dependencies and setting main class.
-     *
-     * @param java Launcher.
+     * {@inheritDoc}
      */
-    private void addWlstArguments(JvmLauncher java)
+    @Override
+    protected WebLogicWlstConfigurationFactory getWlstConfigurationFactory()
     {
-        File serverDir = new File(this.getHome(), "server");
-        java.addClasspathEntries(new File(serverDir, "lib/weblogic.jar"));
-        // CARGO-1452: WebLogic 12.2.1.3.0's weblogic.jar file somehow has the below file missing
-        // in its classpath, making the﻿readTemplate command return a WLSTException with
-        //﻿com.oracle.cie.domain.xml.configxb.AuthenticatorType
-        java.addClasspathEntries(new File(new File(this.getHome()).getParentFile(),
-            "oracle_common/modules/com.oracle.cie.config-wls-schema_8.6.0.0.jar"));
-        java.setMainClass("weblogic.WLST");
+        return ((WebLogicWlstConfiguration) getConfiguration()).getConfigurationFactory();
     }
 
     /**
@@ -272,7 +191,17 @@ public class WebLogic121xInstalledLocalContainer extends
     {
         if (waitForStarting)
         {
-            waitForStarting(new ConsoleUrlWebLogicMonitor(this));
+            ContainerMonitor monitor;
+            if (Boolean.parseBoolean(
+                getConfiguration().getPropertyValue(WebLogicPropertySet.READINESS_PROBE)))
+            {
+                monitor = new ReadyAppWebLogicMonitor(this);
+            }
+            else
+            {
+                monitor = new ConsoleUrlWebLogicMonitor(this);
+            }
+            waitForStarting(monitor);
         }
         else
         {
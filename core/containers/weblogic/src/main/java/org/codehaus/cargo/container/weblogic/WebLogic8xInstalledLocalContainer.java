@@ -67,4 +67,13 @@ public class WebLogic8xInstalledLocalContainer extends AbstractWebLogicInstalled
     {
         return "applications";
     }
+
+    /**
+     * {@inheritDoc}. WebLogic 8.x does not ship WLST.
+     */
+    @Override
+    protected boolean isWlstSupported()
+    {
+        return false;
+    }
 }
@@ -148,4 +148,12 @@ public interface WebLogicPropertySet
      * Used when configuring new users.
      */
     String PASSWORD_SPNUM_MIN = "cargo.weblogic.password.spnum.min";
+
+    /**
+     * Whether to detect server startup by probing the lightweight <code>/weblogic/ready</code>
+     * readiness endpoint, which answers 200 once the server state is RUNNING, instead of loading
+     * the administration console. Requires WebLogic 12.2.1.3 or later.<br>
+     * Possible values: true or false. Default value false.
+     */
+    String READINESS_PROBE = "cargo.weblogic.readiness.probe";
 }
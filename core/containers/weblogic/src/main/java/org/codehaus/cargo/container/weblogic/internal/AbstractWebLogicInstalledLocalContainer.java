@@ -23,6 +23,7 @@
 package org.codehaus.cargo.container.weblogic.internal;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
@@ -32,13 +33,17 @@ import org.codehaus.cargo.container.ContainerCapability;
 import org.codehaus.cargo.container.ContainerException;
 import org.codehaus.cargo.container.configuration.LocalConfiguration;
 import org.codehaus.cargo.container.configuration.StandaloneLocalConfiguration;
+import org.codehaus.cargo.container.configuration.script.ScriptCommand;
 import org.codehaus.cargo.container.internal.J2EEContainerCapability;
 import org.codehaus.cargo.container.property.GeneralPropertySet;
 import org.codehaus.cargo.container.property.ServletPropertySet;
 import org.codehaus.cargo.container.property.User;
 import org.codehaus.cargo.container.spi.AbstractInstalledLocalContainer;
 import org.codehaus.cargo.container.spi.jvm.JvmLauncher;
+import org.codehaus.cargo.container.spi.jvm.JvmLauncherException;
 import org.codehaus.cargo.container.weblogic.WebLogicPropertySet;
+import org.codehaus.cargo.container.weblogic.internal.configuration.WebLogicWlstConfigurationFactory;
+import org.codehaus.cargo.util.CargoException;
 
 /**
  * Basic support for the WebLogic application server.
@@ -290,40 +295,133 @@ public abstract class AbstractWebLogicInstalledLocalContainer extends
         if (getConfiguration() instanceof StandaloneLocalConfiguration
             && !getConfiguration().getUsers().isEmpty())
         {
-            getLogger().info(
-                "WebLogic startup complete, now creating users." , this.getClass().getName());
+            createUsers();
+        }
+    }
+
+    /**
+     * Creates all users and groups of the configuration in the running domain. If WLST is
+     * supported (see {@link #isWlstSupported()}), all users, groups and group memberships are
+     * created in a single WLST session; otherwise, <code>weblogic.Admin</code> is invoked once per
+     * operation.
+     * 
+     * @throws Exception If anything goes wrong.
+     */
+    protected void createUsers() throws Exception
+    {
+        getLogger().info(
+            "WebLogic startup complete, now creating users." , this.getClass().getName());
 
-            Set<String> roles = new TreeSet<String>();
+        if (isWlstSupported())
+        {
+            WebLogicWlstConfigurationFactory factory = getWlstConfigurationFactory();
+            List<ScriptCommand> configurationScript = new ArrayList<ScriptCommand>();
+            configurationScript.add(factory.readDomainOnlineScript());
+            configurationScript.addAll(createUsersScript(factory));
+            configurationScript.add(factory.updateDomainOnlineScript());
+            executeWlstScript(configurationScript);
+        }
+        else
+        {
+            createUsersWithWeblogicAdmin();
+        }
+    }
 
-            for (User user : getConfiguration().getUsers())
+    /**
+     * Creates the WLST script commands creating all users and groups of the configuration and
+     * adding users to their groups. The returned commands need to run within an online WLST
+     * session.
+     * 
+     * @param factory WLST configuration factory.
+     * @return WLST script commands creating users and groups.
+     */
+    protected List<ScriptCommand> createUsersScript(WebLogicWlstConfigurationFactory factory)
+    {
+        List<ScriptCommand> configurationScript = new ArrayList<ScriptCommand>();
+
+        List<User> users = getConfiguration().getUsers();
+        Set<String> roles = User.createRoleMap(users).keySet();
+        for (String role : roles)
+        {
+            configurationScript.add(factory.createGroupScript(role));
+        }
+
+        for (User user : users)
+        {
+            // WebLogic cannot create user with same name as existing role
+            if (!roles.contains(user.getName()))
             {
-                JvmLauncher java = createJvmLauncher(false);
+                configurationScript.add(factory.createUserScript(user));
+                configurationScript.addAll(factory.addUserToGroupsScript(user));
+            }
+        }
 
-                addWeblogicAdminArguments(java);
+        return configurationScript;
+    }
 
-                java.addAppArguments("invoke");
-                java.addAppArguments("-mbean");
-                java.addAppArguments("Security:Name=myrealmDefaultAuthenticator");
-                java.addAppArguments("-method");
-                java.addAppArguments("createUser");
-                java.addAppArguments(user.getName());
-                java.addAppArguments(user.getPassword());
-                java.addAppArguments(user.getName());
+    /**
+     * Creates users and groups using one <code>weblogic.Admin</code> invocation per user, group
+     * and group membership. Used for WebLogic versions not shipping WLST.
+     * 
+     * @throws Exception If anything goes wrong.
+     */
+    private void createUsersWithWeblogicAdmin() throws Exception
+    {
+        Set<String> roles = new TreeSet<String>();
 
-                for (String role : user.getRoles())
-                {
-                    roles.add(role);
-                }
+        for (User user : getConfiguration().getUsers())
+        {
+            JvmLauncher java = createJvmLauncher(false);
 
-                int result = java.execute();
-                if (result != 0)
-                {
-                    throw new ContainerException("Cannot add user [" + user.getName()
-                        + "]: java returned " + result);
-                }
+            addWeblogicAdminArguments(java);
+
+            java.addAppArguments("invoke");
+            java.addAppArguments("-mbean");
+            java.addAppArguments("Security:Name=myrealmDefaultAuthenticator");
+            java.addAppArguments("-method");
+            java.addAppArguments("createUser");
+            java.addAppArguments(user.getName());
+            java.addAppArguments(user.getPassword());
+            java.addAppArguments(user.getName());
+
+            for (String role : user.getRoles())
+            {
+                roles.add(role);
+            }
+
+            int result = java.execute();
+            if (result != 0)
+            {
+                throw new ContainerException("Cannot add user [" + user.getName()
+                    + "]: java returned " + result);
+            }
+        }
+
+        for (String role : roles)
+        {
+            JvmLauncher java = createJvmLauncher(false);
+
+            addWeblogicAdminArguments(java);
+
+            java.addAppArguments("invoke");
+            java.addAppArguments("-mbean");
+            java.addAppArguments("Security:Name=myrealmDefaultAuthenticator");
+            java.addAppArguments("-method");
+            java.addAppArguments("createGroup");
+            java.addAppArguments(role);
+            java.addAppArguments(role);
+
+            int result = java.execute();
+            if (result != 0)
+            {
+                throw new ContainerException("Cannot add role [" + role
+                    + "]: java returned " + result);
             }
+        }
 
-            for (String role : roles)
+        for (User user : getConfiguration().getUsers())
+        {
+            for (String role : user.getRoles())
             {
                 JvmLauncher java = createJvmLauncher(false);
 
@@ -333,43 +431,114 @@ public abstract class AbstractWebLogicInstalledLocalContainer extends
                 java.addAppArguments("-mbean");
                 java.addAppArguments("Security:Name=myrealmDefaultAuthenticator");
                 java.addAppArguments("-method");
-                java.addAppArguments("createGroup");
-                java.addAppArguments(role);
+                java.addAppArguments("addMemberToGroup");
                 java.addAppArguments(role);
+                java.addAppArguments(user.getName());
 
                 int result = java.execute();
                 if (result != 0)
                 {
-                    throw new ContainerException("Cannot add role [" + role
-                        + "]: java returned " + result);
+                    throw new ContainerException("Cannot add user [" + user.getName()
+                        + "] to role [" + role + "]: java returned " + result);
                 }
             }
+        }
+    }
+
+    /**
+     * @return <code>true</code> if this WebLogic version ships WLST (WebLogic 9.x and later),
+     * <code>false</code> otherwise.
+     */
+    protected boolean isWlstSupported()
+    {
+        return true;
+    }
+
+    /**
+     * @return Configuration factory for WLST scripts.
+     */
+    protected WebLogicWlstConfigurationFactory getWlstConfigurationFactory()
+    {
+        return new WebLogicWlstConfigurationFactory(getConfiguration());
+    }
+
+    /**
+     * Executes WLST script commands in a single WLST session.
+     * 
+     * @param configurationScript Script containing WLST configuration to be executed.
+     */
+    protected void executeWlstScript(List<ScriptCommand> configurationScript)
+    {
+        String newLine = System.getProperty("line.separator");
+        StringBuilder buffer = new StringBuilder();
+        for (ScriptCommand configuration : configurationScript)
+        {
+            buffer.append(configuration.readScript());
+            buffer.append(newLine);
+        }
+
+        buffer.append("dumpStack()");
+
+        getLogger().debug("Sending WLST script: " + newLine + buffer.toString(),
+            this.getClass().getName());
+
+        try
+        {
+            // script is stored to *.py file which is added as parameter when invoking WLST
+            // configuration class
+            File tempFile = File.createTempFile("wlst", ".py");
+            tempFile.deleteOnExit();
+            getFileHandler().writeTextFile(tempFile.getAbsolutePath(), buffer.toString(), null);
+            executeWlstScriptFile(tempFile);
+        }
+        catch (IOException e)
+        {
+            throw new CargoException("Cannot execute WLST script.", e);
+        }
+    }
 
-            for (User user : getConfiguration().getUsers())
+    /**
+     * Executes a WLST script file.
+     * 
+     * @param scriptFile File containing the jython script.
+     */
+    protected void executeWlstScriptFile(File scriptFile)
+    {
+        try
+        {
+            JvmLauncher java = createJvmLauncher(false);
+
+            addWlstArguments(java);
+
+            java.addAppArgument(scriptFile);
+            int result = java.execute();
+            if (result != 0)
             {
-                for (String role : user.getRoles())
-                {
-                    JvmLauncher java = createJvmLauncher(false);
-
-                    addWeblogicAdminArguments(java);
-
-                    java.addAppArguments("invoke");
-                    java.addAppArguments("-mbean");
-                    java.addAppArguments("Security:Name=myrealmDefaultAuthenticator");
-                    java.addAppArguments("-method");
-                    java.addAppArguments("addMemberToGroup");
-                    java.addAppArguments(role);
-                    java.addAppArguments(user.getName());
-
-                    int result = java.execute();
-                    if (result != 0)
-                    {
-                        throw new ContainerException("Cannot add user [" + user.getName()
-                            + "] to role [" + role + "]: java returned " + result);
-                    }
-                }
+                throw new ContainerException("Failure when invoking WLST script,"
+                        + " java returned " + result);
             }
         }
+        catch (JvmLauncherException e)
+        {
+            throw new CargoException("Cannot execute WLST script.", e);
+        }
+    }
+
+    /**
+     * Adding WLST dependencies and setting main class.
+     *
+     * @param java Launcher.
+     */
+    protected void addWlstArguments(JvmLauncher java)
+    {
+        File serverDir = new File(this.getHome(), "server");
+        java.addClasspathEntries(new File(serverDir, "lib/weblogic.jar"));
+        // CARGO-1452: WebLogic 12.2.1.3.0's weblogic.jar file somehow has the below file missing
+        // in its classpath, making the﻿readTemplate command return a WLSTException with
+        //﻿com.oracle.cie.domain.xml.configxb.AuthenticatorType
+        java.addClasspathEntries(new File(new File(this.getHome()).getParentFile(),
+            "oracle_common/modules/com.oracle.cie.config-wls-schema_8.6.0.0.jar"));
+        java.setMainClass("weblogic.WLST");
     }
 
     /**
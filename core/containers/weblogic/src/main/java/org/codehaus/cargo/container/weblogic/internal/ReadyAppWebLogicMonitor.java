@@ -0,0 +1,85 @@
+/*
+ * ========================================================================
+ *
+ * Codehaus CARGO, copyright 2004-2011 Vincent Massol, 2012-2018 Ali Tokmen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * ========================================================================
+ */
+package org.codehaus.cargo.container.weblogic.internal;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+
+import org.codehaus.cargo.container.Container;
+import org.codehaus.cargo.container.property.GeneralPropertySet;
+import org.codehaus.cargo.container.property.ServletPropertySet;
+import org.codehaus.cargo.container.spi.startup.AbstractProbeContainerMonitor;
+import org.codehaus.cargo.util.CargoException;
+
+/**
+ * WebLogic monitor checking the <code>/weblogic/ready</code> endpoint of the Ready App, which
+ * answers 200 once the server state is RUNNING and 503 before. Available as of WebLogic 12.2.1.3.
+ */
+public class ReadyAppWebLogicMonitor extends AbstractProbeContainerMonitor
+{
+    /**
+     * Constructor.
+     *
+     * @param container Container to be monitored.
+     */
+    public ReadyAppWebLogicMonitor(Container container)
+    {
+        super(container);
+    }
+
+    /**
+     * @return Ready App URL for WebLogic.
+     */
+    @Override
+    protected URL getPingUrl()
+    {
+        String protocolProperty = getConfiguration().getPropertyValue(GeneralPropertySet.PROTOCOL);
+        String hostnameProperty = getConfiguration().getPropertyValue(GeneralPropertySet.HOSTNAME);
+        int port = getPortWithOffset(ServletPropertySet.PORT);
+
+        try
+        {
+            return new URL(protocolProperty, hostnameProperty, port, "/weblogic/ready");
+        }
+        catch (MalformedURLException e)
+        {
+            throw new CargoException("Unable to construct Ready App URL.", e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected String getProbeMethod()
+    {
+        return "GET";
+    }
+
+    /**
+     * @param responseCode HTTP response code of the probe.
+     * @return <code>true</code> only if the Ready App answered 200.
+     */
+    @Override
+    protected boolean isReady(int responseCode)
+    {
+        return responseCode == 200;
+    }
+}
@@ -58,6 +58,9 @@ public class WebLogicWlstStandaloneLocalConfigurationCapability extends
         this.propertySupportMap.put(WebLogicPropertySet.PASSWORD_LENGTH_MIN, Boolean.TRUE);
         this.propertySupportMap.put(WebLogicPropertySet.PASSWORD_SPNUM_MIN, Boolean.TRUE);
 
+        // startup detection
+        this.propertySupportMap.put(WebLogicPropertySet.READINESS_PROBE, Boolean.TRUE);
+
         // WLST-based configuration doesn't need these anymore
         this.propertySupportMap.remove(WebLogicPropertySet.CONFIGURATION_VERSION);
         this.propertySupportMap.remove(WebLogicPropertySet.DOMAIN_VERSION);
@@ -22,7 +22,6 @@ package org.codehaus.cargo.container.weblogic.internal.configuration.commands.us
 import java.util.Map;
 
 import org.codehaus.cargo.container.configuration.Configuration;
-import org.codehaus.cargo.container.configuration.LocalConfiguration;
 import org.codehaus.cargo.container.configuration.script.AbstractScriptCommand;
 import org.codehaus.cargo.container.property.User;
 
@@ -69,9 +68,5 @@ public class AddUserToGroupScriptCommand extends AbstractScriptCommand
     {
         propertiesMap.put("cargo.weblogic.user.name", user.getName());
         propertiesMap.put("cargo.weblogic.group", groupRole);
-
-        LocalConfiguration configuration = (LocalConfiguration) getConfiguration();
-        String domainName = configuration.getFileHandler().getName(configuration.getHome());
-        propertiesMap.put("cargo.weblogic.domain.name", domainName);
     }
 }
@@ -22,7 +22,6 @@ package org.codehaus.cargo.container.weblogic.internal.configuration.commands.us
 import java.util.Map;
 
 import org.codehaus.cargo.container.configuration.Configuration;
-import org.codehaus.cargo.container.configuration.LocalConfiguration;
 import org.codehaus.cargo.container.configuration.script.AbstractScriptCommand;
 
 /**
@@ -60,9 +59,5 @@ public class CreateGroupScriptCommand extends AbstractScriptCommand
     protected void addConfigurationScriptProperties(Map<String, String> propertiesMap)
     {
         propertiesMap.put("cargo.weblogic.group", groupRole);
-
-        LocalConfiguration configuration = (LocalConfiguration) getConfiguration();
-        String domainName = configuration.getFileHandler().getName(configuration.getHome());
-        propertiesMap.put("cargo.weblogic.domain.name", domainName);
     }
 }
@@ -22,7 +22,6 @@ package org.codehaus.cargo.container.weblogic.internal.configuration.commands.us
 import java.util.Map;
 
 import org.codehaus.cargo.container.configuration.Configuration;
-import org.codehaus.cargo.container.configuration.LocalConfiguration;
 import org.codehaus.cargo.container.configuration.script.AbstractScriptCommand;
 import org.codehaus.cargo.container.internal.util.JythonUtils;
 import org.codehaus.cargo.container.property.User;
@@ -64,9 +63,5 @@ public class CreateUserScriptCommand extends AbstractScriptCommand
 
         String escapedPassword = JythonUtils.escapeStringLiteral(user.getPassword());
         propertiesMap.put("cargo.weblogic.user.password", escapedPassword);
-
-        LocalConfiguration configuration = (LocalConfiguration) getConfiguration();
-        String domainName = configuration.getFileHandler().getName(configuration.getHome());
-        propertiesMap.put("cargo.weblogic.domain.name", domainName);
     }
 }
@@ -14,5 +14,6 @@
     limitations under the License.
 """
 
-cd('/SecurityConfiguration/@cargo.weblogic.domain.name@/Realms/myrealm/AuthenticationProviders/DefaultAuthenticator')
+cd('/')
+cd('/SecurityConfiguration/' + cmo.getName() + '/Realms/myrealm/AuthenticationProviders/DefaultAuthenticator')
 cmo.addMemberToGroup('@cargo.weblogic.group@','@cargo.weblogic.user.name@')
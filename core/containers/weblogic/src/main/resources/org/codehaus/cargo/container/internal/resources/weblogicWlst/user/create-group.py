@@ -14,7 +14,8 @@
     limitations under the License.
 """
 
-cd('/SecurityConfiguration/@cargo.weblogic.domain.name@/Realms/myrealm/AuthenticationProviders/DefaultAuthenticator')
+cd('/')
+cd('/SecurityConfiguration/' + cmo.getName() + '/Realms/myrealm/AuthenticationProviders/DefaultAuthenticator')
 
 if not cmo.groupExists('@cargo.weblogic.group@'):
     cmo.createGroup('@cargo.weblogic.group@','@cargo.weblogic.group@')
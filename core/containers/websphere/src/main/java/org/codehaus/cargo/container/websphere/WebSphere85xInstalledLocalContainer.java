@@ -20,6 +20,7 @@
 package org.codehaus.cargo.container.websphere;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -34,14 +35,17 @@ import org.codehaus.cargo.container.deployable.Deployable;
 import org.codehaus.cargo.container.internal.J2EEContainerCapability;
 import org.codehaus.cargo.container.internal.util.ComplexPropertyUtils;
 import org.codehaus.cargo.container.internal.util.JdkUtils;
+import org.codehaus.cargo.container.internal.util.ProcessExecutor;
 import org.codehaus.cargo.container.property.GeneralPropertySet;
 import org.codehaus.cargo.container.property.User;
 import org.codehaus.cargo.container.spi.AbstractInstalledLocalContainer;
 import org.codehaus.cargo.container.spi.configuration.AbstractLocalConfiguration;
 import org.codehaus.cargo.container.spi.jvm.JvmLauncher;
 import org.codehaus.cargo.container.startup.ContainerMonitor;
+import org.codehaus.cargo.container.websphere.internal.ConsoleProbeWebSphereMonitor;
 import org.codehaus.cargo.container.websphere.internal.ConsoleUrlWebSphereMonitor;
-import org.codehaus.cargo.container.websphere.internal.ProcessExecutor;
+import org.codehaus.cargo.container.websphere.internal.WsadminScripts;
+import org.codehaus.cargo.container.websphere.internal.WsadminSession;
 import org.codehaus.cargo.container.websphere.util.ByteUnit;
 import org.codehaus.cargo.container.websphere.util.JvmArguments;
 import org.codehaus.cargo.util.CargoException;
@@ -82,6 +86,11 @@ public class WebSphere85xInstalledLocalContainer extends AbstractInstalledLocalC
      */
     private ProcessExecutor processExecutor;
 
+    /**
+     * Persistent wsadmin session, see {@link WebSpherePropertySet#WSADMIN_SESSION}.
+     */
+    private WsadminSession wsadminSession;
+
     /**
      * {@inheritDoc}
      * @see AbstractInstalledLocalContainer#AbstractInstalledLocalContainer(org.codehaus.cargo.container.configuration.LocalConfiguration)
@@ -191,16 +200,11 @@ public class WebSphere85xInstalledLocalContainer extends AbstractInstalledLocalC
             configurationScript.add(configuration.getFactory().saveSyncScript());
         }
 
-        if (!configurationScript.isEmpty())
-        {
-            executeScript(configurationScript);
-        }
-
-        // Execute online jython scripts
+        // Execute the configuration and the online jython scripts within one wsadmin
         String scriptPaths = getConfiguration().getPropertyValue(
                 WebSpherePropertySet.JYTHON_SCRIPT_ONLINE);
         List<String> scriptPathList = ComplexPropertyUtils.parseProperty(scriptPaths, "|");
-        executeScriptFiles(scriptPathList);
+        executeScript(configurationScript, scriptPathList);
     }
 
     /**
@@ -214,6 +218,7 @@ public class WebSphere85xInstalledLocalContainer extends AbstractInstalledLocalC
     public void doStop(JvmLauncher java) throws Exception
     {
         getLogger().info("Stopping WebSphere.", this.getClass().getName());
+        closeWsadminSession();
         List<String> arguments = new ArrayList<String>();
         arguments.add(getConfiguration().getPropertyValue(WebSpherePropertySet.SERVER));
         arguments.add("-profileName");
@@ -257,6 +262,35 @@ public class WebSphere85xInstalledLocalContainer extends AbstractInstalledLocalC
      */
     @Override
     public void executeScript(List<ScriptCommand> configurationScript)
+    {
+        executeScript(configurationScript, new ArrayList<String>());
+    }
+
+    /**
+     * Execute script commands followed by script files, all within a single wsadmin invocation.
+     * 
+     * @param configurationScript Script commands, may be empty.
+     * @param scriptFilePaths Paths of the Jython script files to run after the commands.
+     */
+    public void executeScript(List<ScriptCommand> configurationScript,
+        List<String> scriptFilePaths)
+    {
+        List<String> allScriptFilePaths = new ArrayList<String>();
+        if (!configurationScript.isEmpty())
+        {
+            allScriptFilePaths.add(writeScript(configurationScript).getAbsolutePath());
+        }
+        allScriptFilePaths.addAll(scriptFilePaths);
+        executeScriptFiles(allScriptFilePaths);
+    }
+
+    /**
+     * Write script commands, preceded by the wsadminlib import, to a temporary Jython file.
+     * 
+     * @param configurationScript Script commands.
+     * @return Jython file.
+     */
+    private File writeScript(List<ScriptCommand> configurationScript)
     {
         try
         {
@@ -286,8 +320,7 @@ public class WebSphere85xInstalledLocalContainer extends AbstractInstalledLocalC
             File tempFile = File.createTempFile("jython", ".py");
             tempFile.deleteOnExit();
             getFileHandler().writeTextFile(tempFile.getAbsolutePath(), buffer.toString(), null);
-
-            executeScriptFiles(Arrays.asList(tempFile.getAbsolutePath()));
+            return tempFile;
         }
         catch (Exception e)
         {
@@ -297,51 +330,24 @@ public class WebSphere85xInstalledLocalContainer extends AbstractInstalledLocalC
 
     /**
      * {@inheritDoc}
+     * All existing script files are run by a single wsadmin invocation, or by the persistent
+     * wsadmin session if {@link WebSpherePropertySet#WSADMIN_SESSION} is enabled and the server
+     * is running. Each script runs in its own namespace, so that a failing script does not
+     * prevent the following ones from running.
+     * 
+     * @throws CargoException If any of the scripts has failed, once all scripts have run.
      */
     @Override
     public void executeScriptFiles(List<String> scriptFilePaths)
     {
-        String jvmArgs = getConfiguration().getPropertyValue(GeneralPropertySet.JVMARGS);
-        JvmArguments parsedArguments = JvmArguments.parseArguments(jvmArgs);
-
+        List<String> existingScriptFilePaths = new ArrayList<String>();
         for (String scriptFilePath : scriptFilePaths)
         {
             File scriptFile = new File(scriptFilePath);
 
             if (scriptFile.exists())
             {
-                List<String> arguments = new ArrayList<String>();
-                arguments.add("-lang");
-                arguments.add("jython");
-                arguments.add("-profileName");
-                arguments.add(getConfiguration().getPropertyValue(WebSpherePropertySet.PROFILE));
-                arguments.add("-f");
-                arguments.add(scriptFile.getAbsolutePath());
-
-                // Need to set JVM heap size to be able to process large deployables
-                arguments.add("-javaoption -Xms"
-                        + Long.toString(parsedArguments.getInitialHeap(ByteUnit.MEGABYTES)) + "m");
-                arguments.add("-javaoption -Xmx"
-                        + Long.toString(parsedArguments.getMaxHeap(ByteUnit.MEGABYTES)) + "m");
-
-                ContainerMonitor monitor = new ConsoleUrlWebSphereMonitor(this);
-                if (!monitor.isRunning())
-                {
-                    arguments.add("-conntype");
-                    arguments.add("NONE");
-                }
-                else
-                {
-                    arguments.add("-conntype");
-                    arguments.add("SOAP");
-                    arguments.add("-user");
-                    arguments.add(getConfiguration().
-                            getPropertyValue(WebSpherePropertySet.ADMIN_USERNAME));
-                    arguments.add("-password");
-                    arguments.add(getConfiguration().
-                            getPropertyValue(WebSpherePropertySet.ADMIN_PASSWORD));
-                }
-                runWebSphereCommand("wsadmin", arguments.toArray(new String[arguments.size()]));
+                existingScriptFilePaths.add(scriptFile.getAbsolutePath());
             }
             else
             {
@@ -349,6 +355,213 @@ public class WebSphere85xInstalledLocalContainer extends AbstractInstalledLocalC
                             this.getClass().getName());
             }
         }
+
+        List<String> failedScriptFilePaths = runScriptFiles(existingScriptFilePaths);
+        if (!failedScriptFilePaths.isEmpty())
+        {
+            throw new CargoException("Jython scripts " + failedScriptFilePaths + " have failed");
+        }
+    }
+
+    /**
+     * Execute several scripts within a single wsadmin invocation, each script running even if
+     * the previous ones have failed.
+     * 
+     * @param scripts Script commands of each script.
+     * @return For each script, whether it has succeeded.
+     */
+    boolean[] executeScripts(List<List<ScriptCommand>> scripts)
+    {
+        List<String> scriptFilePaths = new ArrayList<String>();
+        for (List<ScriptCommand> script : scripts)
+        {
+            scriptFilePaths.add(
+                writeScript(new ArrayList<ScriptCommand>(script)).getAbsolutePath());
+        }
+
+        List<String> failedScriptFilePaths = runScriptFiles(scriptFilePaths);
+        boolean[] results = new boolean[scriptFilePaths.size()];
+        for (int i = 0; i < results.length; i++)
+        {
+            results[i] = !failedScriptFilePaths.contains(scriptFilePaths.get(i));
+        }
+        return results;
+    }
+
+    /**
+     * Run script files one after the other, either in the persistent wsadmin session or within
+     * a single wsadmin invocation.
+     * 
+     * @param scriptFilePaths Absolute paths of the Jython script files.
+     * @return Paths of the script files which have failed.
+     */
+    private List<String> runScriptFiles(List<String> scriptFilePaths)
+    {
+        List<String> failedScriptFilePaths = new ArrayList<String>();
+        if (scriptFilePaths.isEmpty())
+        {
+            return failedScriptFilePaths;
+        }
+
+        ContainerMonitor monitor = createStartupMonitor();
+        boolean online = monitor.isRunning();
+
+        if (online && Boolean.parseBoolean(
+            getConfiguration().getPropertyValue(WebSpherePropertySet.WSADMIN_SESSION)))
+        {
+            WsadminSession session = getWsadminSession();
+            for (String scriptFilePath : scriptFilePaths)
+            {
+                if (!session.executeFile(scriptFilePath))
+                {
+                    failedScriptFilePaths.add(scriptFilePath);
+                }
+            }
+            return failedScriptFilePaths;
+        }
+
+        File resultFile;
+        try
+        {
+            resultFile = File.createTempFile("jython-batch", ".result");
+        }
+        catch (IOException e)
+        {
+            throw new CargoException("Cannot create jython batch result file.", e);
+        }
+        // The batch script only creates the result file once all scripts have run
+        resultFile.delete();
+        resultFile.deleteOnExit();
+
+        try
+        {
+            File batchFile = writeBatchScript(scriptFilePaths, resultFile.getAbsolutePath());
+            List<String> arguments = getWsadminArguments(online);
+            arguments.add("-f");
+            arguments.add(batchFile.getAbsolutePath());
+            int exitCode = runWebSphereCommand("wsadmin",
+                arguments.toArray(new String[arguments.size()]));
+
+            if (!resultFile.isFile())
+            {
+                throw new CargoException("wsadmin exited with code " + exitCode
+                    + " before running the Jython scripts " + scriptFilePaths);
+            }
+
+            String result =
+                getFileHandler().readTextFile(resultFile.getAbsolutePath(), null);
+            List<String> failed = Arrays.asList(result.split("\\r?\\n"));
+            for (String scriptFilePath : scriptFilePaths)
+            {
+                if (failed.contains(scriptFilePath.replace('\\', '/')))
+                {
+                    failedScriptFilePaths.add(scriptFilePath);
+                }
+            }
+            return failedScriptFilePaths;
+        }
+        finally
+        {
+            resultFile.delete();
+        }
+    }
+
+    /**
+     * Write a Jython file running the given script files one after the other, so that they share
+     * a single wsadmin JVM.
+     * 
+     * @param scriptFilePaths Paths of the Jython script files.
+     * @param resultFilePath Path of the file listing the failed script files.
+     * @return Jython file.
+     * @see WsadminScripts#getBatchScript(List, String)
+     */
+    private File writeBatchScript(List<String> scriptFilePaths, String resultFilePath)
+    {
+        String batchScript = WsadminScripts.getBatchScript(scriptFilePaths, resultFilePath);
+        getLogger().debug("Sending jython batch script: " + System.getProperty("line.separator")
+            + batchScript, this.getClass().getName());
+
+        try
+        {
+            File batchFile = File.createTempFile("jython-batch", ".py");
+            batchFile.deleteOnExit();
+            getFileHandler().writeTextFile(batchFile.getAbsolutePath(), batchScript, null);
+            return batchFile;
+        }
+        catch (IOException e)
+        {
+            throw new CargoException("Cannot create jython batch script.", e);
+        }
+    }
+
+    /**
+     * @param online Whether wsadmin should connect to the running server.
+     * @return wsadmin arguments, without the script file.
+     */
+    private List<String> getWsadminArguments(boolean online)
+    {
+        String jvmArgs = getConfiguration().getPropertyValue(GeneralPropertySet.JVMARGS);
+        JvmArguments parsedArguments = JvmArguments.parseArguments(jvmArgs);
+
+        List<String> arguments = new ArrayList<String>();
+        arguments.add("-lang");
+        arguments.add("jython");
+        arguments.add("-profileName");
+        arguments.add(getConfiguration().getPropertyValue(WebSpherePropertySet.PROFILE));
+
+        // Need to set JVM heap size to be able to process large deployables
+        arguments.add("-javaoption");
+        arguments.add("-Xms"
+                + Long.toString(parsedArguments.getInitialHeap(ByteUnit.MEGABYTES)) + "m");
+        arguments.add("-javaoption");
+        arguments.add("-Xmx"
+                + Long.toString(parsedArguments.getMaxHeap(ByteUnit.MEGABYTES)) + "m");
+
+        if (!online)
+        {
+            arguments.add("-conntype");
+            arguments.add("NONE");
+        }
+        else
+        {
+            arguments.add("-conntype");
+            arguments.add("SOAP");
+            arguments.add("-user");
+            arguments.add(getConfiguration().
+                    getPropertyValue(WebSpherePropertySet.ADMIN_USERNAME));
+            arguments.add("-password");
+            arguments.add(getConfiguration().
+                    getPropertyValue(WebSpherePropertySet.ADMIN_PASSWORD));
+        }
+        return arguments;
+    }
+
+    /**
+     * @return Persistent wsadmin session connected to the running server, started if needed.
+     */
+    private synchronized WsadminSession getWsadminSession()
+    {
+        if (wsadminSession == null || !wsadminSession.isAlive())
+        {
+            List<String> command = new ArrayList<String>();
+            command.add(getWebSphereCommand("wsadmin"));
+            command.addAll(getWsadminArguments(true));
+            getLogger().debug("Starting wsadmin session", this.getClass().getName());
+            wsadminSession = new WsadminSession(command, getTimeout(), getLogger());
+        }
+        return wsadminSession;
+    }
+
+    /**
+     * Close the persistent wsadmin session, if any.
+     */
+    private synchronized void closeWsadminSession()
+    {
+        if (wsadminSession != null)
+        {
+            wsadminSession.close();
+            wsadminSession = null;
+        }
     }
 
     /**
@@ -382,10 +595,38 @@ public class WebSphere85xInstalledLocalContainer extends AbstractInstalledLocalC
      * Run one of WebSphere commands.
      * @param wsCommand Command name.
      * @param arguments Arguments.
+     * @return Exit code of the command.
      */
-    private void runWebSphereCommand(String wsCommand, String... arguments)
+    private int runWebSphereCommand(String wsCommand, String... arguments)
     {
         StringBuffer command = new StringBuffer();
+        command.append(getWebSphereCommand(wsCommand));
+
+        for (String argument : arguments)
+        {
+            command.append(" ");
+            command.append(argument);
+        }
+
+        getLogger().debug("Executing command: " + command.toString(),
+                this.getClass().getName());
+
+        int exitCode = getProcessExecutor().executeAndWait(command.toString());
+        if (exitCode != 0)
+        {
+            getLogger().warn(wsCommand + " exited with code " + exitCode,
+                this.getClass().getName());
+        }
+        return exitCode;
+    }
+
+    /**
+     * @param wsCommand Command name.
+     * @return Path of the WebSphere command script for the current platform.
+     */
+    private String getWebSphereCommand(String wsCommand)
+    {
+        StringBuilder command = new StringBuilder();
         command.append(getHome());
         command.append(File.separator);
         command.append("bin");
@@ -400,17 +641,7 @@ public class WebSphere85xInstalledLocalContainer extends AbstractInstalledLocalC
         {
             command.append(LINUX_SUFFIX);
         }
-
-        for (String argument : arguments)
-        {
-            command.append(" ");
-            command.append(argument);
-        }
-
-        getLogger().debug("Executing command: " + command.toString(),
-                this.getClass().getName());
-
-        getProcessExecutor().executeAndWait(command.toString());
+        return command.toString();
     }
 
     /**
@@ -433,11 +664,25 @@ public class WebSphere85xInstalledLocalContainer extends AbstractInstalledLocalC
     {
         if (waitForStarting)
         {
-            waitForStarting(new ConsoleUrlWebSphereMonitor(this));
+            waitForStarting(createStartupMonitor());
         }
         else
         {
             super.waitForCompletion(waitForStarting);
         }
     }
+
+    /**
+     * @return Monitor detecting whether the server is running, as per
+     * {@link WebSpherePropertySet#READINESS_PROBE}.
+     */
+    protected ContainerMonitor createStartupMonitor()
+    {
+        if (Boolean.parseBoolean(
+            getConfiguration().getPropertyValue(WebSpherePropertySet.READINESS_PROBE)))
+        {
+            return new ConsoleProbeWebSphereMonitor(this);
+        }
+        return new ConsoleUrlWebSphereMonitor(this);
+    }
 }
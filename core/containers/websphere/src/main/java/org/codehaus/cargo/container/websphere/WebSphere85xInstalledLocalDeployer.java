@@ -20,6 +20,8 @@
 package org.codehaus.cargo.container.websphere;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import org.codehaus.cargo.container.InstalledLocalContainer;
@@ -65,6 +67,16 @@ public class WebSphere85xInstalledLocalDeployer extends AbstractLocalDeployer
      */
     @Override
     public void deploy(Deployable deployable)
+    {
+        deploy(Collections.singletonList(deployable));
+    }
+
+    /**
+     * {@inheritDoc} All deployables are installed by a single Jython script, so that wsadmin only
+     * starts once.
+     */
+    @Override
+    public void deploy(List<Deployable> deployables)
     {
         try
         {
@@ -72,7 +84,10 @@ public class WebSphere85xInstalledLocalDeployer extends AbstractLocalDeployer
                     ((WebSphereConfiguration) container.getConfiguration()).getFactory();
             List<ScriptCommand> wsAdminCommands = new ArrayList<ScriptCommand>();
 
-            wsAdminCommands.add(factory.deployDeployableScript(deployable));
+            for (Deployable deployable : deployables)
+            {
+                wsAdminCommands.add(factory.deployDeployableScript(deployable));
+            }
             wsAdminCommands.add(factory.saveSyncScript());
 
             container.executeScript(wsAdminCommands);
@@ -88,6 +103,16 @@ public class WebSphere85xInstalledLocalDeployer extends AbstractLocalDeployer
      */
     @Override
     public void undeploy(Deployable deployable)
+    {
+        undeploy(Collections.singletonList(deployable));
+    }
+
+    /**
+     * {@inheritDoc} All deployables are uninstalled by a single Jython script, so that wsadmin
+     * only starts once.
+     */
+    @Override
+    public void undeploy(List<Deployable> deployables)
     {
         try
         {
@@ -95,7 +120,10 @@ public class WebSphere85xInstalledLocalDeployer extends AbstractLocalDeployer
                     ((WebSphereConfiguration) container.getConfiguration()).getFactory();
             List<ScriptCommand> wsAdminCommands = new ArrayList<ScriptCommand>();
 
-            wsAdminCommands.add(factory.undeployDeployableScript(deployable));
+            for (Deployable deployable : deployables)
+            {
+                wsAdminCommands.add(factory.undeployDeployableScript(deployable));
+            }
             wsAdminCommands.add(factory.saveSyncScript());
 
             container.executeScript(wsAdminCommands);
@@ -105,4 +133,51 @@ public class WebSphere85xInstalledLocalDeployer extends AbstractLocalDeployer
             throw new CargoException("Undeploy failed", e);
         }
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void redeploy(Deployable deployable)
+    {
+        redeploy(Collections.singletonList(deployable));
+    }
+
+    /**
+     * {@inheritDoc} Each deployable is uninstalled by its own Jython script, all scripts running
+     * within a single wsadmin invocation, so that a deployable which was not installed does not
+     * prevent the others from being uninstalled. All deployables are then installed again.
+     */
+    @Override
+    public void redeploy(List<Deployable> deployables)
+    {
+        WebSphereJythonConfigurationFactory factory =
+                ((WebSphereConfiguration) container.getConfiguration()).getFactory();
+        List<List<ScriptCommand>> undeployScripts = new ArrayList<List<ScriptCommand>>();
+        for (Deployable deployable : deployables)
+        {
+            undeployScripts.add(Arrays.asList(factory.undeployDeployableScript(deployable),
+                factory.saveSyncScript()));
+        }
+
+        try
+        {
+            boolean[] undeployed = container.executeScripts(undeployScripts);
+            for (int i = 0; i < undeployed.length; i++)
+            {
+                if (!undeployed[i])
+                {
+                    getLogger().info("The undeployment phase of the redeploy action has failed "
+                        + "for " + deployables.get(i).getName(), this.getClass().getName());
+                }
+            }
+        }
+        catch (CargoException e)
+        {
+            getLogger().info("The undeployment phase of the redeploy action has failed: "
+                + e.toString(), this.getClass().getName());
+        }
+
+        deploy(deployables);
+    }
 }
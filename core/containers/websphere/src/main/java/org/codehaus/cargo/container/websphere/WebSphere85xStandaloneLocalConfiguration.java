@@ -193,12 +193,10 @@ public class WebSphere85xStandaloneLocalConfiguration extends AbstractStandalone
         //save and activate
         commands.add(factory.saveSyncScript());
 
-        wsContainer.executeScript(commands);
-
-        // Execute offline jython scripts
+        // Execute the configuration and the offline jython scripts within one wsadmin
         String scriptPaths = getPropertyValue(WebSpherePropertySet.JYTHON_SCRIPT_OFFLINE);
         List<String> scriptPathList = ComplexPropertyUtils.parseProperty(scriptPaths, "|");
-        wsContainer.executeScriptFiles(scriptPathList);
+        wsContainer.executeScript(commands, scriptPathList);
     }
 
     /**
@@ -196,4 +196,19 @@ public interface WebSpherePropertySet
      * Possible values: true or false. Default value false.
      */
     String ONLINE_DEPLOYMENT = "cargo.websphere.deployment.online";
+
+    /**
+     * Whether to detect server startup with lightweight <code>HEAD</code> probes of the console
+     * URL over a kept alive connection, instead of loading the console page.<br>
+     * Possible values: true or false. Default value false.
+     */
+    String READINESS_PROBE = "cargo.websphere.readiness.probe";
+
+    /**
+     * Whether to keep an interactive wsadmin session connected to the running server, so that
+     * online deployments and scripts do not each start a new wsadmin JVM. The session is closed
+     * when the container stops.<br>
+     * Possible values: true or false. Default value false.
+     */
+    String WSADMIN_SESSION = "cargo.websphere.wsadmin.session";
 }
@@ -0,0 +1,94 @@
+/*
+ * ========================================================================
+ *
+ * Codehaus CARGO, copyright 2004-2011 Vincent Massol, 2012-2018 Ali Tokmen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * ========================================================================
+ */
+package org.codehaus.cargo.container.websphere.internal;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
+import java.net.URL;
+
+import org.codehaus.cargo.container.Container;
+import org.codehaus.cargo.container.property.GeneralPropertySet;
+import org.codehaus.cargo.container.spi.startup.AbstractProbeContainerMonitor;
+import org.codehaus.cargo.container.websphere.WebSpherePropertySet;
+import org.codehaus.cargo.util.CargoException;
+
+/**
+ * WebSphere monitor checking if the console application has started. The console URL is probed
+ * with <code>HEAD</code> requests, and the console is considered started once it redirects to a
+ * page of the console application, typically the logon page. That page is never requested: even
+ * for <code>HEAD</code> requests, WebSphere renders it.
+ */
+public class ConsoleProbeWebSphereMonitor extends AbstractProbeContainerMonitor
+{
+    /**
+     * Context path of the WebSphere console.
+     */
+    private static final String CONSOLE_PATH = "/ibm/console";
+
+    /**
+     * Constructor.
+     *
+     * @param container Container to be monitored.
+     */
+    public ConsoleProbeWebSphereMonitor(Container container)
+    {
+        super(container);
+    }
+
+    /**
+     * @return Console URL for WebSphere.
+     */
+    @Override
+    protected URL getPingUrl()
+    {
+        String protocolProperty = getConfiguration().getPropertyValue(GeneralPropertySet.PROTOCOL);
+        String hostnameProperty = getConfiguration().getPropertyValue(GeneralPropertySet.HOSTNAME);
+        int administrationPort = getPortWithOffset(WebSpherePropertySet.ADMINISTRATION_PORT);
+
+        try
+        {
+            return new URL(protocolProperty, hostnameProperty, administrationPort, CONSOLE_PATH);
+        }
+        catch (MalformedURLException e)
+        {
+            throw new CargoException("Unable to construct console URL.", e);
+        }
+    }
+
+    /**
+     * @param connection Connection of the console probe.
+     * @return <code>true</code> only if the console redirected to a page of the console
+     * application, possibly on the secure administration port.
+     * @throws IOException If the response cannot be read.
+     */
+    @Override
+    protected boolean isReady(HttpURLConnection connection) throws IOException
+    {
+        String location = connection.getHeaderField("Location");
+        if (!isRedirect(connection.getResponseCode()) || location == null)
+        {
+            return false;
+        }
+
+        URL target = new URL(connection.getURL(), location);
+        return target.getPath().startsWith(CONSOLE_PATH + "/");
+    }
+}
@@ -48,5 +48,7 @@ public class WebSphere85xExistingLocalConfigurationCapability
             Boolean.TRUE);
 
         this.propertySupportMap.put(WebSpherePropertySet.ADMINISTRATION_PORT, Boolean.TRUE);
+        this.propertySupportMap.put(WebSpherePropertySet.READINESS_PROBE, Boolean.TRUE);
+        this.propertySupportMap.put(WebSpherePropertySet.WSADMIN_SESSION, Boolean.TRUE);
     }
 }
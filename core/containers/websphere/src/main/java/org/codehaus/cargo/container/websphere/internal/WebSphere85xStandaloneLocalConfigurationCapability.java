@@ -69,5 +69,7 @@ public class WebSphere85xStandaloneLocalConfigurationCapability
         this.propertySupportMap.put(WebSpherePropertySet.ADMINISTRATION_PORT, Boolean.TRUE);
 
         this.propertySupportMap.put(WebSpherePropertySet.ONLINE_DEPLOYMENT, Boolean.TRUE);
+        this.propertySupportMap.put(WebSpherePropertySet.READINESS_PROBE, Boolean.TRUE);
+        this.propertySupportMap.put(WebSpherePropertySet.WSADMIN_SESSION, Boolean.TRUE);
     }
 }
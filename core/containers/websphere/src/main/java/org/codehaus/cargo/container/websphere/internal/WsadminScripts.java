@@ -0,0 +1,123 @@
+/*
+ * ========================================================================
+ *
+ * Codehaus CARGO, copyright 2004-2011 Vincent Massol, 2012-2018 Ali Tokmen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * ========================================================================
+ */
+package org.codehaus.cargo.container.websphere.internal;
+
+import java.util.List;
+
+/**
+ * Jython snippets running several script files within one wsadmin JVM. Each script file runs in
+ * its own copy of the wsadmin top level namespace, so that scripts do not see each other's
+ * variables, and within a <code>try</code> block also catching <code>SystemExit</code>, so that
+ * neither an exception nor a <code>sys.exit</code> in one script prevents the following scripts
+ * from running. The snippets only use Jython 2.1 syntax, the default wsadmin language level.
+ */
+public final class WsadminScripts
+{
+    /**
+     * Definition of the <code>_cargo_run(path)</code> function, which runs a script file and
+     * returns 1 if it succeeded, 0 otherwise. A <code>sys.exit</code> with no or a zero code
+     * counts as success.
+     */
+    private static final String RUNNER = "import sys\n"
+        + "import traceback\n"
+        + "_cargo_namespace = globals().copy()\n"
+        + "def _cargo_run(path):\n"
+        + "    try:\n"
+        + "        execfile(path, _cargo_namespace.copy())\n"
+        + "    except SystemExit, e:\n"
+        + "        if e.code is None or e.code == 0:\n"
+        + "            return 1\n"
+        + "        print 'Jython script %s exited with code %s' % (path, e.code)\n"
+        + "        return 0\n"
+        + "    except:\n"
+        + "        print 'Jython script %s failed' % path\n"
+        + "        traceback.print_exc()\n"
+        + "        return 0\n"
+        + "    return 1\n";
+
+    /**
+     * Utility class.
+     */
+    private WsadminScripts()
+    {
+        // Nothing
+    }
+
+    /**
+     * @return Definition of the <code>_cargo_run(path)</code> function, which runs a script file
+     * in its own namespace and returns 1 if it succeeded, 0 otherwise.
+     */
+    public static String getRunnerDefinition()
+    {
+        return RUNNER;
+    }
+
+    /**
+     * Builds a script running script files one after the other. The paths of the failed scripts
+     * are written to the result file, one per line, and the script exits with code 1 if any of
+     * them has failed.
+     *
+     * @param scriptFilePaths Paths of the Jython script files.
+     * @param resultFilePath Path of the result file.
+     * @return Jython script.
+     */
+    public static String getBatchScript(List<String> scriptFilePaths, String resultFilePath)
+    {
+        StringBuilder buffer = new StringBuilder(RUNNER);
+        buffer.append("_cargo_failed = []\n");
+        for (String scriptFilePath : scriptFilePaths)
+        {
+            buffer.append("if not _cargo_run(");
+            buffer.append(quote(scriptFilePath));
+            buffer.append("):\n    _cargo_failed.append(");
+            buffer.append(quote(scriptFilePath));
+            buffer.append(")\n");
+        }
+        buffer.append("_cargo_result = open(");
+        buffer.append(quote(resultFilePath));
+        buffer.append(", 'w')\n");
+        buffer.append("for _cargo_path in _cargo_failed:\n");
+        buffer.append("    _cargo_result.write(_cargo_path + '\\n')\n");
+        buffer.append("_cargo_result.close()\n");
+        buffer.append("if _cargo_failed:\n");
+        buffer.append("    sys.exit(1)\n");
+        return buffer.toString();
+    }
+
+    /**
+     * @param path File path.
+     * @return Jython string literal for <code>path</code>, with forward slashes.
+     */
+    public static String quote(String path)
+    {
+        return "'" + path.replace('\\', '/').replace("'", "\\'") + "'";
+    }
+
+    /**
+     * @param code Jython code.
+     * @return Single line <code>exec</code> statement running <code>code</code>, for interactive
+     * wsadmin sessions which cannot take compound statements over several lines.
+     */
+    public static String toExecStatement(String code)
+    {
+        return "exec \"" + code.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n")
+            + "\"\n";
+    }
+}
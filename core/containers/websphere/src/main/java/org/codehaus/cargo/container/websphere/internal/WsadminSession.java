@@ -0,0 +1,294 @@
+/*
+ * ========================================================================
+ *
+ * Codehaus CARGO, copyright 2004-2011 Vincent Massol, 2012-2018 Ali Tokmen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * ========================================================================
+ */
+package org.codehaus.cargo.container.websphere.internal;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.codehaus.cargo.util.CargoException;
+import org.codehaus.cargo.util.log.LoggedObject;
+import org.codehaus.cargo.util.log.Logger;
+
+/**
+ * Interactive wsadmin session, kept open so that successive Jython scripts do not each pay for
+ * the wsadmin JVM startup and the connection to the server. Scripts are run in their own
+ * namespace as per {@link WsadminScripts}, and the end of each script is detected through a
+ * marker printed once it has completed or failed. The output of wsadmin is read by a separate
+ * thread, so that waiting for a script can time out.
+ */
+public class WsadminSession extends LoggedObject
+{
+    /**
+     * Marker printed after each script. The Jython code printing it builds it by concatenation,
+     * so that an echo of the statement cannot be taken for the marker.
+     */
+    private static final String RESULT_MARKER = "CARGO_WSADMIN_RESULT:";
+
+    /**
+     * Time to wait for wsadmin to exit when closing the session, in seconds.
+     */
+    private static final long CLOSE_TIMEOUT = 30;
+
+    /**
+     * Line queued once the output of wsadmin has ended.
+     */
+    private static final String END_OF_OUTPUT = new String("END_OF_OUTPUT");
+
+    /**
+     * wsadmin process.
+     */
+    private final Process process;
+
+    /**
+     * Lines of the merged standard output and error of wsadmin.
+     */
+    private final BlockingQueue<String> output = new LinkedBlockingQueue<String>();
+
+    /**
+     * Thread reading the output of wsadmin into {@link #output}.
+     */
+    private final Thread outputReader;
+
+    /**
+     * Standard input of wsadmin.
+     */
+    private final Writer input;
+
+    /**
+     * Time to wait for a script to complete, in milliseconds, <code>0</code> for no limit.
+     */
+    private final long timeout;
+
+    /**
+     * Whether the session can still be used.
+     */
+    private boolean alive;
+
+    /**
+     * Whether the <code>_cargo_run</code> function has been defined in the session.
+     */
+    private boolean runnerDefined;
+
+    /**
+     * Starts wsadmin in interactive mode.
+     *
+     * @param command wsadmin executable followed by its arguments, without <code>-f</code>.
+     * @param timeout Time to wait for a script to complete, in milliseconds, <code>0</code> for
+     * no limit.
+     * @param logger Logger.
+     */
+    public WsadminSession(List<String> command, long timeout, Logger logger)
+    {
+        setLogger(logger);
+        this.timeout = timeout;
+
+        ProcessBuilder processBuilder = new ProcessBuilder(command);
+        processBuilder.redirectErrorStream(true);
+        try
+        {
+            this.process = processBuilder.start();
+        }
+        catch (IOException e)
+        {
+            throw new CargoException("Cannot start wsadmin session", e);
+        }
+        this.input = new OutputStreamWriter(this.process.getOutputStream());
+
+        final BufferedReader reader =
+            new BufferedReader(new InputStreamReader(this.process.getInputStream()));
+        this.outputReader = new Thread(new Runnable()
+        {
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public void run()
+            {
+                try
+                {
+                    String line;
+                    while ((line = reader.readLine()) != null)
+                    {
+                        output.add(line);
+                    }
+                }
+                catch (IOException e)
+                {
+                    getLogger().debug("Cannot read wsadmin output: " + e,
+                        WsadminSession.class.getName());
+                }
+                finally
+                {
+                    output.add(END_OF_OUTPUT);
+                }
+            }
+        }, "cargo-wsadmin-output");
+        this.outputReader.setDaemon(true);
+        this.outputReader.start();
+        this.alive = true;
+    }
+
+    /**
+     * @return <code>true</code> if the session can still run scripts.
+     */
+    public synchronized boolean isAlive()
+    {
+        return this.alive;
+    }
+
+    /**
+     * Runs a Jython script file in the session and waits for it to complete.
+     *
+     * @param scriptFilePath Path of the script.
+     * @return <code>true</code> if the script has succeeded, <code>false</code> if it has raised
+     * an exception or exited with a non-zero code.
+     * @throws CargoException If the session has ended or the script has not completed within
+     * the timeout, in which case the session is closed.
+     */
+    public synchronized boolean executeFile(String scriptFilePath)
+    {
+        if (!this.alive)
+        {
+            throw new CargoException("The wsadmin session has been closed");
+        }
+
+        StringBuilder statements = new StringBuilder();
+        if (!this.runnerDefined)
+        {
+            statements.append(WsadminScripts.toExecStatement(
+                WsadminScripts.getRunnerDefinition()));
+        }
+        statements.append("print '%s%s' % ('");
+        statements.append(RESULT_MARKER.substring(0, RESULT_MARKER.length() / 2));
+        statements.append("' + '");
+        statements.append(RESULT_MARKER.substring(RESULT_MARKER.length() / 2));
+        statements.append("', ['FAILED', 'OK'][_cargo_run(");
+        statements.append(WsadminScripts.quote(scriptFilePath));
+        statements.append(")])\n");
+
+        try
+        {
+            this.input.write(statements.toString());
+            this.input.flush();
+        }
+        catch (IOException e)
+        {
+            close();
+            throw new CargoException("Error communicating with the wsadmin session", e);
+        }
+        this.runnerDefined = true;
+
+        long deadline = System.currentTimeMillis() + this.timeout;
+        try
+        {
+            while (true)
+            {
+                String line;
+                if (this.timeout == 0)
+                {
+                    line = this.output.take();
+                }
+                else
+                {
+                    line = this.output.poll(deadline - System.currentTimeMillis(),
+                        TimeUnit.MILLISECONDS);
+                }
+
+                if (line == null)
+                {
+                    close();
+                    throw new CargoException("Jython script " + scriptFilePath
+                        + " has not completed within " + this.timeout + " ms");
+                }
+                if (line == END_OF_OUTPUT)
+                {
+                    close();
+                    throw new CargoException("The wsadmin session ended while running "
+                        + scriptFilePath);
+                }
+
+                int marker = line.indexOf(RESULT_MARKER);
+                if (marker == -1)
+                {
+                    getLogger().debug(line, this.getClass().getName());
+                    continue;
+                }
+                return line.substring(marker + RESULT_MARKER.length()).equals("OK");
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            close();
+            throw new CargoException("Interrupted while running " + scriptFilePath, e);
+        }
+    }
+
+    /**
+     * Ends the session.
+     */
+    public synchronized void close()
+    {
+        if (!this.alive)
+        {
+            return;
+        }
+        this.alive = false;
+
+        try
+        {
+            this.input.write("quit\n");
+            this.input.close();
+        }
+        catch (IOException e)
+        {
+            getLogger().debug("Cannot send quit to wsadmin: " + e, this.getClass().getName());
+        }
+
+        try
+        {
+            // Log the remaining output while wsadmin exits
+            long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(CLOSE_TIMEOUT);
+            String line = this.output.poll(deadline - System.currentTimeMillis(),
+                TimeUnit.MILLISECONDS);
+            while (line != null && line != END_OF_OUTPUT)
+            {
+                getLogger().debug(line, this.getClass().getName());
+                line = this.output.poll(deadline - System.currentTimeMillis(),
+                    TimeUnit.MILLISECONDS);
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        finally
+        {
+            this.process.destroy();
+        }
+    }
+}
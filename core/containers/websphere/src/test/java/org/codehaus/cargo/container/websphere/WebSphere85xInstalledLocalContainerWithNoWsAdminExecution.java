@@ -19,6 +19,7 @@
  */
 package org.codehaus.cargo.container.websphere;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import org.codehaus.cargo.container.configuration.LocalConfiguration;
@@ -36,6 +37,17 @@ public class WebSphere85xInstalledLocalContainerWithNoWsAdminExecution
      */
     private String commands = "";
 
+    /**
+     * Commands of each script sent with {@link #executeScripts(List)}.
+     */
+    private List<String> scripts = new ArrayList<String>();
+
+    /**
+     * Results returned by {@link #executeScripts(List)}, all scripts succeed if
+     * <code>null</code>.
+     */
+    private boolean[] scriptResults;
+
     /**
      * {@inheritDoc}
      * @see org.codehaus.cargo.container.spi.AbstractInstalledLocalContainer#AbstractInstalledLocalContainer(org.codehaus.cargo.container.configuration.LocalConfiguration)
@@ -51,6 +63,30 @@ public class WebSphere85xInstalledLocalContainerWithNoWsAdminExecution
      */
     @Override
     public void executeScript(List<ScriptCommand> configurationScript)
+    {
+        this.commands = toString(configurationScript);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    boolean[] executeScripts(List<List<ScriptCommand>> scripts)
+    {
+        boolean[] results = new boolean[scripts.size()];
+        for (int i = 0; i < results.length; i++)
+        {
+            this.scripts.add(toString(scripts.get(i)));
+            results[i] = this.scriptResults == null || this.scriptResults[i];
+        }
+        return results;
+    }
+
+    /**
+     * @param configurationScript Script commands.
+     * @return Text of the script commands.
+     */
+    private static String toString(List<ScriptCommand> configurationScript)
     {
         StringBuilder commandsBuilder = new StringBuilder();
         if (configurationScript != null)
@@ -61,7 +97,23 @@ public class WebSphere85xInstalledLocalContainerWithNoWsAdminExecution
                 commandsBuilder.append("\n");
             }
         }
-        this.commands = commandsBuilder.toString();
+        return commandsBuilder.toString();
+    }
+
+    /**
+     * @return Commands of each script sent with {@link #executeScripts(List)}.
+     */
+    public List<String> getScripts()
+    {
+        return scripts;
+    }
+
+    /**
+     * @param scriptResults Results returned by {@link #executeScripts(List)}.
+     */
+    public void setScriptResults(boolean... scriptResults)
+    {
+        this.scriptResults = scriptResults;
     }
 
     /**
@@ -19,8 +19,12 @@
  */
 package org.codehaus.cargo.container.websphere;
 
+import java.util.Arrays;
+
 import junit.framework.TestCase;
 
+import org.codehaus.cargo.container.deployable.Deployable;
+
 import org.codehaus.cargo.container.deployable.EAR;
 import org.codehaus.cargo.container.deployable.WAR;
 
@@ -57,6 +61,31 @@ public class WebSphere85xInstalledLocalDeployerTest extends TestCase
         assertContains(deployer.getCommands(), "filename = 'target/test-artifacts/simple-ear.ear'");
     }
 
+    /**
+     * Test that redeployment uninstalls each deployable with its own script, and installs all
+     * deployables even if some of them could not be uninstalled.
+     * @throws Exception If anything goes wrong.
+     */
+    public void testRedeployWithUndeployFailure() throws Exception
+    {
+        WebSphere85xInstalledLocalDeployerWithNoWsAdminExecution deployer =
+            new WebSphere85xInstalledLocalDeployerWithNoWsAdminExecution();
+        WebSphere85xInstalledLocalContainerWithNoWsAdminExecution container =
+            deployer.getRecordingContainer();
+        container.setScriptResults(false, true);
+        WAR war = new WAR("target/test-artifacts/simple-war.war");
+        EAR ear = new EAR("target/test-artifacts/simple-ear.ear");
+
+        deployer.redeploy(Arrays.<Deployable>asList(war, ear));
+
+        assertEquals(2, container.getScripts().size());
+        assertContains(container.getScripts().get(0), "simple-war");
+        assertFalse(container.getScripts().get(0).contains("simple-ear"));
+        assertContains(container.getScripts().get(1), "simple-ear");
+        assertContains(deployer.getCommands(), "'-appname','simple-war'");
+        assertContains(deployer.getCommands(), "'-appname','simple-ear'");
+    }
+
     /**
      * Tests if a string contains another.
      * @param haystack String to look in.
@@ -44,7 +44,14 @@ public class WebSphere85xInstalledLocalDeployerWithNoWsAdminExecution
      */
     public String getCommands()
     {
-        return ((WebSphere85xInstalledLocalContainerWithNoWsAdminExecution) getContainer())
-                .getCommands();
+        return getRecordingContainer().getCommands();
+    }
+
+    /**
+     * @return Container recording the commands instead of sending them to WsAdmin.
+     */
+    public WebSphere85xInstalledLocalContainerWithNoWsAdminExecution getRecordingContainer()
+    {
+        return (WebSphere85xInstalledLocalContainerWithNoWsAdminExecution) getContainer();
     }
 }
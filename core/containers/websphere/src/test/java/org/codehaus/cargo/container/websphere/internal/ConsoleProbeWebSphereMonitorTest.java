@@ -0,0 +1,170 @@
+/*
+ * ========================================================================
+ *
+ * Codehaus CARGO, copyright 2004-2018 Vincent Massol, 2012-2018 Ali Tokmen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * ========================================================================
+ */
+package org.codehaus.cargo.container.websphere.internal;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import junit.framework.TestCase;
+
+import org.codehaus.cargo.container.property.GeneralPropertySet;
+import org.codehaus.cargo.container.websphere.WebSphere85xInstalledLocalContainer;
+import org.codehaus.cargo.container.websphere.WebSphere85xStandaloneLocalConfiguration;
+import org.codehaus.cargo.container.websphere.WebSpherePropertySet;
+
+/**
+ * Unit tests for {@link ConsoleProbeWebSphereMonitor}.
+ */
+public class ConsoleProbeWebSphereMonitorTest extends TestCase
+{
+    /**
+     * WebSphere administration port stand-in.
+     */
+    private HttpServer server;
+
+    /**
+     * Response code of the console path.
+     */
+    private volatile int responseCode;
+
+    /**
+     * <code>Location</code> header of the console path, none if <code>null</code>.
+     */
+    private volatile String location;
+
+    /**
+     * Requests received by the stand-in, as <code>METHOD path</code>.
+     */
+    private List<String> requests;
+
+    /**
+     * Monitor of the stand-in.
+     */
+    private ConsoleProbeWebSphereMonitor monitor;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void setUp() throws Exception
+    {
+        super.setUp();
+        this.requests = new ArrayList<String>();
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        this.server.createContext("/", new HttpHandler()
+        {
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public void handle(HttpExchange exchange) throws IOException
+            {
+                synchronized (requests)
+                {
+                    requests.add(exchange.getRequestMethod() + " "
+                        + exchange.getRequestURI().getPath());
+                }
+                if (location != null)
+                {
+                    exchange.getResponseHeaders().add("Location", location);
+                }
+                exchange.sendResponseHeaders(responseCode, -1);
+                exchange.close();
+            }
+        });
+        this.server.start();
+
+        WebSphere85xStandaloneLocalConfiguration configuration =
+            new WebSphere85xStandaloneLocalConfiguration("target/websphere-probe");
+        configuration.setProperty(GeneralPropertySet.HOSTNAME, "localhost");
+        configuration.setProperty(WebSpherePropertySet.ADMINISTRATION_PORT,
+            Integer.toString(this.server.getAddress().getPort()));
+        this.monitor = new ConsoleProbeWebSphereMonitor(
+            new WebSphere85xInstalledLocalContainer(configuration));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void tearDown() throws Exception
+    {
+        this.server.stop(0);
+        super.tearDown();
+    }
+
+    /**
+     * Test that the redirection to the logon page means ready, without requesting that page.
+     * @throws Exception If anything goes wrong.
+     */
+    public void testRedirectToLogonPage() throws Exception
+    {
+        this.responseCode = 302;
+        this.location = "/ibm/console/logon.jsp";
+
+        assertTrue(this.monitor.isRunning());
+        assertEquals(1, this.requests.size());
+        assertEquals("HEAD /ibm/console", this.requests.get(0));
+    }
+
+    /**
+     * Test that the redirection to the secure administration port means ready.
+     * @throws Exception If anything goes wrong.
+     */
+    public void testRedirectToSecurePort() throws Exception
+    {
+        this.responseCode = 302;
+        this.location = "https://localhost:9043/ibm/console/logon.jsp";
+
+        assertTrue(this.monitor.isRunning());
+        assertEquals(1, this.requests.size());
+    }
+
+    /**
+     * Test that a redirection outside of the console does not mean ready.
+     * @throws Exception If anything goes wrong.
+     */
+    public void testRedirectOutsideConsole() throws Exception
+    {
+        this.responseCode = 302;
+        this.location = "/login";
+
+        assertFalse(this.monitor.isRunning());
+    }
+
+    /**
+     * Test that the console not being available yet does not mean ready.
+     * @throws Exception If anything goes wrong.
+     */
+    public void testConsoleNotAvailable() throws Exception
+    {
+        this.responseCode = 404;
+        assertFalse(this.monitor.isRunning());
+
+        this.responseCode = 200;
+        assertFalse(this.monitor.isRunning());
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * ========================================================================
+ *
+ * Codehaus CARGO, copyright 2004-2011 Vincent Massol, 2012-2018 Ali Tokmen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * ========================================================================
+ */
+package org.codehaus.cargo.container.websphere.internal;
+
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for {@link WsadminScripts}.
+ */
+public class WsadminScriptsTest extends TestCase
+{
+    /**
+     * Test that the batch script runs each script file in its own namespace, records the failed
+     * ones in the result file and exits with an error if any has failed.
+     */
+    public void testBatchScript()
+    {
+        String script = WsadminScripts.getBatchScript(
+            Arrays.asList("C:\\scripts\\first.py", "/scripts/o'brien.py"), "/tmp/result");
+
+        assertTrue(script, script.startsWith(WsadminScripts.getRunnerDefinition()));
+        assertTrue(script, script.contains("if not _cargo_run('C:/scripts/first.py'):\n"
+            + "    _cargo_failed.append('C:/scripts/first.py')\n"));
+        assertTrue(script, script.contains("_cargo_run('/scripts/o\\'brien.py')"));
+        assertTrue(script, script.contains("_cargo_result = open('/tmp/result', 'w')\n"));
+        assertTrue(script, script.endsWith("if _cargo_failed:\n    sys.exit(1)\n"));
+    }
+
+    /**
+     * Test that the runner isolates the scripts and catches <code>sys.exit</code>, with Jython
+     * 2.1 syntax.
+     */
+    public void testRunnerDefinition()
+    {
+        String runner = WsadminScripts.getRunnerDefinition();
+
+        assertTrue(runner, runner.contains("execfile(path, _cargo_namespace.copy())"));
+        assertTrue(runner, runner.contains("except SystemExit, e:"));
+        assertFalse(runner, runner.contains("True"));
+        assertFalse(runner, runner.contains("False"));
+    }
+
+    /**
+     * Test that code is turned into a single line <code>exec</code> statement.
+     */
+    public void testExecStatement()
+    {
+        assertEquals("exec \"print 'a\\\\b'\\nprint \\\"c\\\"\"\n",
+            WsadminScripts.toExecStatement("print 'a\\b'\nprint \"c\""));
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * ========================================================================
+ *
+ * Codehaus CARGO, copyright 2004-2011 Vincent Massol, 2012-2018 Ali Tokmen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * ========================================================================
+ */
+package org.codehaus.cargo.container.websphere.internal;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.codehaus.cargo.util.CargoException;
+import org.codehaus.cargo.util.log.NullLogger;
+
+/**
+ * Unit tests for {@link WsadminSession}.
+ */
+public class WsadminSessionTest extends TestCase
+{
+    /**
+     * Java executable of the current JVM.
+     */
+    private static final String JAVA =
+        System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+
+    /**
+     * Session started by the test.
+     */
+    private WsadminSession session;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void tearDown() throws Exception
+    {
+        if (this.session != null)
+        {
+            this.session.close();
+        }
+        super.tearDown();
+    }
+
+    /**
+     * Test that the result of each script is reported, and that echoed statements are not taken
+     * for results.
+     */
+    public void testExecuteFile()
+    {
+        this.session = startSession("answer", 30000);
+
+        assertTrue(this.session.executeFile("/scripts/first.py"));
+        assertFalse(this.session.executeFile("/scripts/failing.py"));
+        assertTrue(this.session.executeFile("/scripts/second.py"));
+        assertTrue(this.session.isAlive());
+    }
+
+    /**
+     * Test that a script which does not complete within the timeout fails and closes the
+     * session.
+     */
+    public void testTimeout()
+    {
+        this.session = startSession("silent", 500);
+
+        long start = System.currentTimeMillis();
+        try
+        {
+            this.session.executeFile("/scripts/hanging.py");
+            fail("The script did not time out");
+        }
+        catch (CargoException expected)
+        {
+            assertTrue(expected.getMessage(), expected.getMessage().contains("500 ms"));
+        }
+        assertTrue(System.currentTimeMillis() - start < 20000);
+        assertFalse(this.session.isAlive());
+    }
+
+    /**
+     * Test that the end of wsadmin while a script runs fails and closes the session.
+     */
+    public void testSessionEnded()
+    {
+        this.session = startSession("exit", 30000);
+
+        try
+        {
+            this.session.executeFile("/scripts/first.py");
+            fail("The end of the session has not been detected");
+        }
+        catch (CargoException expected)
+        {
+            assertTrue(expected.getMessage(), expected.getMessage().contains("ended"));
+        }
+        assertFalse(this.session.isAlive());
+    }
+
+    /**
+     * @param mode Mode of the wsadmin stand-in.
+     * @param timeout Script timeout in milliseconds.
+     * @return Session with the wsadmin stand-in.
+     */
+    private static WsadminSession startSession(String mode, long timeout)
+    {
+        List<String> command = new ArrayList<String>();
+        command.add(JAVA);
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(WsadminStandInMain.class.getName());
+        command.addAll(Arrays.asList(mode));
+        return new WsadminSession(command, timeout, new NullLogger());
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * ========================================================================
+ *
+ * Codehaus CARGO, copyright 2004-2011 Vincent Massol, 2012-2018 Ali Tokmen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * ========================================================================
+ */
+package org.codehaus.cargo.container.websphere.internal;
+
+import java.io.BufferedReader;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+
+/**
+ * wsadmin stand-in started by {@link WsadminSessionTest}. It writes to the file descriptor of the
+ * standard output, which is what {@link WsadminSession} reads.
+ */
+public final class WsadminStandInMain
+{
+    /**
+     * Utility class.
+     */
+    private WsadminStandInMain()
+    {
+        // Nothing
+    }
+
+    /**
+     * Echoes each statement, as a terminal would, then answers the statements running a script
+     * with the result marker: <code>FAILED</code> for scripts whose name contains
+     * <code>fail</code> or if the runner has not been defined exactly once, <code>OK</code>
+     * otherwise.
+     * @param args <code>answer</code> to answer the statements, <code>silent</code> to never
+     * answer or <code>exit</code> to exit on the first statement.
+     * @throws Exception If anything goes wrong.
+     */
+    public static void main(String[] args) throws Exception
+    {
+        BufferedReader in = new BufferedReader(new InputStreamReader(System.in));
+        PrintStream out = new PrintStream(new FileOutputStream(FileDescriptor.out), true);
+        int runnerDefinitions = 0;
+        for (String line = in.readLine(); line != null && !"quit".equals(line);
+            line = in.readLine())
+        {
+            if ("exit".equals(args[0]))
+            {
+                return;
+            }
+            out.println("wsadmin> " + line);
+            if (line.startsWith("exec ") && line.contains("def _cargo_run(path)"))
+            {
+                runnerDefinitions++;
+            }
+            else if ("answer".equals(args[0]) && line.contains("_cargo_run("))
+            {
+                boolean failed = runnerDefinitions != 1 || line.contains("fail");
+                out.println("CARGO_WSADMIN_RESULT:" + (failed ? "FAILED" : "OK"));
+            }
+        }
+    }
+}
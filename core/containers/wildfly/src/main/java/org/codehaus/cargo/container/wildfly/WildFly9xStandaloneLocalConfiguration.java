@@ -20,7 +20,6 @@
 package org.codehaus.cargo.container.wildfly;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -144,16 +143,20 @@ public class WildFly9xStandaloneLocalConfiguration
 
         container.executeScript(configurationScript);
 
-        // Execute CLI scripts
+        // Execute CLI scripts, all within one CLI execution
+        List<String> offlineScripts = new ArrayList<String>();
         for (Map.Entry<String, String> property : getProperties().entrySet())
         {
             String propertyName = property.getKey();
             if (propertyName.startsWith(WildFlyPropertySet.CLI_OFFLINE_SCRIPT))
             {
-                String scriptPath = property.getValue();
-                container.executeScriptFiles(Arrays.asList(scriptPath));
+                offlineScripts.add(property.getValue());
             }
         }
+        if (!offlineScripts.isEmpty())
+        {
+            container.executeScriptFiles(offlineScripts);
+        }
 
         // deploy deployments
         JBoss7xInstalledLocalDeployer deployer = new JBoss7xInstalledLocalDeployer(container);
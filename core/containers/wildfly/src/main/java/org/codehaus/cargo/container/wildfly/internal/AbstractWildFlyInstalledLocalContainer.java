@@ -22,6 +22,7 @@ package org.codehaus.cargo.container.wildfly.internal;
 import java.io.File;
 import java.io.IOException;
 import java.net.MalformedURLException;
+import java.net.URL;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -36,6 +37,7 @@ import org.codehaus.cargo.container.configuration.script.ScriptCommand;
 import org.codehaus.cargo.container.jboss.JBossPropertySet;
 import org.codehaus.cargo.container.jboss.internal.JBoss7xContainerCapability;
 import org.codehaus.cargo.container.property.GeneralPropertySet;
+import org.codehaus.cargo.container.property.RemotePropertySet;
 import org.codehaus.cargo.container.spi.AbstractInstalledLocalContainer;
 import org.codehaus.cargo.container.spi.jvm.JvmLauncher;
 import org.codehaus.cargo.container.spi.startup.CombinedContainerMonitor;
@@ -59,6 +61,11 @@ public abstract class AbstractWildFlyInstalledLocalContainer extends AbstractIns
      */
     protected String version;
 
+    /**
+     * Management session, shared by all operations and monitors of this container.
+     */
+    private WildFlyManagementClient managementClient;
+
     /**
      * {@inheritDoc}
      * @see AbstractInstalledLocalContainer#AbstractInstalledLocalContainer(LocalConfiguration)
@@ -158,6 +165,13 @@ public abstract class AbstractWildFlyInstalledLocalContainer extends AbstractIns
     @Override
     protected void doStop(JvmLauncher java) throws Exception
     {
+        WildFlyManagementClient client = getManagementClient();
+        if (client != null)
+        {
+            client.shutdown();
+            return;
+        }
+
         List<ScriptCommand> configurationScript = new ArrayList<ScriptCommand>();
 
         WildFlyConfiguration configuration = (WildFlyConfiguration) getConfiguration();
@@ -205,13 +219,15 @@ public abstract class AbstractWildFlyInstalledLocalContainer extends AbstractIns
     }
 
     /**
-     * Executes CLI scripts.
+     * Executes CLI scripts. All scripts are run one after the other within one single CLI
+     * execution, in order to avoid starting a new JVM for each script.
      *
      * @param scriptFilePaths List of file paths containing CLI scripts.
      */
     @Override
     public void executeScriptFiles(List<String> scriptFilePaths)
     {
+        List<File> scriptFiles = new ArrayList<File>(scriptFilePaths.size());
         for (String scriptFilePath : scriptFilePaths)
         {
             File scriptFile = new File(scriptFilePath);
@@ -223,20 +239,108 @@ public abstract class AbstractWildFlyInstalledLocalContainer extends AbstractIns
             }
             else
             {
-                JvmLauncher java = createJvmLauncher(false);
+                scriptFiles.add(scriptFile);
+            }
+        }
 
-                addCliArguments(java);
-                setProperties(java);
+        if (scriptFiles.isEmpty())
+        {
+            return;
+        }
 
-                java.addAppArguments("--file=" + scriptFile);
-                int result = java.execute();
-                if (result != 0)
-                {
-                    throw new ContainerException("Failure when invoking CLI script,"
-                            + " java returned " + result);
-                }
+        File scriptFile;
+        if (scriptFiles.size() == 1)
+        {
+            scriptFile = scriptFiles.get(0);
+        }
+        else
+        {
+            String newLine = System.getProperty("line.separator");
+            StringBuilder buffer = new StringBuilder();
+            for (File file : scriptFiles)
+            {
+                buffer.append(getFileHandler().readTextFile(file.getPath(), null));
+                buffer.append(newLine);
+            }
+
+            try
+            {
+                scriptFile = File.createTempFile("wildfly-", ".cli");
+                getFileHandler().writeTextFile(
+                    scriptFile.getAbsolutePath(), buffer.toString(), null);
             }
+            catch (IOException e)
+            {
+                throw new CargoException("Cannot create temporary CLI script file.", e);
+            }
+        }
+
+        try
+        {
+            JvmLauncher java = createJvmLauncher(false);
+
+            addCliArguments(java);
+            setProperties(java);
+
+            java.addAppArguments("--file=" + scriptFile);
+            int result = java.execute();
+            if (result != 0)
+            {
+                throw new ContainerException("Failure when invoking CLI script,"
+                        + " java returned " + result);
+            }
+        }
+        finally
+        {
+            if (scriptFiles.size() > 1)
+            {
+                scriptFile.delete();
+            }
+        }
+    }
+
+    /**
+     * Returns the management session of this container, which uses the WildFly HTTP management
+     * interface. The session is only available if the {@link RemotePropertySet#USERNAME}
+     * property is set, as the HTTP management interface always requires authentication.
+     *
+     * @return Management session, <code>null</code> if no management user is configured.
+     */
+    public synchronized WildFlyManagementClient getManagementClient()
+    {
+        if (this.managementClient == null)
+        {
+            String username = getConfiguration().getPropertyValue(RemotePropertySet.USERNAME);
+            if (username == null || username.trim().isEmpty())
+            {
+                return null;
+            }
+            String password = getConfiguration().getPropertyValue(RemotePropertySet.PASSWORD);
+
+            int managementPort = Integer.parseInt(getConfiguration().getPropertyValue(
+                JBossPropertySet.JBOSS_MANAGEMENT_HTTP_PORT));
+            String portOffset = getConfiguration().getPropertyValue(GeneralPropertySet.PORT_OFFSET);
+            if (portOffset != null && !getConfiguration().isOffsetApplied())
+            {
+                managementPort += Integer.parseInt(portOffset);
+            }
+
+            URL managementUrl;
+            try
+            {
+                managementUrl = new URL("http",
+                    getConfiguration().getPropertyValue(GeneralPropertySet.HOSTNAME),
+                        managementPort, "/management");
+            }
+            catch (MalformedURLException e)
+            {
+                throw new CargoException("Unable to construct management URL.", e);
+            }
+
+            this.managementClient = new WildFlyManagementClient(managementUrl, username, password);
+            this.managementClient.setLogger(getLogger());
         }
+        return this.managementClient;
     }
 
     /**
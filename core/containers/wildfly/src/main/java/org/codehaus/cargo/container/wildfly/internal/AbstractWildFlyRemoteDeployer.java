@@ -22,23 +22,29 @@
  */
 package org.codehaus.cargo.container.wildfly.internal;
 
+import java.io.File;
+import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import org.codehaus.cargo.container.RemoteContainer;
 import org.codehaus.cargo.container.configuration.RuntimeConfiguration;
 import org.codehaus.cargo.container.deployable.Deployable;
-import org.codehaus.cargo.container.internal.http.HttpConnection;
-import org.codehaus.cargo.container.internal.http.HttpResult;
-import org.codehaus.cargo.container.internal.http.request.HttpFormRequest;
 import org.codehaus.cargo.container.jboss.JBossPropertySet;
 import org.codehaus.cargo.container.property.GeneralPropertySet;
 import org.codehaus.cargo.container.property.RemotePropertySet;
 import org.codehaus.cargo.container.spi.deployer.AbstractRemoteDeployer;
 import org.codehaus.cargo.util.CargoException;
+import org.json.simple.JSONObject;
 
 /**
- * Remote deployer that uses the remote API to deploy to WildFly.
+ * Remote deployer that uses the remote API to deploy to WildFly. All requests sent by one
+ * deployer go through one single management session; and when several deployables are deployed,
+ * undeployed or redeployed at a time, all management operations are grouped in one composite
+ * operation, which the server applies atomically.
  */
 public abstract class AbstractWildFlyRemoteDeployer extends AbstractRemoteDeployer
 {
@@ -52,6 +58,11 @@ public abstract class AbstractWildFlyRemoteDeployer extends AbstractRemoteDeploy
      */
     private RuntimeConfiguration configuration;
 
+    /**
+     * Management session.
+     */
+    private WildFlyManagementClient managementClient;
+
     /**
      * @param container the container containing the configuration to use to find the deployer
      * properties such as url, user name and password to use to connect to the deployer
@@ -70,135 +81,154 @@ public abstract class AbstractWildFlyRemoteDeployer extends AbstractRemoteDeploy
     @Override
     public void deploy(Deployable deployable)
     {
-        String bytesValue = uploadDeployable(deployable);
-        deployDeployable(deployable, bytesValue);
+        deploy(Arrays.asList(deployable));
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    public void undeploy(Deployable deployable)
+    public void deploy(List<Deployable> deployables)
     {
-        undeployDeployable(deployable);
-        removeDeployable(deployable);
+        List<JSONObject> operations = new ArrayList<JSONObject>(deployables.size());
+        for (Deployable deployable : deployables)
+        {
+            String bytesValue = uploadDeployable(deployable);
+            operations.add(marshaller.createDeployOperation(deployable, bytesValue));
+        }
+        execute(operations);
     }
 
     /**
-     * Upload deployable to remote server.
-     *
-     * @param deployable Deployable to be uploaded.
-     * @return Value of BYTES_VALUE field in response.
+     * {@inheritDoc}
      */
-    private String uploadDeployable(Deployable deployable)
+    @Override
+    public void undeploy(Deployable deployable)
     {
-        String username = configuration.getPropertyValue(RemotePropertySet.USERNAME);
-        String password = configuration.getPropertyValue(RemotePropertySet.PASSWORD);
-
-        URL addContentUrl = getAddContentUrl();
-        String deploymentName = deployable.getName() + "." + deployable.getType().getType();
-
-        HttpFormRequest formRequest = new HttpFormRequest(addContentUrl);
-        formRequest.setAuthentication(username, password);
-
-        StringBuffer sb = new StringBuffer();
-        sb.append("Content-Disposition: form-data; ");
-        sb.append("name=\"file\"; ");
-        sb.append("filename=\"" + deploymentName + "\"");
-
-        HttpResult response = formRequest.execute(sb.toString(), deployable.getFile());
-        verifyResponse(response);
-
-        return marshaller.unmarshallAddContentResponse(response);
+        undeploy(Arrays.asList(deployable));
     }
 
     /**
-     * Deploy deployable, which is uploaded on remote server.
-     *
-     * @param deployable Deployable to be deployed.
-     * @param bytesValue BYTES_VALUE marking uploaded content.
+     * {@inheritDoc}
      */
-    private void deployDeployable(Deployable deployable, String bytesValue)
+    @Override
+    public void undeploy(List<Deployable> deployables)
     {
-        String username = configuration.getPropertyValue(RemotePropertySet.USERNAME);
-        String password = configuration.getPropertyValue(RemotePropertySet.PASSWORD);
-
-        URL managementUrl = getManagementUrl();
-        String deployRequest = marshaller.marshallDeployRequest(deployable, bytesValue);
-
-        HttpConnection connection = new HttpConnection(managementUrl);
-        connection.addRequestProperty("Content-Type", "application/json");
-        connection.setAuthentication(username, password);
-        connection.setRequestBody(deployRequest);
-
-        HttpResult response = connection.post();
-        verifyResponse(response);
+        List<JSONObject> operations = new ArrayList<JSONObject>(deployables.size() * 2);
+        for (Deployable deployable : deployables)
+        {
+            operations.add(marshaller.createUndeployOperation(deployable));
+            operations.add(marshaller.createRemoveOperation(deployable));
+        }
+        execute(operations);
     }
 
     /**
-     * Undeploy deployable on server.
-     *
-     * @param deployable Deployable to be undeployed.
+     * {@inheritDoc}
      */
-    private void undeployDeployable(Deployable deployable)
+    @Override
+    public void redeploy(Deployable deployable)
     {
-        String username = configuration.getPropertyValue(RemotePropertySet.USERNAME);
-        String password = configuration.getPropertyValue(RemotePropertySet.PASSWORD);
-
-        URL managementUrl = getManagementUrl();
-        String undeployRequest = marshaller.marshallUndeployRequest(deployable);
+        redeploy(Arrays.asList(deployable));
+    }
 
-        HttpConnection connection = new HttpConnection(managementUrl);
-        connection.addRequestProperty("Content-Type", "application/json");
-        connection.setAuthentication(username, password);
-        connection.setRequestBody(undeployRequest);
+    /**
+     * {@inheritDoc}. Deployables already present on the server have their content replaced, the
+     * other ones are added.
+     */
+    @Override
+    public void redeploy(List<Deployable> deployables)
+    {
+        List<String> existingDeployments;
+        try
+        {
+            existingDeployments = getManagementClient().readDeploymentNames();
+        }
+        catch (IOException e)
+        {
+            throw new CargoException("Cannot read the list of deployments.", e);
+        }
 
-        HttpResult response = connection.post();
-        verifyResponse(response);
+        List<JSONObject> operations = new ArrayList<JSONObject>(deployables.size());
+        for (Deployable deployable : deployables)
+        {
+            String bytesValue = uploadDeployable(deployable);
+            if (existingDeployments.contains(marshaller.getDeploymentName(deployable)))
+            {
+                operations.add(marshaller.createReplaceOperation(deployable, bytesValue));
+            }
+            else
+            {
+                operations.add(marshaller.createDeployOperation(deployable, bytesValue));
+            }
+        }
+        execute(operations);
     }
 
     /**
-     * Remove deployable from server.
+     * Upload deployable to remote server.
      *
-     * @param deployable Deployable to be removed.
+     * @param deployable Deployable to be uploaded.
+     * @return Value of BYTES_VALUE field in response.
      */
-    private void removeDeployable(Deployable deployable)
+    private String uploadDeployable(Deployable deployable)
     {
-        String username = configuration.getPropertyValue(RemotePropertySet.USERNAME);
-        String password = configuration.getPropertyValue(RemotePropertySet.PASSWORD);
-
-        URL managementUrl = getManagementUrl();
-        String removeRequest = marshaller.marshallRemoveRequest(deployable);
-
-        HttpConnection connection = new HttpConnection(managementUrl);
-        connection.addRequestProperty("Content-Type", "application/json");
-        connection.setAuthentication(username, password);
-        connection.setRequestBody(removeRequest);
-
-        HttpResult response = connection.post();
-        verifyResponse(response);
+        try
+        {
+            return getManagementClient().uploadContent(new File(deployable.getFile()),
+                marshaller.getDeploymentName(deployable));
+        }
+        catch (IOException e)
+        {
+            throw new CargoException("Cannot upload [" + deployable.getFile() + "]", e);
+        }
     }
 
     /**
-     * @return URL for adding content.
+     * Executes management operations, as one composite operation if there are several of them.
+     *
+     * @param operations Operations to execute.
      */
-    private URL getAddContentUrl()
+    private void execute(List<JSONObject> operations)
     {
-        String hostname = configuration.getPropertyValue(GeneralPropertySet.HOSTNAME);
-        String managementPortValue = configuration.getPropertyValue(
-                JBossPropertySet.JBOSS_MANAGEMENT_HTTP_PORT);
-        int managementPort = Integer.valueOf(managementPortValue);
+        if (operations.isEmpty())
+        {
+            return;
+        }
 
         try
         {
-            return new URL("http", hostname, managementPort, "/management/add-content");
+            getManagementClient().executeComposite(operations);
         }
-        catch (MalformedURLException e)
+        catch (IOException e)
         {
-            throw new CargoException("Error while trying to create URL.", e);
+            throw new CargoException("Management request failed.", e);
         }
     }
 
+    /**
+     * @return Management session, created on first use.
+     */
+    protected WildFlyManagementClient getManagementClient()
+    {
+        if (this.managementClient == null)
+        {
+            String username = configuration.getPropertyValue(RemotePropertySet.USERNAME);
+            String password = configuration.getPropertyValue(RemotePropertySet.PASSWORD);
+
+            this.managementClient =
+                new WildFlyManagementClient(getManagementUrl(), username, password);
+            this.managementClient.setLogger(getLogger());
+
+            String timeout = configuration.getPropertyValue(RemotePropertySet.TIMEOUT);
+            if (timeout != null)
+            {
+                this.managementClient.setTimeout(Integer.parseInt(timeout));
+            }
+        }
+        return this.managementClient;
+    }
+
     /**
      * @return Management URL.
      */
@@ -218,20 +248,4 @@ public abstract class AbstractWildFlyRemoteDeployer extends AbstractRemoteDeploy
             throw new CargoException("Error while trying to create URL.", e);
         }
     }
-
-    /**
-     * Verify HTTP response.
-     *
-     * @param response Response to be verified.
-     */
-    private void verifyResponse(HttpResult response)
-    {
-        if (!response.isSuccessful())
-        {
-            throw new CargoException("HTTP request failed, response code: "
-                    + response.getResponseCode() + ", response message: "
-                    + response.getResponseMessage() + ", response body: "
-                    + response.getResponseBody());
-        }
-    }
 }
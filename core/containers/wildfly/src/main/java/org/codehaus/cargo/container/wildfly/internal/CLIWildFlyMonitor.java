@@ -45,11 +45,22 @@ public class CLIWildFlyMonitor extends AbstractContainerMonitor
     }
 
     /**
-     * {@inheritDoc}
+     * {@inheritDoc}. If the container has a management session, the server state is read through
+     * it; else a <code>connect</code> is attempted using a new CLI execution.
      */
     @Override
     public boolean isRunning() 
     {
+        if (getContainer() instanceof AbstractWildFlyInstalledLocalContainer)
+        {
+            WildFlyManagementClient client =
+                ((AbstractWildFlyInstalledLocalContainer) getContainer()).getManagementClient();
+            if (client != null)
+            {
+                return isStarted(client.readServerState());
+            }
+        }
+
         WildFlyConfiguration configuration = (WildFlyConfiguration) getConfiguration();
         WildFlyCliConfigurationFactory factory = configuration.getConfigurationFactory();
         List<ScriptCommand> configurationScript = new ArrayList<ScriptCommand>();
@@ -65,4 +76,20 @@ public class CLIWildFlyMonitor extends AbstractContainerMonitor
         }
     }
 
+    /**
+     * Checks whether a server state means the server has started. Besides <code>running</code>,
+     * a server waiting for a reload or a restart has started as well, as the <code>connect</code>
+     * check used without management session accepts it.
+     *
+     * @param serverState Server state, <code>null</code> if it cannot be read.
+     * @return <code>true</code> unless the state is unknown, <code>starting</code> or
+     * <code>stopping</code>.
+     */
+    static boolean isStarted(String serverState)
+    {
+        return serverState != null
+            && !WildFlyManagementClient.SERVER_STATE_STARTING.equals(serverState)
+            && !WildFlyManagementClient.SERVER_STATE_STOPPING.equals(serverState);
+    }
+
 }
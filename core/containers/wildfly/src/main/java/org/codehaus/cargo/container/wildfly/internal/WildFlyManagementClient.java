@@ -0,0 +1,457 @@
+/*
+ * ========================================================================
+ *
+ * Codehaus CARGO, copyright 2004-2011 Vincent Massol, 2012-2018 Ali Tokmen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * ========================================================================
+ */
+package org.codehaus.cargo.container.wildfly.internal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.codehaus.cargo.container.internal.http.ConnectionAuthenticator;
+import org.codehaus.cargo.util.CargoException;
+import org.codehaus.cargo.util.log.LoggedObject;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+
+/**
+ * Long-lived session with the WildFly HTTP management interface, sending DMR operations as JSON.
+ * As opposed to the <code>jboss-cli</code> based scripting, which starts a new JVM for each
+ * script, all operations and uploads sent through one instance of this class reuse the same
+ * authenticated (and, if the server allows it, kept-alive) HTTP connection.
+ */
+public class WildFlyManagementClient extends LoggedObject
+{
+    /**
+     * Server state reported by WildFly while it starts.
+     */
+    public static final String SERVER_STATE_STARTING = "starting";
+
+    /**
+     * Server state reported by WildFly while it stops.
+     */
+    public static final String SERVER_STATE_STOPPING = "stopping";
+
+    /**
+     * Form data separator.
+     */
+    private static final String CRLF = "\r\n";
+
+    /**
+     * Hyphens for boundary delimiters.
+     */
+    private static final String HYPHENS = "--";
+
+    /**
+     * Boundary for form content separator.
+     */
+    private static final String BOUNDARY = "CargoBoundary";
+
+    /**
+     * Size of the buffer used when streaming uploads.
+     */
+    private static final int UPLOAD_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Management URL, for example <code>http://localhost:9990/management</code>.
+     */
+    private URL managementUrl;
+
+    /**
+     * Management user name.
+     */
+    private String username;
+
+    /**
+     * Management password.
+     */
+    private String password;
+
+    /**
+     * Connection and read timeout, in milliseconds. <code>0</code> means no timeout.
+     */
+    private int timeout;
+
+    /**
+     * Whether an operation has succeeded, meaning the JDK has cached the authentication of this
+     * session.
+     */
+    private boolean authenticated;
+
+    /**
+     * @param managementUrl Management URL, for example
+     * <code>http://localhost:9990/management</code>.
+     * @param username Management user name.
+     * @param password Management password.
+     */
+    public WildFlyManagementClient(URL managementUrl, String username, String password)
+    {
+        this.managementUrl = managementUrl;
+        this.username = username;
+        this.password = password;
+    }
+
+    /**
+     * @return Management URL.
+     */
+    public URL getManagementUrl()
+    {
+        return this.managementUrl;
+    }
+
+    /**
+     * @param timeout Connection and read timeout, in milliseconds. <code>0</code> means no
+     * timeout.
+     */
+    public void setTimeout(int timeout)
+    {
+        this.timeout = timeout;
+    }
+
+    /**
+     * Creates a DMR operation.
+     *
+     * @param operation Operation name, for example <code>read-attribute</code>.
+     * @param address Address of the resource the operation applies to, as pairs of resource type
+     * and name; for example <code>"deployment", "simple.war"</code>. No pairs means the root
+     * resource.
+     * @return DMR operation.
+     */
+    @SuppressWarnings("unchecked")
+    public static JSONObject createOperation(String operation, String... address)
+    {
+        JSONArray addressArray = new JSONArray();
+        for (int i = 0; i + 1 < address.length; i += 2)
+        {
+            JSONObject addressElement = new JSONObject();
+            addressElement.put(address[i], address[i + 1]);
+            addressArray.add(addressElement);
+        }
+
+        JSONObject request = new JSONObject();
+        request.put("operation", operation);
+        request.put("address", addressArray);
+        return request;
+    }
+
+    /**
+     * Creates a composite DMR operation, which the server applies atomically: if any step fails,
+     * all steps are rolled back.
+     *
+     * @param steps Operations to group.
+     * @return Composite DMR operation.
+     */
+    @SuppressWarnings("unchecked")
+    public static JSONObject createCompositeOperation(List<JSONObject> steps)
+    {
+        JSONArray stepsArray = new JSONArray();
+        stepsArray.addAll(steps);
+
+        JSONObject request = createOperation("composite");
+        request.put("steps", stepsArray);
+        return request;
+    }
+
+    /**
+     * Executes a DMR operation.
+     *
+     * @param operation DMR operation.
+     * @return The <code>result</code> of the operation, may be <code>null</code>.
+     * @throws IOException If the management interface cannot be reached.
+     */
+    public Object execute(JSONObject operation) throws IOException
+    {
+        // JSON library escapes slash with backslash. This is unwanted feature
+        // as WildFly needs exact hash values and paths.
+        String request = operation.toJSONString().replace("\\/", "/");
+        getLogger().debug("Sending management operation: " + request, this.getClass().getName());
+
+        HttpURLConnection connection = openConnection(this.managementUrl);
+        connection.setDoOutput(true);
+        connection.setRequestMethod("POST");
+        connection.setRequestProperty("Content-Type", "application/json");
+        // Operations are small, let the JDK buffer them so that it can resend them when the
+        // server asks for authentication
+        byte[] requestBytes = request.getBytes("UTF-8");
+        OutputStream out = connection.getOutputStream();
+        try
+        {
+            out.write(requestBytes);
+        }
+        finally
+        {
+            out.close();
+        }
+
+        return readResult(connection);
+    }
+
+    /**
+     * Executes several DMR operations as one single composite operation.
+     *
+     * @param steps DMR operations.
+     * @return The <code>result</code> of the composite operation.
+     * @throws IOException If the management interface cannot be reached.
+     */
+    public Object executeComposite(List<JSONObject> steps) throws IOException
+    {
+        if (steps.size() == 1)
+        {
+            return execute(steps.get(0));
+        }
+        return execute(createCompositeOperation(steps));
+    }
+
+    /**
+     * Reads the server state, for example <code>running</code> or <code>starting</code>.
+     *
+     * @return Server state, <code>null</code> if the management interface cannot be reached or
+     * the operation failed.
+     */
+    @SuppressWarnings("unchecked")
+    public String readServerState()
+    {
+        JSONObject operation = createOperation("read-attribute");
+        operation.put("name", "server-state");
+        try
+        {
+            Object state = execute(operation);
+            if (state != null)
+            {
+                return state.toString();
+            }
+        }
+        catch (IOException|CargoException e)
+        {
+            getLogger().debug("Cannot read server state: " + e.toString(),
+                this.getClass().getName());
+        }
+        return null;
+    }
+
+    /**
+     * Reads the names of all deployments present on the server.
+     *
+     * @return Names of the deployments.
+     * @throws IOException If the management interface cannot be reached.
+     */
+    @SuppressWarnings("unchecked")
+    public List<String> readDeploymentNames() throws IOException
+    {
+        JSONObject operation = createOperation("read-children-names");
+        operation.put("child-type", "deployment");
+
+        List<String> names = new ArrayList<String>();
+        Object result = execute(operation);
+        if (result instanceof List)
+        {
+            for (Object name : (List<Object>) result)
+            {
+                names.add(String.valueOf(name));
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Uploads a file to the content repository of the server. The file is streamed to the
+     * server, it is never fully loaded in memory.
+     *
+     * @param file File to upload.
+     * @param fileName Name of the file, as sent to the server.
+     * @return Hash of the uploaded content, to be referenced by deployment operations.
+     * @throws IOException If the file cannot be read or the management interface cannot be
+     * reached.
+     */
+    public String uploadContent(File file, String fileName) throws IOException
+    {
+        // A streamed request cannot be resent when the server asks for authentication, so make
+        // sure the JDK has authenticated the session beforehand
+        if (!this.authenticated)
+        {
+            execute(createOperation("whoami"));
+        }
+
+        URL addContentUrl = new URL(this.managementUrl, this.managementUrl.getPath()
+            + "/add-content");
+
+        byte[] header = (CRLF + HYPHENS + BOUNDARY + CRLF
+            + "Content-Disposition: form-data; name=\"file\"; filename=\"" + fileName + "\""
+            + CRLF + "Content-Type: application/octet-stream" + CRLF + CRLF).getBytes("UTF-8");
+        byte[] trailer = (CRLF + HYPHENS + BOUNDARY + HYPHENS + CRLF).getBytes("UTF-8");
+
+        getLogger().debug("Uploading [" + file + "] to [" + addContentUrl + "]",
+            this.getClass().getName());
+
+        HttpURLConnection connection = openConnection(addContentUrl);
+        connection.setDoOutput(true);
+        connection.setRequestMethod("POST");
+        connection.setRequestProperty("Content-Type",
+            "multipart/form-data; boundary=" + BOUNDARY);
+        // Stream the request body, instead of letting the JDK buffer it to compute its length
+        connection.setFixedLengthStreamingMode(header.length + file.length() + trailer.length);
+
+        OutputStream out = connection.getOutputStream();
+        try
+        {
+            out.write(header);
+            InputStream in = new FileInputStream(file);
+            try
+            {
+                byte[] buffer = new byte[UPLOAD_BUFFER_SIZE];
+                int n;
+                while ((n = in.read(buffer)) != -1)
+                {
+                    out.write(buffer, 0, n);
+                }
+            }
+            finally
+            {
+                in.close();
+            }
+            out.write(trailer);
+        }
+        finally
+        {
+            out.close();
+        }
+
+        Object result = readResult(connection);
+        if (!(result instanceof Map))
+        {
+            throw new CargoException("Upload of [" + file + "] did not return any content hash");
+        }
+        return String.valueOf(((Map<?, ?>) result).get("BYTES_VALUE"));
+    }
+
+    /**
+     * Shuts down the server.
+     *
+     * @throws IOException If the management interface cannot be reached.
+     */
+    public void shutdown() throws IOException
+    {
+        execute(createOperation("shutdown"));
+    }
+
+    /**
+     * Opens a connection to the management interface, with the credentials of this session. The
+     * JDK caches the (Digest) authentication for the following requests, and pools the
+     * underlying socket as long as responses are fully read.
+     *
+     * @param url URL to open.
+     * @return Connection, not connected yet.
+     * @throws IOException If the connection cannot be opened.
+     */
+    protected HttpURLConnection openConnection(URL url) throws IOException
+    {
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setUseCaches(false);
+        connection.setDoInput(true);
+        if (this.timeout > 0)
+        {
+            connection.setConnectTimeout(this.timeout);
+            connection.setReadTimeout(this.timeout);
+        }
+        if (this.username != null)
+        {
+            ConnectionAuthenticator.authenticate(connection, this.username, this.password);
+        }
+        return connection;
+    }
+
+    /**
+     * Reads the response of a management operation.
+     *
+     * @param connection Connection on which the operation has been sent.
+     * @return The <code>result</code> of the operation, may be <code>null</code>.
+     * @throws IOException If the response cannot be read.
+     */
+    protected Object readResult(HttpURLConnection connection) throws IOException
+    {
+        int responseCode = connection.getResponseCode();
+        InputStream in;
+        if (responseCode >= 200 && responseCode < 300)
+        {
+            in = connection.getInputStream();
+        }
+        else
+        {
+            in = connection.getErrorStream();
+        }
+
+        // Fully read and close the stream, so that the JDK can reuse the connection
+        String responseBody = "";
+        if (in != null)
+        {
+            try
+            {
+                ByteArrayOutputStream body = new ByteArrayOutputStream();
+                byte[] buffer = new byte[8192];
+                int n;
+                while ((n = in.read(buffer)) != -1)
+                {
+                    body.write(buffer, 0, n);
+                }
+                responseBody = body.toString("UTF-8");
+            }
+            finally
+            {
+                in.close();
+            }
+        }
+
+        JSONObject response = null;
+        if (!responseBody.isEmpty())
+        {
+            try
+            {
+                response = (JSONObject) new JSONParser().parse(responseBody);
+            }
+            catch (ParseException|ClassCastException e)
+            {
+                response = null;
+            }
+        }
+
+        if (response == null || !"success".equals(response.get("outcome")))
+        {
+            Object failure = responseBody;
+            if (response != null && response.get("failure-description") != null)
+            {
+                failure = response.get("failure-description");
+            }
+            throw new CargoException("Management operation failed, response code: "
+                + responseCode + ", response message: " + connection.getResponseMessage()
+                + ", failure description: " + failure);
+        }
+
+        this.authenticated = true;
+        return response.get("result");
+    }
+}
@@ -23,12 +23,8 @@
 package org.codehaus.cargo.container.wildfly.internal;
 
 import org.codehaus.cargo.container.deployable.Deployable;
-import org.codehaus.cargo.container.internal.http.HttpResult;
-import org.codehaus.cargo.util.CargoException;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
-import org.json.simple.parser.JSONParser;
-import org.json.simple.parser.ParseException;
 
 /**
  * JSON marshaller for WildFly remote deployer.
@@ -37,111 +33,109 @@ public class WildFlyRemoteDeploymentJsonMarshaller
 {
 
     /**
-     * JSON parser.
-     */
-    private JSONParser parser;
-
-    /**
-     * Constructor.
+     * @param deployable Deployable.
+     * @return Name of the deployment on the server.
      */
-    public WildFlyRemoteDeploymentJsonMarshaller()
+    public String getDeploymentName(Deployable deployable)
     {
-        parser = new JSONParser();
+        return deployable.getName() + "." + deployable.getType().getType();
     }
 
     /**
-     * @param response HTTP response body.
-     * @return Value of BYTES_VALUE field in response.
+     * @param deployable Deployable.
+     * @param bytesValue Bytes value.
+     * @return JSON request body for deploying deployable.
      */
-    public String unmarshallAddContentResponse(HttpResult response)
+    public String marshallDeployRequest(Deployable deployable, String bytesValue)
     {
-        String responseBody = response.getResponseBody();
-        if (responseBody == null || responseBody.isEmpty())
-        {
-            throw new CargoException("Response is empty!");
-        }
-
-        JSONObject obj;
-        try
-        {
-            obj = (JSONObject) parser.parse(responseBody);
-        }
-        catch (ParseException e)
-        {
-            throw new CargoException("Exception during response parsing.", e);
-        }
-
-        JSONObject result = (JSONObject) obj.get("result");
-
-        String bytesValue = (String) result.get("BYTES_VALUE");
-
-        return bytesValue;
+        // JSON library escapes slash with backslash. This is unwanted feature
+        // as WildFly needs exact hash value of uploaded content.
+        String jsonString = createDeployOperation(deployable, bytesValue).toJSONString();
+        return jsonString.replace("\\/", "/");
     }
 
     /**
      * @param deployable Deployable.
-     * @param bytesValue Bytes value.
-     * @return JSON request body for deploying deployable.
+     * @param bytesValue Bytes value of the uploaded content.
+     * @return Operation adding and enabling the deployable.
      */
     @SuppressWarnings("unchecked")
-    public String marshallDeployRequest(Deployable deployable, String bytesValue)
+    public JSONObject createDeployOperation(Deployable deployable, String bytesValue)
     {
-        JSONObject bytesValueObject = new JSONObject();
-        bytesValueObject.put("BYTES_VALUE", bytesValue);
-
-        JSONObject hashObject = new JSONObject();
-        hashObject.put("hash", bytesValueObject);
-
         JSONObject deploymentObject = new JSONObject();
-        deploymentObject.put("deployment",
-                deployable.getName() + "." + deployable.getType().getType());
+        deploymentObject.put("deployment", getDeploymentName(deployable));
 
         JSONObject deployRequest = new JSONObject();
-        deployRequest.put("content", wrapInArray(hashObject));
+        deployRequest.put("content", wrapInArray(createContentHash(bytesValue)));
         deployRequest.put("address", wrapInArray(deploymentObject));
         deployRequest.put("operation", "add");
         deployRequest.put("enabled", "true");
+        return deployRequest;
+    }
 
-        // JSON library escapes slash with backslash. This is unwanted feature
-        // as WildFly needs exact hash value of uploaded content.
-        String jsonString = deployRequest.toJSONString();
-        return jsonString.replace("\\/", "/");
+    /**
+     * @param deployable Deployable.
+     * @param bytesValue Bytes value of the uploaded content.
+     * @return Operation replacing the content of an existing deployment with the same name, and
+     * enabling it.
+     */
+    @SuppressWarnings("unchecked")
+    public JSONObject createReplaceOperation(Deployable deployable, String bytesValue)
+    {
+        JSONObject replaceRequest = new JSONObject();
+        replaceRequest.put("content", wrapInArray(createContentHash(bytesValue)));
+        replaceRequest.put("address", new JSONArray());
+        replaceRequest.put("operation", "full-replace-deployment");
+        replaceRequest.put("name", getDeploymentName(deployable));
+        replaceRequest.put("enabled", "true");
+        return replaceRequest;
     }
 
     /**
      * @param deployable Deployable.
-     * @return JSON request body for undeploying deployable.
+     * @return Operation undeploying the deployable.
      */
     @SuppressWarnings("unchecked")
-    public String marshallUndeployRequest(Deployable deployable)
+    public JSONObject createUndeployOperation(Deployable deployable)
     {
         JSONObject deploymentObject = new JSONObject();
-        deploymentObject.put("deployment",
-                deployable.getName() + "." + deployable.getType().getType());
+        deploymentObject.put("deployment", getDeploymentName(deployable));
 
-        JSONObject deployRequest = new JSONObject();
-        deployRequest.put("address", wrapInArray(deploymentObject));
-        deployRequest.put("operation", "undeploy");
-
-        return deployRequest.toJSONString();
+        JSONObject undeployRequest = new JSONObject();
+        undeployRequest.put("address", wrapInArray(deploymentObject));
+        undeployRequest.put("operation", "undeploy");
+        return undeployRequest;
     }
 
     /**
      * @param deployable Deployable.
-     * @return JSON request body for removing deployable.
+     * @return Operation removing the deployable.
      */
     @SuppressWarnings("unchecked")
-    public String marshallRemoveRequest(Deployable deployable)
+    public JSONObject createRemoveOperation(Deployable deployable)
     {
         JSONObject deploymentObject = new JSONObject();
-        deploymentObject.put("deployment",
-                deployable.getName() + "." + deployable.getType().getType());
+        deploymentObject.put("deployment", getDeploymentName(deployable));
 
-        JSONObject deployRequest = new JSONObject();
-        deployRequest.put("address", wrapInArray(deploymentObject));
-        deployRequest.put("operation", "remove");
+        JSONObject removeRequest = new JSONObject();
+        removeRequest.put("address", wrapInArray(deploymentObject));
+        removeRequest.put("operation", "remove");
+        return removeRequest;
+    }
 
-        return deployRequest.toJSONString();
+    /**
+     * @param bytesValue Bytes value of uploaded content.
+     * @return Content hash object.
+     */
+    @SuppressWarnings("unchecked")
+    private JSONObject createContentHash(String bytesValue)
+    {
+        JSONObject bytesValueObject = new JSONObject();
+        bytesValueObject.put("BYTES_VALUE", bytesValue);
+
+        JSONObject hashObject = new JSONObject();
+        hashObject.put("hash", bytesValueObject);
+        return hashObject;
     }
 
     /**
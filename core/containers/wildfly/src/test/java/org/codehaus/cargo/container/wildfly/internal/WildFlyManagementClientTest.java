@@ -0,0 +1,140 @@
+/*
+ * ========================================================================
+ *
+ * Codehaus CARGO, copyright 2004-2011 Vincent Massol, 2012-2018 Ali Tokmen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * ========================================================================
+ */
+package org.codehaus.cargo.container.wildfly.internal;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import com.sun.net.httpserver.BasicAuthenticator;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for {@link WildFlyManagementClient} and the server states accepted by
+ * {@link CLIWildFlyMonitor}.
+ */
+public class WildFlyManagementClientTest extends TestCase
+{
+    /**
+     * Starts a management interface stand-in, requiring authentication and reporting a server
+     * state.
+     * 
+     * @param username Expected user name.
+     * @param password Expected password.
+     * @param serverState Server state to report.
+     * @return Started server.
+     * @throws IOException If the server cannot be started.
+     */
+    private HttpServer startServer(final String username, final String password,
+        final String serverState) throws IOException
+    {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/management", new HttpHandler()
+        {
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public void handle(HttpExchange exchange) throws IOException
+            {
+                byte[] response = ("{\"outcome\":\"success\",\"result\":\"" + serverState
+                    + "\"}").getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(200, response.length);
+                try (OutputStream out = exchange.getResponseBody())
+                {
+                    out.write(response);
+                }
+            }
+        }).setAuthenticator(new BasicAuthenticator("ManagementRealm")
+        {
+            /**
+             * {@inheritDoc}
+             */
+            @Override
+            public boolean checkCredentials(String user, String pwd)
+            {
+                return username.equals(user) && password.equals(pwd);
+            }
+        });
+        server.start();
+        return server;
+    }
+
+    /**
+     * @param server Management interface stand-in.
+     * @param username User name.
+     * @param password Password.
+     * @return Client of the management interface.
+     * @throws IOException If the URL is invalid.
+     */
+    private WildFlyManagementClient createClient(HttpServer server, String username,
+        String password) throws IOException
+    {
+        WildFlyManagementClient client = new WildFlyManagementClient(new URL("http", "localhost",
+            server.getAddress().getPort(), "/management"), username, password);
+        client.setTimeout(10000);
+        return client;
+    }
+
+    /**
+     * Test that clients of different servers keep their own credentials.
+     * @throws Exception If anything goes wrong.
+     */
+    public void testCredentialsPerClient() throws Exception
+    {
+        HttpServer first = startServer("first", "secret1", "running");
+        HttpServer second = startServer("second", "secret2", "reload-required");
+        try
+        {
+            WildFlyManagementClient firstClient = createClient(first, "first", "secret1");
+            WildFlyManagementClient secondClient = createClient(second, "second", "secret2");
+
+            assertEquals("running", firstClient.readServerState());
+            assertEquals("reload-required", secondClient.readServerState());
+            assertEquals("running", firstClient.readServerState());
+
+            assertNull(createClient(first, "first", "wrong").readServerState());
+        }
+        finally
+        {
+            first.stop(0);
+            second.stop(0);
+        }
+    }
+
+    /**
+     * Test the server states in which the server is considered started.
+     */
+    public void testStartedServerStates()
+    {
+        assertTrue(CLIWildFlyMonitor.isStarted("running"));
+        assertTrue(CLIWildFlyMonitor.isStarted("reload-required"));
+        assertTrue(CLIWildFlyMonitor.isStarted("restart-required"));
+        assertFalse(CLIWildFlyMonitor.isStarted("starting"));
+        assertFalse(CLIWildFlyMonitor.isStarted("stopping"));
+        assertFalse(CLIWildFlyMonitor.isStarted(null));
+    }
+}
@@ -19,9 +19,13 @@
  */
 package org.codehaus.cargo.container.wildfly.internal;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import junit.framework.TestCase;
 import org.codehaus.cargo.container.deployable.Deployable;
 import org.codehaus.cargo.container.deployable.WAR;
+import org.json.simple.JSONObject;
 
 /**
  * Unit tests for {@link WildFlyRemoteDeploymentJsonMarshaller}.
@@ -44,4 +48,30 @@ public class WildFlyRemoteDeploymentJsonMarshallerTest extends TestCase
 
         assertTrue("Deploy request doesn't contain correct hash!", deployRequest.contains(hash));
     }
+
+    /**
+     * Test that several operations are grouped in one composite operation, in order.
+     * @throws Exception If anything goes wrong.
+     */
+    public void testCompositeOperation() throws Exception
+    {
+        WildFlyRemoteDeploymentJsonMarshaller marshaller =
+                new WildFlyRemoteDeploymentJsonMarshaller();
+
+        Deployable deployable = new WAR("/test/simple.war");
+        JSONObject replace = marshaller.createReplaceOperation(deployable, "hash");
+        assertEquals("full-replace-deployment", replace.get("operation"));
+        assertEquals("simple.war", replace.get("name"));
+
+        List<JSONObject> steps = new ArrayList<JSONObject>();
+        steps.add(marshaller.createUndeployOperation(deployable));
+        steps.add(marshaller.createRemoveOperation(deployable));
+        JSONObject composite = WildFlyManagementClient.createCompositeOperation(steps);
+
+        assertEquals("composite", composite.get("operation"));
+        List<?> compositeSteps = (List<?>) composite.get("steps");
+        assertEquals(2, compositeSteps.size());
+        assertEquals("undeploy", ((JSONObject) compositeSteps.get(0)).get("operation"));
+        assertEquals("remove", ((JSONObject) compositeSteps.get(1)).get("operation"));
+    }
 }
@@ -549,27 +549,39 @@ public class CargoTask extends Task
         // Setup all attributes and nested elements
         setupLogger();
 
-        if (getContainer().getType().isLocal())
+        try
         {
-            setupOutput();
-            setupTimeout();
+            if (getContainer().getType().isLocal())
+            {
+                setupOutput();
+                setupTimeout();
+
+                if (getContainer().getType() == ContainerType.INSTALLED)
+                {
+                    setupHome();
+                    setupExtraClasspath();
+                    setupSharedClasspath();
+                    setupSystemProperties();
+                }
+            }
 
-            if (getContainer().getType() == ContainerType.INSTALLED)
+            // Save the reference id if specified
+            if (getId() != null)
             {
-                setupHome();
-                setupExtraClasspath();
-                setupSharedClasspath();
-                setupSystemProperties();
+                getProject().addReference(getId(), getContainer());
             }
-        }
 
-        // Save the reference id if specified
-        if (getId() != null)
+            executeActions();
+        }
+        finally
         {
-            getProject().addReference(getId(), getContainer());
+            // The logger is not closed, as the referenced container may keep on logging in later
+            // tasks
+            if (this.logger instanceof FileLogger)
+            {
+                ((FileLogger) this.logger).flush();
+            }
         }
-
-        executeActions();
     }
 
     /**
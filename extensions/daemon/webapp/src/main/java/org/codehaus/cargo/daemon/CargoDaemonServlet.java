@@ -360,6 +360,13 @@ public class CargoDaemonServlet extends HttpServlet implements Runnable
                 else if ("viewcargolog".equals(servletPath))
                 {
                     logFilePath = handle.getContainerLogPath();
+
+                    // Write the debug messages the Cargo logger may still be buffering
+                    FileLogger logger = getFileLogger(handle.getContainer());
+                    if (logger != null)
+                    {
+                        logger.flush();
+                    }
                 }
                 
                 long filesize = fileManager.getFileSize(logFilePath);
@@ -672,6 +679,12 @@ public class CargoDaemonServlet extends HttpServlet implements Runnable
                 {
                     // Ignored
                 }
+
+                FileLogger previousLogger = getFileLogger(previousContainer);
+                if (previousLogger != null)
+                {
+                    previousLogger.close();
+                }
             }
 
             try
@@ -976,6 +989,19 @@ public class CargoDaemonServlet extends HttpServlet implements Runnable
         }
     }
 
+    /**
+     * @param container Container, may be <code>null</code>.
+     * @return File logger of the container, <code>null</code> if it does not log to a file.
+     */
+    private static FileLogger getFileLogger(InstalledLocalContainer container)
+    {
+        if (container != null && container.getLogger() instanceof FileLogger)
+        {
+            return (FileLogger) container.getLogger();
+        }
+        return null;
+    }
+
     /**
      * @return Details of current handles.
      */
@@ -231,6 +231,11 @@ public abstract class AbstractCargoMojo extends AbstractCommonMojo
      */
     private boolean ignoreFailures = false;
 
+    /**
+     * File logger of this MOJO, <code>null</code> if it does not log to a file.
+     */
+    private FileLogger fileLogger;
+
     /**
      * Calculates the container artifact ID for a given container ID. Note that all containers
      * identifier are in the form <code>containerArtifactId + the version number + x</code>; for
@@ -484,6 +489,8 @@ public abstract class AbstractCargoMojo extends AbstractCommonMojo
         }
         finally
         {
+            flushFileLoggers();
+
             for (Map.Entry<String, String> previousProperty : previousProperties.entrySet())
             {
                 if (previousProperty.getValue() != null)
@@ -513,6 +520,34 @@ public abstract class AbstractCargoMojo extends AbstractCommonMojo
      */
     protected abstract void doExecute() throws MojoExecutionException;
 
+    /**
+     * Flushes the file loggers of this MOJO and of the containers saved in the Maven Plugin
+     * Context. They are not closed, as these containers may keep on logging in later executions.
+     */
+    private void flushFileLoggers()
+    {
+        if (this.fileLogger != null)
+        {
+            this.fileLogger.flush();
+        }
+
+        Map<Object, Object> context = getPluginContext();
+        if (context != null)
+        {
+            for (Object value : context.values())
+            {
+                if (value instanceof org.codehaus.cargo.container.Container)
+                {
+                    Logger logger = ((org.codehaus.cargo.container.Container) value).getLogger();
+                    if (logger instanceof FileLogger)
+                    {
+                        ((FileLogger) logger).flush();
+                    }
+                }
+            }
+        }
+    }
+
     /**
      * Creates a {@link org.codehaus.cargo.container.configuration.Configuration} instance. If the
      * user has not specified a configuration element in the POM file then automatically create a
@@ -1028,7 +1063,8 @@ public abstract class AbstractCargoMojo extends AbstractCommonMojo
 
     /**
      * Create a logger. If a <code>&lt;log&gt;</code> configuration element has been specified by
-     * the user then use it. If none is specified then log to the Maven 2 logging subsystem.
+     * the user then use it, through one file logger per MOJO. If none is specified then log to the
+     * Maven 2 logging subsystem.
      *
      * @return the logger to use for logging this plugin's activity
      */
@@ -1037,10 +1073,14 @@ public abstract class AbstractCargoMojo extends AbstractCommonMojo
         Logger logger;
         if (getContainerElement() != null && getContainerElement().getLog() != null)
         {
-            // Ensure that the directories where the log will go are created
-            getContainerElement().getLog().getParentFile().mkdirs();
+            if (this.fileLogger == null)
+            {
+                // Ensure that the directories where the log will go are created
+                getContainerElement().getLog().getParentFile().mkdirs();
 
-            logger = new FileLogger(getContainerElement().getLog(), true);
+                this.fileLogger = new FileLogger(getContainerElement().getLog(), true);
+            }
+            logger = this.fileLogger;
         }
         else
         {
@@ -26,8 +26,19 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
+import org.apache.maven.archiver.ManifestConfiguration;
+import org.apache.maven.archiver.ManifestSection;
 import org.apache.maven.archiver.MavenArchiveConfiguration;
 import org.apache.maven.archiver.MavenArchiver;
 import org.apache.maven.artifact.Artifact;
@@ -49,6 +60,7 @@ import org.codehaus.cargo.module.merge.MergeProcessor;
 import org.codehaus.cargo.module.webapp.DefaultWarArchive;
 import org.codehaus.cargo.module.webapp.merge.MergedWarArchive;
 import org.codehaus.cargo.module.webapp.merge.WarArchiveMerger;
+import org.codehaus.cargo.util.JarUtils;
 import org.codehaus.plexus.PlexusConstants;
 import org.codehaus.plexus.PlexusContainer;
 import org.codehaus.plexus.archiver.ArchiverException;
@@ -107,6 +119,14 @@ public class UberWarMojo extends AbstractUberWarMojo implements Contextualizable
      */
     private String descriptorId;
 
+    /**
+     * Maximum number of threads used to expand the WAR files, copy the JAR files and execute the
+     * merges. Defaults to <code>1</code>, which merges everything sequentially.
+     * 
+     * @parameter property="cargo.uberwar.threads" default-value="1"
+     */
+    private int threads;
+
     /** @component */
     private ArtifactFactory artifactFactory;
 
@@ -157,6 +177,11 @@ public class UberWarMojo extends AbstractUberWarMojo implements Contextualizable
     /** Container */
     private PlexusContainer container;
 
+    /**
+     * Files read by the merges, for example XSLT stylesheets.
+     */
+    private List<File> mergeConfigurationFiles = new ArrayList<File>();
+
     /**
      * @return Parent file of the descriptor.
      */
@@ -204,11 +229,13 @@ public class UberWarMojo extends AbstractUberWarMojo implements Contextualizable
 
         try
         {
+            String descriptorContent = readDescriptor(r);
             UberWarXpp3Reader reader = new UberWarXpp3Reader();
-            MergeRoot root = reader.read(r);
+            MergeRoot root = reader.read(new StringReader(descriptorContent));
 
             // Add the war files
             WarArchiveMerger wam = new WarArchiveMerger();
+            wam.setThreads(this.threads);
             List<String> wars = root.getWars();
             if (wars.size() == 0)
             {
@@ -242,20 +269,35 @@ public class UberWarMojo extends AbstractUberWarMojo implements Contextualizable
 
             File assembleDir = new File(this.outputDirectory, this.warName);
             File warFile = new File(this.outputDirectory, this.warName + ".war");
+            File fingerprintFile =
+                new File(this.outputDirectory, this.warName + ".war.fingerprint");
 
-            // Merge to directory
+            // Skip everything if none of the inputs changed since the last build
             MergedWarArchive output = (MergedWarArchive) wam.performMerge();
+            String archiveFingerprint = output.getFingerprint();
+            String fingerprint = null;
+            if (archiveFingerprint != null)
+            {
+                fingerprint = computeFingerprint(descriptorContent, archiveFingerprint);
+            }
+            if (isUpToDate(warFile, fingerprintFile, fingerprint))
+            {
+                getLog().info("UberWAR " + warFile + " is up to date");
+                getProject().getArtifact().setFile(warFile);
+                return;
+            }
+            Files.deleteIfExists(fingerprintFile.toPath());
+
+            // Merge to directory
             output.merge(assembleDir.getAbsolutePath());
 
             // Archive to WAR file
-            WarArchiver warArchiver = new WarArchiver();
-            warArchiver.addDirectory(assembleDir);
-            warArchiver.setIgnoreWebxml(false);
+            createWar(assembleDir, warFile, mavenProject);
 
-            MavenArchiver mar = new MavenArchiver();
-            mar.setArchiver(warArchiver);
-            mar.setOutputFile(warFile);
-            mar.createArchive(mavenProject, archive);
+            if (fingerprint != null)
+            {
+                Files.write(fingerprintFile.toPath(), fingerprint.getBytes(StandardCharsets.UTF_8));
+            }
 
             getProject().getArtifact().setFile(warFile);
         }
@@ -289,13 +331,242 @@ public class UberWarMojo extends AbstractUberWarMojo implements Contextualizable
         }
     }
 
+    /**
+     * Reads the whole merge descriptor.
+     * 
+     * @param r Reader for the merge descriptor, closed once read.
+     * @return Content of the merge descriptor.
+     * @throws IOException If the merge descriptor cannot be read.
+     */
+    private String readDescriptor(Reader r) throws IOException
+    {
+        try (Reader descriptorReader = r)
+        {
+            StringBuilder content = new StringBuilder();
+            char[] buffer = new char[4096];
+            int read;
+            while ((read = descriptorReader.read(buffer)) != -1)
+            {
+                content.append(buffer, 0, read);
+            }
+            return content.toString();
+        }
+    }
+
+    /**
+     * Checks whether a previously built UberWAR can be reused.
+     * 
+     * @param warFile Previously built UberWAR.
+     * @param fingerprintFile File with the fingerprint of the previously built UberWAR.
+     * @param fingerprint Fingerprint of the current inputs, <code>null</code> if they cannot be
+     * fingerprinted.
+     * @return <code>true</code> if the UberWAR exists and was built from the same inputs.
+     * @throws IOException If the fingerprint file cannot be read.
+     */
+    boolean isUpToDate(File warFile, File fingerprintFile, String fingerprint) throws IOException
+    {
+        return fingerprint != null && warFile.isFile() && fingerprintFile.isFile()
+            && fingerprint.equals(new String(Files.readAllBytes(fingerprintFile.toPath()),
+                StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Computes the fingerprint of all inputs of the UberWAR: the merge descriptor, the files read
+     * by the merges, the mojo options, the archive configuration and all inputs of the merged WAR
+     * archive.
+     * 
+     * @param descriptorContent Content of the merge descriptor.
+     * @param archiveFingerprint Fingerprint of the merged WAR archive.
+     * @return Fingerprint.
+     * @throws IOException If one of the inputs cannot be read.
+     */
+    String computeFingerprint(String descriptorContent, String archiveFingerprint)
+        throws IOException
+    {
+        MessageDigest digest;
+        try
+        {
+            digest = MessageDigest.getInstance("SHA-256");
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            throw new IOException("Cannot create message digest", e);
+        }
+
+        StringBuilder fingerprint = new StringBuilder();
+        fingerprint.append("descriptor=");
+        for (byte b : digest.digest(descriptorContent.getBytes(StandardCharsets.UTF_8)))
+        {
+            fingerprint.append(String.format("%02x", b));
+        }
+        for (File file : this.mergeConfigurationFiles)
+        {
+            fingerprint.append(",file:");
+            fingerprint.append(file.getPath());
+            fingerprint.append("=");
+            fingerprint.append(digestFile(digest, file));
+        }
+        fingerprint.append(",resolveDependencies=");
+        fingerprint.append(this.resolveDependencies);
+        fingerprint.append(",archiveConfiguration=");
+        fingerprint.append(describeArchiveConfiguration(digest));
+        fingerprint.append(",archive=");
+        fingerprint.append(archiveFingerprint);
+        return fingerprint.toString();
+    }
+
+    /**
+     * Computes the digest of a file.
+     * 
+     * @param digest Message digest to use.
+     * @param file File to digest.
+     * @return Hexadecimal digest of the file, <code>missing</code> if the file does not exist.
+     * @throws IOException If the file cannot be read.
+     */
+    private String digestFile(MessageDigest digest, File file) throws IOException
+    {
+        if (file == null || !file.isFile())
+        {
+            return "missing";
+        }
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest(Files.readAllBytes(file.toPath())))
+        {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * Describes everything in the archive configuration that influences the generated WAR file,
+     * including the content of the manifest file and the project coordinates used by the
+     * default manifest entries.
+     * 
+     * @param digest Message digest to use for the manifest file.
+     * @return Description of the archive configuration.
+     * @throws IOException If the manifest file cannot be read.
+     */
+    private String describeArchiveConfiguration(MessageDigest digest) throws IOException
+    {
+        StringBuilder description = new StringBuilder();
+        if (this.mavenProject != null)
+        {
+            description.append("project=").append(this.mavenProject.getId());
+        }
+        description.append(";compress=").append(this.archive.isCompress());
+        description.append(";index=").append(this.archive.isIndex());
+        description.append(";addMavenDescriptor=").append(this.archive.isAddMavenDescriptor());
+        description.append(";manifestFile=")
+            .append(digestFile(digest, this.archive.getManifestFile()));
+        description.append(";manifestEntries=")
+            .append(sorted(this.archive.getManifestEntries()));
+        List<?> sections = this.archive.getManifestSections();
+        if (sections != null)
+        {
+            for (Object sectionObject : sections)
+            {
+                ManifestSection section = (ManifestSection) sectionObject;
+                description.append(";section:").append(section.getName()).append("=")
+                    .append(sorted(section.getManifestEntries()));
+            }
+        }
+        ManifestConfiguration manifest = this.archive.getManifest();
+        if (manifest != null)
+        {
+            description.append(";mainClass=").append(manifest.getMainClass());
+            description.append(";packageName=").append(manifest.getPackageName());
+            description.append(";addClasspath=").append(manifest.isAddClasspath());
+            description.append(";addExtensions=").append(manifest.isAddExtensions());
+            description.append(";classpathPrefix=").append(manifest.getClasspathPrefix());
+        }
+        return description.toString();
+    }
+
+    /**
+     * @param map Map to sort, may be <code>null</code>.
+     * @return Copy of the map with its keys sorted.
+     */
+    private Map<String, String> sorted(Map<?, ?> map)
+    {
+        Map<String, String> sorted = new TreeMap<String, String>();
+        if (map != null)
+        {
+            for (Map.Entry<?, ?> entry : map.entrySet())
+            {
+                sorted.put(String.valueOf(entry.getKey()), String.valueOf(entry.getValue()));
+            }
+        }
+        return sorted;
+    }
+
+    /**
+     * Archives a directory to a WAR file which only depends on the content of the directory and
+     * on the archive configuration. The files are added in alphabetical order and the WAR file
+     * written by the Maven archiver, which dates its entries and <code>pom.properties</code> with
+     * the current time, is then made reproducible.
+     * 
+     * @param assembleDir Directory to archive.
+     * @param warFile WAR file to create.
+     * @param project Maven project the WAR file belongs to.
+     * @throws ArchiverException If a file cannot be added.
+     * @throws ManifestException If the manifest cannot be created.
+     * @throws DependencyResolutionRequiredException If the manifest class path cannot be
+     * resolved.
+     * @throws IOException If the WAR file cannot be written.
+     */
+    void createWar(File assembleDir, File warFile, MavenProject project)
+        throws ArchiverException, ManifestException, DependencyResolutionRequiredException,
+        IOException
+    {
+        WarArchiver warArchiver = new WarArchiver();
+        addSorted(warArchiver, assembleDir, "");
+        warArchiver.setIgnoreWebxml(false);
+
+        MavenArchiver mar = new MavenArchiver();
+        mar.setArchiver(warArchiver);
+        mar.setOutputFile(warFile);
+        mar.createArchive(project, archive);
+
+        new JarUtils().makeReproducible(warFile);
+    }
+
+    /**
+     * Adds all files of a directory to a WAR archiver in alphabetical order.
+     * 
+     * @param warArchiver WAR archiver to add the files to.
+     * @param directory Directory to add.
+     * @param prefix Path of the directory within the WAR file.
+     * @throws ArchiverException If a file cannot be added.
+     */
+    private void addSorted(WarArchiver warArchiver, File directory, String prefix)
+        throws ArchiverException
+    {
+        File[] files = directory.listFiles();
+        if (files == null)
+        {
+            return;
+        }
+        Arrays.sort(files);
+        for (File file : files)
+        {
+            if (file.isDirectory())
+            {
+                addSorted(warArchiver, file, prefix + file.getName() + "/");
+            }
+            else
+            {
+                warArchiver.addFile(file, prefix + file.getName());
+            }
+        }
+    }
+
     /**
      * Do thr actual merge.
      * @param wam WAR archive merger.
      * @param merge Merge to apply.
      * @throws MojoExecutionException If anything goes wrong.
      */
-    private void doMerge(WarArchiveMerger wam, Merge merge) throws MojoExecutionException
+    protected void doMerge(WarArchiveMerger wam, Merge merge) throws MojoExecutionException
     {
         try
         {
@@ -310,11 +581,15 @@ public class UberWarMojo extends AbstractUberWarMojo implements Contextualizable
             {
                 if (type.equalsIgnoreCase("web.xml"))
                 {
-                    merger = new MergeWebXml(getConfigDirectory()).create(wam, merge);
+                    MergeWebXml mergeWebXml = new MergeWebXml(getConfigDirectory());
+                    this.mergeConfigurationFiles.addAll(mergeWebXml.getStrategyFiles(merge));
+                    merger = mergeWebXml.create(wam, merge);
                 }
                 else if (type.equalsIgnoreCase("xslt"))
                 {
-                    merger = new MergeXslt(descriptor.getParentFile()).create(wam, merge);
+                    MergeXslt mergeXslt = new MergeXslt(getConfigDirectory());
+                    this.mergeConfigurationFiles.add(mergeXslt.getStylesheet(merge));
+                    merger = mergeXslt.create(wam, merge);
                 }
             }
             else
@@ -22,6 +22,8 @@ package org.codehaus.cargo.maven2.merge;
 import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.codehaus.cargo.maven2.Merge;
 import org.codehaus.cargo.module.merge.DescriptorMergerByTag;
@@ -107,6 +109,38 @@ public class MergeWebXml implements MergeProcessorFactory
 
     }
 
+    /**
+     * @param xml XML merge.
+     * @return Files read by the <code>NodeMerge</code> strategies of the merge.
+     */
+    public List<File> getStrategyFiles(Merge xml)
+    {
+        List<File> files = new ArrayList<File>();
+        Xpp3Dom parameters = (Xpp3Dom) xml.getParameters();
+        if (parameters != null)
+        {
+            addStrategyFiles(parameters, files);
+        }
+        return files;
+    }
+
+    /**
+     * Adds the files read by the strategies of a configuration to a list.
+     * @param config {@link Xpp3Dom} configuration.
+     * @param files List to add the files to.
+     */
+    private void addStrategyFiles(Xpp3Dom config, List<File> files)
+    {
+        if ("strategy".equals(config.getName()) && config.getAttribute("file") != null)
+        {
+            files.add(new File(getConfigDirectory(), config.getAttribute("file")));
+        }
+        for (Xpp3Dom child : config.getChildren())
+        {
+            addStrategyFiles(child, files);
+        }
+    }
+
     /**
      * Create the merge strategy.
      * @param config {@link Xpp3Dom} configuration.
@@ -49,6 +49,18 @@ public class MergeXslt implements MergeProcessorFactory
         this.workingDirectory = directory;
     }
 
+    /**
+     * @param xml XML merge.
+     * @return XSLT stylesheet used by the merge.
+     */
+    public File getStylesheet(Merge xml)
+    {
+        Xpp3Dom parameters = (Xpp3Dom) xml.getParameters();
+        String filename = parameters.getChild("file").getValue();
+
+        return new File(workingDirectory, filename);
+    }
+
     /**
      * {@inheritDoc}
      * @param wam WAR archive merger.
@@ -60,12 +72,7 @@ public class MergeXslt implements MergeProcessorFactory
     {
         try
         {
-            Xpp3Dom parameters = (Xpp3Dom) xml.getParameters();
-            String filename = parameters.getChild("file").getValue();
-
-            File file = new File(workingDirectory, filename);
-
-            InputStream is = new FileInputStream(file);
+            InputStream is = new FileInputStream(getStylesheet(xml));
 
             DocumentMergerByXslt documentMergerByXslt = new DocumentMergerByXslt(is);
 
@@ -0,0 +1,219 @@
+/*
+ * ========================================================================
+ *
+ * Codehaus CARGO, copyright 2004-2011 Vincent Massol, 2012-2018 Ali Tokmen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * ========================================================================
+ */
+package org.codehaus.cargo.maven2;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.TimeZone;
+
+import junit.framework.TestCase;
+
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.artifact.versioning.VersionRange;
+import org.apache.maven.model.Build;
+import org.apache.maven.model.Model;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.cargo.module.webapp.merge.WarArchiveMerger;
+import org.codehaus.cargo.util.DefaultFileHandler;
+import org.codehaus.cargo.util.FileHandler;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+
+/**
+ * Unit tests for {@link UberWarMojo}.
+ */
+public class UberWarMojoTest extends TestCase
+{
+    /**
+     * Stylesheet used by the XSLT merge.
+     */
+    private static final String STYLESHEET =
+        "<xsl:stylesheet version=\"1.0\" xmlns:xsl=\"http://www.w3.org/1999/XSL/Transform\">"
+            + "<xsl:template match=\"/\"><merged/></xsl:template></xsl:stylesheet>";
+
+    /**
+     * {@link UberWarMojo} reading its merge configuration from a given directory.
+     */
+    private static class TestableUberWarMojo extends UberWarMojo
+    {
+        /**
+         * Configuration directory.
+         */
+        private File configDirectory;
+
+        /**
+         * @param configDirectory Configuration directory.
+         */
+        public TestableUberWarMojo(File configDirectory)
+        {
+            this.configDirectory = configDirectory;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected File getConfigDirectory()
+        {
+            return this.configDirectory;
+        }
+    }
+
+    /**
+     * File handler.
+     */
+    private FileHandler fileHandler;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void setUp() throws Exception
+    {
+        super.setUp();
+        this.fileHandler = new DefaultFileHandler();
+    }
+
+    /**
+     * Test that changing an XSLT stylesheet used by a merge makes the UberWAR be rebuilt, even
+     * though the merge descriptor and the merged archives are unchanged.
+     *
+     * @throws Exception If anything goes wrong.
+     */
+    public void testStylesheetChangeRebuildsWar() throws Exception
+    {
+        String directory = this.fileHandler.createUniqueTmpDirectory();
+        try
+        {
+            File stylesheet = new File(directory, "merge.xsl");
+            Files.write(stylesheet.toPath(), STYLESHEET.getBytes(StandardCharsets.UTF_8));
+            File warFile = new File(directory, "uberwar.war");
+            Files.write(warFile.toPath(), new byte[] {0});
+            File fingerprintFile = new File(directory, "uberwar.war.fingerprint");
+
+            Xpp3Dom file = new Xpp3Dom("file");
+            file.setValue(stylesheet.getName());
+            Xpp3Dom parameters = new Xpp3Dom("parameters");
+            parameters.addChild(file);
+            Merge merge = new Merge();
+            merge.setType("xslt");
+            merge.setDocument("WEB-INF/merged.xml");
+            merge.setParameters(parameters);
+
+            UberWarMojo mojo = new TestableUberWarMojo(new File(directory));
+            mojo.doMerge(new WarArchiveMerger(), merge);
+
+            String fingerprint = mojo.computeFingerprint("<uberwar/>", "archive");
+            Files.write(fingerprintFile.toPath(), fingerprint.getBytes(StandardCharsets.UTF_8));
+            assertEquals(fingerprint, mojo.computeFingerprint("<uberwar/>", "archive"));
+            assertTrue(mojo.isUpToDate(warFile, fingerprintFile, fingerprint));
+
+            Files.write(stylesheet.toPath(), STYLESHEET.replace("merged", "changed")
+                .getBytes(StandardCharsets.UTF_8));
+            String changedFingerprint = mojo.computeFingerprint("<uberwar/>", "archive");
+            assertFalse(fingerprint.equals(changedFingerprint));
+            assertFalse(mojo.isUpToDate(warFile, fingerprintFile, changedFingerprint));
+        }
+        finally
+        {
+            this.fileHandler.delete(directory);
+        }
+    }
+
+    /**
+     * Test that building the UberWAR twice, with the assembled files modified and the default
+     * time zone changed in between, produces byte-identical WAR files.
+     *
+     * @throws Exception If anything goes wrong.
+     */
+    public void testWarIsReproducible() throws Exception
+    {
+        String directory = this.fileHandler.createUniqueTmpDirectory();
+        TimeZone defaultTimeZone = TimeZone.getDefault();
+        try
+        {
+            File assembleDir = new File(directory, "uberwar");
+            File webXml = new File(assembleDir, "WEB-INF/web.xml");
+            assertTrue(webXml.getParentFile().mkdirs());
+            Files.write(webXml.toPath(), "<web-app/>".getBytes(StandardCharsets.UTF_8));
+            Files.write(new File(assembleDir, "index.html").toPath(),
+                "<html/>".getBytes(StandardCharsets.UTF_8));
+            MavenProject project = createProject(new File(directory));
+
+            UberWarMojo mojo = new TestableUberWarMojo(new File(directory));
+            File first = new File(directory, "first.war");
+            TimeZone.setDefault(TimeZone.getTimeZone("Asia/Tokyo"));
+            mojo.createWar(assembleDir, first, project);
+
+            assertTrue(webXml.setLastModified(System.currentTimeMillis() - 86400000L));
+            File second = new File(directory, "second.war");
+            TimeZone.setDefault(TimeZone.getTimeZone("America/Los_Angeles"));
+            mojo.createWar(assembleDir, second, project);
+
+            assertTrue(Arrays.equals(Files.readAllBytes(first.toPath()),
+                Files.readAllBytes(second.toPath())));
+        }
+        finally
+        {
+            TimeZone.setDefault(defaultTimeZone);
+            this.fileHandler.delete(directory);
+        }
+    }
+
+    /**
+     * @param directory Project directory.
+     * @return Maven project of a WAR, with its POM file in <code>directory</code>.
+     * @throws Exception If anything goes wrong.
+     */
+    private MavenProject createProject(File directory) throws Exception
+    {
+        File pomFile = new File(directory, "pom.xml");
+        Files.write(pomFile.toPath(), "<project/>".getBytes(StandardCharsets.UTF_8));
+
+        Model model = new Model();
+        model.setGroupId("org.codehaus.cargo");
+        model.setArtifactId("uberwar");
+        model.setVersion("1.0");
+        model.setPackaging("war");
+        Build build = new Build();
+        build.setDirectory(new File(directory, "target").getAbsolutePath());
+        model.setBuild(build);
+
+        MavenProject project = new MavenProject(model);
+        project.setFile(pomFile);
+        project.setArtifact(new DefaultArtifact("org.codehaus.cargo", "uberwar",
+            VersionRange.createFromVersion("1.0"), "compile", "war", null,
+            new DefaultArtifactHandler("war")));
+        // The Maven archiver copies the project, which requires all collections to be set
+        project.setDependencyArtifacts(Collections.emptySet());
+        project.setArtifacts(Collections.emptySet());
+        project.setPluginArtifacts(Collections.emptySet());
+        project.setReportArtifacts(Collections.emptySet());
+        project.setExtensionArtifacts(Collections.emptySet());
+        project.setRemoteArtifactRepositories(Collections.emptyList());
+        project.setPluginArtifactRepositories(Collections.emptyList());
+        project.setCollectedProjects(Collections.emptyList());
+        project.setActiveProfiles(Collections.emptyList());
+        return project;
+    }
+}
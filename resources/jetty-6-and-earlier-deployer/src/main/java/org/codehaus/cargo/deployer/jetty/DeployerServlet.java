@@ -19,17 +19,15 @@
  */
 package org.codehaus.cargo.deployer.jetty;
 
-import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.ZipInputStream;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServlet;
@@ -151,6 +149,10 @@ public class DeployerServlet extends HttpServlet
             String contextPath = request.getParameter("path");
             deployArchive(request, response, contextPath);
         }
+        else if (command.equals("/deploy-batch"))
+        {
+            deployArchives(request, response);
+        }
         else
         {
             sendError(response, "Command " + command + " is not recognized with PUT");
@@ -184,44 +186,129 @@ public class DeployerServlet extends HttpServlet
         else
         {
             Log.debug("trying to get the remote web archive");
-            File webappFile = new File(this.webAppDirectory,
-                (contextPath.equals("/") ? "ROOT" : contextPath.substring(1)) + ".war");
-            InputStream inputStream = new BufferedInputStream(request.getInputStream());
-            OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(webappFile),
-                8096);
-
-            // transfer the data across
-            int i = inputStream.read();
-            while (i != -1)
+            File webappFile = getArchiveFile(contextPath);
+            copy(request.getInputStream(), webappFile);
+
+            if (startWebapp(response, contextPath, webappFile))
             {
-                outputStream.write(i);
-                i = inputStream.read();
+                sendMessage(response, "Webapp deployed at context " + contextPath);
             }
+        }
+    }
 
-            // close and flush readers
-            inputStream.close();
-            outputStream.flush();
-            outputStream.close();
+    /**
+     * Deploys several archives to the server. The request body is a ZIP stream with one
+     * <code>&lt;context&gt;.war</code> entry per archive, <code>ROOT.war</code> standing for the
+     * root context, and the <code>count</code> parameter is the number of entries. All archives
+     * are staged first and only moved to the webapps directory if the
+     * whole batch is valid, then their contexts are started.
+     * @param request The http request
+     * @param response The http response
+     * @throws IOException If an io exception occurs
+     */
+    protected void deployArchives(HttpServletRequest request, HttpServletResponse response)
+        throws IOException
+    {
+        int count;
+        try
+        {
+            count = Integer.parseInt(request.getParameter("count"));
+        }
+        catch (NumberFormatException e)
+        {
+            sendError(response, "The count variable is not set or invalid");
+            return;
+        }
 
-            // deploy webapp
-            WebAppContext webappcontext = new WebAppContext();
-            webappcontext.setContextPath(contextPath);
-            webappcontext.setWar(webappFile.getAbsolutePath());
-            webappcontext.setDefaultsDescriptor(configHome + "/etc/webdefault.xml");
-            chc.addHandler(webappcontext);
-            try
+        DeployBatch batch = new DeployBatch(this.webAppDirectory);
+        try
+        {
+            try (ZipInputStream archives = new ZipInputStream(request.getInputStream()))
             {
-                webappcontext.start();
+                batch.stage(archives, count);
             }
-            catch (Exception e)
+            for (String contextPath : batch.getContextPaths())
+            {
+                if (getContextHandler(contextPath) != null)
+                {
+                    sendError(response, "The webapp context path " + contextPath
+                        + " is already in use");
+                    return;
+                }
+            }
+
+            Log.debug("Remotely deploying batched web archives with contexts "
+                + batch.getContextPaths());
+            batch.install();
+        }
+        catch (IllegalArgumentException e)
+        {
+            sendError(response, e.getMessage());
+            return;
+        }
+        finally
+        {
+            batch.discard();
+        }
+
+        for (String contextPath : batch.getContextPaths())
+        {
+            if (!startWebapp(response, contextPath, getArchiveFile(contextPath)))
             {
-                sendError(response, "Unexpected error when trying to start the webapp");
-                Log.warn(e);
                 return;
             }
+            sendMessage(response, "Webapp deployed at context " + contextPath);
         }
+        sendMessage(response, batch.getContextPaths().size() + " webapps deployed");
+    }
 
-        sendMessage(response, "Webapp deployed at context " + contextPath);
+    /**
+     * Creates and starts the context of an archive written to the webapps directory.
+     * @param response The http response, to which errors are sent
+     * @param contextPath The context path for the deployed archive
+     * @param webappFile The archive
+     * @return <code>true</code> if the context has started
+     * @throws IOException If an io exception occurs
+     */
+    protected boolean startWebapp(HttpServletResponse response, String contextPath,
+        File webappFile) throws IOException
+    {
+        WebAppContext webappcontext = new WebAppContext();
+        webappcontext.setContextPath(contextPath);
+        webappcontext.setWar(webappFile.getAbsolutePath());
+        webappcontext.setDefaultsDescriptor(configHome + "/etc/webdefault.xml");
+        chc.addHandler(webappcontext);
+        try
+        {
+            webappcontext.start();
+        }
+        catch (Exception e)
+        {
+            sendError(response, "Unexpected error when trying to start the webapp");
+            Log.warn(e);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @param contextPath The context path for the deployed archive
+     * @return The archive file in the webapps directory for <code>contextPath</code>.
+     */
+    protected File getArchiveFile(String contextPath)
+    {
+        return new File(this.webAppDirectory, DeployBatch.getArchiveName(contextPath));
+    }
+
+    /**
+     * Copies a stream to a file, replacing the file if it exists. The stream is not closed.
+     * @param inputStream The stream to copy
+     * @param file The file to write
+     * @throws IOException If an io exception occurs
+     */
+    protected void copy(InputStream inputStream, File file) throws IOException
+    {
+        Files.copy(inputStream, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
     }
 
     /**
@@ -350,19 +437,8 @@ public class DeployerServlet extends HttpServlet
 
             File webappSource = new File(uri);
 
-            FileInputStream fileInputStream = new FileInputStream(webappSource);
-            FileOutputStream fileOutputStream = new FileOutputStream(webappDest);
-
-            int i = fileInputStream.read();
-            while (i != -1)
-            {
-                fileOutputStream.write(i);
-                i = fileInputStream.read();
-            }
-
-            fileInputStream.close();
-            fileOutputStream.flush();
-            fileOutputStream.close();
+            Files.copy(webappSource.toPath(), webappDest.toPath(),
+                StandardCopyOption.REPLACE_EXISTING);
 
             WebAppContext webappcontext = new WebAppContext();
             webappcontext.setContextPath(context);
@@ -0,0 +1,205 @@
+/*
+ * ========================================================================
+ *
+ * Codehaus CARGO, copyright 2004-2011 Vincent Massol, 2012-2018 Ali Tokmen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * ========================================================================
+ */
+package org.codehaus.cargo.deployer.jetty;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Batch of archives deployed with one request. The request body is a ZIP stream with one
+ * <code>&lt;context&gt;.war</code> entry per archive, <code>ROOT.war</code> standing for the root
+ * context. The archives are first written to a staging directory next to the webapps directory,
+ * and only moved into the webapps directory once every entry has been read successfully: a
+ * truncated or invalid batch leaves the webapps directory untouched.
+ */
+public class DeployBatch
+{
+    /**
+     * Extension of the batch entries.
+     */
+    private static final String WAR_EXTENSION = ".war";
+
+    /**
+     * The location of the server's webapp directory.
+     */
+    private File webAppDirectory;
+
+    /**
+     * Staging directory, <code>null</code> until the batch has been staged.
+     */
+    private File stagingDirectory;
+
+    /**
+     * Context paths of the staged archives, in the order of the batch entries.
+     */
+    private List<String> contextPaths = new ArrayList<String>();
+
+    /**
+     * @param webAppDirectory The location of the server's webapp directory.
+     */
+    public DeployBatch(File webAppDirectory)
+    {
+        this.webAppDirectory = webAppDirectory;
+    }
+
+    /**
+     * Writes all entries of a batch to the staging directory. The stream is not closed. As a ZIP
+     * stream cut between two entries cannot be told apart from a complete one, the number of
+     * entries announced by the client is checked as well.
+     * @param archives The batch.
+     * @param expectedEntries Number of entries the batch is announced to have.
+     * @throws IllegalArgumentException If an entry is invalid, appears twice in the batch or if
+     * the batch does not have the announced number of entries.
+     * @throws IOException If an io exception occurs
+     */
+    public void stage(ZipInputStream archives, int expectedEntries) throws IOException
+    {
+        this.stagingDirectory = Files.createTempDirectory(
+            this.webAppDirectory.getAbsoluteFile().getParentFile().toPath(),
+            "cargo-deploy-batch").toFile();
+
+        for (ZipEntry entry = archives.getNextEntry(); entry != null;
+            entry = archives.getNextEntry())
+        {
+            String contextPath = getContextPath(entry);
+            if (contextPath == null)
+            {
+                throw new IllegalArgumentException("Invalid batch entry " + entry.getName());
+            }
+            if (this.contextPaths.contains(contextPath))
+            {
+                throw new IllegalArgumentException("The webapp context path " + contextPath
+                    + " appears more than once in the batch");
+            }
+
+            Files.copy(archives,
+                new File(this.stagingDirectory, getArchiveName(contextPath)).toPath());
+            this.contextPaths.add(contextPath);
+        }
+
+        if (this.contextPaths.size() != expectedEntries)
+        {
+            throw new IllegalArgumentException("Incomplete batch: received "
+                + this.contextPaths.size() + " webapps out of " + expectedEntries);
+        }
+    }
+
+    /**
+     * @return Context paths of the staged archives, in the order of the batch entries.
+     */
+    public List<String> getContextPaths()
+    {
+        return Collections.unmodifiableList(this.contextPaths);
+    }
+
+    /**
+     * Moves all staged archives into the webapps directory, replacing existing files.
+     * @throws IOException If an io exception occurs
+     */
+    public void install() throws IOException
+    {
+        for (String contextPath : this.contextPaths)
+        {
+            String name = getArchiveName(contextPath);
+            File staged = new File(this.stagingDirectory, name);
+            File target = new File(this.webAppDirectory, name);
+            try
+            {
+                Files.move(staged.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+            }
+            catch (AtomicMoveNotSupportedException e)
+            {
+                Files.move(staged.toPath(), target.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+    }
+
+    /**
+     * Deletes the staging directory and whatever archives are still in it.
+     */
+    public void discard()
+    {
+        if (this.stagingDirectory != null)
+        {
+            File[] staged = this.stagingDirectory.listFiles();
+            if (staged != null)
+            {
+                for (File file : staged)
+                {
+                    file.delete();
+                }
+            }
+            this.stagingDirectory.delete();
+            this.stagingDirectory = null;
+        }
+    }
+
+    /**
+     * @param entry Entry of a batch deployment request.
+     * @return The context path for <code>entry</code>, <code>null</code> if the entry is not a
+     * plain <code>&lt;context&gt;.war</code> file name.
+     */
+    public static String getContextPath(ZipEntry entry)
+    {
+        String name = entry.getName();
+        if (entry.isDirectory() || !name.endsWith(WAR_EXTENSION))
+        {
+            return null;
+        }
+        if (name.length() == WAR_EXTENSION.length() || name.startsWith("."))
+        {
+            return null;
+        }
+        if (name.indexOf('/') != -1 || name.indexOf('\\') != -1)
+        {
+            return null;
+        }
+
+        String contextPath = "/" + name.substring(0, name.length() - WAR_EXTENSION.length());
+        if (contextPath.equals("/ROOT"))
+        {
+            contextPath = "/";
+        }
+        return contextPath;
+    }
+
+    /**
+     * @param contextPath The context path for the deployed archive
+     * @return The archive file name for <code>contextPath</code>.
+     */
+    public static String getArchiveName(String contextPath)
+    {
+        if (contextPath.equals("/"))
+        {
+            return "ROOT" + WAR_EXTENSION;
+        }
+        return contextPath.substring(1) + WAR_EXTENSION;
+    }
+}
@@ -19,18 +19,18 @@
  */
 package org.codehaus.cargo.deployer.jetty;
 
-import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.lang.reflect.Method;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipInputStream;
 import javax.servlet.ServletConfig;
 
 import javax.servlet.ServletException;
@@ -42,6 +42,7 @@ import org.eclipse.jetty.server.Handler;
 import org.eclipse.jetty.server.Server;
 import org.eclipse.jetty.server.handler.ContextHandler;
 import org.eclipse.jetty.server.handler.ContextHandlerCollection;
+import org.eclipse.jetty.util.component.LifeCycle;
 import org.eclipse.jetty.util.log.Log;
 import org.eclipse.jetty.webapp.WebAppClassLoader;
 import org.eclipse.jetty.webapp.WebAppContext;
@@ -53,6 +54,12 @@ import org.eclipse.jetty.webapp.WebAppContext;
 public class DeployerServlet extends HttpServlet
 {
 
+    /**
+     * Interval at which the handlers are looked up while waiting for Jetty to create the context
+     * of an uploaded archive.
+     */
+    private static final long CONTEXT_LOOKUP_INTERVAL = 100;
+
     /**
      * The context.
      */
@@ -136,6 +143,11 @@ public class DeployerServlet extends HttpServlet
         dummy = ContextHandler.class;
         dummy = Thread.class;
         dummy = PrintWriter.class;
+        dummy = ContextStartListener.class;
+        dummy = CountDownLatch.class;
+        dummy = Files.class;
+        dummy = ZipInputStream.class;
+        dummy = DeployBatch.class;
     }
 
     /**
@@ -232,6 +244,10 @@ public class DeployerServlet extends HttpServlet
                 String contextPath = request.getParameter("path");
                 deployArchive(request, response, contextPath);
             }
+            else if (command.equals("/deploy-batch"))
+            {
+                deployArchives(request, response);
+            }
             else
             {
                 sendError(response, "Command " + command + " is not recognized with PUT");
@@ -272,51 +288,163 @@ public class DeployerServlet extends HttpServlet
         {
             Log.getLogger(this.getClass()).debug("trying to get the remote web archive");
 
-            File webappFile = new File(this.webAppDirectory,
-                (contextPath.equals("/") ? "ROOT" : contextPath.substring(1)) + ".war");
-            InputStream inputStream = new BufferedInputStream(request.getInputStream());
-            OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(webappFile),
-                8096);
+            File webappFile = getArchiveFile(contextPath);
+            copy(request.getInputStream(), webappFile);
 
-            // transfer the data across
-            int i = inputStream.read();
-            while (i != -1)
+            // CARGO-1122: Just wait for Jetty to deploy the application by itself
+            String error = waitForContext(contextPath, System.currentTimeMillis() + this.timeout);
+            if (error == null)
             {
-                outputStream.write(i);
-                i = inputStream.read();
+                sendMessage(response, "Webapp deployed at context " + contextPath);
             }
+            else
+            {
+                sendError(response, error);
+            }
+        }
+    }
 
-            // close and flush readers
-            inputStream.close();
-            outputStream.flush();
-            outputStream.close();
+    /**
+     * Deploys several archives to the server. The request body is a ZIP stream with one
+     * <code>&lt;context&gt;.war</code> entry per archive, <code>ROOT.war</code> standing for the
+     * root context, and the <code>count</code> parameter is the number of entries. All archives
+     * are staged first and only moved to the webapps directory if the
+     * whole batch is valid; the response is sent once all contexts have started.
+     * @param request The http request
+     * @param response The http response
+     * @throws IOException If an io exception occurs
+     */
+    protected void deployArchives(HttpServletRequest request, HttpServletResponse response)
+        throws IOException
+    {
+        int count;
+        try
+        {
+            count = Integer.parseInt(request.getParameter("count"));
+        }
+        catch (NumberFormatException e)
+        {
+            sendError(response, "The count variable is not set or invalid");
+            return;
+        }
 
-            // CARGO-1122: Just wait for Jetty to deploy the application by itself
-            long timeout = System.currentTimeMillis() + this.timeout;
-            while (System.currentTimeMillis() < timeout)
+        DeployBatch batch = new DeployBatch(this.webAppDirectory);
+        try
+        {
+            try (ZipInputStream archives = new ZipInputStream(request.getInputStream()))
+            {
+                batch.stage(archives, count);
+            }
+            for (String contextPath : batch.getContextPaths())
             {
-                try
+                if (getContextHandler(contextPath) != null)
                 {
-                    Thread.sleep(1000);
+                    sendError(response, "The webapp context path " + contextPath
+                        + " is already in use");
+                    return;
                 }
-                catch (InterruptedException e)
+            }
+
+            Log.getLogger(this.getClass()).debug(
+                "Remotely deploying batched web archives with contexts "
+                    + batch.getContextPaths());
+            batch.install();
+        }
+        catch (IllegalArgumentException e)
+        {
+            sendError(response, e.getMessage());
+            return;
+        }
+        finally
+        {
+            batch.discard();
+        }
+
+        // CARGO-1122: Just wait for Jetty to deploy the applications by itself
+        long deadline = System.currentTimeMillis() + this.timeout;
+        for (String contextPath : batch.getContextPaths())
+        {
+            String error = waitForContext(contextPath, deadline);
+            if (error != null)
+            {
+                sendError(response, error + " at context " + contextPath);
+                return;
+            }
+            sendMessage(response, "Webapp deployed at context " + contextPath);
+        }
+        sendMessage(response, batch.getContextPaths().size() + " webapps deployed");
+    }
+
+    /**
+     * Waits for Jetty to create and start the context of an archive written to the webapps
+     * directory. Once the context handler exists, this returns as soon as it reports having started
+     * or failed, rather than polling its state.
+     * @param contextPath The context path for the deployed archive
+     * @param deadline Time, in milliseconds since the epoch, after which to give up
+     * @return <code>null</code> if the context has started, the error message otherwise
+     */
+    protected String waitForContext(String contextPath, long deadline)
+    {
+        try
+        {
+            ContextHandler contextHandler = (ContextHandler) getContextHandler(contextPath);
+            while (contextHandler == null)
+            {
+                if (System.currentTimeMillis() >= deadline)
                 {
-                    sendError(response, "Got interrupted when trying to start the webapp");
-                    return;
+                    return "Unexpected error when trying to start the webapp";
                 }
+                Thread.sleep(CONTEXT_LOOKUP_INTERVAL);
+                contextHandler = (ContextHandler) getContextHandler(contextPath);
+            }
 
-                Handler contextHandler = (Handler) getContextHandler(contextPath);
-                if (contextHandler != null && contextHandler.isStarted())
+            ContextStartListener listener = new ContextStartListener();
+            contextHandler.addLifeCycleListener(listener);
+            try
+            {
+                // The context might have started before the listener was added
+                if (!contextHandler.isStarted() && !contextHandler.isFailed())
                 {
-                    sendMessage(response, "Webapp deployed at context " + contextPath);
-                    return;
+                    listener.await(deadline - System.currentTimeMillis());
                 }
             }
+            finally
+            {
+                contextHandler.removeLifeCycleListener(listener);
+            }
 
-            sendError(response, "Unexpected error when trying to start the webapp");
+            if (contextHandler.isStarted())
+            {
+                return null;
+            }
+            return "Unexpected error when trying to start the webapp";
+        }
+        catch (InterruptedException e)
+        {
+            return "Got interrupted when trying to start the webapp";
         }
     }
 
+    /**
+     * @param contextPath The context path for the deployed archive
+     * @return The archive file in the webapps directory for <code>contextPath</code>.
+     */
+    protected File getArchiveFile(String contextPath)
+    {
+        return new File(this.webAppDirectory, DeployBatch.getArchiveName(contextPath));
+    }
+
+    /**
+     * Copies a stream to a file, replacing the file if it exists. The stream is not closed.
+     * @param inputStream The stream to copy
+     * @param file The file to write
+     * @throws IOException If an io exception occurs
+     */
+    protected void copy(InputStream inputStream, File file) throws IOException
+    {
+        Files.copy(inputStream, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
     /**
      * Returns the file if it exists for the specified context path. If the file does not exist
      * then it will return null.
@@ -443,19 +571,8 @@ public class DeployerServlet extends HttpServlet
 
             File webappSource = new File(uri);
 
-            FileInputStream fileInputStream = new FileInputStream(webappSource);
-            FileOutputStream fileOutputStream = new FileOutputStream(webappDest);
-
-            int i = fileInputStream.read();
-            while (i != -1)
-            {
-                fileOutputStream.write(i);
-                i = fileInputStream.read();
-            }
-
-            fileInputStream.close();
-            fileOutputStream.flush();
-            fileOutputStream.close();
+            Files.copy(webappSource.toPath(), webappDest.toPath(),
+                StandardCopyOption.REPLACE_EXISTING);
 
             WebAppContext webappcontext = new WebAppContext();
             webappcontext.setContextPath(context);
@@ -639,4 +756,70 @@ public class DeployerServlet extends HttpServlet
         return null;
     }
 
+    /**
+     * Listener releasing waiting threads once a context has either started or failed.
+     */
+    private static class ContextStartListener implements LifeCycle.Listener
+    {
+        /**
+         * Released when the context has started or failed.
+         */
+        private final CountDownLatch done = new CountDownLatch(1);
+
+        /**
+         * Waits for the context to start or fail.
+         * @param timeout Timeout in milliseconds.
+         * @throws InterruptedException If interrupted while waiting.
+         */
+        public void await(long timeout) throws InterruptedException
+        {
+            done.await(timeout, TimeUnit.MILLISECONDS);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void lifeCycleStarting(LifeCycle event)
+        {
+            // Nothing
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void lifeCycleStarted(LifeCycle event)
+        {
+            done.countDown();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void lifeCycleFailure(LifeCycle event, Throwable cause)
+        {
+            done.countDown();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void lifeCycleStopping(LifeCycle event)
+        {
+            // Nothing
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void lifeCycleStopped(LifeCycle event)
+        {
+            // Nothing
+        }
+    }
+
 }
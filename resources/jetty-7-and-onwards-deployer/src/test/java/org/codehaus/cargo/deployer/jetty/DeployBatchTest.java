@@ -0,0 +1,249 @@
+/*
+ * ========================================================================
+ *
+ * Codehaus CARGO, copyright 2004-2011 Vincent Massol, 2012-2018 Ali Tokmen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * ========================================================================
+ */
+package org.codehaus.cargo.deployer.jetty;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for {@link DeployBatch}.
+ */
+public class DeployBatchTest extends TestCase
+{
+    /**
+     * Jetty configuration home.
+     */
+    private File configHome;
+
+    /**
+     * Webapps directory.
+     */
+    private File webAppDirectory;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void setUp() throws Exception
+    {
+        super.setUp();
+        this.configHome = Files.createTempDirectory("cargo-jetty-home").toFile();
+        this.webAppDirectory = new File(this.configHome, "webapps");
+        assertTrue(this.webAppDirectory.mkdir());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void tearDown() throws Exception
+    {
+        delete(this.configHome);
+        super.tearDown();
+    }
+
+    /**
+     * Test that a valid batch is staged outside the webapps directory, then installed.
+     * @throws Exception If anything goes wrong.
+     */
+    public void testStageAndInstall() throws Exception
+    {
+        DeployBatch batch = new DeployBatch(this.webAppDirectory);
+        try
+        {
+            batch.stage(createBatch("a.war", "ROOT.war"), 2);
+            assertEquals(Arrays.asList("/a", "/"), batch.getContextPaths());
+            assertEquals(0, this.webAppDirectory.list().length);
+
+            batch.install();
+        }
+        finally
+        {
+            batch.discard();
+        }
+
+        assertEquals("a.war", new String(
+            Files.readAllBytes(new File(this.webAppDirectory, "a.war").toPath()), "UTF-8"));
+        assertTrue(new File(this.webAppDirectory, "ROOT.war").isFile());
+        assertEquals(1, this.configHome.list().length);
+    }
+
+    /**
+     * Test that entries with path separators are rejected and leave the webapps directory
+     * untouched.
+     * @throws Exception If anything goes wrong.
+     */
+    public void testPathSeparatorsRejected() throws Exception
+    {
+        assertRejected("a.war", "../escape.war");
+        assertRejected("a.war", "nested/b.war");
+        assertRejected("a.war", "nested\\b.war");
+        assertRejected("a.war", "/absolute.war");
+        assertRejected("a.war", "..war");
+    }
+
+    /**
+     * Test that entries which are not WAR files are rejected.
+     * @throws Exception If anything goes wrong.
+     */
+    public void testInvalidEntriesRejected() throws Exception
+    {
+        assertRejected("a.war", "b.jar");
+        assertRejected("a.war", ".war");
+    }
+
+    /**
+     * Test that a batch cut between two entries, which looks like a complete ZIP stream, is
+     * rejected as it does not have the announced number of entries.
+     * @throws Exception If anything goes wrong.
+     */
+    public void testMissingEntries() throws Exception
+    {
+        DeployBatch batch = new DeployBatch(this.webAppDirectory);
+        try
+        {
+            batch.stage(createBatch("a.war"), 2);
+            fail("An incomplete batch has been staged");
+        }
+        catch (IllegalArgumentException expected)
+        {
+            // Expected
+        }
+        finally
+        {
+            batch.discard();
+        }
+
+        assertEquals(0, this.webAppDirectory.list().length);
+        assertEquals(1, this.configHome.list().length);
+    }
+
+    /**
+     * Test that a batch cut in the middle of an entry leaves the webapps directory untouched.
+     * @throws Exception If anything goes wrong.
+     */
+    public void testTruncatedBatch() throws Exception
+    {
+        byte[] content = new byte[64 * 1024];
+        new Random(0).nextBytes(content);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes))
+        {
+            zip.putNextEntry(new ZipEntry("a.war"));
+            zip.write(content);
+            zip.closeEntry();
+            zip.putNextEntry(new ZipEntry("b.war"));
+            zip.write(content);
+            zip.closeEntry();
+        }
+        byte[] truncated = Arrays.copyOf(bytes.toByteArray(), bytes.size() * 3 / 4);
+
+        DeployBatch batch = new DeployBatch(this.webAppDirectory);
+        try
+        {
+            batch.stage(new ZipInputStream(new ByteArrayInputStream(truncated)), 2);
+            fail("A truncated batch has been staged");
+        }
+        catch (IOException expected)
+        {
+            // Expected
+        }
+        finally
+        {
+            batch.discard();
+        }
+
+        assertEquals(0, this.webAppDirectory.list().length);
+        assertEquals(1, this.configHome.list().length);
+    }
+
+    /**
+     * Asserts that a batch is rejected and leaves no file behind.
+     * @param names Entry names of the batch.
+     * @throws Exception If anything goes wrong.
+     */
+    private void assertRejected(String... names) throws Exception
+    {
+        DeployBatch batch = new DeployBatch(this.webAppDirectory);
+        try
+        {
+            batch.stage(createBatch(names), names.length);
+            fail("Batch " + Arrays.asList(names) + " has been staged");
+        }
+        catch (IllegalArgumentException expected)
+        {
+            // Expected
+        }
+        finally
+        {
+            batch.discard();
+        }
+
+        assertEquals(0, this.webAppDirectory.list().length);
+        assertEquals(1, this.configHome.list().length);
+    }
+
+    /**
+     * @param names Entry names, each entry having its name as content.
+     * @return Batch with the given entries.
+     * @throws IOException If an io exception occurs
+     */
+    private static ZipInputStream createBatch(String... names) throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes))
+        {
+            for (String name : names)
+            {
+                zip.putNextEntry(new ZipEntry(name));
+                zip.write(name.getBytes("UTF-8"));
+                zip.closeEntry();
+            }
+        }
+        return new ZipInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+    }
+
+    /**
+     * Recursively deletes a file.
+     * @param file File to delete.
+     */
+    private static void delete(File file)
+    {
+        File[] children = file.listFiles();
+        if (children != null)
+        {
+            for (File child : children)
+            {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}